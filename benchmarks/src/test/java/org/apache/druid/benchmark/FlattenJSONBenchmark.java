@@ -19,6 +19,18 @@
 
 package org.apache.druid.benchmark;
 
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import org.apache.druid.data.input.ColumnsFilter;
+import org.apache.druid.data.input.InputEntityBatchReader;
+import org.apache.druid.data.input.InputRow;
+import org.apache.druid.data.input.InputRowSchema;
+import org.apache.druid.data.input.impl.ByteEntity;
+import org.apache.druid.data.input.impl.DimensionsSpec;
+import org.apache.druid.data.input.impl.JsonInputFormat;
+import org.apache.druid.data.input.impl.TimestampSpec;
+import org.apache.druid.java.util.common.StringUtils;
+import org.apache.druid.java.util.common.parsers.CloseableIterator;
 import org.apache.druid.java.util.common.parsers.Parser;
 import org.openjdk.jmh.annotations.Benchmark;
 import org.openjdk.jmh.annotations.BenchmarkMode;
@@ -36,7 +48,9 @@ import org.openjdk.jmh.runner.RunnerException;
 import org.openjdk.jmh.runner.options.Options;
 import org.openjdk.jmh.runner.options.OptionsBuilder;
 
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.TimeUnit;
@@ -62,6 +76,11 @@ public class FlattenJSONBenchmark
   int nestedCounter = 0;
   int jqCounter = 0;
 
+  List<byte[]> nestedBytes;
+  InputEntityBatchReader nestedReader;
+  InputEntityBatchReader projectedNestedReader;
+  int readerCounter = 0;
+
   @Setup
   public void prepare() throws Exception
   {
@@ -84,6 +103,28 @@ public class FlattenJSONBenchmark
     jqParser = gen.getJqParser();
     fieldDiscoveryParser = gen.getFieldDiscoveryParser();
     forcedPathParser = gen.getForcedPathParser();
+
+    nestedBytes = new ArrayList<>();
+    for (String input : nestedInputs) {
+      nestedBytes.add(StringUtils.toUtf8(input));
+    }
+    final JsonInputFormat nestedInputFormat = gen.getNestedInputFormat();
+    final TimestampSpec timestampSpec = new TimestampSpec("ts", "iso", null);
+    nestedReader = nestedInputFormat.createBatchReader(
+        new InputRowSchema(timestampSpec, new DimensionsSpec(null), Collections.emptyList()),
+        null
+    );
+    // Only a few of the root-level fields are needed, so the others are skipped while parsing.
+    final List<String> projectedColumns = ImmutableList.of("d1", "e1.d1", "e3.m1");
+    projectedNestedReader = nestedInputFormat.createBatchReader(
+        new InputRowSchema(
+            timestampSpec,
+            new DimensionsSpec(DimensionsSpec.getDefaultSchemas(projectedColumns)),
+            Collections.emptyList(),
+            ColumnsFilter.inclusionBased(ImmutableSet.copyOf(projectedColumns))
+        ),
+        null
+    );
   }
 
   @Benchmark
@@ -151,6 +192,36 @@ public class FlattenJSONBenchmark
     return parsed;
   }
 
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  @OutputTimeUnit(TimeUnit.MICROSECONDS)
+  public void readNested(final Blackhole blackhole) throws IOException
+  {
+    read(nestedReader, blackhole);
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  @OutputTimeUnit(TimeUnit.MICROSECONDS)
+  public void readNestedProjected(final Blackhole blackhole) throws IOException
+  {
+    read(projectedNestedReader, blackhole);
+  }
+
+  private void read(final InputEntityBatchReader reader, final Blackhole blackhole) throws IOException
+  {
+    final ByteEntity entity = new ByteEntity(nestedBytes.get(readerCounter));
+    try (CloseableIterator<InputRow> iterator = reader.read(Collections.singletonList(entity))) {
+      while (iterator.hasNext()) {
+        final InputRow row = iterator.next();
+        for (String dimension : row.getDimensions()) {
+          blackhole.consume(row.getRaw(dimension));
+        }
+      }
+    }
+    readerCounter = (readerCounter + 1) % NUM_EVENTS;
+  }
+
   public static void main(String[] args) throws RunnerException
   {
     Options opt = new OptionsBuilder()
@@ -28,6 +28,7 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.github.wnameless.json.flattener.JsonFlattener;
 import org.apache.druid.data.input.impl.DimensionsSpec;
 import org.apache.druid.data.input.impl.JSONParseSpec;
+import org.apache.druid.data.input.impl.JsonInputFormat;
 import org.apache.druid.data.input.impl.TimestampSpec;
 import org.apache.druid.jackson.DefaultObjectMapper;
 import org.apache.druid.java.util.common.parsers.JSONPathFieldSpec;
@@ -80,6 +81,24 @@ public class FlattenJSONBenchmarkUtil
   }
 
   public Parser getNestedParser()
+  {
+    JSONParseSpec spec = new JSONParseSpec(
+        new TimestampSpec("ts", "iso", null),
+        new DimensionsSpec(null, null, null),
+        getNestedFlattenSpec(),
+        null,
+        null
+    );
+
+    return spec.makeParser();
+  }
+
+  public JsonInputFormat getNestedInputFormat()
+  {
+    return new JsonInputFormat(getNestedFlattenSpec(), null, null);
+  }
+
+  private JSONPathSpec getNestedFlattenSpec()
   {
     List<JSONPathFieldSpec> fields = new ArrayList<>();
     fields.add(JSONPathFieldSpec.createRootField("ts"));
@@ -111,16 +130,7 @@ public class FlattenJSONBenchmarkUtil
     fields.add(JSONPathFieldSpec.createNestedField("e3.am1[3]", "$.e3.am1[3]"));
     fields.add(JSONPathFieldSpec.createNestedField("e4.e4.m4", "$.e4.e4.m4"));
 
-    JSONPathSpec flattenSpec = new JSONPathSpec(true, fields);
-    JSONParseSpec spec = new JSONParseSpec(
-        new TimestampSpec("ts", "iso", null),
-        new DimensionsSpec(null, null, null),
-        flattenSpec,
-        null,
-        null
-    );
-
-    return spec.makeParser();
+    return new JSONPathSpec(true, fields);
   }
 
   public Parser getForcedPathParser()
@@ -40,9 +40,11 @@ import org.apache.druid.segment.Cursor;
 import org.apache.druid.segment.DimensionSelector;
 import org.apache.druid.segment.QueryableIndex;
 import org.apache.druid.segment.QueryableIndexSegment;
+import org.apache.druid.segment.QueryableIndexStorageAdapter;
 import org.apache.druid.segment.ReferenceCountingSegment;
 import org.apache.druid.segment.Segment;
 import org.apache.druid.segment.VirtualColumns;
+import org.apache.druid.segment.column.ColumnCapabilities;
 import org.apache.druid.segment.column.ValueType;
 import org.apache.druid.segment.data.IndexedInts;
 import org.apache.druid.segment.generator.GeneratorColumnSchema;
@@ -59,6 +61,11 @@ import org.apache.druid.segment.join.filter.rewrite.JoinFilterRewriteConfig;
 import org.apache.druid.segment.join.table.BroadcastSegmentIndexedTable;
 import org.apache.druid.segment.join.table.IndexedTable;
 import org.apache.druid.segment.join.table.IndexedTableJoinable;
+import org.apache.druid.segment.vector.SingleValueDimensionVectorSelector;
+import org.apache.druid.segment.vector.VectorColumnSelectorFactory;
+import org.apache.druid.segment.vector.VectorCursor;
+import org.apache.druid.segment.vector.VectorObjectSelector;
+import org.apache.druid.segment.vector.VectorValueSelector;
 import org.apache.druid.timeline.DataSegment;
 import org.apache.druid.timeline.SegmentId;
 import org.apache.druid.timeline.partition.LinearShardSpec;
@@ -139,6 +146,9 @@ public class IndexedTableJoinCursorBenchmark
   @Param({"string1,stringKey", "stringKey,stringKey", "long3,longKey", "longKey,longKey"})
   String joinColumns;
 
+  @Param({"LEFT", "INNER"})
+  String joinType;
+
   private Set<String> keyColumns = ImmutableSet.of("stringKey", "longKey");
 
   boolean enableFilterPushdown = false;
@@ -170,7 +180,7 @@ public class IndexedTableJoinCursorBenchmark
         new JoinableClause(
             prefix,
             new IndexedTableJoinable(table),
-            JoinType.LEFT,
+            JoinType.valueOf(joinType),
             JoinConditionAnalysis.forExpression(
                 StringUtils.format("%s == \"%s%s\"", lhsJoinColumn, prefix, rhsJoinColumn),
                 prefix,
@@ -229,6 +239,29 @@ public class IndexedTableJoinCursorBenchmark
     blackhole.consume(rowCount);
   }
 
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  @OutputTimeUnit(TimeUnit.MILLISECONDS)
+  public void hashJoinVectorCursor(Blackhole blackhole)
+  {
+    try (final VectorCursor cursor = makeVectorCursor()) {
+      int rowCount = processVectorCursor(blackhole, cursor, projectionColumns);
+      blackhole.consume(rowCount);
+    }
+  }
+
+  private VectorCursor makeVectorCursor()
+  {
+    return hashJoinSegment.asStorageAdapter().makeVectorCursor(
+        null,
+        Intervals.ETERNITY,
+        VirtualColumns.EMPTY,
+        false,
+        QueryableIndexStorageAdapter.DEFAULT_VECTOR_SIZE,
+        null
+    );
+  }
+
   private Sequence<Cursor> makeCursors()
   {
     return hashJoinSegment.asStorageAdapter().makeCursors(
@@ -413,4 +446,40 @@ public class IndexedTableJoinCursorBenchmark
           return rowCount;
         }).accumulate(0, (acc, in) -> acc + in);
   }
+
+  private static int processVectorCursor(final Blackhole blackhole, final VectorCursor cursor, final Set<String> columns)
+  {
+    final VectorColumnSelectorFactory factory = cursor.getColumnSelectorFactory();
+    final List<Runnable> readers = new ArrayList<>();
+
+    for (String column : columns) {
+      final ColumnCapabilities capabilities = factory.getColumnCapabilities(column);
+
+      if (capabilities != null && capabilities.getType() == ValueType.STRING) {
+        final SingleValueDimensionVectorSelector selector =
+            factory.makeSingleValueDimensionSelector(DefaultDimensionSpec.of(column));
+        readers.add(() -> blackhole.consume(selector.getRowVector()));
+      } else if (capabilities != null && capabilities.getType().isNumeric()) {
+        final VectorValueSelector selector = factory.makeValueSelector(column);
+        readers.add(() -> {
+          blackhole.consume(selector.getDoubleVector());
+          blackhole.consume(selector.getNullVector());
+        });
+      } else {
+        final VectorObjectSelector selector = factory.makeObjectSelector(column);
+        readers.add(() -> blackhole.consume(selector.getObjectVector()));
+      }
+    }
+
+    int rowCount = 0;
+    while (!cursor.isDone()) {
+      for (Runnable reader : readers) {
+        reader.run();
+      }
+
+      rowCount += cursor.getCurrentVectorSize();
+      cursor.advance();
+    }
+    return rowCount;
+  }
 }
@@ -22,6 +22,7 @@ package org.apache.druid.benchmark;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 import org.apache.druid.java.util.common.io.Closer;
+import org.apache.druid.java.util.common.logger.Logger;
 import org.apache.druid.segment.QueryableIndexSegment;
 import org.apache.druid.segment.join.table.IndexedTable;
 import org.openjdk.jmh.annotations.Benchmark;
@@ -50,11 +51,15 @@ import java.util.concurrent.TimeUnit;
 @Measurement(iterations = 5)
 public class IndexedTableLoadingBenchmark
 {
+  private static final Logger log = new Logger(IndexedTableLoadingBenchmark.class);
+
   private static List<Set<String>> KEY_COLUMN_SETS = ImmutableList.of(
-      ImmutableSet.of("stringKey", "longKey")
+      ImmutableSet.of("stringKey", "longKey"),
+      ImmutableSet.of("stringKey"),
+      ImmutableSet.of("longKey")
   );
 
-  @Param({"0"})
+  @Param({"0", "1", "2"})
   int keyColumns;
 
   @Param({"50000", "500000", "5000000"})
@@ -68,15 +73,32 @@ public class IndexedTableLoadingBenchmark
   QueryableIndexSegment tableSegment = null;
   IndexedTable table = null;
 
+  // Heap used before loading the table, to estimate the footprint of the table itself.
+  long baselineHeapBytes;
+
   @Setup(Level.Trial)
   public void setup()
   {
     tableSegment = IndexedTableJoinCursorBenchmark.makeQueryableIndexSegment(closer, "join", rowsPerSegment);
   }
 
+  @Setup(Level.Iteration)
+  public void setupIteration()
+  {
+    baselineHeapBytes = usedHeapBytesAfterGc();
+  }
+
   @TearDown(Level.Iteration)
   public void tearDownIteration() throws IOException
   {
+    // Only the table from the last invocation is still reachable, so this is the footprint of a single table.
+    log.info(
+        "Heap footprint of table with keys %s and %,d rows: %,d bytes",
+        KEY_COLUMN_SETS.get(keyColumns),
+        rowsPerSegment,
+        usedHeapBytesAfterGc() - baselineHeapBytes
+    );
+
     table.close();
   }
 
@@ -95,4 +117,11 @@ public class IndexedTableLoadingBenchmark
         IndexedTableJoinCursorBenchmark.makeTable(indexedTableType, KEY_COLUMN_SETS.get(keyColumns), tableSegment);
     blackhole.consume(table);
   }
+
+  private static long usedHeapBytesAfterGc()
+  {
+    final Runtime runtime = Runtime.getRuntime();
+    System.gc();
+    return runtime.totalMemory() - runtime.freeMemory();
+  }
 }
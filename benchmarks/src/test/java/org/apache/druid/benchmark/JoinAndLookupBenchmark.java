@@ -38,6 +38,7 @@ import org.apache.druid.segment.Cursor;
 import org.apache.druid.segment.DimensionSelector;
 import org.apache.druid.segment.QueryableIndex;
 import org.apache.druid.segment.QueryableIndexSegment;
+import org.apache.druid.segment.QueryableIndexStorageAdapter;
 import org.apache.druid.segment.ReferenceCountingSegment;
 import org.apache.druid.segment.Segment;
 import org.apache.druid.segment.VirtualColumns;
@@ -55,6 +56,8 @@ import org.apache.druid.segment.join.filter.JoinFilterPreAnalysisKey;
 import org.apache.druid.segment.join.filter.rewrite.JoinFilterRewriteConfig;
 import org.apache.druid.segment.join.lookup.LookupJoinable;
 import org.apache.druid.segment.join.table.IndexedTableJoinable;
+import org.apache.druid.segment.vector.SingleValueDimensionVectorSelector;
+import org.apache.druid.segment.vector.VectorCursor;
 import org.apache.druid.segment.virtual.ExpressionVirtualColumn;
 import org.apache.druid.timeline.SegmentId;
 import org.openjdk.jmh.annotations.Benchmark;
@@ -220,7 +223,7 @@ public class JoinAndLookupBenchmark
                     false,
                     0
                 ),
-                joinableClausesLookupLongKey,
+                joinableClausesIndexedTableStringKey,
                 VirtualColumns.EMPTY,
                 null
             )
@@ -358,6 +361,22 @@ public class JoinAndLookupBenchmark
     ).accumulate(null, (acc, in) -> in);
   }
 
+  private static String getLastValue(final VectorCursor cursor, final String dimension)
+  {
+    try (final VectorCursor theCursor = cursor) {
+      final SingleValueDimensionVectorSelector selector =
+          theCursor.getColumnSelectorFactory().makeSingleValueDimensionSelector(DefaultDimensionSpec.of(dimension));
+
+      int lastValue = -1;
+      while (!theCursor.isDone()) {
+        final int[] rowVector = selector.getRowVector();
+        lastValue = rowVector[theCursor.getCurrentVectorSize() - 1];
+        theCursor.advance();
+      }
+      return lastValue < 0 ? null : selector.lookupName(lastValue);
+    }
+  }
+
   @Benchmark
   @BenchmarkMode(Mode.AverageTime)
   @OutputTimeUnit(TimeUnit.MILLISECONDS)
@@ -477,6 +496,23 @@ public class JoinAndLookupBenchmark
     blackhole.consume(getLastValue(cursors, "c.countryName"));
   }
 
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  @OutputTimeUnit(TimeUnit.MILLISECONDS)
+  public void joinIndexedTableLongKeyVectorized(Blackhole blackhole)
+  {
+    final VectorCursor cursor = hashJoinIndexedTableLongKeySegment.asStorageAdapter().makeVectorCursor(
+        null,
+        Intervals.ETERNITY,
+        VirtualColumns.EMPTY,
+        false,
+        QueryableIndexStorageAdapter.DEFAULT_VECTOR_SIZE,
+        null
+    );
+
+    blackhole.consume(getLastValue(cursor, "c.countryName"));
+  }
+
   @Benchmark
   @BenchmarkMode(Mode.AverageTime)
   @OutputTimeUnit(TimeUnit.MILLISECONDS)
@@ -511,6 +547,23 @@ public class JoinAndLookupBenchmark
     blackhole.consume(getLastValue(cursors, "c.countryName"));
   }
 
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  @OutputTimeUnit(TimeUnit.MILLISECONDS)
+  public void joinIndexedTableStringKeyVectorized(Blackhole blackhole)
+  {
+    final VectorCursor cursor = hashJoinIndexedTableStringKeySegment.asStorageAdapter().makeVectorCursor(
+        null,
+        Intervals.ETERNITY,
+        VirtualColumns.EMPTY,
+        false,
+        QueryableIndexStorageAdapter.DEFAULT_VECTOR_SIZE,
+        null
+    );
+
+    blackhole.consume(getLastValue(cursor, "c.countryName"));
+  }
+
   @Benchmark
   @BenchmarkMode(Mode.AverageTime)
   @OutputTimeUnit(TimeUnit.MILLISECONDS)
@@ -75,7 +75,8 @@ public class IndexMergeBenchmark
   @Param({"75000"})
   private int rowsPerSegment;
 
-  @Param({"basic"})
+  // schemas with an increasing number of columns, to compare sequential and parallel column writing by column count
+  @Param({"simple", "rollo", "basic"})
   private String schema;
 
   @Param({"true", "false"})
@@ -84,6 +85,9 @@ public class IndexMergeBenchmark
   @Param({"OFF_HEAP", "TMP_FILE", "ON_HEAP"})
   private SegmentWriteOutType factoryType;
 
+  @Param({"1", "4"})
+  private int numColumnWriterThreads;
+
 
   private static final Logger log = new Logger(IndexMergeBenchmark.class);
   private static final int RNG_SEED = 9999;
@@ -116,7 +120,12 @@ public class IndexMergeBenchmark
   {
 
     log.info("SETUP CALLED AT " + System.currentTimeMillis());
-    indexMergerV9 = new IndexMergerV9(JSON_MAPPER, INDEX_IO, getSegmentWriteOutMediumFactory(factoryType));
+    indexMergerV9 = new IndexMergerV9(
+        JSON_MAPPER,
+        INDEX_IO,
+        getSegmentWriteOutMediumFactory(factoryType),
+        numColumnWriterThreads
+    );
     ComplexMetrics.registerSerde("hyperUnique", new HyperUniquesSerde());
 
     indexesToMerge = new ArrayList<>();
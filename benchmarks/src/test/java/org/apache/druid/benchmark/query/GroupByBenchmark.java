@@ -126,7 +126,10 @@ public class GroupByBenchmark
   @Param({"2", "4"})
   private int numProcessingThreads;
 
-  @Param({"-1"})
+  /**
+   * Values less than 1 size the per-segment hash tables from dimension cardinalities, when possible.
+   */
+  @Param({"-1", "1024"})
   private int initialBuckets;
 
   @Param({"100000"})
@@ -523,6 +526,12 @@ public class GroupByBenchmark
         return initialBuckets;
       }
 
+      @Override
+      public boolean isEstimateInitialBuckets()
+      {
+        return initialBuckets < 1;
+      }
+
       @Override
       public long getMaxOnDiskStorage()
       {
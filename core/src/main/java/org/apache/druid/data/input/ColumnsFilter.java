@@ -0,0 +1,132 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.apache.druid.data.input;
+
+import com.google.common.collect.ImmutableSet;
+
+import javax.annotation.Nullable;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Describes which columns of the input data are used by ingestion. {@link InputEntityReader}s may use it to skip
+ * parsing columns which are not needed, but they are not required to; it is always valid to read all columns.
+ *
+ * @see InputRowSchema#getColumnsFilter()
+ */
+public abstract class ColumnsFilter
+{
+  private static final ColumnsFilter ALL = new ColumnsFilter()
+  {
+    @Override
+    public boolean apply(String column)
+    {
+      return true;
+    }
+
+    @Nullable
+    @Override
+    public Set<String> getIncludedColumns()
+    {
+      return null;
+    }
+
+    @Override
+    public String toString()
+    {
+      return "ColumnsFilter.all()";
+    }
+  };
+
+  /**
+   * Accepts all columns. Used when the columns needed by ingestion are not known, for example with schemaless
+   * dimensions.
+   */
+  public static ColumnsFilter all()
+  {
+    return ALL;
+  }
+
+  /**
+   * Accepts only the given columns.
+   */
+  public static ColumnsFilter inclusionBased(Set<String> inclusions)
+  {
+    return new InclusionBased(inclusions);
+  }
+
+  /**
+   * Returns whether the given column is used by ingestion.
+   */
+  public abstract boolean apply(String column);
+
+  /**
+   * Returns the set of columns accepted by this filter, or null if this filter accepts all columns.
+   */
+  @Nullable
+  public abstract Set<String> getIncludedColumns();
+
+  private static class InclusionBased extends ColumnsFilter
+  {
+    private final Set<String> inclusions;
+
+    private InclusionBased(Set<String> inclusions)
+    {
+      this.inclusions = ImmutableSet.copyOf(inclusions);
+    }
+
+    @Override
+    public boolean apply(String column)
+    {
+      return inclusions.contains(column);
+    }
+
+    @Override
+    public Set<String> getIncludedColumns()
+    {
+      return inclusions;
+    }
+
+    @Override
+    public boolean equals(Object o)
+    {
+      if (this == o) {
+        return true;
+      }
+      if (o == null || getClass() != o.getClass()) {
+        return false;
+      }
+      return inclusions.equals(((InclusionBased) o).inclusions);
+    }
+
+    @Override
+    public int hashCode()
+    {
+      return Objects.hash(inclusions);
+    }
+
+    @Override
+    public String toString()
+    {
+      return "ColumnsFilter.inclusionBased(" + inclusions + ")";
+    }
+  }
+}
@@ -0,0 +1,46 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.apache.druid.data.input;
+
+import org.apache.druid.guice.annotations.UnstableApi;
+import org.apache.druid.java.util.common.parsers.CloseableIterator;
+import org.apache.druid.java.util.common.parsers.ParseException;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * InputEntityBatchReader parses batches of small {@link InputEntity}s, such as the records polled from a stream, into
+ * {@link InputRow}s. Unlike {@link InputEntityReader} which is created per entity, an InputEntityBatchReader is created
+ * once and then reused for all batches, so that implementations can share their parsing state across entities.
+ * This class is not thread-safe.
+ *
+ * @see InputFormat#createBatchReader
+ */
+@UnstableApi
+public interface InputEntityBatchReader
+{
+  /**
+   * Parses the given entities, in order. If an entity cannot be parsed, the returned iterator throws a
+   * {@link ParseException} and can still be used to read the rows of the remaining entities.
+   */
+  CloseableIterator<InputRow> read(List<? extends InputEntity> entities) throws IOException;
+}
@@ -25,6 +25,7 @@ import com.fasterxml.jackson.annotation.JsonSubTypes.Type;
 import com.fasterxml.jackson.annotation.JsonTypeInfo;
 import org.apache.druid.data.input.impl.CsvInputFormat;
 import org.apache.druid.data.input.impl.DelimitedInputFormat;
+import org.apache.druid.data.input.impl.InputEntityIteratingReader;
 import org.apache.druid.data.input.impl.JsonInputFormat;
 import org.apache.druid.data.input.impl.NestedInputFormat;
 import org.apache.druid.data.input.impl.RegexInputFormat;
@@ -64,4 +65,19 @@ public interface InputFormat
       InputEntity source,
       File temporaryDirectory
   );
+
+  /**
+   * Creates an {@link InputEntityBatchReader} which is reused to parse many small entities, such as the records of a
+   * stream. The default implementation creates a new {@link InputEntityReader} per entity; formats which can share
+   * their parsing state across entities should override this method.
+   */
+  default InputEntityBatchReader createBatchReader(InputRowSchema inputRowSchema, File temporaryDirectory)
+  {
+    return entities -> new InputEntityIteratingReader(
+        inputRowSchema,
+        this,
+        entities.iterator(),
+        temporaryDirectory
+    ).read();
+  }
 }
@@ -32,12 +32,24 @@ public class InputRowSchema
   private final TimestampSpec timestampSpec;
   private final DimensionsSpec dimensionsSpec;
   private final List<String> metricNames;
+  private final ColumnsFilter columnsFilter;
 
   public InputRowSchema(TimestampSpec timestampSpec, DimensionsSpec dimensionsSpec, List<String> metricNames)
+  {
+    this(timestampSpec, dimensionsSpec, metricNames, ColumnsFilter.all());
+  }
+
+  public InputRowSchema(
+      TimestampSpec timestampSpec,
+      DimensionsSpec dimensionsSpec,
+      List<String> metricNames,
+      ColumnsFilter columnsFilter
+  )
   {
     this.timestampSpec = timestampSpec;
     this.dimensionsSpec = dimensionsSpec;
     this.metricNames = metricNames;
+    this.columnsFilter = columnsFilter;
   }
 
   public TimestampSpec getTimestampSpec()
@@ -54,4 +66,12 @@ public class InputRowSchema
   {
     return metricNames;
   }
+
+  /**
+   * Returns the input columns used by ingestion. Readers may skip parsing the other columns.
+   */
+  public ColumnsFilter getColumnsFilter()
+  {
+    return columnsFilter;
+  }
 }
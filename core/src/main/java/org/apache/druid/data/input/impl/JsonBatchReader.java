@@ -0,0 +1,185 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.apache.druid.data.input.impl;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.commons.io.IOUtils;
+import org.apache.druid.data.input.InputEntity;
+import org.apache.druid.data.input.InputEntityBatchReader;
+import org.apache.druid.data.input.InputRow;
+import org.apache.druid.data.input.InputRowSchema;
+import org.apache.druid.java.util.common.StringUtils;
+import org.apache.druid.java.util.common.parsers.CloseableIterator;
+import org.apache.druid.java.util.common.parsers.JSONFlattenerMaker;
+import org.apache.druid.java.util.common.parsers.JSONPathSpec;
+import org.apache.druid.java.util.common.parsers.ObjectFlattener;
+import org.apache.druid.java.util.common.parsers.ObjectFlatteners;
+import org.apache.druid.java.util.common.parsers.ParseException;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * {@link InputEntityBatchReader} for {@link JsonInputFormat}. Each entity is split into lines like {@link JsonReader}
+ * does, but the lines are parsed directly from the bytes of {@link ByteEntity}s instead of being decoded into strings
+ * first, and no reader or line iterator is created per entity.
+ */
+public class JsonBatchReader implements InputEntityBatchReader
+{
+  private final InputRowSchema inputRowSchema;
+  private final ObjectFlattener<JsonNode> flattener;
+  private final ObjectMapper mapper;
+  @Nullable
+  private final JsonProjection projection;
+
+  /**
+   * Used to parse entities which are not backed by a heap byte array. Grows as needed and is reused across entities.
+   */
+  private byte[] scratch = new byte[0];
+
+  JsonBatchReader(
+      InputRowSchema inputRowSchema,
+      JSONPathSpec flattenSpec,
+      ObjectMapper mapper,
+      boolean keepNullColumns
+  )
+  {
+    this.inputRowSchema = inputRowSchema;
+    this.flattener = ObjectFlatteners.create(flattenSpec, new JSONFlattenerMaker(keepNullColumns));
+    this.mapper = mapper;
+    this.projection = JsonProjection.create(inputRowSchema, flattenSpec);
+  }
+
+  @Override
+  public CloseableIterator<InputRow> read(List<? extends InputEntity> entities)
+  {
+    return new CloseableIterator<InputRow>()
+    {
+      private int entityIndex = 0;
+      private byte[] bytes;
+      private int position;
+      private int limit;
+
+      @Override
+      public boolean hasNext()
+      {
+        while (bytes == null || position >= limit) {
+          if (entityIndex >= entities.size()) {
+            return false;
+          }
+          setEntity(entities.get(entityIndex++));
+        }
+        return true;
+      }
+
+      @Override
+      public InputRow next()
+      {
+        if (!hasNext()) {
+          throw new NoSuchElementException();
+        }
+
+        // Split lines the same way as BufferedReader.readLine(), which is used by JsonReader.
+        final int lineStart = position;
+        int lineEnd = lineStart;
+        while (lineEnd < limit && bytes[lineEnd] != '\n' && bytes[lineEnd] != '\r') {
+          lineEnd++;
+        }
+        position = lineEnd + 1;
+        if (lineEnd < limit && bytes[lineEnd] == '\r' && position < limit && bytes[position] == '\n') {
+          position++;
+        }
+
+        return parseLine(bytes, lineStart, lineEnd - lineStart);
+      }
+
+      private void setEntity(InputEntity entity)
+      {
+        try {
+          if (entity instanceof ByteEntity) {
+            final ByteBuffer buffer = ((ByteEntity) entity).getBuffer();
+            if (buffer.hasArray()) {
+              bytes = buffer.array();
+              position = buffer.arrayOffset() + buffer.position();
+              limit = buffer.arrayOffset() + buffer.limit();
+            } else {
+              final int length = buffer.remaining();
+              ensureScratchCapacity(length);
+              buffer.duplicate().get(scratch, 0, length);
+              bytes = scratch;
+              position = 0;
+              limit = length;
+            }
+          } else {
+            try (InputStream in = entity.open()) {
+              bytes = IOUtils.toByteArray(in);
+            }
+            position = 0;
+            limit = bytes.length;
+          }
+        }
+        catch (IOException e) {
+          throw new UncheckedIOException(e);
+        }
+      }
+
+      @Override
+      public void close()
+      {
+        bytes = null;
+      }
+    };
+  }
+
+  private InputRow parseLine(byte[] bytes, int offset, int length)
+  {
+    final JsonNode document;
+    try {
+      if (projection == null) {
+        document = mapper.readValue(bytes, offset, length, JsonNode.class);
+      } else {
+        try (JsonParser parser = mapper.getFactory().createParser(bytes, offset, length)) {
+          document = projection.read(mapper, parser);
+        }
+      }
+    }
+    catch (IOException e) {
+      throw new ParseException(e, "Unable to parse row [%s]", StringUtils.fromUtf8(ByteBuffer.wrap(bytes, offset, length)));
+    }
+    final Map<String, Object> flattened = flattener.flatten(document);
+    return MapInputRowParser.parse(inputRowSchema, flattened);
+  }
+
+  private void ensureScratchCapacity(int capacity)
+  {
+    if (scratch.length < capacity) {
+      scratch = new byte[capacity];
+    }
+  }
+}
@@ -24,6 +24,7 @@ import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.core.JsonParser.Feature;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.apache.druid.data.input.InputEntity;
+import org.apache.druid.data.input.InputEntityBatchReader;
 import org.apache.druid.data.input.InputEntityReader;
 import org.apache.druid.data.input.InputRowSchema;
 import org.apache.druid.java.util.common.parsers.JSONPathSpec;
@@ -76,6 +77,12 @@ public class JsonInputFormat extends NestedInputFormat
     return new JsonReader(inputRowSchema, source, getFlattenSpec(), objectMapper, keepNullColumns);
   }
 
+  @Override
+  public InputEntityBatchReader createBatchReader(InputRowSchema inputRowSchema, File temporaryDirectory)
+  {
+    return new JsonBatchReader(inputRowSchema, getFlattenSpec(), objectMapper, keepNullColumns);
+  }
+
   @Override
   public boolean equals(Object o)
   {
@@ -0,0 +1,90 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.druid.data.input.impl;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.exc.MismatchedInputException;
+import com.fasterxml.jackson.databind.node.NullNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.apache.druid.data.input.InputRowSchema;
+import org.apache.druid.java.util.common.parsers.JSONPathSpec;
+import org.apache.druid.java.util.common.parsers.ObjectFlatteners;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.util.Set;
+
+/**
+ * Parses JSON documents keeping only the root-level fields which are needed by ingestion, according to
+ * {@link InputRowSchema#getColumnsFilter()} and the {@link JSONPathSpec}. The other fields are skipped at the token
+ * level, so their subtrees are never materialized. The returned document can be flattened as usual.
+ */
+final class JsonProjection
+{
+  private final Set<String> rootFields;
+
+  private JsonProjection(Set<String> rootFields)
+  {
+    this.rootFields = rootFields;
+  }
+
+  /**
+   * Returns a projection for the given schema and flattenSpec, or null if the needed root-level fields cannot be
+   * determined, for example if all columns are used or a flattenSpec expression does not start with a field name.
+   */
+  @Nullable
+  static JsonProjection create(InputRowSchema inputRowSchema, JSONPathSpec flattenSpec)
+  {
+    final Set<String> rootFields = ObjectFlatteners.getRequiredRootFields(inputRowSchema, flattenSpec);
+    return rootFields == null ? null : new JsonProjection(rootFields);
+  }
+
+  /**
+   * Reads a document from the given parser. Documents which are not JSON objects are read fully.
+   */
+  JsonNode read(ObjectMapper mapper, JsonParser parser) throws IOException
+  {
+    final JsonToken firstToken = parser.nextToken();
+    if (firstToken == null) {
+      throw MismatchedInputException.from(parser, JsonNode.class, "No content to map due to end-of-input");
+    }
+    if (firstToken != JsonToken.START_OBJECT) {
+      return mapper.readTree(parser);
+    }
+
+    final ObjectNode document = mapper.getNodeFactory().objectNode();
+    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+      final String fieldName = parser.getCurrentName();
+      final JsonToken valueToken = parser.nextToken();
+      if (rootFields.contains(fieldName)) {
+        document.set(fieldName, valueToken == JsonToken.VALUE_NULL ? NullNode.getInstance() : mapper.readTree(parser));
+      } else {
+        parser.skipChildren();
+      }
+    }
+    if (parser.currentToken() != JsonToken.END_OBJECT) {
+      throw MismatchedInputException.from(parser, JsonNode.class, "Unexpected end-of-input within an object");
+    }
+    return document;
+  }
+}
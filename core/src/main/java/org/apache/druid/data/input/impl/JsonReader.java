@@ -19,6 +19,7 @@
 
 package org.apache.druid.data.input.impl;
 
+import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.apache.druid.data.input.InputEntity;
@@ -31,6 +32,7 @@ import org.apache.druid.java.util.common.parsers.ObjectFlattener;
 import org.apache.druid.java.util.common.parsers.ObjectFlatteners;
 import org.apache.druid.java.util.common.parsers.ParseException;
 
+import javax.annotation.Nullable;
 import java.io.IOException;
 import java.util.Collections;
 import java.util.List;
@@ -40,6 +42,8 @@ public class JsonReader extends TextReader
 {
   private final ObjectFlattener<JsonNode> flattener;
   private final ObjectMapper mapper;
+  @Nullable
+  private final JsonProjection projection;
 
   JsonReader(
       InputRowSchema inputRowSchema,
@@ -52,12 +56,20 @@ public class JsonReader extends TextReader
     super(inputRowSchema, source);
     this.flattener = ObjectFlatteners.create(flattenSpec, new JSONFlattenerMaker(keepNullColumns));
     this.mapper = mapper;
+    this.projection = JsonProjection.create(inputRowSchema, flattenSpec);
   }
 
   @Override
   public List<InputRow> parseInputRows(String line) throws IOException, ParseException
   {
-    final JsonNode document = mapper.readValue(line, JsonNode.class);
+    final JsonNode document;
+    if (projection == null) {
+      document = mapper.readValue(line, JsonNode.class);
+    } else {
+      try (JsonParser parser = mapper.getFactory().createParser(line)) {
+        document = projection.read(mapper, parser);
+      }
+    }
     final Map<String, Object> flattened = flattener.flatten(document);
     return Collections.singletonList(MapInputRowParser.parse(getInputRowSchema(), flattened));
   }
@@ -367,6 +367,24 @@ public class FileSmoosher implements Closeable
       currOut.close();
     }
 
+    writeMetaFile();
+  }
+
+  /**
+   * Writes the meta file for the files added so far, so they can be read with {@link SmooshedFileMapper} before this
+   * smoosher is closed. More files can be added afterwards; {@link #close} writes the meta file again.
+   */
+  public void flushMetaFile() throws IOException
+  {
+    if (writerCurrentlyInUse || !completedFiles.isEmpty() || !filesInProcess.isEmpty()) {
+      throw new ISE("Cannot write the meta file while writers are in progress.");
+    }
+
+    writeMetaFile();
+  }
+
+  private void writeMetaFile() throws IOException
+  {
     File metaFile = metaFile(baseDir);
 
     try (Writer out =
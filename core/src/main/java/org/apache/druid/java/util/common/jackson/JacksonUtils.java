@@ -19,9 +19,13 @@
 
 package org.apache.druid.java.util.common.jackson;
 
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonSerializer;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializerProvider;
 
+import javax.annotation.Nullable;
 import java.io.IOException;
 import java.util.Map;
 
@@ -51,6 +55,26 @@ public final class JacksonUtils
     }
   }
 
+  /**
+   * Like {@link JsonGenerator#writeObject}, but uses a provided {@link SerializerProvider} instead of the one from the
+   * generator's codec. {@link ObjectMapper} creates a new provider for each call to writeObject, which adds up when
+   * writing many small values. Callers that write many values can get a provider once, through
+   * {@link ObjectMapper#getSerializerProviderInstance()}, and reuse it.
+   */
+  public static void writeObjectUsingSerializerProvider(
+      final JsonGenerator jsonGenerator,
+      final SerializerProvider serializers,
+      @Nullable final Object o
+  ) throws IOException
+  {
+    if (o == null) {
+      jsonGenerator.writeNull();
+    } else {
+      final JsonSerializer<Object> serializer = serializers.findTypedValueSerializer(o.getClass(), true, null);
+      serializer.serialize(o, jsonGenerator, serializers);
+    }
+  }
+
   private JacksonUtils()
   {
   }
@@ -21,23 +21,43 @@ package org.apache.druid.java.util.common.parsers;
 
 import com.google.common.collect.Iterables;
 import com.jayway.jsonpath.spi.json.JsonProvider;
+import org.apache.druid.data.input.InputRowSchema;
 import org.apache.druid.java.util.common.IAE;
 import org.apache.druid.java.util.common.UOE;
 
+import javax.annotation.Nullable;
 import java.util.AbstractMap;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
 public class ObjectFlatteners
 {
+  /**
+   * Simple JSONPath expressions made of field names and array indexes only, like "$.a.b[0]" or "$['a'].b".
+   * The first group (or the second one, for the bracket notation) is the root-level field.
+   */
+  private static final Pattern JSON_PATH_SIMPLE = Pattern.compile(
+      "\\$(?:\\.([A-Za-z_][A-Za-z0-9_]*)|\\['([^']+)'])(?:\\.[A-Za-z_][A-Za-z0-9_]*|\\['[^']+']|\\[\\d+])*"
+  );
+
+  /**
+   * Simple jq expressions made of field names and array indexes only, like ".a.b[0]".
+   */
+  private static final Pattern JQ_SIMPLE = Pattern.compile(
+      "\\.([A-Za-z_][A-Za-z0-9_]*)(?:\\.[A-Za-z_][A-Za-z0-9_]*|\\[\\d+])*"
+  );
+
   private ObjectFlatteners()
   {
     // No instantiation.
@@ -207,6 +227,61 @@ public class ObjectFlatteners
     };
   }
 
+  /**
+   * Returns the root-level fields of the input objects which are needed to compute the timestamp and the columns
+   * included by {@link InputRowSchema#getColumnsFilter()} with the given flattenSpec. Returns null if all fields are
+   * needed, or if they cannot be determined because some flattenSpec expression does not start with a plain field
+   * name. Columns which are not defined by the flattenSpec are assumed to be root-level fields.
+   */
+  @Nullable
+  public static Set<String> getRequiredRootFields(final InputRowSchema inputRowSchema, final JSONPathSpec flattenSpec)
+  {
+    final Set<String> includedColumns = inputRowSchema.getColumnsFilter().getIncludedColumns();
+    if (includedColumns == null) {
+      return null;
+    }
+
+    final Set<String> columns = new HashSet<>(includedColumns);
+    columns.add(inputRowSchema.getTimestampSpec().getTimestampColumn());
+
+    final Map<String, JSONPathFieldSpec> fieldSpecs = new HashMap<>();
+    for (JSONPathFieldSpec fieldSpec : flattenSpec.getFields()) {
+      fieldSpecs.put(fieldSpec.getName(), fieldSpec);
+    }
+
+    final Set<String> rootFields = new HashSet<>();
+    for (String column : columns) {
+      final JSONPathFieldSpec fieldSpec = fieldSpecs.get(column);
+      final String rootField = fieldSpec == null ? column : getRootField(fieldSpec);
+      if (rootField == null) {
+        return null;
+      }
+      rootFields.add(rootField);
+    }
+    return rootFields;
+  }
+
+  @Nullable
+  private static String getRootField(final JSONPathFieldSpec fieldSpec)
+  {
+    final Matcher matcher;
+    switch (fieldSpec.getType()) {
+      case ROOT:
+        return fieldSpec.getExpr();
+      case PATH:
+        matcher = JSON_PATH_SIMPLE.matcher(fieldSpec.getExpr());
+        if (matcher.matches()) {
+          return matcher.group(1) != null ? matcher.group(1) : matcher.group(2);
+        }
+        return null;
+      case JQ:
+        matcher = JQ_SIMPLE.matcher(fieldSpec.getExpr());
+        return matcher.matches() ? matcher.group(1) : null;
+      default:
+        return null;
+    }
+  }
+
   public interface FlattenerMaker<T>
   {
     JsonProvider getJsonProvider();
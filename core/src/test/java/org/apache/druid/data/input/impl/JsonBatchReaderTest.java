@@ -0,0 +1,143 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.apache.druid.data.input.impl;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Iterables;
+import org.apache.druid.data.input.InputEntityBatchReader;
+import org.apache.druid.data.input.InputRow;
+import org.apache.druid.data.input.InputRowSchema;
+import org.apache.druid.java.util.common.DateTimes;
+import org.apache.druid.java.util.common.StringUtils;
+import org.apache.druid.java.util.common.parsers.CloseableIterator;
+import org.apache.druid.java.util.common.parsers.JSONPathFieldSpec;
+import org.apache.druid.java.util.common.parsers.JSONPathFieldType;
+import org.apache.druid.java.util.common.parsers.JSONPathSpec;
+import org.apache.druid.java.util.common.parsers.ParseException;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+public class JsonBatchReaderTest
+{
+  private static final InputRowSchema SCHEMA = new InputRowSchema(
+      new TimestampSpec("timestamp", "iso", null),
+      new DimensionsSpec(DimensionsSpec.getDefaultSchemas(ImmutableList.of("foo", "path_omg"))),
+      Collections.emptyList()
+  );
+
+  private final JsonInputFormat format = new JsonInputFormat(
+      new JSONPathSpec(
+          true,
+          ImmutableList.of(new JSONPathFieldSpec(JSONPathFieldType.PATH, "path_omg", "$.o.mg"))
+      ),
+      null,
+      null
+  );
+
+  @Test
+  public void testReadMultipleEntitiesAndLines() throws IOException
+  {
+    final InputEntityBatchReader reader = format.createBatchReader(SCHEMA, null);
+    final List<ByteEntity> entities = ImmutableList.of(
+        new ByteEntity(StringUtils.toUtf8("{\"timestamp\":\"2019-01-01\",\"foo\":\"x\",\"o\":{\"mg\":1}}")),
+        new ByteEntity(
+            StringUtils.toUtf8(
+                "{\"timestamp\":\"2019-01-02\",\"foo\":\"y\"}\r\n{\"timestamp\":\"2019-01-03\",\"foo\":\"z\"}\n"
+            )
+        )
+    );
+
+    final List<InputRow> rows = readAll(reader, entities);
+    Assert.assertEquals(3, rows.size());
+    Assert.assertEquals(DateTimes.of("2019-01-01"), rows.get(0).getTimestamp());
+    Assert.assertEquals("x", Iterables.getOnlyElement(rows.get(0).getDimension("foo")));
+    Assert.assertEquals("1", Iterables.getOnlyElement(rows.get(0).getDimension("path_omg")));
+    Assert.assertEquals(DateTimes.of("2019-01-02"), rows.get(1).getTimestamp());
+    Assert.assertEquals("y", Iterables.getOnlyElement(rows.get(1).getDimension("foo")));
+    Assert.assertEquals(DateTimes.of("2019-01-03"), rows.get(2).getTimestamp());
+    Assert.assertEquals("z", Iterables.getOnlyElement(rows.get(2).getDimension("foo")));
+
+    // the reader is reusable across batches
+    Assert.assertEquals(3, readAll(reader, entities).size());
+  }
+
+  @Test
+  public void testReadSlicedAndDirectBuffers() throws IOException
+  {
+    final byte[] json = StringUtils.toUtf8("{\"timestamp\":\"2019-01-01\",\"foo\":\"x\"}");
+    final byte[] padded = new byte[json.length + 6];
+    System.arraycopy(json, 0, padded, 3, json.length);
+    final ByteBuffer sliced = ByteBuffer.wrap(padded, 3, json.length).slice();
+    final ByteBuffer direct = ByteBuffer.allocateDirect(json.length);
+    direct.put(json).flip();
+
+    final List<InputRow> rows = readAll(
+        format.createBatchReader(SCHEMA, null),
+        ImmutableList.of(new ByteEntity(sliced), new ByteEntity(direct))
+    );
+    Assert.assertEquals(2, rows.size());
+    for (InputRow row : rows) {
+      Assert.assertEquals(DateTimes.of("2019-01-01"), row.getTimestamp());
+      Assert.assertEquals("x", Iterables.getOnlyElement(row.getDimension("foo")));
+    }
+  }
+
+  @Test
+  public void testContinueAfterParseException() throws IOException
+  {
+    final List<ByteEntity> entities = ImmutableList.of(
+        new ByteEntity(StringUtils.toUtf8("{\"timestamp\":\"2019-01-01\",\"foo\":\"x\"}")),
+        new ByteEntity(StringUtils.toUtf8("{\"timestamp\":\"2019-01-01\",\"foo\":")),
+        new ByteEntity(StringUtils.toUtf8("{\"timestamp\":\"2019-01-02\",\"foo\":\"y\"}"))
+    );
+
+    final List<InputRow> rows = new ArrayList<>();
+    int numParseExceptions = 0;
+    try (CloseableIterator<InputRow> iterator = format.createBatchReader(SCHEMA, null).read(entities)) {
+      while (iterator.hasNext()) {
+        try {
+          rows.add(iterator.next());
+        }
+        catch (ParseException e) {
+          numParseExceptions++;
+        }
+      }
+    }
+    Assert.assertEquals(1, numParseExceptions);
+    Assert.assertEquals(2, rows.size());
+    Assert.assertEquals("y", Iterables.getOnlyElement(rows.get(1).getDimension("foo")));
+  }
+
+  private static List<InputRow> readAll(InputEntityBatchReader reader, List<ByteEntity> entities) throws IOException
+  {
+    final List<InputRow> rows = new ArrayList<>();
+    try (CloseableIterator<InputRow> iterator = reader.read(entities)) {
+      iterator.forEachRemaining(rows::add);
+    }
+    return rows;
+  }
+}
@@ -20,7 +20,9 @@
 package org.apache.druid.data.input.impl;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Iterables;
+import org.apache.druid.data.input.ColumnsFilter;
 import org.apache.druid.data.input.InputEntityReader;
 import org.apache.druid.data.input.InputRow;
 import org.apache.druid.data.input.InputRowSchema;
@@ -30,8 +32,11 @@ import org.apache.druid.java.util.common.parsers.CloseableIterator;
 import org.apache.druid.java.util.common.parsers.JSONPathFieldSpec;
 import org.apache.druid.java.util.common.parsers.JSONPathFieldType;
 import org.apache.druid.java.util.common.parsers.JSONPathSpec;
+import org.apache.druid.java.util.common.parsers.ParseException;
 import org.junit.Assert;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.ExpectedException;
 
 import java.io.IOException;
 import java.util.Arrays;
@@ -39,6 +44,9 @@ import java.util.Collections;
 
 public class JsonReaderTest
 {
+  @Rule
+  public ExpectedException expectedException = ExpectedException.none();
+
   @Test
   public void testParseRow() throws IOException
   {
@@ -261,4 +269,82 @@ public class JsonReaderTest
       Assert.assertEquals(numExpectedIterations, numActualIterations);
     }
   }
+
+  @Test
+  public void testParseRowWithColumnsFilter() throws IOException
+  {
+    final JsonInputFormat format = new JsonInputFormat(
+        new JSONPathSpec(
+            true,
+            ImmutableList.of(
+                new JSONPathFieldSpec(JSONPathFieldType.ROOT, "root_baz", "baz"),
+                new JSONPathFieldSpec(JSONPathFieldType.PATH, "path_omg", "$.o.mg"),
+                new JSONPathFieldSpec(JSONPathFieldType.JQ, "jq_omg", ".o.mg")
+            )
+        ),
+        null,
+        null
+    );
+
+    final ByteEntity source = new ByteEntity(
+        StringUtils.toUtf8(
+            "{\"timestamp\":\"2019-01-01\",\"bar\":{\"a\":[1,2,{\"b\":3}]},\"foo\":\"x\",\"baz\":4,\"o\":{\"mg\":1},\"q\":[5]}"
+        )
+    );
+
+    final InputEntityReader reader = format.createReader(
+        new InputRowSchema(
+            new TimestampSpec("timestamp", "iso", null),
+            new DimensionsSpec(DimensionsSpec.getDefaultSchemas(ImmutableList.of("foo", "root_baz", "path_omg", "jq_omg"))),
+            Collections.emptyList(),
+            ColumnsFilter.inclusionBased(ImmutableSet.of("foo", "root_baz", "path_omg", "jq_omg"))
+        ),
+        source,
+        null
+    );
+    final int numExpectedIterations = 1;
+    try (CloseableIterator<InputRow> iterator = reader.read()) {
+      int numActualIterations = 0;
+      while (iterator.hasNext()) {
+        final InputRow row = iterator.next();
+        Assert.assertEquals(DateTimes.of("2019-01-01"), row.getTimestamp());
+        Assert.assertEquals("x", Iterables.getOnlyElement(row.getDimension("foo")));
+        Assert.assertEquals("4", Iterables.getOnlyElement(row.getDimension("root_baz")));
+        Assert.assertEquals("1", Iterables.getOnlyElement(row.getDimension("path_omg")));
+        Assert.assertEquals("1", Iterables.getOnlyElement(row.getDimension("jq_omg")));
+
+        // Fields which are not needed by the schema are not parsed.
+        Assert.assertTrue(row.getDimension("bar").isEmpty());
+        Assert.assertTrue(row.getDimension("q").isEmpty());
+        numActualIterations++;
+      }
+      Assert.assertEquals(numExpectedIterations, numActualIterations);
+    }
+  }
+
+  @Test
+  public void testParseInvalidRowWithColumnsFilter() throws IOException
+  {
+    final JsonInputFormat format = new JsonInputFormat(new JSONPathSpec(true, null), null, null);
+
+    final ByteEntity source = new ByteEntity(
+        StringUtils.toUtf8("{\"timestamp\":\"2019-01-01\",\"bar\":{\"a\":1},\"foo\":\"x\"")
+    );
+
+    final InputEntityReader reader = format.createReader(
+        new InputRowSchema(
+            new TimestampSpec("timestamp", "iso", null),
+            new DimensionsSpec(DimensionsSpec.getDefaultSchemas(ImmutableList.of("foo"))),
+            Collections.emptyList(),
+            ColumnsFilter.inclusionBased(ImmutableSet.of("foo"))
+        ),
+        source,
+        null
+    );
+    try (CloseableIterator<InputRow> iterator = reader.read()) {
+      Assert.assertTrue(iterator.hasNext());
+      expectedException.expect(ParseException.class);
+      iterator.next();
+    }
+  }
 }
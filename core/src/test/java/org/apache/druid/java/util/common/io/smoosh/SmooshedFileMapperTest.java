@@ -79,6 +79,30 @@ public class SmooshedFileMapperTest
     validateOutput(baseDir);
   }
 
+  @Test
+  public void testFlushMetaFile() throws Exception
+  {
+    File baseDir = folder.newFolder("base");
+
+    try (FileSmoosher smoosher = new FileSmoosher(baseDir, 21)) {
+      for (int i = 0; i < 10; ++i) {
+        smoosher.add(StringUtils.format("%d", i), ByteBuffer.wrap(Ints.toByteArray(i)));
+      }
+      smoosher.flushMetaFile();
+
+      try (SmooshedFileMapper mapper = SmooshedFileMapper.load(baseDir)) {
+        Assert.assertEquals(10, mapper.getInternalFilenames().size());
+        Assert.assertEquals(9, mapper.mapFile("9").getInt());
+        Assert.assertNull(mapper.mapFile("10"));
+      }
+
+      for (int i = 10; i < 20; ++i) {
+        smoosher.add(StringUtils.format("%d", i), ByteBuffer.wrap(Ints.toByteArray(i)));
+      }
+    }
+    validateOutput(baseDir);
+  }
+
   @Test(expected = ISE.class)
   public void testExceptionForUnClosedFiles() throws Exception
   {
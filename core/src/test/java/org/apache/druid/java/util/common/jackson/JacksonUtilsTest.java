@@ -0,0 +1,57 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.apache.druid.java.util.common.jackson;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.google.common.collect.ImmutableMap;
+import org.apache.druid.java.util.common.StringUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+public class JacksonUtilsTest
+{
+  @Test
+  public void testWriteObjectUsingSerializerProvider() throws IOException
+  {
+    final ObjectMapper objectMapper = new ObjectMapper();
+    final SerializerProvider serializers = objectMapper.getSerializerProviderInstance();
+    final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+
+    try (final JsonGenerator jg = objectMapper.getFactory().createGenerator(baos)) {
+      jg.writeStartArray();
+      for (Object o : Arrays.asList(null, "foo", 1L, 2.5d, true, Arrays.asList("a", "b"), ImmutableMap.of("x", 1))) {
+        JacksonUtils.writeObjectUsingSerializerProvider(jg, serializers, o);
+      }
+      jg.writeEndArray();
+    }
+
+    Assert.assertEquals(
+        "[null,\"foo\",1,2.5,true,[\"a\",\"b\"],{\"x\":1}]",
+        StringUtils.fromUtf8(baos.toByteArray())
+    );
+  }
+}
@@ -0,0 +1,81 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.druid.java.util.common.parsers;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import org.apache.druid.data.input.ColumnsFilter;
+import org.apache.druid.data.input.InputRowSchema;
+import org.apache.druid.data.input.impl.DimensionsSpec;
+import org.apache.druid.data.input.impl.TimestampSpec;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Collections;
+
+public class ObjectFlattenersTest
+{
+  private static final TimestampSpec TIMESTAMP_SPEC = new TimestampSpec("ts", "auto", null);
+
+  private static final JSONPathSpec FLATTEN_SPEC = new JSONPathSpec(
+      true,
+      ImmutableList.of(
+          new JSONPathFieldSpec(JSONPathFieldType.ROOT, "root_baz", "baz"),
+          new JSONPathFieldSpec(JSONPathFieldType.PATH, "path_foo", "$.foo.bar[0]"),
+          new JSONPathFieldSpec(JSONPathFieldType.PATH, "path_quoted", "$['o.k'].x"),
+          new JSONPathFieldSpec(JSONPathFieldType.JQ, "jq_qux", ".qux.a"),
+          new JSONPathFieldSpec(JSONPathFieldType.PATH, "path_wildcard", "$..bar")
+      )
+  );
+
+  @Test
+  public void testGetRequiredRootFields()
+  {
+    Assert.assertEquals(
+        ImmutableSet.of("ts", "dim", "baz", "foo", "o.k", "qux"),
+        ObjectFlatteners.getRequiredRootFields(
+            schema(ColumnsFilter.inclusionBased(ImmutableSet.of("dim", "root_baz", "path_foo", "path_quoted", "jq_qux"))),
+            FLATTEN_SPEC
+        )
+    );
+  }
+
+  @Test
+  public void testGetRequiredRootFieldsAllColumns()
+  {
+    Assert.assertNull(ObjectFlatteners.getRequiredRootFields(schema(ColumnsFilter.all()), FLATTEN_SPEC));
+  }
+
+  @Test
+  public void testGetRequiredRootFieldsComplexExpression()
+  {
+    Assert.assertNull(
+        ObjectFlatteners.getRequiredRootFields(
+            schema(ColumnsFilter.inclusionBased(ImmutableSet.of("dim", "path_wildcard"))),
+            FLATTEN_SPEC
+        )
+    );
+  }
+
+  private static InputRowSchema schema(final ColumnsFilter columnsFilter)
+  {
+    return new InputRowSchema(TIMESTAMP_SPEC, new DimensionsSpec(null), Collections.emptyList(), columnsFilter);
+  }
+}
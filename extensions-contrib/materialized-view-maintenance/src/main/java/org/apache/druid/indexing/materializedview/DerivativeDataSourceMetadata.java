@@ -25,7 +25,9 @@ import com.google.common.base.Preconditions;
 import com.google.common.base.Strings;
 import com.google.common.collect.Sets;
 import org.apache.druid.indexing.overlord.DataSourceMetadata;
+import org.apache.druid.java.util.common.granularity.Granularity;
 
+import javax.annotation.Nullable;
 import java.util.Objects;
 import java.util.Set;
 
@@ -34,12 +36,19 @@ public class DerivativeDataSourceMetadata implements DataSourceMetadata
   private final String baseDataSource;
   private final Set<String> dimensions;
   private final Set<String> metrics;
+  @Nullable
+  private final Granularity queryGranularity;
 
+  /**
+   * @param queryGranularity granularity that rows of the derivative are rolled up to. Null for metadata written before
+   *                         it was recorded, in which case the derivative is not used to answer queries.
+   */
   @JsonCreator
   public DerivativeDataSourceMetadata(
       @JsonProperty("baseDataSource") String baseDataSource,
       @JsonProperty("dimensions") Set<String> dimensions,
-      @JsonProperty("metrics") Set<String> metrics
+      @JsonProperty("metrics") Set<String> metrics,
+      @JsonProperty("queryGranularity") @Nullable Granularity queryGranularity
   )
   {
     Preconditions.checkArgument(!Strings.isNullOrEmpty(baseDataSource), "baseDataSource cannot be null or empty. Please provide a baseDataSource.");
@@ -47,6 +56,7 @@ public class DerivativeDataSourceMetadata implements DataSourceMetadata
 
     this.dimensions = Preconditions.checkNotNull(dimensions, "dimensions cannot be null. This is not a valid DerivativeDataSourceMetadata.");
     this.metrics = Preconditions.checkNotNull(metrics, "metrics cannot be null. This is not a valid DerivativeDataSourceMetadata.");
+    this.queryGranularity = queryGranularity;
   }
 
   @JsonProperty("baseDataSource")
@@ -66,6 +76,13 @@ public class DerivativeDataSourceMetadata implements DataSourceMetadata
   {
     return metrics;
   }
+
+  @Nullable
+  @JsonProperty("queryGranularity")
+  public Granularity getQueryGranularity()
+  {
+    return queryGranularity;
+  }
   
   @Override
   public boolean isValidStart()
@@ -110,13 +127,14 @@ public class DerivativeDataSourceMetadata implements DataSourceMetadata
 
     return baseDataSource.equals(that.getBaseDataSource()) && 
         dimensions.equals(that.getDimensions()) &&
-        metrics.equals(that.getMetrics());
+        metrics.equals(that.getMetrics()) &&
+        Objects.equals(queryGranularity, that.getQueryGranularity());
   }
 
   @Override
   public int hashCode()
   {
-    return Objects.hash(baseDataSource, dimensions, metrics);
+    return Objects.hash(baseDataSource, dimensions, metrics, queryGranularity);
   }
 
   public Set<String> getColumns()
@@ -133,6 +151,7 @@ public class DerivativeDataSourceMetadata implements DataSourceMetadata
         "baseDataSource=" + baseDataSource +
         ", dimensions=" + dimensions +
         ", metrics=" + metrics +
+        ", queryGranularity=" + queryGranularity +
         '}';
   }
 }
@@ -132,10 +132,12 @@ public class MaterializedViewSupervisor implements Supervisor
 
       DataSourceMetadata metadata = metadataStorageCoordinator.retrieveDataSourceMetadata(dataSource);
       if (null == metadata) {
-        metadataStorageCoordinator.insertDataSourceMetadata(
-            dataSource,
-            new DerivativeDataSourceMetadata(spec.getBaseDataSource(), spec.getDimensions(), spec.getMetrics())
-        );
+        metadataStorageCoordinator.insertDataSourceMetadata(dataSource, createDataSourceMetadata());
+      } else if (metadata instanceof DerivativeDataSourceMetadata
+                 && ((DerivativeDataSourceMetadata) metadata).getQueryGranularity() == null
+                 && isMetadataOfSpec((DerivativeDataSourceMetadata) metadata)) {
+        // Metadata written before the query granularity was recorded; brokers do not use the derivative until it is.
+        commitDataSourceMetadata(createDataSourceMetadata());
       }
       exec = MoreExecutors.listeningDecorator(Execs.scheduledSingleThreaded(supervisorId));
       final Duration delay = config.getTaskCheckDuration().toStandardDuration();
@@ -164,9 +166,7 @@ public class MaterializedViewSupervisor implements Supervisor
 
       DataSourceMetadata metadata = metadataStorageCoordinator.retrieveDataSourceMetadata(dataSource);
       if (metadata instanceof DerivativeDataSourceMetadata
-          && spec.getBaseDataSource().equals(((DerivativeDataSourceMetadata) metadata).getBaseDataSource())
-          && spec.getDimensions().equals(((DerivativeDataSourceMetadata) metadata).getDimensions())
-          && spec.getMetrics().equals(((DerivativeDataSourceMetadata) metadata).getMetrics())) {
+          && isMetadataOfSpec((DerivativeDataSourceMetadata) metadata)) {
         checkSegmentsAndSubmitTasks();
       } else {
         log.error(
@@ -259,18 +259,14 @@ public class MaterializedViewSupervisor implements Supervisor
       // if oldMetadata is different from spec, tasks and segments will be removed when reset.
       DataSourceMetadata oldMetadata = metadataStorageCoordinator.retrieveDataSourceMetadata(dataSource);
       if (oldMetadata instanceof DerivativeDataSourceMetadata) {
-        if (!((DerivativeDataSourceMetadata) oldMetadata).getBaseDataSource().equals(spec.getBaseDataSource()) ||
-            !((DerivativeDataSourceMetadata) oldMetadata).getDimensions().equals(spec.getDimensions()) ||
-            !((DerivativeDataSourceMetadata) oldMetadata).getMetrics().equals(spec.getMetrics())) {
+        if (!isMetadataOfSpec((DerivativeDataSourceMetadata) oldMetadata)) {
           synchronized (taskLock) {
             clearTasks();
             clearSegments();
           }
         }
       }
-      commitDataSourceMetadata(
-          new DerivativeDataSourceMetadata(spec.getBaseDataSource(), spec.getDimensions(), spec.getMetrics())
-      );
+      commitDataSourceMetadata(createDataSourceMetadata());
     } else {
       throw new IAE("DerivedDataSourceMetadata is not allowed to reset to a new DerivedDataSourceMetadata");
     }
@@ -498,6 +494,27 @@ public class MaterializedViewSupervisor implements Supervisor
     metadataStorageCoordinator.deleteDataSourceMetadata(dataSource);
   }
 
+  private DerivativeDataSourceMetadata createDataSourceMetadata()
+  {
+    return new DerivativeDataSourceMetadata(
+        spec.getBaseDataSource(),
+        spec.getDimensions(),
+        spec.getMetrics(),
+        MaterializedViewSupervisorSpec.QUERY_GRANULARITY
+    );
+  }
+
+  /**
+   * Whether the metadata describes a derivative built from this spec. The query granularity is not compared, since
+   * it is missing from metadata written by older versions.
+   */
+  private boolean isMetadataOfSpec(DerivativeDataSourceMetadata metadata)
+  {
+    return spec.getBaseDataSource().equals(metadata.getBaseDataSource())
+           && spec.getDimensions().equals(metadata.getDimensions())
+           && spec.getMetrics().equals(metadata.getMetrics());
+  }
+
   private void commitDataSourceMetadata(DataSourceMetadata dataSourceMetadata)
   {
     if (!metadataStorageCoordinator.insertDataSourceMetadata(dataSource, dataSourceMetadata)) {
@@ -42,6 +42,7 @@ import org.apache.druid.indexing.overlord.supervisor.SupervisorStateManagerConfi
 import org.apache.druid.java.util.common.DateTimes;
 import org.apache.druid.java.util.common.StringUtils;
 import org.apache.druid.java.util.common.granularity.Granularities;
+import org.apache.druid.java.util.common.granularity.Granularity;
 import org.apache.druid.metadata.MetadataSupervisorManager;
 import org.apache.druid.metadata.SqlSegmentsMetadataManager;
 import org.apache.druid.query.aggregation.AggregatorFactory;
@@ -63,6 +64,9 @@ public class MaterializedViewSupervisorSpec implements SupervisorSpec
 {
   private static final String TASK_PREFIX = "index_materialized_view";
   private static final String SUPERVISOR_TYPE = "materialized_view";
+
+  // Derivatives keep the timestamps of the base dataSource's rows; recorded in DerivativeDataSourceMetadata.
+  static final Granularity QUERY_GRANULARITY = Granularities.NONE;
   private final String baseDataSource;
   private final DimensionsSpec dimensionsSpec;
   private final AggregatorFactory[] aggregators;
@@ -204,7 +208,7 @@ public class MaterializedViewSupervisorSpec implements SupervisorSpec
 
     // generate granularity
     ArbitraryGranularitySpec granularitySpec = new ArbitraryGranularitySpec(
-        Granularities.NONE,
+        QUERY_GRANULARITY,
         ImmutableList.of(interval)
     );
 
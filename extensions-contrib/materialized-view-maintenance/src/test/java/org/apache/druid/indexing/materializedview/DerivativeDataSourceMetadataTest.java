@@ -19,8 +19,13 @@
 
 package org.apache.druid.indexing.materializedview;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.jsontype.NamedType;
 import com.google.common.collect.Sets;
+import org.apache.druid.jackson.DefaultObjectMapper;
+import org.apache.druid.java.util.common.granularity.Granularities;
 import org.hamcrest.CoreMatchers;
+import org.junit.Assert;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
@@ -43,7 +48,7 @@ public class DerivativeDataSourceMetadataTest
     String baseDataSource = "";
     Set<String> dims = Sets.newHashSet("dim1", "dim2", "dim3");
     Set<String> metrics = Sets.newHashSet("cost");
-    DerivativeDataSourceMetadata metadata = new DerivativeDataSourceMetadata(baseDataSource, dims, metrics);
+    DerivativeDataSourceMetadata metadata = new DerivativeDataSourceMetadata(baseDataSource, dims, metrics, Granularities.NONE);
   }
 
   @Test
@@ -56,6 +61,41 @@ public class DerivativeDataSourceMetadataTest
     String baseDataSource = null;
     Set<String> dims = Sets.newHashSet("dim1", "dim2", "dim3");
     Set<String> metrics = Sets.newHashSet("cost");
-    DerivativeDataSourceMetadata metadata = new DerivativeDataSourceMetadata(baseDataSource, dims, metrics);
+    DerivativeDataSourceMetadata metadata = new DerivativeDataSourceMetadata(baseDataSource, dims, metrics, Granularities.NONE);
+  }
+
+  @Test
+  public void testSerde() throws Exception
+  {
+    ObjectMapper mapper = makeMapper();
+    DerivativeDataSourceMetadata metadata = new DerivativeDataSourceMetadata(
+        "base",
+        Sets.newHashSet("dim1", "dim2"),
+        Sets.newHashSet("cost"),
+        Granularities.HOUR
+    );
+    DerivativeDataSourceMetadata serde = mapper.readValue(
+        mapper.writeValueAsString(metadata),
+        DerivativeDataSourceMetadata.class
+    );
+    Assert.assertEquals(metadata, serde);
+    Assert.assertEquals(Granularities.HOUR, serde.getQueryGranularity());
+  }
+
+  @Test
+  public void testDeserializeWithoutQueryGranularity() throws Exception
+  {
+    DerivativeDataSourceMetadata metadata = makeMapper().readValue(
+        "{\"type\":\"derivativeDataSource\",\"baseDataSource\":\"base\",\"dimensions\":[\"dim1\"],\"metrics\":[\"cost\"]}",
+        DerivativeDataSourceMetadata.class
+    );
+    Assert.assertNull(metadata.getQueryGranularity());
+  }
+
+  private static ObjectMapper makeMapper()
+  {
+    ObjectMapper mapper = new DefaultObjectMapper();
+    mapper.registerSubtypes(new NamedType(DerivativeDataSourceMetadata.class, "derivativeDataSource"));
+    return mapper;
   }
 }
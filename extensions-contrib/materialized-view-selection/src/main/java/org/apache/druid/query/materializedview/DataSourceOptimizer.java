@@ -101,10 +101,12 @@ public class DataSourceOptimizer
       // get all fields which the query required
       Set<String> requiredFields = MaterializedViewUtils.getRequiredFields(query);
 
+      // derivatives must contain all required fields, and must not be rolled up more coarsely than the query reads time
       Set<DerivativeDataSource> derivativesWithRequiredFields = new HashSet<>();
       for (DerivativeDataSource derivativeDataSource : derivatives) {
         derivativesHitCount.putIfAbsent(derivativeDataSource.getName(), new AtomicLong(0));
-        if (derivativeDataSource.getColumns().containsAll(requiredFields)) {
+        if (derivativeDataSource.getColumns().containsAll(requiredFields)
+            && MaterializedViewUtils.isGranularityCompatible(query, derivativeDataSource.getQueryGranularity())) {
           derivativesWithRequiredFields.add(derivativeDataSource);
         }
       }
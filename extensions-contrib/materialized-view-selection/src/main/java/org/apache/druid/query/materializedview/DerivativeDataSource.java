@@ -20,7 +20,9 @@
 package org.apache.druid.query.materializedview;
 
 import com.google.common.base.Preconditions;
+import org.apache.druid.java.util.common.granularity.Granularity;
 
+import javax.annotation.Nullable;
 import java.util.Objects;
 import java.util.Set;
 
@@ -30,13 +32,22 @@ public class DerivativeDataSource implements Comparable<DerivativeDataSource>
   private final String baseDataSource;
   private final Set<String> columns;
   private final long avgSizeBasedGranularity;
+  @Nullable
+  private final Granularity queryGranularity;
 
-  public DerivativeDataSource(String name, String baseDataSource, Set<String> columns, long size)
+  public DerivativeDataSource(
+      String name,
+      String baseDataSource,
+      Set<String> columns,
+      long size,
+      @Nullable Granularity queryGranularity
+  )
   {
     this.name = Preconditions.checkNotNull(name, "name");
     this.baseDataSource = Preconditions.checkNotNull(baseDataSource, "baseDataSource");
     this.columns = Preconditions.checkNotNull(columns, "columns");
     this.avgSizeBasedGranularity = size;
+    this.queryGranularity = queryGranularity;
   }
 
   public String getName()
@@ -59,6 +70,15 @@ public class DerivativeDataSource implements Comparable<DerivativeDataSource>
     return avgSizeBasedGranularity;
   }
 
+  /**
+   * Granularity that rows of the derivative are rolled up to, or null if it was not recorded.
+   */
+  @Nullable
+  public Granularity getQueryGranularity()
+  {
+    return queryGranularity;
+  }
+
   @Override
   public int compareTo(DerivativeDataSource o)
   {
@@ -83,12 +103,13 @@ public class DerivativeDataSource implements Comparable<DerivativeDataSource>
     DerivativeDataSource that = (DerivativeDataSource) o;
     return name.equals(that.getName()) 
         && baseDataSource.equals(that.getBaseDataSource())
-        && columns.equals(that.getColumns());
+        && columns.equals(that.getColumns())
+        && Objects.equals(queryGranularity, that.getQueryGranularity());
   }
 
   @Override
   public int hashCode()
   {
-    return Objects.hash(name, baseDataSource, columns);
+    return Objects.hash(name, baseDataSource, columns, queryGranularity);
   }
 }
@@ -186,7 +186,13 @@ public class DerivativeDataSourceManager
           long avgSizePerGranularity = getAvgSizePerGranularity(name);
           log.info("find derivatives: {bases=%s, derivative=%s, dimensions=%s, metrics=%s, avgSize=%s}", 
               baseDataSource, name, metadata.getDimensions(), metadata.getMetrics(), avgSizePerGranularity);
-          return new DerivativeDataSource(name, baseDataSource, metadata.getColumns(), avgSizePerGranularity);
+          return new DerivativeDataSource(
+              name,
+              baseDataSource,
+              metadata.getColumns(),
+              avgSizePerGranularity,
+              metadata.getQueryGranularity()
+          );
         })
         .filter(derivatives -> derivatives.getAvgSizeBasedGranularity() > 0)
         .collect(Collectors.toList());
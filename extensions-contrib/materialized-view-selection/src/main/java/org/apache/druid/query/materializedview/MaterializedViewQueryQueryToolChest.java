@@ -32,6 +32,7 @@ import org.apache.druid.query.QueryToolChest;
 import org.apache.druid.query.QueryToolChestWarehouse;
 import org.apache.druid.query.aggregation.MetricManipulationFn;
 import org.apache.druid.query.context.ResponseContext;
+import org.apache.druid.segment.column.RowSignature;
 
 import java.util.Comparator;
 import java.util.function.BinaryOperator;
@@ -110,6 +111,20 @@ public class MaterializedViewQueryQueryToolChest extends QueryToolChest
     return null;
   }
 
+  @Override
+  public RowSignature resultArraySignature(Query query)
+  {
+    final Query realQuery = getRealQuery(query);
+    return warehouse.getToolChest(realQuery).resultArraySignature(realQuery);
+  }
+
+  @Override
+  public Sequence<Object[]> resultsAsArrays(Query query, Sequence resultSequence)
+  {
+    final Query realQuery = getRealQuery(query);
+    return warehouse.getToolChest(realQuery).resultsAsArrays(realQuery, resultSequence);
+  }
+
   @Override
   public QueryRunner preMergeQueryDecoration(final QueryRunner runner)
   {
@@ -0,0 +1,98 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.apache.druid.query.materializedview;
+
+import com.google.inject.Inject;
+import org.apache.druid.query.Query;
+import org.apache.druid.query.TableDataSource;
+import org.apache.druid.query.aggregation.AggregatorFactory;
+import org.apache.druid.query.aggregation.CountAggregatorFactory;
+import org.apache.druid.query.aggregation.FilteredAggregatorFactory;
+import org.apache.druid.query.groupby.GroupByQuery;
+import org.apache.druid.query.timeseries.TimeseriesQuery;
+import org.apache.druid.query.topn.TopNQuery;
+import org.apache.druid.sql.calcite.rel.NativeQueryRewriter;
+
+import java.util.List;
+
+/**
+ * Wraps topN/timeseries/groupBy queries planned by the SQL layer in a {@link MaterializedViewQuery}, so
+ * {@link DataSourceOptimizer} can answer them from derivatives of their dataSource, the same way it does for native
+ * "view" queries. Only queries that set {@link #CTX_USE_MATERIALIZED_VIEWS} are rewritten, and queries on dataSources
+ * without derivatives are left alone.
+ *
+ * Queries with "count" aggregators, which SQL uses for COUNT and AVG, are not rewritten either: derivatives are rolled
+ * up, so counting their rows does not count the rows of the base dataSource.
+ */
+public class MaterializedViewSqlQueryRewriter implements NativeQueryRewriter
+{
+  public static final String CTX_USE_MATERIALIZED_VIEWS = "useMaterializedViews";
+
+  private final DataSourceOptimizer optimizer;
+
+  @Inject
+  public MaterializedViewSqlQueryRewriter(DataSourceOptimizer optimizer)
+  {
+    this.optimizer = optimizer;
+  }
+
+  @Override
+  public <T> Query<T> rewrite(Query<T> query)
+  {
+    if (!(query instanceof TopNQuery || query instanceof TimeseriesQuery || query instanceof GroupByQuery)
+        || !(query.getDataSource() instanceof TableDataSource)
+        || !query.getContextBoolean(CTX_USE_MATERIALIZED_VIEWS, false)
+        || hasCountAggregator(getAggregatorSpecs(query))) {
+      return query;
+    }
+
+    final String dataSource = ((TableDataSource) query.getDataSource()).getName();
+    if (DerivativeDataSourceManager.getDerivatives(dataSource).isEmpty()) {
+      return query;
+    }
+
+    return new MaterializedViewQuery<>(query, optimizer);
+  }
+
+  private static List<AggregatorFactory> getAggregatorSpecs(Query<?> query)
+  {
+    if (query instanceof TopNQuery) {
+      return ((TopNQuery) query).getAggregatorSpecs();
+    } else if (query instanceof TimeseriesQuery) {
+      return ((TimeseriesQuery) query).getAggregatorSpecs();
+    } else {
+      return ((GroupByQuery) query).getAggregatorSpecs();
+    }
+  }
+
+  private static boolean hasCountAggregator(List<AggregatorFactory> aggregators)
+  {
+    for (AggregatorFactory aggregator : aggregators) {
+      if (aggregator instanceof FilteredAggregatorFactory) {
+        aggregator = ((FilteredAggregatorFactory) aggregator).getAggregator();
+      }
+      if (aggregator instanceof CountAggregatorFactory) {
+        return true;
+      }
+    }
+    return false;
+  }
+}
@@ -21,6 +21,8 @@ package org.apache.druid.query.materializedview;
 
 import org.apache.druid.java.util.common.Intervals;
 import org.apache.druid.java.util.common.JodaUtils;
+import org.apache.druid.java.util.common.granularity.Granularities;
+import org.apache.druid.java.util.common.granularity.Granularity;
 import org.apache.druid.query.Query;
 import org.apache.druid.query.aggregation.AggregatorFactory;
 import org.apache.druid.query.aggregation.FilteredAggregatorFactory;
@@ -28,9 +30,16 @@ import org.apache.druid.query.dimension.DimensionSpec;
 import org.apache.druid.query.groupby.GroupByQuery;
 import org.apache.druid.query.timeseries.TimeseriesQuery;
 import org.apache.druid.query.topn.TopNQuery;
+import org.apache.druid.segment.VirtualColumn;
+import org.apache.druid.segment.VirtualColumns;
+import org.apache.druid.segment.column.ColumnHolder;
+import org.joda.time.DateTime;
 import org.joda.time.Interval;
 
+import javax.annotation.Nullable;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Deque;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
@@ -38,6 +47,8 @@ import java.util.Set;
 
 public class MaterializedViewUtils 
 {
+  private static final int MAX_BUCKETS_TO_CHECK = 10_000;
+
   /**
    * extract all dimensions in query.
    * only support TopNQuery/TimeseriesQuery/GroupByQuery
@@ -46,19 +57,88 @@ public class MaterializedViewUtils
    * @return dimensions set in query
    */
   public static Set<String> getRequiredFields(Query query)
+  {
+    // every derivative has a time column, but it is not listed in the derivative's columns.
+    Set<String> fields = getReferencedColumns(query);
+    fields.remove(ColumnHolder.TIME_COLUMN_NAME);
+    return fields;
+  }
+
+  /**
+   * check whether a query can be answered exactly from a derivative whose rows were rolled up to
+   * derivativeGranularity. Every boundary between the query's time buckets, including the ends of its intervals, must
+   * also be a boundary between the derivative's buckets. Unless the derivative keeps the timestamps of its base
+   * dataSource, the query must not read the time column in any other way, such as in filters or expressions.
+   * Derivatives whose granularity was not recorded are never used.
+   *
+   * @param query a TopNQuery/TimeseriesQuery/GroupByQuery
+   * @param derivativeGranularity query granularity of the derivative, or null if unknown
+   * @return true if the query can be answered from the derivative
+   */
+  public static boolean isGranularityCompatible(Query query, @Nullable Granularity derivativeGranularity)
+  {
+    if (derivativeGranularity == null) {
+      return false;
+    }
+    if (Granularities.NONE.equals(derivativeGranularity)) {
+      return true;
+    }
+    if (getReferencedColumns(query).contains(ColumnHolder.TIME_COLUMN_NAME)) {
+      return false;
+    }
+    Granularity queryGranularity = query.getGranularity();
+    for (Interval interval : (List<Interval>) query.getIntervals()) {
+      if (!isBucketBoundary(interval.getStart(), derivativeGranularity)
+          || !isBucketBoundary(interval.getEnd(), derivativeGranularity)) {
+        return false;
+      }
+      if (Granularities.ALL.equals(queryGranularity)) {
+        continue;
+      }
+      int numBuckets = 0;
+      for (Interval bucket : queryGranularity.getIterable(interval)) {
+        if (++numBuckets > MAX_BUCKETS_TO_CHECK) {
+          // too many buckets to check; do not use the derivative.
+          return false;
+        }
+        if (bucket.getStart().isAfter(interval.getStart())
+            && !isBucketBoundary(bucket.getStart(), derivativeGranularity)) {
+          return false;
+        }
+      }
+    }
+    return true;
+  }
+
+  private static boolean isBucketBoundary(DateTime time, Granularity granularity)
+  {
+    // the ends of eternity are not real boundaries; all rows are on the same side of them.
+    return time.getMillis() == JodaUtils.MIN_INSTANT
+           || time.getMillis() == JodaUtils.MAX_INSTANT
+           || granularity.bucketStart(time).getMillis() == time.getMillis();
+  }
+
+  /**
+   * extract all columns the query reads, with virtual columns replaced by the columns they read.
+   */
+  private static Set<String> getReferencedColumns(Query query)
   {
     Set<String> dimsInFilter = null == query.getFilter() ? new HashSet<String>() : query.getFilter().getRequiredColumns();
     Set<String> dimensions = new HashSet<>(dimsInFilter);
+    VirtualColumns virtualColumns;
 
     if (query instanceof TopNQuery) {
       TopNQuery q = (TopNQuery) query;
+      virtualColumns = q.getVirtualColumns();
       dimensions.addAll(extractFieldsFromAggregations(q.getAggregatorSpecs()));
       dimensions.add(q.getDimensionSpec().getDimension());
     } else if (query instanceof TimeseriesQuery) {
       TimeseriesQuery q = (TimeseriesQuery) query;
+      virtualColumns = q.getVirtualColumns();
       dimensions.addAll(extractFieldsFromAggregations(q.getAggregatorSpecs()));
     } else if (query instanceof GroupByQuery) {
       GroupByQuery q = (GroupByQuery) query;
+      virtualColumns = q.getVirtualColumns();
       dimensions.addAll(extractFieldsFromAggregations(q.getAggregatorSpecs()));
       for (DimensionSpec spec : q.getDimensions()) {
         String dim = spec.getDimension();
@@ -67,7 +147,31 @@ public class MaterializedViewUtils
     } else {
       throw new UnsupportedOperationException("Method getRequeiredFields only support TopNQuery/TimeseriesQuery/GroupByQuery");
     }
-    return dimensions;
+    return resolveVirtualColumns(dimensions, virtualColumns);
+  }
+
+  /**
+   * replace virtual columns in fields with the physical columns they read, so that queries planned by the SQL layer,
+   * which makes heavy use of virtual columns, can be matched against the columns of derivatives.
+   */
+  private static Set<String> resolveVirtualColumns(Set<String> fields, VirtualColumns virtualColumns)
+  {
+    Set<String> ret = new HashSet<>();
+    Deque<String> remaining = new ArrayDeque<>(fields);
+    Set<String> visited = new HashSet<>();
+    while (!remaining.isEmpty()) {
+      String field = remaining.pop();
+      if (!visited.add(field)) {
+        continue;
+      }
+      VirtualColumn virtualColumn = virtualColumns.getVirtualColumn(field);
+      if (virtualColumn == null) {
+        ret.add(field);
+      } else {
+        remaining.addAll(virtualColumn.requiredColumns());
+      }
+    }
+    return ret;
   }
 
   private static Set<String> extractFieldsFromAggregations(List<AggregatorFactory> aggs) 
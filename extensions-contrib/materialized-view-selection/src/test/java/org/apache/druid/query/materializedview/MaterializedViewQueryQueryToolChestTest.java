@@ -26,6 +26,8 @@ import com.google.common.collect.ImmutableMap;
 import org.apache.druid.data.input.MapBasedRow;
 import org.apache.druid.jackson.DefaultObjectMapper;
 import org.apache.druid.java.util.common.DateTimes;
+import org.apache.druid.java.util.common.guava.Sequence;
+import org.apache.druid.java.util.common.guava.Sequences;
 import org.apache.druid.query.Druids;
 import org.apache.druid.query.MapQueryToolChestWarehouse;
 import org.apache.druid.query.Query;
@@ -44,11 +46,15 @@ import org.apache.druid.query.groupby.ResultRow;
 import org.apache.druid.query.timeseries.TimeseriesQuery;
 import org.apache.druid.query.timeseries.TimeseriesQueryQueryToolChest;
 import org.apache.druid.query.timeseries.TimeseriesResultValue;
+import org.apache.druid.segment.column.RowSignature;
+import org.apache.druid.segment.column.ValueType;
+import org.joda.time.DateTime;
 import org.junit.Assert;
 import org.junit.Test;
 
 import java.io.IOException;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
@@ -220,6 +226,50 @@ public class MaterializedViewQueryQueryToolChestTest
     );
   }
 
+  @Test
+  public void testResultsAsArrays()
+  {
+    TimeseriesQuery realQuery = Druids.newTimeseriesQueryBuilder()
+                                      .dataSource(QueryRunnerTestHelper.DATA_SOURCE)
+                                      .granularity(QueryRunnerTestHelper.DAY_GRAN)
+                                      .intervals(QueryRunnerTestHelper.FULL_ON_INTERVAL_SPEC)
+                                      .aggregators(QueryRunnerTestHelper.ROWS_COUNT)
+                                      .build();
+    MaterializedViewQuery materializedViewQuery = new MaterializedViewQuery(realQuery, null);
+
+    QueryToolChest materializedViewQueryQueryToolChest =
+        new MaterializedViewQueryQueryToolChest(new MapQueryToolChestWarehouse(
+            ImmutableMap.<Class<? extends Query>, QueryToolChest>builder()
+                .put(TimeseriesQuery.class, new TimeseriesQueryQueryToolChest())
+                .build()
+        ));
+
+    Assert.assertEquals(
+        RowSignature.builder()
+                    .addTimeColumn()
+                    .add(QueryRunnerTestHelper.ROWS_COUNT.getName(), ValueType.LONG)
+                    .build(),
+        materializedViewQueryQueryToolChest.resultArraySignature(materializedViewQuery)
+    );
+
+    DateTime timestamp = DateTimes.of("2011-04-01");
+    Sequence<Object[]> arrays = materializedViewQueryQueryToolChest.resultsAsArrays(
+        materializedViewQuery,
+        Sequences.simple(
+            Collections.singletonList(
+                new Result<>(
+                    timestamp,
+                    new TimeseriesResultValue(ImmutableMap.of(QueryRunnerTestHelper.ROWS_COUNT.getName(), 13L))
+                )
+            )
+        )
+    );
+
+    List<Object[]> results = arrays.toList();
+    Assert.assertEquals(1, results.size());
+    Assert.assertArrayEquals(new Object[]{timestamp.getMillis(), 13L}, results.get(0));
+  }
+
   @Test
   public void testGetRealQuery()
   {
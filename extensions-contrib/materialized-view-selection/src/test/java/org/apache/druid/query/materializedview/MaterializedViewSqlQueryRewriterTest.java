@@ -0,0 +1,356 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.druid.query.materializedview;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.jsontype.NamedType;
+import com.google.common.base.Suppliers;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import org.apache.calcite.schema.SchemaPlus;
+import org.apache.druid.client.SimpleServerView;
+import org.apache.druid.data.input.impl.DimensionsSpec;
+import org.apache.druid.indexing.materializedview.DerivativeDataSourceMetadata;
+import org.apache.druid.java.util.common.granularity.Granularities;
+import org.apache.druid.java.util.common.io.Closer;
+import org.apache.druid.metadata.IndexerSQLMetadataStorageCoordinator;
+import org.apache.druid.metadata.TestDerbyConnector;
+import org.apache.druid.query.DefaultGenericQueryMetricsFactory;
+import org.apache.druid.query.DefaultQueryConfig;
+import org.apache.druid.query.Query;
+import org.apache.druid.query.QueryRunner;
+import org.apache.druid.query.QueryRunnerFactoryConglomerate;
+import org.apache.druid.query.QuerySegmentWalker;
+import org.apache.druid.query.QueryToolChest;
+import org.apache.druid.query.QueryToolChestWarehouse;
+import org.apache.druid.query.SegmentDescriptor;
+import org.apache.druid.query.aggregation.CountAggregatorFactory;
+import org.apache.druid.query.aggregation.DoubleSumAggregatorFactory;
+import org.apache.druid.segment.IndexBuilder;
+import org.apache.druid.segment.QueryableIndex;
+import org.apache.druid.segment.TestHelper;
+import org.apache.druid.segment.incremental.IncrementalIndexSchema;
+import org.apache.druid.segment.writeout.OffHeapMemorySegmentWriteOutMediumFactory;
+import org.apache.druid.server.QueryLifecycleFactory;
+import org.apache.druid.server.QueryStackTests;
+import org.apache.druid.server.log.NoopRequestLogger;
+import org.apache.druid.server.metrics.NoopServiceEmitter;
+import org.apache.druid.server.security.AuthConfig;
+import org.apache.druid.server.security.AuthTestUtils;
+import org.apache.druid.sql.SqlLifecycleFactory;
+import org.apache.druid.sql.calcite.planner.PlannerConfig;
+import org.apache.druid.sql.calcite.planner.PlannerFactory;
+import org.apache.druid.sql.calcite.util.CalciteTests;
+import org.apache.druid.sql.calcite.util.SpecificSegmentsQuerySegmentWalker;
+import org.apache.druid.testing.InitializedNullHandlingTest;
+import org.apache.druid.timeline.DataSegment;
+import org.apache.druid.timeline.partition.LinearShardSpec;
+import org.joda.time.Interval;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Runs SQL queries end to end, through {@link org.apache.druid.sql.calcite.rel.QueryMaker}, with a
+ * {@link MaterializedViewSqlQueryRewriter} and a derivative of the queried table.
+ */
+public class MaterializedViewSqlQueryRewriterTest extends InitializedNullHandlingTest
+{
+  private static final String BASE = "base";
+  private static final String DERIVATIVE = "derivative";
+  private static final Map<String, Object> USE_MATERIALIZED_VIEWS =
+      ImmutableMap.of(MaterializedViewSqlQueryRewriter.CTX_USE_MATERIALIZED_VIEWS, true);
+
+  private static QueryRunnerFactoryConglomerate conglomerate;
+  private static Closer resourceCloser;
+
+  @Rule
+  public final TestDerbyConnector.DerbyConnectorRule derbyConnectorRule = new TestDerbyConnector.DerbyConnectorRule();
+
+  @Rule
+  public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  private final Set<String> queriedDataSources = ConcurrentHashMap.newKeySet();
+  private DerivativeDataSourceManager derivativesManager;
+  private SpecificSegmentsQuerySegmentWalker walker;
+  private SqlLifecycleFactory sqlLifecycleFactory;
+
+  @BeforeClass
+  public static void setUpClass()
+  {
+    resourceCloser = Closer.create();
+    conglomerate = QueryStackTests.createQueryRunnerFactoryConglomerate(resourceCloser);
+  }
+
+  @AfterClass
+  public static void tearDownClass() throws IOException
+  {
+    resourceCloser.close();
+  }
+
+  @Before
+  public void setUp() throws Exception
+  {
+    final QueryableIndex baseIndex = IndexBuilder
+        .create()
+        .tmpDir(temporaryFolder.newFolder())
+        .segmentWriteOutMediumFactory(OffHeapMemorySegmentWriteOutMediumFactory.instance())
+        .schema(
+            new IncrementalIndexSchema.Builder()
+                .withMetrics(new CountAggregatorFactory("cnt"), new DoubleSumAggregatorFactory("m1", "m1"))
+                .withRollup(false)
+                .build()
+        )
+        .rows(CalciteTests.ROWS1)
+        .buildMMappedIndex();
+
+    // Rolled up on dim1, which is unique in ROWS1, so the derivative has the same rows as the base table.
+    final QueryableIndex derivativeIndex = IndexBuilder
+        .create()
+        .tmpDir(temporaryFolder.newFolder())
+        .segmentWriteOutMediumFactory(OffHeapMemorySegmentWriteOutMediumFactory.instance())
+        .schema(
+            new IncrementalIndexSchema.Builder()
+                .withDimensionsSpec(new DimensionsSpec(DimensionsSpec.getDefaultSchemas(ImmutableList.of("dim1"))))
+                .withMetrics(new DoubleSumAggregatorFactory("m1", "m1"))
+                .build()
+        )
+        .rows(CalciteTests.ROWS1)
+        .buildMMappedIndex();
+
+    final DataSegment baseSegment = segment(BASE, baseIndex.getDataInterval());
+    final DataSegment derivativeSegment = segment(DERIVATIVE, baseIndex.getDataInterval());
+    walker = new SpecificSegmentsQuerySegmentWalker(conglomerate)
+        .add(baseSegment, baseIndex)
+        .add(derivativeSegment, derivativeIndex);
+
+    final QueryToolChestWarehouse warehouse = new QueryToolChestWarehouse()
+    {
+      private final MaterializedViewQueryQueryToolChest viewToolChest = new MaterializedViewQueryQueryToolChest(this);
+
+      @Override
+      @SuppressWarnings("unchecked")
+      public <T, QueryType extends Query<T>> QueryToolChest<T, QueryType> getToolChest(QueryType query)
+      {
+        if (query instanceof MaterializedViewQuery) {
+          return viewToolChest;
+        }
+        return conglomerate.findFactory(query).getToolchest();
+      }
+    };
+
+    registerDerivative(derivativeSegment);
+
+    final SimpleServerView serverView = new SimpleServerView(warehouse, CalciteTests.getJsonMapper(), null);
+    serverView.addServer(SimpleServerView.createServer(1), derivativeSegment);
+
+    final PlannerConfig plannerConfig = new PlannerConfig();
+    final SchemaPlus rootSchema =
+        CalciteTests.createMockRootSchema(conglomerate, walker, plannerConfig, AuthTestUtils.TEST_AUTHORIZER_MAPPER);
+    sqlLifecycleFactory = CalciteTests.createSqlLifecycleFactory(
+        new PlannerFactory(
+            rootSchema,
+            new QueryLifecycleFactory(
+                warehouse,
+                new ViewQuerySegmentWalker(warehouse),
+                new DefaultGenericQueryMetricsFactory(),
+                new NoopServiceEmitter(),
+                new NoopRequestLogger(),
+                new AuthConfig(),
+                AuthTestUtils.TEST_AUTHORIZER_MAPPER,
+                Suppliers.ofInstance(new DefaultQueryConfig(ImmutableMap.of()))
+            ),
+            CalciteTests.createOperatorTable(),
+            CalciteTests.createExprMacroTable(),
+            plannerConfig,
+            AuthTestUtils.TEST_AUTHORIZER_MAPPER,
+            CalciteTests.getJsonMapper(),
+            CalciteTests.DRUID_SCHEMA_NAME,
+            null,
+            ImmutableSet.of(new MaterializedViewSqlQueryRewriter(new DataSourceOptimizer(serverView)))
+        )
+    );
+  }
+
+  @After
+  public void tearDown() throws IOException
+  {
+    derivativesManager.stop();
+    walker.close();
+  }
+
+  @Test
+  public void testGroupBy() throws Exception
+  {
+    final String sql = "SELECT dim1, SUM(m1) FROM base GROUP BY dim1";
+    final List<List<Object>> expected = runSql(sql, ImmutableMap.of());
+    Assert.assertEquals(ImmutableSet.of(BASE), queriedDataSources);
+    Assert.assertEquals(6, expected.size());
+
+    queriedDataSources.clear();
+    Assert.assertEquals(expected, runSql(sql, USE_MATERIALIZED_VIEWS));
+    Assert.assertTrue(queriedDataSources.contains(DERIVATIVE));
+  }
+
+  @Test
+  public void testTimeseries() throws Exception
+  {
+    final String sql = "SELECT SUM(m1) FROM base";
+    final List<List<Object>> expected = runSql(sql, ImmutableMap.of());
+
+    queriedDataSources.clear();
+    Assert.assertEquals(expected, runSql(sql, USE_MATERIALIZED_VIEWS));
+    Assert.assertEquals(ImmutableList.of(ImmutableList.of(21.0)), expected);
+    Assert.assertTrue(queriedDataSources.contains(DERIVATIVE));
+  }
+
+  @Test
+  public void testTimeFloor() throws Exception
+  {
+    // TIME_FLOOR is planned as a virtual column reading __time, which the derivative keeps at its base granularity.
+    final String sql = "SELECT TIME_FLOOR(__time, 'P1Y'), dim1, SUM(m1) FROM base GROUP BY 1, 2";
+    final List<List<Object>> expected = runSql(sql, ImmutableMap.of());
+
+    queriedDataSources.clear();
+    Assert.assertEquals(expected, runSql(sql, USE_MATERIALIZED_VIEWS));
+    Assert.assertTrue(queriedDataSources.contains(DERIVATIVE));
+  }
+
+  @Test
+  public void testCount() throws Exception
+  {
+    // COUNT(*) and AVG would count the rolled up rows of the derivative.
+    runSql("SELECT dim1, COUNT(*) FROM base GROUP BY dim1", USE_MATERIALIZED_VIEWS);
+    runSql("SELECT dim1, AVG(m1) FROM base GROUP BY dim1", USE_MATERIALIZED_VIEWS);
+    Assert.assertEquals(ImmutableSet.of(BASE), queriedDataSources);
+  }
+
+  @Test
+  public void testMissingColumn() throws Exception
+  {
+    runSql("SELECT dim2, SUM(m1) FROM base GROUP BY dim2", USE_MATERIALIZED_VIEWS);
+    Assert.assertEquals(ImmutableSet.of(BASE), queriedDataSources);
+  }
+
+  private List<List<Object>> runSql(final String sql, final Map<String, Object> context) throws Exception
+  {
+    return sqlLifecycleFactory.factorize()
+                              .runSimple(sql, context, ImmutableList.of(), CalciteTests.REGULAR_USER_AUTH_RESULT)
+                              .toList()
+                              .stream()
+                              .map(Arrays::asList)
+                              .collect(Collectors.toList());
+  }
+
+  private void registerDerivative(final DataSegment derivativeSegment) throws Exception
+  {
+    final TestDerbyConnector derbyConnector = derbyConnectorRule.getConnector();
+    derbyConnector.createDataSourceTable();
+    derbyConnector.createSegmentTable();
+
+    final ObjectMapper jsonMapper = TestHelper.makeJsonMapper();
+    jsonMapper.registerSubtypes(new NamedType(DerivativeDataSourceMetadata.class, "view"));
+
+    final IndexerSQLMetadataStorageCoordinator metadataStorageCoordinator = new IndexerSQLMetadataStorageCoordinator(
+        jsonMapper,
+        derbyConnectorRule.metadataTablesConfigSupplier().get(),
+        derbyConnector
+    );
+    metadataStorageCoordinator.insertDataSourceMetadata(
+        DERIVATIVE,
+        new DerivativeDataSourceMetadata(BASE, ImmutableSet.of("dim1"), ImmutableSet.of("m1"), Granularities.NONE)
+    );
+    metadataStorageCoordinator.announceHistoricalSegments(ImmutableSet.of(derivativeSegment));
+
+    derivativesManager = new DerivativeDataSourceManager(
+        new MaterializedViewConfig(),
+        derbyConnectorRule.metadataTablesConfigSupplier(),
+        jsonMapper,
+        derbyConnector
+    );
+    derivativesManager.start();
+    while (DerivativeDataSourceManager.getDerivatives(BASE).isEmpty()) {
+      TimeUnit.MILLISECONDS.sleep(100L);
+    }
+  }
+
+  private static DataSegment segment(final String dataSource, final Interval interval)
+  {
+    return DataSegment.builder()
+                      .dataSource(dataSource)
+                      .interval(interval)
+                      .version("1")
+                      .shardSpec(new LinearShardSpec(0))
+                      .size(1024)
+                      .build();
+  }
+
+  /**
+   * Runs "view" queries the way Brokers do, using {@link MaterializedViewQueryQueryToolChest}, and all other queries
+   * directly on {@link #walker}. Records the dataSources of the queries that reach {@link #walker}.
+   */
+  private class ViewQuerySegmentWalker implements QuerySegmentWalker
+  {
+    private final QueryToolChestWarehouse warehouse;
+
+    ViewQuerySegmentWalker(final QueryToolChestWarehouse warehouse)
+    {
+      this.warehouse = warehouse;
+    }
+
+    @Override
+    public <T> QueryRunner<T> getQueryRunnerForIntervals(final Query<T> query, final Iterable<Interval> intervals)
+    {
+      final QueryRunner<T> baseRunner = (queryPlus, responseContext) -> {
+        final Query<T> baseQuery = queryPlus.getQuery();
+        queriedDataSources.addAll(baseQuery.getDataSource().getTableNames());
+        return walker.getQueryRunnerForIntervals(baseQuery, baseQuery.getIntervals()).run(queryPlus, responseContext);
+      };
+
+      if (query instanceof MaterializedViewQuery) {
+        final QueryToolChest<T, Query<T>> toolChest = warehouse.getToolChest(query);
+        return toolChest.mergeResults(toolChest.preMergeQueryDecoration(baseRunner));
+      } else {
+        return baseRunner;
+      }
+    }
+
+    @Override
+    public <T> QueryRunner<T> getQueryRunnerForSegments(final Query<T> query, final Iterable<SegmentDescriptor> specs)
+    {
+      throw new UnsupportedOperationException();
+    }
+  }
+}
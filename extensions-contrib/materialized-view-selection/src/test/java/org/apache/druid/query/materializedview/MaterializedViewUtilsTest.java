@@ -23,6 +23,10 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Sets;
 import org.apache.druid.java.util.common.Intervals;
+import org.apache.druid.java.util.common.granularity.Granularities;
+import org.apache.druid.java.util.common.granularity.Granularity;
+import org.apache.druid.query.Druids;
+import org.apache.druid.query.aggregation.LongSumAggregatorFactory;
 import org.apache.druid.query.groupby.GroupByQuery;
 import org.apache.druid.query.timeseries.TimeseriesQuery;
 import org.apache.druid.query.topn.TopNQuery;
@@ -89,6 +93,115 @@ public class MaterializedViewUtilsTest extends InitializedNullHandlingTest
     );
   }
   
+  @Test
+  public void testGetRequiredFieldsFromGroupByQueryWithVirtualColumns() throws Exception
+  {
+    String queryStr = "{\n" +
+        "  \"queryType\": \"groupBy\",\n" +
+        "  \"dataSource\": \"sample_datasource\",\n" +
+        "  \"granularity\": \"all\",\n" +
+        "  \"virtualColumns\": [\n" +
+        "    { \"type\": \"expression\", \"name\": \"v0\", \"outputType\": \"STRING\",\n" +
+        "      \"expression\": \"concat(\\\"country\\\", \\\"device\\\")\" },\n" +
+        "    { \"type\": \"expression\", \"name\": \"v1\", \"outputType\": \"STRING\",\n" +
+        "      \"expression\": \"concat(\\\"v0\\\", \\\"carrier\\\")\" }\n" +
+        "  ],\n" +
+        "  \"dimensions\": [\"v0\"],\n" +
+        "  \"filter\": { \"type\": \"selector\", \"dimension\": \"v1\", \"value\": \"xyz\" },\n" +
+        "  \"aggregations\": [\n" +
+        "    { \"type\": \"longSum\", \"name\": \"total_usage\", \"fieldName\": \"user_count\" }\n" +
+        "  ],\n" +
+        "  \"intervals\": [ \"2012-01-01T00:00:00.000/2012-01-03T00:00:00.000\" ]\n" +
+        "}";
+    GroupByQuery query = jsonMapper.readValue(queryStr, GroupByQuery.class);
+    Set<String> fields = MaterializedViewUtils.getRequiredFields(query);
+    Assert.assertEquals(
+        Sets.newHashSet("country", "device", "carrier", "user_count"),
+        fields
+    );
+  }
+
+  @Test
+  public void testGetRequiredFieldsWithTimeColumn() throws Exception
+  {
+    String queryStr = "{\n" +
+        "  \"queryType\": \"groupBy\",\n" +
+        "  \"dataSource\": \"sample_datasource\",\n" +
+        "  \"granularity\": \"all\",\n" +
+        "  \"virtualColumns\": [\n" +
+        "    { \"type\": \"expression\", \"name\": \"v0\", \"outputType\": \"LONG\",\n" +
+        "      \"expression\": \"timestamp_floor(\\\"__time\\\",'P1D',null,'UTC')\" }\n" +
+        "  ],\n" +
+        "  \"dimensions\": [\"v0\", \"country\"],\n" +
+        "  \"filter\": { \"type\": \"bound\", \"dimension\": \"__time\", \"lower\": \"0\", \"ordering\": \"numeric\" },\n" +
+        "  \"aggregations\": [\n" +
+        "    { \"type\": \"longSum\", \"name\": \"total_usage\", \"fieldName\": \"user_count\" }\n" +
+        "  ],\n" +
+        "  \"intervals\": [ \"2012-01-01T00:00:00.000/2012-01-03T00:00:00.000\" ]\n" +
+        "}";
+    GroupByQuery query = jsonMapper.readValue(queryStr, GroupByQuery.class);
+    Set<String> fields = MaterializedViewUtils.getRequiredFields(query);
+    // Every derivative has a time column, so it is not required.
+    Assert.assertEquals(
+        Sets.newHashSet("country", "user_count"),
+        fields
+    );
+  }
+
+  @Test
+  public void testIsGranularityCompatible()
+  {
+    TimeseriesQuery query = makeTimeseriesQuery(Granularities.DAY, "2012-01-01/2012-01-03");
+    Assert.assertFalse(MaterializedViewUtils.isGranularityCompatible(query, null));
+    Assert.assertTrue(MaterializedViewUtils.isGranularityCompatible(query, Granularities.NONE));
+    Assert.assertTrue(MaterializedViewUtils.isGranularityCompatible(query, Granularities.HOUR));
+    Assert.assertTrue(MaterializedViewUtils.isGranularityCompatible(query, Granularities.DAY));
+    Assert.assertFalse(MaterializedViewUtils.isGranularityCompatible(query, Granularities.MONTH));
+    // hourly buckets cannot be served from rows rolled up to days.
+    Assert.assertFalse(
+        MaterializedViewUtils.isGranularityCompatible(
+            makeTimeseriesQuery(Granularities.HOUR, "2012-01-01/2012-01-03"),
+            Granularities.DAY
+        )
+    );
+    // neither can intervals that do not start or end on a day.
+    Assert.assertFalse(
+        MaterializedViewUtils.isGranularityCompatible(
+            makeTimeseriesQuery(Granularities.ALL, "2012-01-01T06:00/2012-01-03"),
+            Granularities.DAY
+        )
+    );
+    Assert.assertTrue(
+        MaterializedViewUtils.isGranularityCompatible(
+            makeTimeseriesQuery(Granularities.ALL, Intervals.ETERNITY.toString()),
+            Granularities.DAY
+        )
+    );
+  }
+
+  @Test
+  public void testIsGranularityCompatibleWithTimeColumn() throws Exception
+  {
+    String queryStr = "{\n" +
+        "  \"queryType\": \"groupBy\",\n" +
+        "  \"dataSource\": \"sample_datasource\",\n" +
+        "  \"granularity\": \"all\",\n" +
+        "  \"virtualColumns\": [\n" +
+        "    { \"type\": \"expression\", \"name\": \"v0\", \"outputType\": \"LONG\",\n" +
+        "      \"expression\": \"timestamp_floor(\\\"__time\\\",'PT1H',null,'UTC')\" }\n" +
+        "  ],\n" +
+        "  \"dimensions\": [\"v0\", \"country\"],\n" +
+        "  \"aggregations\": [\n" +
+        "    { \"type\": \"longSum\", \"name\": \"total_usage\", \"fieldName\": \"user_count\" }\n" +
+        "  ],\n" +
+        "  \"intervals\": [ \"2012-01-01T00:00:00.000/2012-01-03T00:00:00.000\" ]\n" +
+        "}";
+    GroupByQuery query = jsonMapper.readValue(queryStr, GroupByQuery.class);
+    Assert.assertTrue(MaterializedViewUtils.isGranularityCompatible(query, Granularities.NONE));
+    // an hourly TIME_FLOOR over rows rolled up to days would put every row in the first hour of its day.
+    Assert.assertFalse(MaterializedViewUtils.isGranularityCompatible(query, Granularities.DAY));
+  }
+
   @Test
   public void testGetRequiredFieldsFromTopNQuery() throws Exception
   {
@@ -229,4 +342,14 @@ public class MaterializedViewUtilsTest extends InitializedNullHandlingTest
         result
     );
   }
+
+  private static TimeseriesQuery makeTimeseriesQuery(Granularity granularity, String interval)
+  {
+    return Druids.newTimeseriesQueryBuilder()
+                 .dataSource("sample_datasource")
+                 .granularity(granularity)
+                 .intervals(interval)
+                 .aggregators(new LongSumAggregatorFactory("total_usage", "user_count"))
+                 .build();
+  }
 }
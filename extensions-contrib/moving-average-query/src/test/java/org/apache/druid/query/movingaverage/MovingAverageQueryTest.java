@@ -386,7 +386,8 @@ public class MovingAverageQueryTest extends InitializedNullHandlingTest
         jsonMapper,
         serverConfig,
         null,
-        new CacheConfig()
+        new CacheConfig(),
+        QueryStackTests.getProcessingConfig(false)
     );
 
     defineMocks();
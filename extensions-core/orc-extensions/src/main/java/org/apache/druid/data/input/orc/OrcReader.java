@@ -33,7 +33,7 @@ import org.apache.druid.java.util.common.parsers.ObjectFlatteners;
 import org.apache.druid.java.util.common.parsers.ParseException;
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.fs.Path;
-import org.apache.hadoop.io.NullWritable;
+import org.apache.hadoop.hive.ql.exec.vector.VectorizedRowBatch;
 import org.apache.orc.OrcFile;
 import org.apache.orc.Reader;
 import org.apache.orc.RecordReader;
@@ -41,12 +41,15 @@ import org.apache.orc.TypeDescription;
 import org.apache.orc.mapred.OrcMapredRecordReader;
 import org.apache.orc.mapred.OrcStruct;
 
+import javax.annotation.Nullable;
 import java.io.File;
 import java.io.IOException;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.Set;
 
 public class OrcReader extends IntermediateRowParsingReader<OrcStruct>
 {
@@ -55,6 +58,11 @@ public class OrcReader extends IntermediateRowParsingReader<OrcStruct>
   private final InputEntity source;
   private final File temporaryDirectory;
   private final ObjectFlattener<OrcStruct> orcStructFlattener;
+  /**
+   * Top-level fields needed by the {@link InputRowSchema}, or null if all fields must be read.
+   */
+  @Nullable
+  private final Set<String> projectedFields;
 
   OrcReader(
       Configuration conf,
@@ -70,6 +78,7 @@ public class OrcReader extends IntermediateRowParsingReader<OrcStruct>
     this.source = source;
     this.temporaryDirectory = temporaryDirectory;
     this.orcStructFlattener = ObjectFlatteners.create(flattenSpec, new OrcStructFlattenerMaker(binaryAsString));
+    this.projectedFields = ObjectFlatteners.getRequiredRootFields(inputRowSchema, flattenSpec);
   }
 
   @Override
@@ -92,15 +101,17 @@ public class OrcReader extends IntermediateRowParsingReader<OrcStruct>
     finally {
       Thread.currentThread().setContextClassLoader(currentClassLoader);
     }
-    // The below line will get the schmea to read the whole columns.
-    // This can be improved by projecting some columns only what users want in the future.
     final TypeDescription schema = reader.getSchema();
-    final RecordReader batchReader = reader.rows(reader.options());
-    final OrcMapredRecordReader<OrcStruct> recordReader = new OrcMapredRecordReader<>(batchReader, schema);
-    closer.register(recordReader::close);
+    final boolean[] includedFields = getIncludedFields(schema);
+    final Reader.Options options = reader.options();
+    if (includedFields != null) {
+      options.include(getIncludedColumns(schema, includedFields));
+    }
+    final RecordReader batchReader = closer.register(reader.rows(options));
+    final VectorizedRowBatch batch = schema.createRowBatch();
     return new CloseableIterator<OrcStruct>()
     {
-      final NullWritable key = recordReader.createKey();
+      int rowInBatch = 0;
       OrcStruct value = null;
 
       @Override
@@ -108,17 +119,29 @@ public class OrcReader extends IntermediateRowParsingReader<OrcStruct>
       {
         if (value == null) {
           try {
-            // The returned OrcStruct in next() can be kept in memory for a while.
-            // Here, we create a new instance of OrcStruct before calling RecordReader.next(),
-            // so that we can avoid to share the same reference to the "value" across rows.
-            value = recordReader.createValue();
-            if (!recordReader.next(key, value)) {
-              value = null;
+            while (rowInBatch >= batch.size) {
+              if (!batchReader.nextBatch(batch)) {
+                return false;
+              }
+              rowInBatch = 0;
             }
           }
           catch (IOException e) {
             throw new RuntimeException(e);
           }
+          // The returned OrcStruct in next() can be kept in memory for a while, so we create a new instance for each
+          // row instead of reusing the previous one. Fields which are not projected are left null.
+          value = new OrcStruct(schema);
+          final List<TypeDescription> fieldTypes = schema.getChildren();
+          for (int i = 0; i < fieldTypes.size(); i++) {
+            if (includedFields == null || includedFields[i]) {
+              value.setFieldValue(
+                  i,
+                  OrcMapredRecordReader.nextValue(batch.cols[i], rowInBatch, fieldTypes.get(i), null)
+              );
+            }
+          }
+          rowInBatch++;
         }
         return value != null;
       }
@@ -142,6 +165,42 @@ public class OrcReader extends IntermediateRowParsingReader<OrcStruct>
     };
   }
 
+  /**
+   * Returns which top-level fields of the given schema are needed by the {@link InputRowSchema}, or null if all of them
+   * are needed.
+   */
+  @Nullable
+  private boolean[] getIncludedFields(TypeDescription schema)
+  {
+    if (projectedFields == null) {
+      return null;
+    }
+    final List<String> fieldNames = schema.getFieldNames();
+    final boolean[] includedFields = new boolean[fieldNames.size()];
+    for (int i = 0; i < fieldNames.size(); i++) {
+      includedFields[i] = projectedFields.contains(fieldNames.get(i));
+    }
+    return includedFields;
+  }
+
+  /**
+   * Converts the included top-level fields into the included column ids for {@link Reader.Options#include}. Each field
+   * is a subtree of column ids, and the root struct is always included.
+   */
+  private static boolean[] getIncludedColumns(TypeDescription schema, boolean[] includedFields)
+  {
+    final boolean[] includedColumns = new boolean[schema.getMaximumId() + 1];
+    includedColumns[schema.getId()] = true;
+    final List<TypeDescription> fieldTypes = schema.getChildren();
+    for (int i = 0; i < fieldTypes.size(); i++) {
+      if (includedFields[i]) {
+        final TypeDescription fieldType = fieldTypes.get(i);
+        Arrays.fill(includedColumns, fieldType.getId(), fieldType.getMaximumId() + 1, true);
+      }
+    }
+    return includedColumns;
+  }
+
   @Override
   protected List<InputRow> parseInputRows(OrcStruct intermediateRow) throws ParseException
   {
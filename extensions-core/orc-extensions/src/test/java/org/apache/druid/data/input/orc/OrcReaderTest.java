@@ -20,7 +20,9 @@
 package org.apache.druid.data.input.orc;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Iterables;
+import org.apache.druid.data.input.ColumnsFilter;
 import org.apache.druid.data.input.InputEntityReader;
 import org.apache.druid.data.input.InputFormat;
 import org.apache.druid.data.input.InputRow;
@@ -42,6 +44,7 @@ import org.junit.rules.TemporaryFolder;
 import java.io.File;
 import java.io.IOException;
 import java.util.Collections;
+import java.util.List;
 
 public class OrcReaderTest
 {
@@ -172,6 +175,48 @@ public class OrcReaderTest
     }
   }
 
+  @Test
+  public void testOrcFile11FormatWithColumnsFilter() throws IOException
+  {
+    final OrcInputFormat inputFormat = new OrcInputFormat(
+        new JSONPathSpec(
+            true,
+            ImmutableList.of(
+                new JSONPathFieldSpec(JSONPathFieldType.PATH, "struct_list_struct_int", "$.middle.list[1].int1")
+            )
+        ),
+        null,
+        new Configuration()
+    );
+    final List<String> dimensions = ImmutableList.of("int1", "struct_list_struct_int");
+    final InputEntityReader reader = createReader(
+        new TimestampSpec("ts", "millis", null),
+        new DimensionsSpec(DimensionsSpec.getDefaultSchemas(dimensions)),
+        ColumnsFilter.inclusionBased(ImmutableSet.copyOf(dimensions)),
+        inputFormat,
+        "example/orc-file-11-format.orc"
+    );
+    try (CloseableIterator<InputRow> iterator = reader.read()) {
+      int actualRowCount = 0;
+
+      Assert.assertTrue(iterator.hasNext());
+      final InputRow row = iterator.next();
+      actualRowCount++;
+      Assert.assertEquals(DateTimes.of("2000-03-12T15:00:00.0Z"), row.getTimestamp());
+      Assert.assertEquals("65536", Iterables.getOnlyElement(row.getDimension("int1")));
+      Assert.assertEquals("2", Iterables.getOnlyElement(row.getDimension("struct_list_struct_int")));
+      // Columns which are not needed are not read.
+      Assert.assertTrue(row.getDimension("string1").isEmpty());
+      Assert.assertTrue(row.getDimension("list").isEmpty());
+
+      while (iterator.hasNext()) {
+        actualRowCount++;
+        iterator.next();
+      }
+      Assert.assertEquals(7500, actualRowCount);
+    }
+  }
+
   // This test is migrated from OrcHadoopInputRowParserTest
   @Test
   public void testOrcSplitElim() throws IOException
@@ -259,7 +304,23 @@ public class OrcReaderTest
       String dataFile
   ) throws IOException
   {
-    final InputRowSchema schema = new InputRowSchema(timestampSpec, dimensionsSpec, Collections.emptyList());
+    return createReader(timestampSpec, dimensionsSpec, ColumnsFilter.all(), inputFormat, dataFile);
+  }
+
+  private InputEntityReader createReader(
+      TimestampSpec timestampSpec,
+      DimensionsSpec dimensionsSpec,
+      ColumnsFilter columnsFilter,
+      InputFormat inputFormat,
+      String dataFile
+  ) throws IOException
+  {
+    final InputRowSchema schema = new InputRowSchema(
+        timestampSpec,
+        dimensionsSpec,
+        Collections.emptyList(),
+        columnsFilter
+    );
     final FileEntity entity = new FileEntity(new File(dataFile));
     return inputFormat.createReader(schema, entity, temporaryFolder.newFolder());
   }
@@ -35,14 +35,20 @@ import org.apache.druid.java.util.common.parsers.ParseException;
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.fs.Path;
 import org.apache.parquet.example.data.Group;
+import org.apache.parquet.hadoop.api.InitContext;
 import org.apache.parquet.hadoop.example.GroupReadSupport;
+import org.apache.parquet.schema.MessageType;
+import org.apache.parquet.schema.Type;
 
+import javax.annotation.Nullable;
 import java.io.File;
 import java.io.IOException;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 public class ParquetReader extends IntermediateRowParsingReader<Group>
 {
@@ -51,6 +57,11 @@ public class ParquetReader extends IntermediateRowParsingReader<Group>
   private final InputEntity source;
   private final File temporaryDirectory;
   private final ObjectFlattener<Group> flattener;
+  /**
+   * Top-level fields needed by the {@link InputRowSchema}, or null if all fields must be read.
+   */
+  @Nullable
+  private final Set<String> projectedFields;
 
   ParquetReader(
       Configuration conf,
@@ -66,6 +77,7 @@ public class ParquetReader extends IntermediateRowParsingReader<Group>
     this.source = source;
     this.temporaryDirectory = temporaryDirectory;
     this.flattener = ObjectFlatteners.create(flattenSpec, new ParquetGroupFlattenerMaker(binaryAsString));
+    this.projectedFields = ObjectFlatteners.getRequiredRootFields(inputRowSchema, flattenSpec);
   }
 
   @Override
@@ -80,7 +92,7 @@ public class ParquetReader extends IntermediateRowParsingReader<Group>
       final Path path = new Path(file.file().toURI());
 
       Thread.currentThread().setContextClassLoader(getClass().getClassLoader());
-      reader = closer.register(org.apache.parquet.hadoop.ParquetReader.builder(new GroupReadSupport(), path)
+      reader = closer.register(org.apache.parquet.hadoop.ParquetReader.builder(createReadSupport(), path)
                                                                       .withConf(conf)
                                                                       .build());
     }
@@ -131,6 +143,30 @@ public class ParquetReader extends IntermediateRowParsingReader<Group>
     };
   }
 
+  private GroupReadSupport createReadSupport()
+  {
+    if (projectedFields == null) {
+      return new GroupReadSupport();
+    }
+    return new GroupReadSupport()
+    {
+      /**
+       * Requests only the top-level fields which are needed, so that the column chunks of the other fields are
+       * neither read nor decoded.
+       */
+      @Override
+      public ReadContext init(InitContext context)
+      {
+        final MessageType fileSchema = context.getFileSchema();
+        final List<Type> fields = fileSchema.getFields()
+                                            .stream()
+                                            .filter(field -> projectedFields.contains(field.getName()))
+                                            .collect(Collectors.toList());
+        return new ReadContext(new MessageType(fileSchema.getName(), fields));
+      }
+    };
+  }
+
   @Override
   protected List<InputRow> parseInputRows(Group intermediateRow) throws ParseException
   {
@@ -20,6 +20,8 @@
 package org.apache.druid.data.input.parquet;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import org.apache.druid.data.input.ColumnsFilter;
 import org.apache.druid.data.input.InputEntityReader;
 import org.apache.druid.data.input.InputRow;
 import org.apache.druid.data.input.InputRowListPlusRawValues;
@@ -362,4 +364,35 @@ public class FlattenSpecParquetReaderTest extends BaseParquetReaderTest
     List<InputRowListPlusRawValues> sampled = sampleAllRows(reader);
     Assert.assertEquals(NESTED_JSON, DEFAULT_JSON_WRITER.writeValueAsString(sampled.get(0).getRawValues()));
   }
+
+  @Test
+  public void testNested1FlattenWithColumnsFilter() throws IOException
+  {
+    final String file = "example/flattening/test_nested_1.parquet";
+    InputRowSchema schema = new InputRowSchema(
+        new TimestampSpec("timestamp", "auto", null),
+        new DimensionsSpec(DimensionsSpec.getDefaultSchemas(ImmutableList.of("dim2"))),
+        ImmutableList.of("metric1"),
+        ColumnsFilter.inclusionBased(ImmutableSet.of("dim2", "metric1"))
+    );
+    List<JSONPathFieldSpec> flattenExpr = ImmutableList.of(
+        new JSONPathFieldSpec(JSONPathFieldType.ROOT, "timestamp", null),
+        new JSONPathFieldSpec(JSONPathFieldType.ROOT, "dim1", null),
+        new JSONPathFieldSpec(JSONPathFieldType.PATH, "dim2", "$.nestedData.dim2")
+    );
+    JSONPathSpec flattenSpec = new JSONPathSpec(true, flattenExpr);
+    InputEntityReader reader = createReader(
+        file,
+        schema,
+        flattenSpec
+    );
+
+    List<InputRow> rows = readAllRows(reader);
+
+    Assert.assertEquals(FlattenSpecParquetInputTest.TS1, rows.get(0).getTimestamp().toString());
+    Assert.assertEquals("d2v1", rows.get(0).getDimension("dim2").get(0));
+    Assert.assertEquals(1, rows.get(0).getMetric("metric1").longValue());
+    // Columns which are not needed are not read.
+    Assert.assertTrue(rows.get(0).getDimension("dim1").isEmpty());
+  }
 }
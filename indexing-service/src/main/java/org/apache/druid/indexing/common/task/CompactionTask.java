@@ -243,7 +243,9 @@ public class CompactionTask extends AbstractBatchIndexTask
           null,
           indexTuningConfig.isLogParseExceptions(),
           indexTuningConfig.getMaxParseExceptions(),
-          indexTuningConfig.getMaxSavedParseExceptions()
+          indexTuningConfig.getMaxSavedParseExceptions(),
+          indexTuningConfig.isPersistLargestSinks(),
+          indexTuningConfig.getPersistLargestSinksMemoryRatio()
       );
     } else {
       throw new ISE(
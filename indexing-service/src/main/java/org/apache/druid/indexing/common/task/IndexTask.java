@@ -1118,6 +1118,8 @@ public class IndexTask extends AbstractBatchIndexTask implements ChatHandler
     private static final boolean DEFAULT_GUARANTEE_ROLLUP = false;
     private static final boolean DEFAULT_REPORT_PARSE_EXCEPTIONS = false;
     private static final long DEFAULT_PUSH_TIMEOUT = 0;
+    private static final boolean DEFAULT_PERSIST_LARGEST_SINKS = false;
+    private static final double DEFAULT_PERSIST_LARGEST_SINKS_MEMORY_RATIO = 0.5;
 
     private final AppendableIndexSpec appendableIndexSpec;
     private final int maxRowsInMemory;
@@ -1147,6 +1149,14 @@ public class IndexTask extends AbstractBatchIndexTask implements ChatHandler
     @Nullable
     private final SegmentWriteOutMediumFactory segmentWriteOutMediumFactory;
 
+    /**
+     * If true, reaching maxRowsInMemory or maxBytesInMemory only persists the segments holding the most data in memory,
+     * until at most {@link #persistLargestSinksMemoryRatio} of both limits is left. Smaller segments keep being rolled
+     * up in memory, which helps when rows are spread over many segments at once, like with perfect rollup.
+     */
+    private final boolean persistLargestSinks;
+    private final double persistLargestSinksMemoryRatio;
+
     @Nullable
     private static PartitionsSpec getPartitionsSpec(
         boolean forceGuaranteedRollup,
@@ -1210,7 +1220,9 @@ public class IndexTask extends AbstractBatchIndexTask implements ChatHandler
             SegmentWriteOutMediumFactory segmentWriteOutMediumFactory,
         @JsonProperty("logParseExceptions") @Nullable Boolean logParseExceptions,
         @JsonProperty("maxParseExceptions") @Nullable Integer maxParseExceptions,
-        @JsonProperty("maxSavedParseExceptions") @Nullable Integer maxSavedParseExceptions
+        @JsonProperty("maxSavedParseExceptions") @Nullable Integer maxSavedParseExceptions,
+        @JsonProperty("persistLargestSinks") @Nullable Boolean persistLargestSinks,
+        @JsonProperty("persistLargestSinksMemoryRatio") @Nullable Double persistLargestSinksMemoryRatio
     )
     {
       this(
@@ -1235,7 +1247,9 @@ public class IndexTask extends AbstractBatchIndexTask implements ChatHandler
           segmentWriteOutMediumFactory,
           logParseExceptions,
           maxParseExceptions,
-          maxSavedParseExceptions
+          maxSavedParseExceptions,
+          persistLargestSinks,
+          persistLargestSinksMemoryRatio
       );
 
       Preconditions.checkArgument(
@@ -1246,7 +1260,7 @@ public class IndexTask extends AbstractBatchIndexTask implements ChatHandler
 
     private IndexTuningConfig()
     {
-      this(null, null, null, null, null, null, null, null, null, null, null, null, null, null, null);
+      this(null, null, null, null, null, null, null, null, null, null, null, null, null, null, null, null, null);
     }
 
     private IndexTuningConfig(
@@ -1264,7 +1278,9 @@ public class IndexTask extends AbstractBatchIndexTask implements ChatHandler
         @Nullable SegmentWriteOutMediumFactory segmentWriteOutMediumFactory,
         @Nullable Boolean logParseExceptions,
         @Nullable Integer maxParseExceptions,
-        @Nullable Integer maxSavedParseExceptions
+        @Nullable Integer maxSavedParseExceptions,
+        @Nullable Boolean persistLargestSinks,
+        @Nullable Double persistLargestSinksMemoryRatio
     )
     {
       this.appendableIndexSpec = appendableIndexSpec == null ? DEFAULT_APPENDABLE_INDEX : appendableIndexSpec;
@@ -1300,6 +1316,14 @@ public class IndexTask extends AbstractBatchIndexTask implements ChatHandler
       this.logParseExceptions = logParseExceptions == null
                                 ? TuningConfig.DEFAULT_LOG_PARSE_EXCEPTIONS
                                 : logParseExceptions;
+      this.persistLargestSinks = persistLargestSinks == null ? DEFAULT_PERSIST_LARGEST_SINKS : persistLargestSinks;
+      this.persistLargestSinksMemoryRatio = persistLargestSinksMemoryRatio == null
+                                            ? DEFAULT_PERSIST_LARGEST_SINKS_MEMORY_RATIO
+                                            : persistLargestSinksMemoryRatio;
+      Preconditions.checkArgument(
+          this.persistLargestSinksMemoryRatio >= 0 && this.persistLargestSinksMemoryRatio < 1,
+          "persistLargestSinksMemoryRatio must be in [0, 1)"
+      );
     }
 
     @Override
@@ -1320,7 +1344,9 @@ public class IndexTask extends AbstractBatchIndexTask implements ChatHandler
           segmentWriteOutMediumFactory,
           logParseExceptions,
           maxParseExceptions,
-          maxSavedParseExceptions
+          maxSavedParseExceptions,
+          persistLargestSinks,
+          persistLargestSinksMemoryRatio
       );
     }
 
@@ -1341,7 +1367,9 @@ public class IndexTask extends AbstractBatchIndexTask implements ChatHandler
           segmentWriteOutMediumFactory,
           logParseExceptions,
           maxParseExceptions,
-          maxSavedParseExceptions
+          maxSavedParseExceptions,
+          persistLargestSinks,
+          persistLargestSinksMemoryRatio
       );
     }
 
@@ -1460,6 +1488,20 @@ public class IndexTask extends AbstractBatchIndexTask implements ChatHandler
       return maxSavedParseExceptions;
     }
 
+    @JsonProperty
+    @Override
+    public boolean isPersistLargestSinks()
+    {
+      return persistLargestSinks;
+    }
+
+    @JsonProperty
+    @Override
+    public double getPersistLargestSinksMemoryRatio()
+    {
+      return persistLargestSinksMemoryRatio;
+    }
+
     /**
      * Return the max number of rows per segment. This returns null if it's not specified in tuningConfig.
      * Deprecated in favor of {@link #getGivenOrDefaultPartitionsSpec()}.
@@ -1539,6 +1581,8 @@ public class IndexTask extends AbstractBatchIndexTask implements ChatHandler
              logParseExceptions == that.logParseExceptions &&
              maxParseExceptions == that.maxParseExceptions &&
              maxSavedParseExceptions == that.maxSavedParseExceptions &&
+             persistLargestSinks == that.persistLargestSinks &&
+             Double.compare(that.persistLargestSinksMemoryRatio, persistLargestSinksMemoryRatio) == 0 &&
              Objects.equals(partitionsSpec, that.partitionsSpec) &&
              Objects.equals(indexSpec, that.indexSpec) &&
              Objects.equals(indexSpecForIntermediatePersists, that.indexSpecForIntermediatePersists) &&
@@ -1564,7 +1608,9 @@ public class IndexTask extends AbstractBatchIndexTask implements ChatHandler
           logParseExceptions,
           maxParseExceptions,
           maxSavedParseExceptions,
-          segmentWriteOutMediumFactory
+          segmentWriteOutMediumFactory,
+          persistLargestSinks,
+          persistLargestSinksMemoryRatio
       );
     }
 
@@ -1586,6 +1632,8 @@ public class IndexTask extends AbstractBatchIndexTask implements ChatHandler
              ", maxParseExceptions=" + maxParseExceptions +
              ", maxSavedParseExceptions=" + maxSavedParseExceptions +
              ", segmentWriteOutMediumFactory=" + segmentWriteOutMediumFactory +
+             ", persistLargestSinks=" + persistLargestSinks +
+             ", persistLargestSinksMemoryRatio=" + persistLargestSinksMemoryRatio +
              '}';
     }
   }
@@ -99,6 +99,8 @@ public class ParallelIndexTuningConfig extends IndexTuningConfig
         null,
         null,
         null,
+        null,
+        null,
         null
     );
   }
@@ -131,7 +133,9 @@ public class ParallelIndexTuningConfig extends IndexTuningConfig
       @JsonProperty("totalNumMergeTasks") @Nullable Integer totalNumMergeTasks,
       @JsonProperty("logParseExceptions") @Nullable Boolean logParseExceptions,
       @JsonProperty("maxParseExceptions") @Nullable Integer maxParseExceptions,
-      @JsonProperty("maxSavedParseExceptions") @Nullable Integer maxSavedParseExceptions
+      @JsonProperty("maxSavedParseExceptions") @Nullable Integer maxSavedParseExceptions,
+      @JsonProperty("persistLargestSinks") @Nullable Boolean persistLargestSinks,
+      @JsonProperty("persistLargestSinksMemoryRatio") @Nullable Double persistLargestSinksMemoryRatio
   )
   {
     super(
@@ -155,7 +159,9 @@ public class ParallelIndexTuningConfig extends IndexTuningConfig
         segmentWriteOutMediumFactory,
         logParseExceptions,
         maxParseExceptions,
-        maxSavedParseExceptions
+        maxSavedParseExceptions,
+        persistLargestSinks,
+        persistLargestSinksMemoryRatio
     );
 
     if (maxNumSubTasks != null && maxNumConcurrentSubTasks != null) {
@@ -276,7 +282,9 @@ public class ParallelIndexTuningConfig extends IndexTuningConfig
         getTotalNumMergeTasks(),
         isLogParseExceptions(),
         getMaxParseExceptions(),
-        getMaxSavedParseExceptions()
+        getMaxSavedParseExceptions(),
+        isPersistLargestSinks(),
+        getPersistLargestSinksMemoryRatio()
     );
   }
 
@@ -0,0 +1,96 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.apache.druid.indexing.input;
+
+import org.apache.druid.data.input.ColumnsFilter;
+import org.apache.druid.data.input.InputRowSchema;
+import org.apache.druid.data.input.impl.DimensionsSpec;
+import org.apache.druid.data.input.impl.SpatialDimensionSchema;
+import org.apache.druid.query.aggregation.AggregatorFactory;
+import org.apache.druid.query.aggregation.FilteredAggregatorFactory;
+import org.apache.druid.segment.indexing.DataSchema;
+import org.apache.druid.segment.transform.TransformSpec;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Utilities for creating the {@link InputRowSchema}s used by ingestion tasks.
+ */
+public class InputRowSchemas
+{
+  private InputRowSchemas()
+  {
+    // No instantiation.
+  }
+
+  /**
+   * Creates an {@link InputRowSchema} from a given {@link DataSchema}, with a {@link ColumnsFilter} that includes
+   * only the input columns needed by the timestamp, dimensions, aggregators and transformSpec of the dataSchema.
+   */
+  public static InputRowSchema fromDataSchema(final DataSchema dataSchema)
+  {
+    return new InputRowSchema(
+        dataSchema.getTimestampSpec(),
+        dataSchema.getDimensionsSpec(),
+        Arrays.stream(dataSchema.getAggregators())
+              .map(AggregatorFactory::getName)
+              .collect(Collectors.toList()),
+        createColumnsFilter(dataSchema)
+    );
+  }
+
+  static ColumnsFilter createColumnsFilter(final DataSchema dataSchema)
+  {
+    final DimensionsSpec dimensionsSpec = dataSchema.getDimensionsSpec();
+    final TransformSpec transformSpec = dataSchema.getTransformSpec();
+    final Set<String> transformColumns = transformSpec.getRequiredColumns();
+    if (!dimensionsSpec.hasCustomDimensions() || transformColumns == null) {
+      // Schemaless dimensions are discovered from the input data, so all columns may be used.
+      return ColumnsFilter.all();
+    }
+
+    final Set<String> columns = new HashSet<>(transformColumns);
+    columns.add(dataSchema.getTimestampSpec().getTimestampColumn());
+    columns.addAll(dimensionsSpec.getDimensionNames());
+    for (SpatialDimensionSchema spatialDimension : dimensionsSpec.getSpatialDimensions()) {
+      columns.addAll(spatialDimension.getDims());
+    }
+    for (AggregatorFactory aggregator : dataSchema.getAggregators()) {
+      addRequiredFields(aggregator, columns);
+    }
+    return ColumnsFilter.inclusionBased(columns);
+  }
+
+  private static void addRequiredFields(final AggregatorFactory aggregator, final Set<String> columns)
+  {
+    // requiredFields() of a filtered aggregator does not include the columns of its filter.
+    if (aggregator instanceof FilteredAggregatorFactory) {
+      final FilteredAggregatorFactory filteredAggregator = (FilteredAggregatorFactory) aggregator;
+      columns.addAll(filteredAggregator.getFilter().getRequiredColumns());
+      addRequiredFields(filteredAggregator.getAggregator(), columns);
+    } else {
+      columns.addAll(aggregator.requiredFields());
+    }
+  }
+}
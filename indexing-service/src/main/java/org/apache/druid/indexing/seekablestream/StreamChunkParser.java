@@ -21,6 +21,7 @@ package org.apache.druid.indexing.seekablestream;
 
 import com.google.common.collect.FluentIterable;
 import com.google.common.collect.Lists;
+import org.apache.druid.data.input.InputEntityBatchReader;
 import org.apache.druid.data.input.InputFormat;
 import org.apache.druid.data.input.InputRow;
 import org.apache.druid.data.input.InputRowSchema;
@@ -32,6 +33,7 @@ import org.apache.druid.java.util.common.IAE;
 import org.apache.druid.segment.incremental.ParseExceptionHandler;
 import org.apache.druid.segment.incremental.RowIngestionMeters;
 import org.apache.druid.segment.transform.TransformSpec;
+import org.apache.druid.segment.transform.Transformer;
 
 import javax.annotation.Nullable;
 import java.io.File;
@@ -43,15 +45,17 @@ import java.util.List;
 import java.util.function.Predicate;
 
 /**
- * Abstraction for parsing stream data which internally uses {@link org.apache.druid.data.input.InputEntityReader}
- * or {@link InputRowParser}. This class will be useful untill we remove the deprecated InputRowParser.
+ * Abstraction for parsing stream data which internally uses {@link InputEntityBatchReader} or {@link InputRowParser}.
+ * This class will be useful untill we remove the deprecated InputRowParser.
  */
 class StreamChunkParser
 {
   @Nullable
   private final InputRowParser<ByteBuffer> parser;
   @Nullable
-  private final SettableByteEntityReader byteEntityReader;
+  private final InputEntityBatchReader byteEntityReader;
+  @Nullable
+  private final Transformer transformer;
   private final Predicate<InputRow> rowFilter;
   private final RowIngestionMeters rowIngestionMeters;
   private final ParseExceptionHandler parseExceptionHandler;
@@ -76,14 +80,12 @@ class StreamChunkParser
     // parser is already decorated with transformSpec in DataSchema
     this.parser = parser;
     if (inputFormat != null) {
-      this.byteEntityReader = new SettableByteEntityReader(
-          inputFormat,
-          inputRowSchema,
-          transformSpec,
-          indexingTmpDir
-      );
+      // The batch reader is created once and reused for all stream chunks.
+      this.byteEntityReader = inputFormat.createBatchReader(inputRowSchema, indexingTmpDir);
+      this.transformer = transformSpec.toTransformer();
     } else {
       this.byteEntityReader = null;
+      this.transformer = null;
     }
     this.rowFilter = rowFilter;
     this.rowIngestionMeters = rowIngestionMeters;
@@ -120,21 +122,19 @@ class StreamChunkParser
   }
 
   private List<InputRow> parseWithInputFormat(
-      SettableByteEntityReader byteEntityReader,
+      InputEntityBatchReader byteEntityReader,
       List<byte[]> valueBytess
   ) throws IOException
   {
+    final List<ByteEntity> entities = Lists.transform(valueBytess, ByteEntity::new);
     final List<InputRow> rows = new ArrayList<>();
-    for (byte[] valueBytes : valueBytess) {
-      byteEntityReader.setEntity(new ByteEntity(valueBytes));
-      try (FilteringCloseableInputRowIterator rowIterator = new FilteringCloseableInputRowIterator(
-          byteEntityReader.read(),
-          rowFilter,
-          rowIngestionMeters,
-          parseExceptionHandler
-      )) {
-        rowIterator.forEachRemaining(rows::add);
-      }
+    try (FilteringCloseableInputRowIterator rowIterator = new FilteringCloseableInputRowIterator(
+        byteEntityReader.read(entities).map(transformer::transform),
+        rowFilter,
+        rowIngestionMeters,
+        parseExceptionHandler
+    )) {
+      rowIterator.forEachRemaining(rows::add);
     }
     return rows;
   }
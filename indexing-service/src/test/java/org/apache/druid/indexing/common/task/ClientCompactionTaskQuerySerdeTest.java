@@ -238,6 +238,8 @@ public class ClientCompactionTaskQuerySerdeTest
                 100,
                 null,
                 null,
+                null,
+                null,
                 null
             )
         )
@@ -298,6 +298,8 @@ public class CompactionTaskRunTest extends IngestionTestBase
                 null,
                 null,
                 null,
+                null,
+                null,
                 null
             )
         )
@@ -334,6 +334,8 @@ public class CompactionTaskTest
         null,
         null,
         null,
+        null,
+        null,
         null
     );
   }
@@ -462,6 +464,8 @@ public class CompactionTaskTest
             null,
             null,
             null,
+            null,
+            null,
             null
         ),
         null,
@@ -614,6 +618,8 @@ public class CompactionTaskTest
         null,
         null,
         null,
+        null,
+        null,
         null
     );
     final List<ParallelIndexIngestionSpec> ingestionSpecs = CompactionTask.createIngestionSchema(
@@ -682,6 +688,8 @@ public class CompactionTaskTest
         null,
         null,
         null,
+        null,
+        null,
         null
     );
     final List<ParallelIndexIngestionSpec> ingestionSpecs = CompactionTask.createIngestionSchema(
@@ -750,6 +758,8 @@ public class CompactionTaskTest
         null,
         null,
         null,
+        null,
+        null,
         null
     );
     final List<ParallelIndexIngestionSpec> ingestionSpecs = CompactionTask.createIngestionSchema(
@@ -1139,6 +1149,8 @@ public class CompactionTaskTest
             null,
             null,
             null,
+            null,
+            null,
             null
         ),
         expectedSegmentGranularity
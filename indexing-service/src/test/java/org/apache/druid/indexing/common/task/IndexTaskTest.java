@@ -1135,7 +1135,9 @@ public class IndexTaskTest extends IngestionTestBase
         null,
         true,
         7,
-        7
+        7,
+        null,
+        null
     );
 
     final TimestampSpec timestampSpec = new TimestampSpec("time", "auto", null);
@@ -1264,7 +1266,9 @@ public class IndexTaskTest extends IngestionTestBase
         null,
         true,
         2,
-        5
+        5,
+        null,
+        null
     );
 
     final TimestampSpec timestampSpec = new TimestampSpec("time", "auto", null);
@@ -1385,7 +1389,9 @@ public class IndexTaskTest extends IngestionTestBase
         null,
         true,
         2,
-        5
+        5,
+        null,
+        null
     );
 
     final TimestampSpec timestampSpec = new TimestampSpec("time", "auto", null);
@@ -1830,7 +1836,9 @@ public class IndexTaskTest extends IngestionTestBase
         null,
         null,
         null,
-        1
+        1,
+        null,
+        null
     );
   }
 
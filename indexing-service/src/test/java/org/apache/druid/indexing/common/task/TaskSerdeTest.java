@@ -267,6 +267,8 @@ public class TaskSerdeTest
                 null,
                 null,
                 null,
+                null,
+                null,
                 null
             )
         ),
@@ -348,6 +350,8 @@ public class TaskSerdeTest
                 null,
                 null,
                 null,
+                null,
+                null,
                 null
             )
         ),
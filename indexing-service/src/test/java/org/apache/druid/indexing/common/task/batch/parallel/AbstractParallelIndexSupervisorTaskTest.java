@@ -167,6 +167,8 @@ public class AbstractParallelIndexSupervisorTaskTest extends IngestionTestBase
           null,
           null,
           null,
+          null,
+          null,
           null
       );
 
@@ -248,6 +250,8 @@ public class AbstractParallelIndexSupervisorTaskTest extends IngestionTestBase
         null,
         null,
         null,
+        null,
+        null,
         null
     );
   }
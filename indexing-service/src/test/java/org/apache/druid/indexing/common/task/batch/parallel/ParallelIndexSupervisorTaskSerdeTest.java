@@ -290,6 +290,8 @@ public class ParallelIndexSupervisorTaskSerdeTest
           null,
           null,
           null,
+          null,
+          null,
           null
       );
 
@@ -224,6 +224,8 @@ public class ParallelIndexSupervisorTaskTest
           null,
           false,
           null,
+          null,
+          null,
           null
       );
       final ParallelIndexIngestionSpec indexIngestionSpec = new ParallelIndexIngestionSpec(
@@ -99,6 +99,8 @@ public class ParallelIndexTuningConfigTest
         null,
         false,
         null,
+        null,
+        null,
         null
     );
     final byte[] json = mapper.writeValueAsBytes(tuningConfig);
@@ -142,6 +144,8 @@ public class ParallelIndexTuningConfigTest
         null,
         false,
         null,
+        null,
+        null,
         null
     );
     final byte[] json = mapper.writeValueAsBytes(tuningConfig);
@@ -185,6 +189,8 @@ public class ParallelIndexTuningConfigTest
         null,
         false,
         null,
+        null,
+        null,
         null
     );
     final byte[] json = mapper.writeValueAsBytes(tuningConfig);
@@ -230,6 +236,8 @@ public class ParallelIndexTuningConfigTest
         null,
         false,
         null,
+        null,
+        null,
         null
     );
   }
@@ -272,6 +280,8 @@ public class ParallelIndexTuningConfigTest
         null,
         false,
         null,
+        null,
+        null,
         null
     );
   }
@@ -314,6 +324,8 @@ public class ParallelIndexTuningConfigTest
         null,
         false,
         null,
+        null,
+        null,
         null
     );
   }
@@ -356,10 +368,99 @@ public class ParallelIndexTuningConfigTest
         null,
         false,
         null,
+        null,
+        null,
         null
     );
   }
 
+  @Test
+  public void testSerdeWithPersistLargestSinks() throws IOException
+  {
+    final ParallelIndexTuningConfig tuningConfig = new ParallelIndexTuningConfig(
+        null,
+        null,
+        null,
+        null,
+        null,
+        null,
+        null,
+        null,
+        new HashedPartitionsSpec(null, 10, null),
+        null,
+        null,
+        null,
+        true,
+        null,
+        null,
+        null,
+        null,
+        null,
+        null,
+        null,
+        null,
+        null,
+        null,
+        null,
+        null,
+        null,
+        null,
+        true,
+        0.25
+    );
+    Assert.assertTrue(tuningConfig.isPersistLargestSinks());
+    Assert.assertEquals(0.25, tuningConfig.getPersistLargestSinksMemoryRatio(), 0);
+    final byte[] json = mapper.writeValueAsBytes(tuningConfig);
+    final ParallelIndexTuningConfig fromJson = (ParallelIndexTuningConfig) mapper.readValue(json, TuningConfig.class);
+    Assert.assertEquals(fromJson, tuningConfig);
+  }
+
+  @Test
+  public void testPersistLargestSinksDisabledByDefault()
+  {
+    final ParallelIndexTuningConfig tuningConfig = ParallelIndexTuningConfig.defaultConfig();
+    Assert.assertFalse(tuningConfig.isPersistLargestSinks());
+    Assert.assertEquals(0.5, tuningConfig.getPersistLargestSinksMemoryRatio(), 0);
+  }
+
+  @Test
+  public void testConstructorWithInvalidPersistLargestSinksMemoryRatioFailToCreate()
+  {
+    expectedException.expect(IllegalArgumentException.class);
+    expectedException.expectMessage("persistLargestSinksMemoryRatio must be in [0, 1)");
+    new ParallelIndexTuningConfig(
+        null,
+        null,
+        null,
+        null,
+        null,
+        null,
+        null,
+        null,
+        new HashedPartitionsSpec(null, 10, null),
+        null,
+        null,
+        null,
+        true,
+        null,
+        null,
+        null,
+        null,
+        null,
+        null,
+        null,
+        null,
+        null,
+        null,
+        null,
+        null,
+        null,
+        null,
+        true,
+        1.0
+    );
+  }
+
   @Test
   public void testEqualsAndHashCode()
   {
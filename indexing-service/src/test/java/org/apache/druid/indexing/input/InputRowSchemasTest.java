@@ -0,0 +1,82 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.druid.indexing.input;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import org.apache.druid.data.input.ColumnsFilter;
+import org.apache.druid.data.input.impl.DimensionsSpec;
+import org.apache.druid.data.input.impl.TimestampSpec;
+import org.apache.druid.query.aggregation.AggregatorFactory;
+import org.apache.druid.query.aggregation.CountAggregatorFactory;
+import org.apache.druid.query.aggregation.FilteredAggregatorFactory;
+import org.apache.druid.query.aggregation.LongSumAggregatorFactory;
+import org.apache.druid.query.expression.TestExprMacroTable;
+import org.apache.druid.query.filter.SelectorDimFilter;
+import org.apache.druid.segment.indexing.DataSchema;
+import org.apache.druid.segment.transform.ExpressionTransform;
+import org.apache.druid.segment.transform.TransformSpec;
+import org.apache.druid.testing.InitializedNullHandlingTest;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class InputRowSchemasTest extends InitializedNullHandlingTest
+{
+  @Test
+  public void testColumnsFilterWithSchemalessDimensions()
+  {
+    final DataSchema dataSchema = new DataSchema(
+        "test",
+        new TimestampSpec("ts", "auto", null),
+        new DimensionsSpec(null),
+        new AggregatorFactory[]{new LongSumAggregatorFactory("sum", "x")},
+        null,
+        null
+    );
+    Assert.assertEquals(ColumnsFilter.all(), InputRowSchemas.createColumnsFilter(dataSchema));
+  }
+
+  @Test
+  public void testColumnsFilter()
+  {
+    final DataSchema dataSchema = new DataSchema(
+        "test",
+        new TimestampSpec("ts", "auto", null),
+        new DimensionsSpec(DimensionsSpec.getDefaultSchemas(ImmutableList.of("foo", "bar"))),
+        new AggregatorFactory[]{
+            new CountAggregatorFactory("count"),
+            new LongSumAggregatorFactory("sum", "x"),
+            new FilteredAggregatorFactory(
+                new LongSumAggregatorFactory("filteredSum", "y"),
+                new SelectorDimFilter("z", "a", null)
+            )
+        },
+        null,
+        new TransformSpec(
+            new SelectorDimFilter("w", "b", null),
+            ImmutableList.of(new ExpressionTransform("bar", "concat(v, 'x')", TestExprMacroTable.INSTANCE))
+        )
+    );
+    Assert.assertEquals(
+        ColumnsFilter.inclusionBased(ImmutableSet.of("ts", "foo", "bar", "x", "y", "z", "w", "v")),
+        InputRowSchemas.createColumnsFilter(dataSchema)
+    );
+  }
+}
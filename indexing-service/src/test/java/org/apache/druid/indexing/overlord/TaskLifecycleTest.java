@@ -764,6 +764,8 @@ public class TaskLifecycleTest extends InitializedNullHandlingTest
                 null,
                 null,
                 null,
+                null,
+                null,
                 null
             )
         ),
@@ -845,6 +847,8 @@ public class TaskLifecycleTest extends InitializedNullHandlingTest
                 null,
                 null,
                 null,
+                null,
+                null,
                 null
             )
         ),
@@ -1271,6 +1275,8 @@ public class TaskLifecycleTest extends InitializedNullHandlingTest
                 null,
                 null,
                 null,
+                null,
+                null,
                 null
             )
         ),
@@ -1379,6 +1385,8 @@ public class TaskLifecycleTest extends InitializedNullHandlingTest
                 null,
                 null,
                 null,
+                null,
+                null,
                 null
             )
         ),
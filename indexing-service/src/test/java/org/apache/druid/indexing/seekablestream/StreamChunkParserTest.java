@@ -21,6 +21,7 @@ package org.apache.druid.indexing.seekablestream;
 
 import com.google.common.collect.Iterables;
 import org.apache.druid.data.input.InputEntity;
+import org.apache.druid.data.input.InputEntityBatchReader;
 import org.apache.druid.data.input.InputEntityReader;
 import org.apache.druid.data.input.InputRow;
 import org.apache.druid.data.input.InputRowSchema;
@@ -187,5 +188,12 @@ public class StreamChunkParserTest
       used = true;
       return super.createReader(inputRowSchema, source, temporaryDirectory);
     }
+
+    @Override
+    public InputEntityBatchReader createBatchReader(InputRowSchema inputRowSchema, File temporaryDirectory)
+    {
+      used = true;
+      return super.createBatchReader(inputRowSchema, temporaryDirectory);
+    }
   }
 }
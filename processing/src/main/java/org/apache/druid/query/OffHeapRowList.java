@@ -0,0 +1,420 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.druid.query;
+
+import com.google.common.base.Preconditions;
+import it.unimi.dsi.fastutil.ints.Int2ObjectMap;
+import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.objects.Object2IntMap;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
+import org.apache.druid.java.util.common.ISE;
+import org.apache.druid.segment.column.RowSignature;
+import org.apache.druid.segment.column.ValueType;
+
+import javax.annotation.Nullable;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * A read-only list of rows stored as fixed-width records in byte pages, either on heap or in a memory-mapped temporary
+ * file. Used to materialize subquery results for {@link InlineDataSource} more compactly than a list of Object arrays. Since it is a {@link List}, {@link InlineDataSource#getRowsAsList()} returns it
+ * without copying, so row adapters and indexed tables read rows directly from it.
+ *
+ * LONG, FLOAT, and DOUBLE columns are stored as primitives. All other columns are dictionary-encoded, with the
+ * dictionary on heap; this works well for strings, which tend to repeat, and is no worse than a list of arrays for
+ * other objects. Numbers of any class in numeric columns are coerced to the column type; nulls, and non-numeric
+ * values in numeric columns, are kept on heap.
+ *
+ * Pages start small and double in size as rows are added, up to a fixed maximum, so small results do not pay for
+ * a full page. Each call to {@link #get} creates a new array. There is nothing to close: pages and mapped files are
+ * released when the list is garbage collected, and the temporary file is deleted as soon as it is mapped.
+ */
+public class OffHeapRowList extends AbstractList<Object[]> implements RandomAccess
+{
+  private static final int PAGE_SIZE_BYTES = 1 << 20;
+  private static final int INITIAL_PAGE_RECORDS = 64;
+  private static final int NO_ID = -1;
+
+  private final Column[] columns;
+  private final int recordSize;
+  private final int recordsPerPage;
+  private final List<ByteBuffer> pages;
+  private final int numRows;
+
+  private OffHeapRowList(
+      final Column[] columns,
+      final int recordSize,
+      final int recordsPerPage,
+      final List<ByteBuffer> pages,
+      final int numRows
+  )
+  {
+    this.columns = columns;
+    this.recordSize = recordSize;
+    this.recordsPerPage = recordsPerPage;
+    this.pages = pages;
+    this.numRows = numRows;
+  }
+
+  /**
+   * Creates a builder for rows with the given signature.
+   *
+   * @param signature      signature of the rows
+   * @param spillDirectory if nonnull, records are written to a temporary file in this directory that is
+   *                       memory-mapped by {@link Builder#build()}. If null, records are stored on heap.
+   */
+  public static Builder builder(final RowSignature signature, @Nullable final File spillDirectory)
+  {
+    return new Builder(signature, spillDirectory);
+  }
+
+  @Override
+  public Object[] get(final int index)
+  {
+    Preconditions.checkElementIndex(index, numRows);
+
+    final Object[] row = new Object[columns.length];
+
+    if (recordSize == 0) {
+      return row;
+    }
+
+    final ByteBuffer page = pages.get(index / recordsPerPage);
+    final int recordPosition = (index % recordsPerPage) * recordSize;
+
+    for (int i = 0; i < columns.length; i++) {
+      row[i] = columns[i].read(page, recordPosition, index);
+    }
+
+    return row;
+  }
+
+  @Override
+  public int size()
+  {
+    return numRows;
+  }
+
+  /**
+   * Returns the record size for a column of the given type.
+   */
+  private static int width(@Nullable final ValueType type)
+  {
+    if (type == ValueType.LONG || type == ValueType.DOUBLE) {
+      return Long.BYTES;
+    } else {
+      // Floats, and dictionary ids for everything else.
+      return Integer.BYTES;
+    }
+  }
+
+  public static class Builder implements Closeable
+  {
+    private final Column[] columns;
+    private final int recordSize;
+    private final int recordsPerPage;
+    private final List<ByteBuffer> pages = new ArrayList<>();
+
+    @Nullable
+    private final File spillFile;
+    @Nullable
+    private final FileChannel spillChannel;
+
+    private ByteBuffer currentPage;
+    private int numRows;
+    private boolean built;
+
+    private Builder(final RowSignature signature, @Nullable final File spillDirectory)
+    {
+      this.columns = new Column[signature.size()];
+
+      int position = 0;
+      for (int i = 0; i < signature.size(); i++) {
+        final ValueType type = signature.getColumnType(i).orElse(null);
+        columns[i] = new Column(type, position);
+        position += width(type);
+      }
+
+      this.recordSize = position;
+      this.recordsPerPage = recordSize == 0 ? Integer.MAX_VALUE : Math.max(1, PAGE_SIZE_BYTES / recordSize);
+
+      if (spillDirectory != null) {
+        try {
+          Files.createDirectories(spillDirectory.toPath());
+          this.spillFile = Files.createTempFile(spillDirectory.toPath(), "subquery-rows", ".bin").toFile();
+        }
+        catch (IOException e) {
+          throw new RuntimeException(e);
+        }
+
+        try {
+          this.spillChannel = FileChannel.open(spillFile.toPath(), StandardOpenOption.READ, StandardOpenOption.WRITE);
+        }
+        catch (IOException e) {
+          deleteSpillFile();
+          throw new RuntimeException(e);
+        }
+      } else {
+        this.spillFile = null;
+        this.spillChannel = null;
+      }
+    }
+
+    public void add(final Object[] row)
+    {
+      Preconditions.checkState(!built, "Already built");
+
+      if (row.length != columns.length) {
+        throw new ISE("Expected row of length[%d], got[%d]", columns.length, row.length);
+      }
+
+      if (recordSize > 0) {
+        if (currentPage == null || !currentPage.hasRemaining()) {
+          nextPage();
+        }
+
+        final int recordPosition = currentPage.position();
+
+        for (int i = 0; i < columns.length; i++) {
+          columns[i].write(currentPage, recordPosition, numRows, row[i]);
+        }
+
+        currentPage.position(recordPosition + recordSize);
+      }
+
+      numRows++;
+    }
+
+    public OffHeapRowList build()
+    {
+      Preconditions.checkState(!built, "Already built");
+      built = true;
+
+      for (Column column : columns) {
+        column.doneWriting();
+      }
+
+      if (spillChannel != null) {
+        try {
+          flushPage();
+
+          final long pageSizeBytes = (long) recordsPerPage * recordSize;
+          final long fileSize = (long) numRows * recordSize;
+
+          for (long position = 0; position < fileSize; position += pageSizeBytes) {
+            pages.add(
+                spillChannel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(pageSizeBytes, fileSize - position))
+            );
+          }
+        }
+        catch (IOException e) {
+          throw new RuntimeException(e);
+        }
+        finally {
+          close();
+        }
+      }
+
+      return new OffHeapRowList(columns, recordSize, recordsPerPage, pages, numRows);
+    }
+
+    /**
+     * Deletes the temporary file, if any. Mappings created by {@link #build()} remain valid.
+     */
+    @Override
+    public void close()
+    {
+      if (spillChannel != null) {
+        try {
+          spillChannel.close();
+        }
+        catch (IOException e) {
+          throw new RuntimeException(e);
+        }
+        finally {
+          deleteSpillFile();
+        }
+      }
+    }
+
+    /**
+     * Makes room for at least one more record in {@link #currentPage}: by growing it, if it is smaller than a full
+     * page, or else by flushing it to the spill file or starting a new page.
+     */
+    private void nextPage()
+    {
+      if (currentPage == null) {
+        currentPage = ByteBuffer.allocate(Math.min(recordsPerPage, INITIAL_PAGE_RECORDS) * recordSize);
+
+        if (spillChannel == null) {
+          pages.add(currentPage);
+        }
+      } else if (currentPage.capacity() < recordsPerPage * recordSize) {
+        final int newNumRecords = (int) Math.min(recordsPerPage, 2L * currentPage.capacity() / recordSize);
+        final ByteBuffer newPage = ByteBuffer.allocate(newNumRecords * recordSize);
+        currentPage.flip();
+        newPage.put(currentPage);
+        currentPage = newPage;
+
+        if (spillChannel == null) {
+          pages.set(pages.size() - 1, currentPage);
+        }
+      } else if (spillChannel != null) {
+        flushPage();
+      } else {
+        currentPage = ByteBuffer.allocate(recordsPerPage * recordSize);
+        pages.add(currentPage);
+      }
+    }
+
+    private void flushPage()
+    {
+      if (currentPage == null) {
+        return;
+      }
+
+      try {
+        currentPage.flip();
+
+        while (currentPage.hasRemaining()) {
+          spillChannel.write(currentPage);
+        }
+
+        currentPage.clear();
+      }
+      catch (IOException e) {
+        throw new RuntimeException(e);
+      }
+    }
+
+    private void deleteSpillFile()
+    {
+      try {
+        Files.deleteIfExists(spillFile.toPath());
+      }
+      catch (IOException e) {
+        throw new RuntimeException(e);
+      }
+    }
+  }
+
+  /**
+   * Reads and writes the values of one column at a fixed position within each record.
+   */
+  private static class Column
+  {
+    @Nullable
+    private final ValueType type;
+    private final int position;
+
+    // Rows whose values are stored on heap, rather than in the record: nulls, and, for numeric columns, non-numeric
+    // values.
+    private final BitSet nullRows = new BitSet();
+    private final Int2ObjectMap<Object> heapValues = new Int2ObjectOpenHashMap<>();
+
+    // Dictionary, for non-numeric columns. The id map is only needed while writing.
+    private final List<Object> dictionary = new ArrayList<>();
+    @Nullable
+    private Object2IntMap<Object> dictionaryIds;
+
+    Column(@Nullable final ValueType type, final int position)
+    {
+      this.type = type;
+      this.position = position;
+
+      if (!isNumeric()) {
+        dictionaryIds = new Object2IntOpenHashMap<>();
+        dictionaryIds.defaultReturnValue(NO_ID);
+      }
+    }
+
+    void write(final ByteBuffer buf, final int recordPosition, final int rowNumber, @Nullable final Object value)
+    {
+      final int valuePosition = recordPosition + position;
+
+      if (!isNumeric()) {
+        assert dictionaryIds != null;
+        int id = dictionaryIds.getInt(value);
+
+        if (id == NO_ID) {
+          id = dictionary.size();
+          dictionary.add(value);
+          dictionaryIds.put(value, id);
+        }
+
+        buf.putInt(valuePosition, id);
+      } else if (value == null) {
+        nullRows.set(rowNumber);
+      } else if (value instanceof Number) {
+        final Number number = (Number) value;
+
+        if (type == ValueType.LONG) {
+          buf.putLong(valuePosition, number.longValue());
+        } else if (type == ValueType.DOUBLE) {
+          buf.putDouble(valuePosition, number.doubleValue());
+        } else {
+          buf.putFloat(valuePosition, number.floatValue());
+        }
+      } else {
+        heapValues.put(rowNumber, value);
+      }
+    }
+
+    void doneWriting()
+    {
+      dictionaryIds = null;
+    }
+
+    @Nullable
+    Object read(final ByteBuffer buf, final int recordPosition, final int rowNumber)
+    {
+      final int valuePosition = recordPosition + position;
+
+      if (!isNumeric()) {
+        return dictionary.get(buf.getInt(valuePosition));
+      } else if (nullRows.get(rowNumber)) {
+        return null;
+      } else if (!heapValues.isEmpty() && heapValues.containsKey(rowNumber)) {
+        return heapValues.get(rowNumber);
+      } else if (type == ValueType.LONG) {
+        return buf.getLong(valuePosition);
+      } else if (type == ValueType.DOUBLE) {
+        return buf.getDouble(valuePosition);
+      } else {
+        return buf.getFloat(valuePosition);
+      }
+    }
+
+    private boolean isNumeric()
+    {
+      return type != null && type.isNumeric();
+    }
+  }
+}
@@ -50,10 +50,13 @@ public class QueryContexts
   public static final String VECTORIZE_VIRTUAL_COLUMNS_KEY = "vectorizeVirtualColumns";
   public static final String VECTOR_SIZE_KEY = "vectorSize";
   public static final String MAX_SUBQUERY_ROWS_KEY = "maxSubqueryRows";
+  public static final String SUBQUERY_STORAGE_KEY = "subqueryStorage";
+  public static final String NUM_JOIN_PARTITIONS_KEY = "numJoinPartitions";
   public static final String JOIN_FILTER_PUSH_DOWN_KEY = "enableJoinFilterPushDown";
   public static final String JOIN_FILTER_REWRITE_ENABLE_KEY = "enableJoinFilterRewrite";
   public static final String JOIN_FILTER_REWRITE_VALUE_COLUMN_FILTERS_ENABLE_KEY = "enableJoinFilterRewriteValueColumnFilters";
   public static final String JOIN_FILTER_REWRITE_MAX_SIZE_KEY = "joinFilterRewriteMaxSize";
+  public static final String JOIN_RUNTIME_FILTER_MAX_SIZE_KEY = "joinRuntimeFilterMaxSize";
   public static final String USE_FILTER_CNF_KEY = "useFilterCNF";
   public static final String NUM_RETRIES_ON_MISSING_SEGMENTS_KEY = "numRetriesOnMissingSegments";
   public static final String RETURN_PARTIAL_RESULTS_KEY = "returnPartialResults";
@@ -67,8 +70,10 @@ public class QueryContexts
   public static final boolean DEFAULT_USE_RESULTLEVEL_CACHE = true;
   public static final Vectorize DEFAULT_VECTORIZE = Vectorize.TRUE;
   public static final Vectorize DEFAULT_VECTORIZE_VIRTUAL_COLUMN = Vectorize.FALSE;
+  public static final SubqueryStorage DEFAULT_SUBQUERY_STORAGE = SubqueryStorage.HEAP;
   public static final int DEFAULT_PRIORITY = 0;
   public static final int DEFAULT_UNCOVERED_INTERVALS_LIMIT = 0;
+  public static final int DEFAULT_NUM_JOIN_PARTITIONS = 1;
   public static final long DEFAULT_TIMEOUT_MILLIS = TimeUnit.MINUTES.toMillis(5);
   public static final long NO_TIMEOUT = 0;
   public static final boolean DEFAULT_ENABLE_PARALLEL_MERGE = true;
@@ -76,6 +81,7 @@ public class QueryContexts
   public static final boolean DEFAULT_ENABLE_JOIN_FILTER_REWRITE = true;
   public static final boolean DEFAULT_ENABLE_JOIN_FILTER_REWRITE_VALUE_COLUMN_FILTERS = false;
   public static final long DEFAULT_ENABLE_JOIN_FILTER_REWRITE_MAX_SIZE = 10000;
+  public static final long DEFAULT_JOIN_RUNTIME_FILTER_MAX_SIZE = 0;
   public static final boolean DEFAULT_USE_FILTER_CNF = false;
   public static final boolean DEFAULT_SECONDARY_PARTITION_PRUNING = true;
 
@@ -124,6 +130,27 @@ public class QueryContexts
     }
   }
 
+  /**
+   * Where the Broker stores subquery results that it inlines.
+   */
+  public enum SubqueryStorage
+  {
+    /**
+     * Rows are stored as a list of arrays on heap.
+     */
+    HEAP,
+
+    /**
+     * Rows are stored by {@link OffHeapRowList} in compact pages on heap.
+     */
+    COMPACT,
+
+    /**
+     * Rows are stored by {@link OffHeapRowList} in memory-mapped temporary files, in the processing tmpDir.
+     */
+    DISK
+  }
+
   public static <T> boolean isBySegment(Query<T> query)
   {
     return isBySegment(query, DEFAULT_BY_SEGMENT);
@@ -224,6 +251,16 @@ public class QueryContexts
     return parseInt(query, MAX_SUBQUERY_ROWS_KEY, defaultSize);
   }
 
+  public static <T> SubqueryStorage getSubqueryStorage(Query<T> query)
+  {
+    return parseEnum(query, SUBQUERY_STORAGE_KEY, SubqueryStorage.class, DEFAULT_SUBQUERY_STORAGE);
+  }
+
+  public static <T> int getNumJoinPartitions(Query<T> query)
+  {
+    return parseInt(query, NUM_JOIN_PARTITIONS_KEY, DEFAULT_NUM_JOIN_PARTITIONS);
+  }
+
   public static <T> int getUncoveredIntervalsLimit(Query<T> query)
   {
     return getUncoveredIntervalsLimit(query, DEFAULT_UNCOVERED_INTERVALS_LIMIT);
@@ -282,6 +319,11 @@ public class QueryContexts
     return parseLong(query, JOIN_FILTER_REWRITE_MAX_SIZE_KEY, DEFAULT_ENABLE_JOIN_FILTER_REWRITE_MAX_SIZE);
   }
 
+  public static <T> long getJoinRuntimeFilterMaxSize(Query<T> query)
+  {
+    return parseLong(query, JOIN_RUNTIME_FILTER_MAX_SIZE_KEY, DEFAULT_JOIN_RUNTIME_FILTER_MAX_SIZE);
+  }
+
   public static <T> boolean getEnableJoinFilterPushDown(Query<T> query)
   {
     return parseBoolean(query, JOIN_FILTER_PUSH_DOWN_KEY, DEFAULT_ENABLE_JOIN_FILTER_PUSH_DOWN);
@@ -31,6 +31,10 @@ public class GroupByQueryConfig
   public static final String CTX_KEY_FORCE_LIMIT_PUSH_DOWN = "forceLimitPushDown";
   public static final String CTX_KEY_APPLY_LIMIT_PUSH_DOWN = "applyLimitPushDown";
   public static final String CTX_KEY_APPLY_LIMIT_PUSH_DOWN_TO_SEGMENT = "applyLimitPushDownToSegment";
+  public static final String CTX_KEY_REFINE_LIMIT_PUSH_DOWN = "refineLimitPushDown";
+  public static final String CTX_KEY_REFINE_LIMIT_PUSH_DOWN_THRESHOLD = "refineLimitPushDownThreshold";
+  public static final String CTX_KEY_PUSH_DOWN_SUBTOTALS = "pushDownSubtotals";
+  public static final String CTX_KEY_EXECUTING_PUSHED_DOWN_SUBTOTALS = "executingPushedDownSubtotals";
   public static final String CTX_KEY_FORCE_PUSH_DOWN_NESTED_QUERY = "forcePushDownNestedQuery";
   public static final String CTX_KEY_EXECUTING_NESTED_QUERY = "executingNestedQuery";
   public static final String CTX_KEY_ARRAY_RESULT_ROWS = "resultAsArray";
@@ -40,6 +44,7 @@ public class GroupByQueryConfig
   private static final String CTX_KEY_BUFFER_GROUPER_INITIAL_BUCKETS = "bufferGrouperInitialBuckets";
   private static final String CTX_KEY_BUFFER_GROUPER_MAX_LOAD_FACTOR = "bufferGrouperMaxLoadFactor";
   private static final String CTX_KEY_BUFFER_GROUPER_MAX_SIZE = "bufferGrouperMaxSize";
+  private static final String CTX_KEY_ESTIMATE_INITIAL_BUCKETS = "estimateInitialBuckets";
   private static final String CTX_KEY_MAX_ON_DISK_STORAGE = "maxOnDiskStorage";
   private static final String CTX_KEY_MAX_MERGING_DICTIONARY_SIZE = "maxMergingDictionarySize";
   private static final String CTX_KEY_FORCE_HASH_AGGREGATION = "forceHashAggregation";
@@ -68,6 +73,9 @@ public class GroupByQueryConfig
   @JsonProperty
   private int bufferGrouperInitialBuckets = 0;
 
+  @JsonProperty
+  private boolean estimateInitialBuckets = false;
+
   @JsonProperty
   // Size of on-heap string dictionary for merging, per-query; when exceeded, partial results will be spilled to disk
   private long maxMergingDictionarySize = 100_000_000L;
@@ -147,6 +155,11 @@ public class GroupByQueryConfig
     return bufferGrouperInitialBuckets;
   }
 
+  public boolean isEstimateInitialBuckets()
+  {
+    return estimateInitialBuckets;
+  }
+
   public long getMaxMergingDictionarySize()
   {
     return maxMergingDictionarySize;
@@ -217,6 +230,10 @@ public class GroupByQueryConfig
         CTX_KEY_BUFFER_GROUPER_INITIAL_BUCKETS,
         getBufferGrouperInitialBuckets()
     );
+    newConfig.estimateInitialBuckets = query.getContextBoolean(
+        CTX_KEY_ESTIMATE_INITIAL_BUCKETS,
+        isEstimateInitialBuckets()
+    );
     newConfig.maxOnDiskStorage = Math.min(
         ((Number) query.getContextValue(CTX_KEY_MAX_ON_DISK_STORAGE, getMaxOnDiskStorage())).longValue(),
         getMaxOnDiskStorage()
@@ -258,6 +275,7 @@ public class GroupByQueryConfig
            ", bufferGrouperMaxSize=" + bufferGrouperMaxSize +
            ", bufferGrouperMaxLoadFactor=" + bufferGrouperMaxLoadFactor +
            ", bufferGrouperInitialBuckets=" + bufferGrouperInitialBuckets +
+           ", estimateInitialBuckets=" + estimateInitialBuckets +
            ", maxMergingDictionarySize=" + maxMergingDictionarySize +
            ", maxOnDiskStorage=" + maxOnDiskStorage +
            ", forcePushDownLimit=" + forcePushDownLimit +
@@ -36,10 +36,13 @@ import com.google.common.collect.Lists;
 import com.google.inject.Inject;
 import org.apache.druid.data.input.Row;
 import org.apache.druid.java.util.common.ISE;
+import org.apache.druid.java.util.common.Numbers;
 import org.apache.druid.java.util.common.granularity.Granularity;
+import org.apache.druid.java.util.common.guava.LazySequence;
 import org.apache.druid.java.util.common.guava.MappedSequence;
 import org.apache.druid.java.util.common.guava.Sequence;
 import org.apache.druid.java.util.common.guava.Sequences;
+import org.apache.druid.math.expr.ExprMacroTable;
 import org.apache.druid.query.CacheStrategy;
 import org.apache.druid.query.DataSource;
 import org.apache.druid.query.Query;
@@ -57,21 +60,38 @@ import org.apache.druid.query.cache.CacheKeyBuilder;
 import org.apache.druid.query.context.ResponseContext;
 import org.apache.druid.query.dimension.DefaultDimensionSpec;
 import org.apache.druid.query.dimension.DimensionSpec;
+import org.apache.druid.query.dimension.ExtractionDimensionSpec;
 import org.apache.druid.query.extraction.ExtractionFn;
+import org.apache.druid.query.filter.AndDimFilter;
+import org.apache.druid.query.filter.DimFilter;
+import org.apache.druid.query.filter.InDimFilter;
+import org.apache.druid.query.filter.OrDimFilter;
+import org.apache.druid.query.filter.SelectorDimFilter;
+import org.apache.druid.query.groupby.orderby.DefaultLimitSpec;
+import org.apache.druid.query.groupby.orderby.NoopLimitSpec;
+import org.apache.druid.query.groupby.orderby.OrderByColumnSpec;
 import org.apache.druid.query.groupby.resource.GroupByQueryResource;
 import org.apache.druid.query.groupby.strategy.GroupByStrategy;
 import org.apache.druid.query.groupby.strategy.GroupByStrategySelector;
+import org.apache.druid.query.groupby.strategy.GroupByStrategyV2;
 import org.apache.druid.segment.DimensionHandlerUtils;
+import org.apache.druid.segment.VirtualColumn;
+import org.apache.druid.segment.VirtualColumns;
 import org.apache.druid.segment.column.RowSignature;
+import org.apache.druid.segment.column.ValueType;
+import org.apache.druid.segment.virtual.ExpressionVirtualColumn;
 import org.joda.time.DateTime;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.BitSet;
 import java.util.Comparator;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.TreeMap;
 import java.util.function.BinaryOperator;
 
@@ -90,6 +110,8 @@ public class GroupByQueryQueryToolChest extends QueryToolChest<ResultRow, GroupB
   };
   public static final String GROUP_BY_MERGE_KEY = "groupByMerge";
 
+  private static final int DEFAULT_REFINE_LIMIT_PUSH_DOWN_THRESHOLD = 1000;
+
   private final GroupByStrategySelector strategySelector;
   private final GroupByQueryMetricsFactory queryMetricsFactory;
 
@@ -246,18 +268,245 @@ public class GroupByQueryQueryToolChest extends QueryToolChest<ResultRow, GroupB
       }
 
     } else {
-      if (query.getSubtotalsSpec() != null) {
+      if (isSubtotalsPushDown(query)) {
+        return mergeResultsWithSubtotalsPushDown(groupByStrategy, query, runner, context);
+      } else if (query.getSubtotalsSpec() != null) {
         return groupByStrategy.processSubtotalsSpec(
             query,
             resource,
             groupByStrategy.mergeResults(runner, query.withSubtotalsSpec(null), context)
         );
+      } else if (isRefinedLimitPushDown(query)) {
+        return mergeResultsWithRefinedLimitPushDown(groupByStrategy, query, runner, context);
       } else {
         return groupByStrategy.applyPostProcessing(groupByStrategy.mergeResults(runner, query, context), query);
       }
     }
   }
 
+  /**
+   * Whether "query" should be run using {@link #mergeResultsWithRefinedLimitPushDown}. This applies to outermost
+   * queries with granularity "all" whose limit can only be pushed down approximately, because they are ordered by
+   * columns that are not grouping keys, and whose grouping keys can be turned back into filters.
+   */
+  @VisibleForTesting
+  static boolean isRefinedLimitPushDown(final GroupByQuery query)
+  {
+    if (!query.getContextBoolean(GroupByQueryConfig.CTX_KEY_REFINE_LIMIT_PUSH_DOWN, false)
+        || !query.getContextBoolean(GroupByStrategyV2.CTX_KEY_OUTERMOST, true)
+        || query.getUniversalTimestamp() == null
+        || query.getHavingSpec() != null
+        || query.getSubtotalsSpec() != null
+        || query.getDimensions().isEmpty()
+        || !(query.getLimitSpec() instanceof DefaultLimitSpec)) {
+      return false;
+    }
+
+    final DefaultLimitSpec limitSpec = (DefaultLimitSpec) query.getLimitSpec();
+    if (!limitSpec.isLimited() || !DefaultLimitSpec.sortingOrderHasNonGroupingFields(limitSpec, query.getDimensions())) {
+      return false;
+    }
+
+    for (OrderByColumnSpec orderBySpec : limitSpec.getColumns()) {
+      if (OrderByColumnSpec.getPostAggIndexForOrderBy(orderBySpec, query.getPostAggregatorSpecs()) > -1) {
+        return false;
+      }
+    }
+
+    for (DimensionSpec dimensionSpec : query.getDimensions()) {
+      if (!(dimensionSpec instanceof DefaultDimensionSpec || dimensionSpec instanceof ExtractionDimensionSpec)
+          || dimensionSpec.getOutputType() != ValueType.STRING) {
+        return false;
+      }
+    }
+
+    return true;
+  }
+
+  /**
+   * Runs "query" in two passes. The first pass forces limit push down with a limit of at least
+   * {@link GroupByQueryConfig#CTX_KEY_REFINE_LIMIT_PUSH_DOWN_THRESHOLD}, to find candidate grouping keys cheaply. The
+   * second pass computes exact aggregations for just those candidates, by filtering on their grouping keys, and then
+   * applies the real limit.
+   *
+   * Returned rows always have exact values, and are in the right order. As with topN queries, a row that should have
+   * been in the result may be missing if it was not among the top candidates of any data server.
+   */
+  private Sequence<ResultRow> mergeResultsWithRefinedLimitPushDown(
+      final GroupByStrategy groupByStrategy,
+      final GroupByQuery query,
+      final QueryRunner<ResultRow> runner,
+      final ResponseContext context
+  )
+  {
+    final DefaultLimitSpec limitSpec = ((DefaultLimitSpec) query.getLimitSpec()).withOffsetToLimit();
+    final Object threshold = query.getContextValue(GroupByQueryConfig.CTX_KEY_REFINE_LIMIT_PUSH_DOWN_THRESHOLD);
+    final int candidateLimit = Math.max(
+        limitSpec.getLimit(),
+        threshold == null ? DEFAULT_REFINE_LIMIT_PUSH_DOWN_THRESHOLD : Numbers.parseInt(threshold)
+    );
+
+    final GroupByQuery candidateQuery =
+        query.withLimitSpec(new DefaultLimitSpec(limitSpec.getColumns(), candidateLimit))
+             .withOverriddenContext(ImmutableMap.of(GroupByQueryConfig.CTX_KEY_FORCE_LIMIT_PUSH_DOWN, true));
+
+    return new LazySequence<>(
+        () -> {
+          final List<ResultRow> candidates = groupByStrategy.applyPostProcessing(
+              groupByStrategy.mergeResults(runner, candidateQuery, context),
+              candidateQuery
+          ).toList();
+
+          if (candidates.size() < candidateLimit) {
+            // No data server had more groups than the pushed-down limit, so nothing was dropped.
+            return groupByStrategy.applyPostProcessing(Sequences.simple(candidates), query);
+          }
+
+          final int dimensionStart = query.getResultRowDimensionStart();
+          final int dimensionEnd = dimensionStart + query.getDimensions().size();
+          final Set<List<Object>> candidateKeys = new HashSet<>();
+          for (ResultRow candidate : candidates) {
+            candidateKeys.add(Arrays.asList(Arrays.copyOfRange(candidate.getArray(), dimensionStart, dimensionEnd)));
+          }
+
+          final DimFilter candidateFilter = makeCandidateFilter(query.getDimensions(), candidateKeys);
+          final GroupByQuery exactQuery =
+              query.withDimFilter(
+                  query.getDimFilter() == null
+                  ? candidateFilter
+                  : new AndDimFilter(query.getDimFilter(), candidateFilter)
+              ).withOverriddenContext(
+                  ImmutableMap.of(
+                      GroupByQueryConfig.CTX_KEY_FORCE_LIMIT_PUSH_DOWN, false,
+                      GroupByQueryConfig.CTX_KEY_APPLY_LIMIT_PUSH_DOWN, false
+                  )
+              );
+
+          // Filtering on multi-value dimensions may match groups that were not candidates, and whose values are
+          // incomplete, so keep only the candidates.
+          return groupByStrategy.applyPostProcessing(
+              groupByStrategy.mergeResults(runner, exactQuery, context).filter(
+                  row -> candidateKeys.contains(
+                      Arrays.asList(Arrays.copyOfRange(row.getArray(), dimensionStart, dimensionEnd))
+                  )
+              ),
+              query
+          );
+        }
+    );
+  }
+
+  private static DimFilter makeCandidateFilter(
+      final List<DimensionSpec> dimensions,
+      final Set<List<Object>> candidateKeys
+  )
+  {
+    if (dimensions.size() == 1) {
+      final DimensionSpec dimensionSpec = dimensions.get(0);
+      final Set<String> values = new HashSet<>();
+      for (List<Object> key : candidateKeys) {
+        values.add(DimensionHandlerUtils.convertObjectToString(key.get(0)));
+      }
+      return new InDimFilter(dimensionSpec.getDimension(), values, dimensionSpec.getExtractionFn());
+    }
+
+    final List<DimFilter> keyFilters = new ArrayList<>(candidateKeys.size());
+    for (List<Object> key : candidateKeys) {
+      final List<DimFilter> fields = new ArrayList<>(dimensions.size());
+      for (int i = 0; i < dimensions.size(); i++) {
+        final DimensionSpec dimensionSpec = dimensions.get(i);
+        fields.add(
+            new SelectorDimFilter(
+                dimensionSpec.getDimension(),
+                DimensionHandlerUtils.convertObjectToString(key.get(i)),
+                dimensionSpec.getExtractionFn()
+            )
+        );
+      }
+      keyFilters.add(new AndDimFilter(fields));
+    }
+    return new OrDimFilter(keyFilters);
+  }
+
+  /**
+   * Whether the subtotals of "query" should be computed by data servers, using
+   * {@link #mergeResultsWithSubtotalsPushDown}, rather than by the Broker.
+   */
+  public static boolean isSubtotalsPushDown(final GroupByQuery query)
+  {
+    return query.getSubtotalsSpec() != null
+           && query.getContextBoolean(GroupByQueryConfig.CTX_KEY_PUSH_DOWN_SUBTOTALS, false)
+           && !query.getContextBoolean(GroupByQueryConfig.CTX_KEY_EXECUTING_PUSHED_DOWN_SUBTOTALS, false)
+           && query.getContextBoolean(GroupByStrategyV2.CTX_KEY_OUTERMOST, true)
+           && query.getUniversalTimestamp() != null
+           && !(query.getDataSource() instanceof QueryDataSource);
+  }
+
+  /**
+   * Pushes subtotal computation down to data servers. Each data server computes all subtotals from a single grouping
+   * of its own results, and returns them ordered by subtotal, tagged with the subtotal's position in the
+   * subtotalsSpec as an extra leading "grouping id" dimension. The Broker then only needs to merge these streams,
+   * strip the grouping id, and apply having and limit specs.
+   */
+  private Sequence<ResultRow> mergeResultsWithSubtotalsPushDown(
+      final GroupByStrategy groupByStrategy,
+      final GroupByQuery query,
+      final QueryRunner<ResultRow> runner,
+      final ResponseContext context
+  )
+  {
+    final GroupByQuery pushDownQuery = makeSubtotalsPushDownQuery(query);
+    final int groupingIdPosition = pushDownQuery.getResultRowDimensionStart();
+    final int resultRowSize = query.getResultRowSizeWithPostAggregators();
+
+    final Sequence<ResultRow> mergedResults = Sequences.map(
+        groupByStrategy.mergeResults(runner, pushDownQuery, context),
+        row -> {
+          final ResultRow newRow = ResultRow.create(resultRowSize);
+          for (int i = 0, j = 0; i < row.length(); i++) {
+            if (i != groupingIdPosition) {
+              newRow.set(j++, row.get(i));
+            }
+          }
+          return newRow;
+        }
+    );
+
+    return groupByStrategy.applyPostProcessing(mergedResults, query);
+  }
+
+  /**
+   * Returns the query that {@link #mergeResultsWithSubtotalsPushDown} sends to data servers. It adds a leading
+   * "grouping id" dimension, read from a constant virtual column so it does not change how rows are grouped, and
+   * removes the having and limit specs, which can only be applied once all subtotals are merged.
+   */
+  @VisibleForTesting
+  static GroupByQuery makeSubtotalsPushDownQuery(final GroupByQuery query)
+  {
+    String groupingIdName = "_groupingId";
+    while (query.getResultRowSignature().indexOf(groupingIdName) >= 0
+           || query.getVirtualColumns().exists(groupingIdName)) {
+      groupingIdName = "_" + groupingIdName;
+    }
+
+    final List<VirtualColumn> virtualColumns = new ArrayList<>(
+        Arrays.asList(query.getVirtualColumns().getVirtualColumns())
+    );
+    virtualColumns.add(new ExpressionVirtualColumn(groupingIdName, "0", ValueType.LONG, ExprMacroTable.nil()));
+
+    final List<DimensionSpec> dimensions = new ArrayList<>(query.getDimensions().size() + 1);
+    dimensions.add(new DefaultDimensionSpec(groupingIdName, groupingIdName, ValueType.LONG));
+    dimensions.addAll(query.getDimensions());
+
+    return new GroupByQuery.Builder(query)
+        .setVirtualColumns(VirtualColumns.create(virtualColumns))
+        .setDimensions(dimensions)
+        .setHavingSpec(null)
+        .setLimitSpec(NoopLimitSpec.instance())
+        .overrideContext(ImmutableMap.of(GroupByQueryConfig.CTX_KEY_EXECUTING_PUSHED_DOWN_SUBTOTALS, true))
+        .build();
+  }
+
   private Sequence<ResultRow> mergeResultsWithNestedQueryPushDown(
       GroupByStrategy groupByStrategy,
       GroupByQuery query,
@@ -47,15 +47,22 @@ import java.util.NoSuchElementException;
  * buffer is used to store aggregated values.  The first index is reserved for
  * {@link GroupByColumnSelectorStrategy#GROUP_BY_MISSING_VALUE}.
  * <p>
- * This grouper is available only when the grouping key is a single indexed dimension of a known cardinality because it
- * directly uses the dimension value as the index for array access.  Since the cardinality for the grouping key across
+ * This grouper is available only when the grouping key is made of indexed dimensions of known cardinality because it
+ * directly uses the dimension values as the index for array access.  Since the cardinality for the grouping key across
  * different segments cannot be currently retrieved, this grouper can be used only when performing per-segment query
  * execution.
+ * <p>
+ * With more than one dimension, the index is a mixed-radix number whose digits are the dimension values shifted by one,
+ * so that {@link GroupByColumnSelectorStrategy#GROUP_BY_MISSING_VALUE} is digit zero. The first dimension is the least
+ * significant digit. See {@link #computeIndex}. In this case, {@link IntGrouper} keys are the index minus one, and
+ * {@link VectorGrouper} keys are one int per dimension.
  */
 public class BufferArrayGrouper implements VectorGrouper, IntGrouper
 {
   private final Supplier<ByteBuffer> bufferSupplier;
   private final AggregatorAdapters aggregators;
+  private final int[] cardinalities;
+  private final int[] strides;
   private final int cardinalityWithMissingValue;
   private final int recordSize; // size of all aggregated values
 
@@ -78,9 +85,20 @@ public class BufferArrayGrouper implements VectorGrouper, IntGrouper
    */
   static long requiredBufferCapacity(int cardinality, AggregatorFactory[] aggregatorFactories)
   {
-    final long cardinalityWithMissingValue = computeCardinalityWithMissingValue(cardinality);
+    return requiredBufferCapacity(new int[]{cardinality}, aggregatorFactories);
+  }
+
+  /**
+   * Like {@link #requiredBufferCapacity(int, AggregatorFactory[])}, but for a grouping key made of dimensions with
+   * the given cardinalities.
+   *
+   * Returns -1 if the product of each cardinality + 1 (for null) > Integer.MAX_VALUE.
+   */
+  static long requiredBufferCapacity(int[] cardinalities, AggregatorFactory[] aggregatorFactories)
+  {
+    final long cardinalityWithMissingValue = computeCardinalityWithMissingValue(cardinalities);
     // Cardinality should be in the integer range. See DimensionDictionarySelector.
-    if (cardinalityWithMissingValue > Integer.MAX_VALUE) {
+    if (cardinalityWithMissingValue < 0 || cardinalityWithMissingValue > Integer.MAX_VALUE) {
       return -1;
     }
     final long recordSize = Arrays.stream(aggregatorFactories)
@@ -91,9 +109,20 @@ public class BufferArrayGrouper implements VectorGrouper, IntGrouper
            cardinalityWithMissingValue * recordSize;                 // total values size
   }
 
-  private static long computeCardinalityWithMissingValue(int cardinality)
+  /**
+   * Returns the number of slots needed for dimensions with the given cardinalities, or -1 if it is larger than
+   * {@link Integer#MAX_VALUE}.
+   */
+  static long computeCardinalityWithMissingValue(int[] cardinalities)
   {
-    return (long) cardinality + 1;
+    long cardinalityWithMissingValue = 1;
+    for (int cardinality : cardinalities) {
+      cardinalityWithMissingValue *= (long) cardinality + 1;
+      if (cardinalityWithMissingValue > Integer.MAX_VALUE) {
+        return -1;
+      }
+    }
+    return cardinalityWithMissingValue;
   }
 
   /**
@@ -110,14 +139,63 @@ public class BufferArrayGrouper implements VectorGrouper, IntGrouper
       final AggregatorAdapters aggregators,
       final int cardinality
   )
+  {
+    this(bufferSupplier, aggregators, new int[]{cardinality});
+  }
+
+  public BufferArrayGrouper(
+      // the buffer returned from the below supplier can have dirty bits and should be cleared during initialization
+      final Supplier<ByteBuffer> bufferSupplier,
+      final AggregatorAdapters aggregators,
+      final int[] cardinalities
+  )
   {
     Preconditions.checkNotNull(aggregators, "aggregators");
-    Preconditions.checkArgument(cardinality > 0, "Cardinality must a non-zero positive number");
+    Preconditions.checkArgument(cardinalities.length > 0, "Must have at least one cardinality");
+    for (int cardinality : cardinalities) {
+      Preconditions.checkArgument(cardinality > 0, "Cardinality must a non-zero positive number");
+    }
+
+    final long cardinalityWithMissingValue = computeCardinalityWithMissingValue(cardinalities);
+    Preconditions.checkArgument(cardinalityWithMissingValue > 0, "Too many possible keys");
 
     this.bufferSupplier = Preconditions.checkNotNull(bufferSupplier, "bufferSupplier");
     this.aggregators = aggregators;
-    this.cardinalityWithMissingValue = Ints.checkedCast(computeCardinalityWithMissingValue(cardinality));
+    this.cardinalities = cardinalities;
+    this.cardinalityWithMissingValue = Ints.checkedCast(cardinalityWithMissingValue);
     this.recordSize = aggregators.spaceNeeded();
+
+    this.strides = new int[cardinalities.length];
+    int stride = 1;
+    for (int i = 0; i < cardinalities.length; i++) {
+      strides[i] = stride;
+      stride *= cardinalities[i] + 1;
+    }
+  }
+
+  /**
+   * Returns the slot index for a key made of the given dimension values, one per dimension. Each value must be either
+   * {@link GroupByColumnSelectorStrategy#GROUP_BY_MISSING_VALUE} or less than the cardinality of its dimension.
+   */
+  public int computeIndex(final int[] values)
+  {
+    int index = 0;
+    for (int i = 0; i < strides.length; i++) {
+      index += (values[i] + 1) * strides[i];
+    }
+    return index;
+  }
+
+  /**
+   * Inverse of {@link #computeIndex}: writes the dimension values for a slot index to "values".
+   */
+  public void decodeIndex(final int index, final int[] values)
+  {
+    int remainder = index;
+    for (int i = 0; i < strides.length; i++) {
+      values[i] = remainder % (cardinalities[i] + 1) - 1;
+      remainder /= cardinalities[i] + 1;
+    }
   }
 
   @Override
@@ -188,9 +266,10 @@ public class BufferArrayGrouper implements VectorGrouper, IntGrouper
   public AggregateResult aggregateVector(Memory keySpace, int startRow, int endRow)
   {
     final int numRows = endRow - startRow;
+    final int keySize = Integer.BYTES * cardinalities.length;
 
-    // Hoisted bounds check on keySpace.
-    if (keySpace.getCapacity() < (long) numRows * Integer.BYTES) {
+    // Hoisted bounds check on keySpace. Queries without dimensions have an empty key space.
+    if (keySpace.getCapacity() != 0 && keySpace.getCapacity() < (long) numRows * keySize) {
       throw new IAE("Not enough keySpace capacity for the provided start/end rows");
     }
 
@@ -217,8 +296,24 @@ public class BufferArrayGrouper implements VectorGrouper, IntGrouper
       );
     } else {
       for (int i = 0; i < numRows; i++) {
-        // +1 matches what hashFunction() would do.
-        final int dimIndex = keySpace.getInt(((long) i) * Integer.BYTES) + 1;
+        final int dimIndex;
+
+        if (strides.length == 1) {
+          // +1 matches what hashFunction() would do.
+          dimIndex = keySpace.getInt(((long) i) * Integer.BYTES) + 1;
+        } else {
+          int index = 0;
+          for (int j = 0, keyPosition = i * keySize; j < strides.length; j++, keyPosition += Integer.BYTES) {
+            final int value = keySpace.getInt(keyPosition);
+
+            if (value < GroupByColumnSelectorStrategy.GROUP_BY_MISSING_VALUE || value >= cardinalities[j]) {
+              throw new IAE("Invalid value[%s] for dimension[%s]", value, j);
+            }
+
+            index += (value + 1) * strides[j];
+          }
+          dimIndex = index;
+        }
 
         if (dimIndex < 0 || dimIndex >= cardinalityWithMissingValue) {
           throw new IAE("Invalid dimIndex[%s]", dimIndex);
@@ -286,7 +381,8 @@ public class BufferArrayGrouper implements VectorGrouper, IntGrouper
   public CloseableIterator<Entry<Memory>> iterator()
   {
     final CloseableIterator<Entry<Integer>> iterator = iterator(false);
-    final WritableMemory keyMemory = WritableMemory.allocate(Integer.BYTES);
+    final WritableMemory keyMemory = WritableMemory.allocate(Integer.BYTES * cardinalities.length);
+    final int[] values = new int[cardinalities.length];
     return new CloseableIterator<Entry<Memory>>()
     {
       @Override
@@ -299,7 +395,12 @@ public class BufferArrayGrouper implements VectorGrouper, IntGrouper
       public Entry<Memory> next()
       {
         final Entry<Integer> integerEntry = iterator.next();
-        keyMemory.putInt(0, integerEntry.getKey());
+        if (cardinalities.length == 1) {
+          keyMemory.putInt(0, integerEntry.getKey());
+        } else {
+          decodeIndex(integerEntry.getKey() + 1, values);
+          keyMemory.putIntArray(0, values, 0, values.length);
+        }
         return new Entry<>(keyMemory, integerEntry.getValues());
       }
 
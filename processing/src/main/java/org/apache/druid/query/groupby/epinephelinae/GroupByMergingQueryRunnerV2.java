@@ -22,6 +22,7 @@ package org.apache.druid.query.groupby.epinephelinae;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.common.base.Function;
 import com.google.common.base.Predicates;
+import com.google.common.base.Supplier;
 import com.google.common.base.Suppliers;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
@@ -57,6 +58,7 @@ import org.apache.druid.query.groupby.GroupByQueryConfig;
 import org.apache.druid.query.groupby.ResultRow;
 import org.apache.druid.query.groupby.epinephelinae.RowBasedGrouperHelper.RowBasedKey;
 
+import javax.annotation.Nullable;
 import java.io.File;
 import java.nio.ByteBuffer;
 import java.util.List;
@@ -66,6 +68,7 @@ import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.function.BiFunction;
 
 /**
  * Class that knows how to merge a collection of groupBy {@link QueryRunner} objects, called {@code queryables},
@@ -96,6 +99,45 @@ public class GroupByMergingQueryRunnerV2 implements QueryRunner<ResultRow>
   private final String processingTmpDir;
   private final int mergeBufferSize;
 
+  /**
+   * Keys of per-query resources that this runner passes to the per-segment runners it merges, through the
+   * {@link ResponseContext}. They are only set while those runners run, and are removed before any results are
+   * returned, so they are never serialized.
+   */
+  public enum ResponseContextKey implements ResponseContext.BaseKey
+  {
+    /**
+     * The {@link LimitedTemporaryStorage} of the query, so that per-segment runners spill within the same
+     * maxOnDiskStorage limit as the merge.
+     */
+    TEMPORARY_STORAGE("groupByTemporaryStorage");
+
+    static {
+      for (ResponseContext.BaseKey key : values()) {
+        ResponseContext.Key.registerKey(key);
+      }
+    }
+
+    private final String name;
+
+    ResponseContextKey(String name)
+    {
+      this.name = name;
+    }
+
+    @Override
+    public String getName()
+    {
+      return name;
+    }
+
+    @Override
+    public BiFunction<Object, Object, Object> getMergeFunction()
+    {
+      return (oldValue, newValue) -> newValue;
+    }
+  }
+
   public GroupByMergingQueryRunnerV2(
       GroupByQueryConfig config,
       ExecutorService exec,
@@ -176,6 +218,7 @@ public class GroupByMergingQueryRunnerV2 implements QueryRunner<ResultRow>
               final ReferenceCountingResourceHolder<LimitedTemporaryStorage> temporaryStorageHolder =
                   ReferenceCountingResourceHolder.fromCloseable(temporaryStorage);
               resources.register(temporaryStorageHolder);
+              responseContext.put(ResponseContextKey.TEMPORARY_STORAGE, temporaryStorage);
 
               // If parallelCombine is enabled, we need two merge buffers for parallel aggregating and parallel combining
               final int numMergeBuffers = querySpecificConfig.getNumParallelCombineThreads() > 1 ? 2 : 1;
@@ -192,7 +235,7 @@ public class GroupByMergingQueryRunnerV2 implements QueryRunner<ResultRow>
                                                                                       mergeBufferHolders.get(1) :
                                                                                       null;
 
-              Pair<Grouper<RowBasedKey>, Accumulator<AggregateResult, ResultRow>> pair =
+              Pair<Grouper<RowBasedKey>, Supplier<Accumulator<AggregateResult, ResultRow>>> pair =
                   RowBasedGrouperHelper.createGrouperAccumulatorPair(
                       query,
                       null,
@@ -209,7 +252,7 @@ public class GroupByMergingQueryRunnerV2 implements QueryRunner<ResultRow>
                       mergeBufferSize
                   );
               final Grouper<RowBasedKey> grouper = pair.lhs;
-              final Accumulator<AggregateResult, ResultRow> accumulator = pair.rhs;
+              final Supplier<Accumulator<AggregateResult, ResultRow>> accumulatorSupplier = pair.rhs;
               grouper.init();
 
               final ReferenceCountingResourceHolder<Grouper<RowBasedKey>> grouperHolder =
@@ -243,7 +286,7 @@ public class GroupByMergingQueryRunnerV2 implements QueryRunner<ResultRow>
                                       ) {
                                         // Return true if OK, false if resources were exhausted.
                                         return input.run(queryPlusForRunners, responseContext)
-                                                    .accumulate(AggregateResult.ok(), accumulator);
+                                                    .accumulate(AggregateResult.ok(), accumulatorSupplier.get());
                                       }
                                       catch (QueryInterruptedException e) {
                                         throw e;
@@ -275,6 +318,9 @@ public class GroupByMergingQueryRunnerV2 implements QueryRunner<ResultRow>
                 waitForFutureCompletion(query, futures, hasTimeout, timeoutAt - System.currentTimeMillis());
               }
 
+              // All per-segment runners are done.
+              responseContext.remove(ResponseContextKey.TEMPORARY_STORAGE);
+
               return RowBasedGrouperHelper.makeGrouperIterator(
                   grouper,
                   query,
@@ -283,6 +329,7 @@ public class GroupByMergingQueryRunnerV2 implements QueryRunner<ResultRow>
             }
             catch (Throwable t) {
               // Exception caught while setting up the iterator; release resources.
+              responseContext.remove(ResponseContextKey.TEMPORARY_STORAGE);
               try {
                 resources.close();
               }
@@ -302,6 +349,16 @@ public class GroupByMergingQueryRunnerV2 implements QueryRunner<ResultRow>
     );
   }
 
+  /**
+   * Returns the {@link LimitedTemporaryStorage} that a {@link GroupByMergingQueryRunnerV2} passed to the per-segment
+   * runners it merges, or null if the per-segment runner is not being merged by one.
+   */
+  @Nullable
+  public static LimitedTemporaryStorage getTemporaryStorage(ResponseContext responseContext)
+  {
+    return (LimitedTemporaryStorage) responseContext.get(ResponseContextKey.TEMPORARY_STORAGE);
+  }
+
   private List<ReferenceCountingResourceHolder<ByteBuffer>> getMergeBuffersHolder(
       int numBuffers,
       boolean hasTimeout,
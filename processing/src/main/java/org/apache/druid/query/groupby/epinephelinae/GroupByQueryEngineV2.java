@@ -19,6 +19,8 @@
 
 package org.apache.druid.query.groupby.epinephelinae;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Preconditions;
 import com.google.common.base.Suppliers;
 import com.google.common.collect.ImmutableList;
@@ -29,6 +31,7 @@ import org.apache.druid.common.config.NullHandling;
 import org.apache.druid.java.util.common.DateTimes;
 import org.apache.druid.java.util.common.IAE;
 import org.apache.druid.java.util.common.ISE;
+import org.apache.druid.java.util.common.granularity.Granularities;
 import org.apache.druid.java.util.common.guava.BaseSequence;
 import org.apache.druid.java.util.common.guava.Sequence;
 import org.apache.druid.java.util.common.logger.Logger;
@@ -91,6 +94,21 @@ public class GroupByQueryEngineV2
 {
   private static final GroupByStrategyFactory STRATEGY_FACTORY = new GroupByStrategyFactory();
 
+  // Same defaults and limits as the hash groupers.
+  private static final float DEFAULT_MAX_LOAD_FACTOR = 0.7f;
+  private static final int MIN_ESTIMATED_BUCKETS = 4;
+
+  // A small multiple of the hash groupers' default of 1024, so a high estimate cannot make every segment start out
+  // clearing a huge table.
+  private static final int MAX_ESTIMATED_BUCKETS = 8 * 1024;
+
+  /**
+   * Array-based aggregation over more than one dimension is used if the number of possible keys is at most this many,
+   * or at most the number of rows in the segment. See {@link #getCardinalitiesForArrayAggregation}.
+   */
+  @VisibleForTesting
+  static final int MAX_SPARSE_ARRAY_SLOTS = 1 << 16;
+
   private static GroupByColumnSelectorPlus[] createGroupBySelectorPlus(
       ColumnSelectorPlus<GroupByColumnSelectorStrategy>[] baseSelectorPlus,
       int dimensionStart
@@ -114,7 +132,9 @@ public class GroupByQueryEngineV2
       final GroupByQuery query,
       @Nullable final StorageAdapter storageAdapter,
       final NonBlockingPool<ByteBuffer> intermediateResultsBufferPool,
-      final GroupByQueryConfig querySpecificConfig
+      final GroupByQueryConfig querySpecificConfig,
+      @Nullable final LimitedTemporaryStorage temporaryStorage,
+      final ObjectMapper spillMapper
   )
   {
     if (storageAdapter == null) {
@@ -156,7 +176,9 @@ public class GroupByQueryEngineV2
             fudgeTimestamp,
             filter,
             interval,
-            querySpecificConfig
+            querySpecificConfig,
+            temporaryStorage,
+            spillMapper
         );
       } else {
         result = processNonVectorized(
@@ -216,14 +238,17 @@ public class GroupByQueryEngineV2
                     query.getResultRowDimensionStart()
                 );
 
-                final int cardinalityForArrayAggregation = getCardinalityForArrayAggregation(
+                final int[] cardinalitiesForArrayAggregation = getCardinalitiesForArrayAggregation(
                     querySpecificConfig,
                     query,
                     storageAdapter,
                     processingBuffer
                 );
 
-                if (cardinalityForArrayAggregation >= 0) {
+                final boolean allSingleValueDims = isAllSingleValueDims(columnSelectorFactory, query.getDimensions());
+
+                if (cardinalitiesForArrayAggregation != null
+                    && (cardinalitiesForArrayAggregation.length == 1 || allSingleValueDims)) {
                   return new ArrayAggregateIterator(
                       query,
                       querySpecificConfig,
@@ -231,8 +256,8 @@ public class GroupByQueryEngineV2
                       processingBuffer,
                       fudgeTimestamp,
                       dims,
-                      isAllSingleValueDims(columnSelectorFactory, query.getDimensions()),
-                      cardinalityForArrayAggregation
+                      allSingleValueDims,
+                      cardinalitiesForArrayAggregation
                   );
                 } else {
                   return new HashAggregateIterator(
@@ -242,7 +267,8 @@ public class GroupByQueryEngineV2
                       processingBuffer,
                       fudgeTimestamp,
                       dims,
-                      isAllSingleValueDims(columnSelectorFactory, query.getDimensions())
+                      allSingleValueDims,
+                      getInitialBucketsForHashAggregation(querySpecificConfig, query, storageAdapter)
                   );
                 }
               }
@@ -258,10 +284,17 @@ public class GroupByQueryEngineV2
   }
 
   /**
-   * Returns the cardinality of array needed to do array-based aggregation, or -1 if array-based aggregation
+   * Returns the cardinalities of the dimensions to use for array-based aggregation, or null if array-based aggregation
    * is impossible.
+   *
+   * Queries without dimensions, and a single string dimension of known cardinality, can always use array-based
+   * aggregation, as long as the array fits in the buffer. Multiple dimensions can use it only if they are all single-valued string dimensions of known
+   * cardinality and the number of possible combinations, {@link BufferArrayGrouper#computeCardinalityWithMissingValue},
+   * is at most {@link #MAX_SPARSE_ARRAY_SLOTS} or the number of rows in the segment. Past that, most slots of the array
+   * would be empty, and scanning them would cost more than hashing.
    */
-  public static int getCardinalityForArrayAggregation(
+  @Nullable
+  public static int[] getCardinalitiesForArrayAggregation(
       GroupByQueryConfig querySpecificConfig,
       GroupByQuery query,
       StorageAdapter storageAdapter,
@@ -269,51 +302,133 @@ public class GroupByQueryEngineV2
   )
   {
     if (querySpecificConfig.isForceHashAggregation()) {
-      return -1;
+      return null;
     }
 
     final List<DimensionSpec> dimensions = query.getDimensions();
-    final ColumnCapabilities columnCapabilities;
-    final int cardinality;
-
-    // Find cardinality
-    if (dimensions.isEmpty()) {
-      columnCapabilities = null;
-      cardinality = 1;
-    } else if (dimensions.size() == 1) {
+
+    // Without dimensions, all rows share the same key. Use a single slot, which BufferArrayGrouper aggregates into
+    // when the key space is empty.
+    final int[] cardinalities = dimensions.isEmpty() ? new int[]{1} : new int[dimensions.size()];
+
+    for (int i = 0; i < dimensions.size(); i++) {
+      final String columnName = dimensions.get(i).getDimension();
+
       // Only real columns can use array-based aggregation, since virtual columns cannot currently report their
       // cardinality. We need to check if a virtual column exists with the same name, since virtual columns can shadow
       // real columns, and we might miss that since we're going directly to the StorageAdapter (which only knows about
       // real columns).
-      if (query.getVirtualColumns().exists(Iterables.getOnlyElement(dimensions).getDimension())) {
-        return -1;
+      if (query.getVirtualColumns().exists(columnName)) {
+        return null;
+      }
+
+      final ColumnCapabilities columnCapabilities = storageAdapter.getColumnCapabilities(columnName);
+      final int cardinality = storageAdapter.getDimensionCardinality(columnName);
+
+      // Each dimension must be a string dimension of a known cardinality. With more than one dimension, they must
+      // also be single-valued, since each row maps to exactly one slot.
+      if (columnCapabilities == null
+          || !columnCapabilities.getType().equals(ValueType.STRING)
+          || cardinality <= 0
+          || cardinality == Integer.MAX_VALUE
+          || (dimensions.size() > 1
+              && (dimensions.get(i).mustDecorate() || !columnCapabilities.hasMultipleValues().isFalse()))) {
+        return null;
+      }
+
+      cardinalities[i] = cardinality;
+    }
+
+    if (cardinalities.length > 1) {
+      final long numSlots = BufferArrayGrouper.computeCardinalityWithMissingValue(cardinalities);
+
+      if (numSlots < 0 || numSlots > Math.max(MAX_SPARSE_ARRAY_SLOTS, storageAdapter.getNumRows())) {
+        return null;
       }
+    }
 
-      final String columnName = Iterables.getOnlyElement(dimensions).getDimension();
-      columnCapabilities = storageAdapter.getColumnCapabilities(columnName);
-      cardinality = storageAdapter.getDimensionCardinality(columnName);
+    final AggregatorFactory[] aggregatorFactories = query.getAggregatorSpecs().toArray(new AggregatorFactory[0]);
+    final long requiredBufferCapacity = BufferArrayGrouper.requiredBufferCapacity(cardinalities, aggregatorFactories);
+
+    // Check that all keys and aggregated values can be contained in the buffer
+    if (requiredBufferCapacity < 0 || requiredBufferCapacity > buffer.capacity()) {
+      return null;
     } else {
-      // Cannot use array-based aggregation with more than one dimension.
-      return -1;
+      return cardinalities;
     }
+  }
 
-    // Choose array-based aggregation if the grouping key is a single string dimension of a known cardinality
-    if (columnCapabilities != null && columnCapabilities.getType().equals(ValueType.STRING) && cardinality > 0) {
-      final AggregatorFactory[] aggregatorFactories = query.getAggregatorSpecs().toArray(new AggregatorFactory[0]);
-      final long requiredBufferCapacity = BufferArrayGrouper.requiredBufferCapacity(
-          cardinality,
-          aggregatorFactories
-      );
+  /**
+   * Returns the initial number of buckets for hash-based aggregation. If "bufferGrouperInitialBuckets" is configured,
+   * returns that. Otherwise, if "estimateInitialBuckets" is enabled, the query has granularity "all" and no filter,
+   * returns enough buckets to hold {@link #estimateNumGroups} groups without growing, up to
+   * {@link #MAX_ESTIMATED_BUCKETS}. In all other cases returns the unconfigured value (0): tables are reset for every
+   * time bucket, and filters can make the estimate far larger than the number of groups actually produced. Hash
+   * groupers cap the initial number of buckets to what fits in their buffer.
+   */
+  public static int getInitialBucketsForHashAggregation(
+      final GroupByQueryConfig querySpecificConfig,
+      final GroupByQuery query,
+      final StorageAdapter storageAdapter
+  )
+  {
+    if (querySpecificConfig.getBufferGrouperInitialBuckets() > 0
+        || !querySpecificConfig.isEstimateInitialBuckets()
+        || !Granularities.ALL.equals(query.getGranularity())
+        || query.getDimFilter() != null) {
+      return querySpecificConfig.getBufferGrouperInitialBuckets();
+    }
+
+    final long numGroups = estimateNumGroups(query, storageAdapter);
+
+    if (numGroups < 0) {
+      return querySpecificConfig.getBufferGrouperInitialBuckets();
+    }
+
+    final float maxLoadFactor = querySpecificConfig.getBufferGrouperMaxLoadFactor() > 0
+                                ? querySpecificConfig.getBufferGrouperMaxLoadFactor()
+                                : DEFAULT_MAX_LOAD_FACTOR;
+
+    return (int) Math.max(
+        MIN_ESTIMATED_BUCKETS,
+        Math.min(MAX_ESTIMATED_BUCKETS, (long) Math.ceil(numGroups / maxLoadFactor) + 1)
+    );
+  }
+
+  /**
+   * Returns an upper bound on the number of groups that "query" can generate per time bucket in a segment, based on
+   * the dictionary sizes of its dimensions and the number of rows in the segment. Returns -1 if there is no such
+   * bound, which is the case if any dimension is a virtual column or may have multiple values.
+   */
+  public static long estimateNumGroups(final GroupByQuery query, final StorageAdapter storageAdapter)
+  {
+    final long numRows = storageAdapter.getNumRows();
+    long numGroups = 1;
+
+    for (final DimensionSpec dimension : query.getDimensions()) {
+      final String columnName = dimension.getDimension();
+
+      if (query.getVirtualColumns().exists(columnName) || dimension.mustDecorate()) {
+        return -1;
+      }
+
+      final ColumnCapabilities capabilities = storageAdapter.getColumnCapabilities(columnName);
 
-      // Check that all keys and aggregated values can be contained in the buffer
-      if (requiredBufferCapacity < 0 || requiredBufferCapacity > buffer.capacity()) {
+      if (capabilities != null && !capabilities.hasMultipleValues().isFalse()) {
         return -1;
+      }
+
+      final int cardinality = storageAdapter.getDimensionCardinality(columnName);
+
+      if (cardinality == Integer.MAX_VALUE) {
+        // Unknown cardinality; each row is at most one group.
+        numGroups = numRows;
       } else {
-        return cardinality;
+        numGroups = Math.min(numRows, numGroups * Math.max(1, cardinality));
       }
-    } else {
-      return -1;
     }
+
+    return Math.min(numRows, numGroups);
   }
 
   /**
@@ -573,6 +688,7 @@ public class GroupByQueryEngineV2
     private final int[] stack;
     private final Object[] valuess;
     private final ByteBuffer keyBuffer;
+    private final int initialBuckets;
 
     private int stackPointer = Integer.MIN_VALUE;
     protected boolean currentRowWasPartiallyAggregated = false;
@@ -584,11 +700,13 @@ public class GroupByQueryEngineV2
         ByteBuffer buffer,
         @Nullable DateTime fudgeTimestamp,
         GroupByColumnSelectorPlus[] dims,
-        boolean allSingleValueDims
+        boolean allSingleValueDims,
+        int initialBuckets
     )
     {
       super(query, querySpecificConfig, cursor, buffer, fudgeTimestamp, dims, allSingleValueDims);
 
+      this.initialBuckets = initialBuckets;
       final int dimCount = query.getDimensions().size();
       stack = new int[dimCount];
       valuess = new Object[dimCount];
@@ -658,7 +776,7 @@ public class GroupByQueryEngineV2
             ),
             querySpecificConfig.getBufferGrouperMaxSize(),
             querySpecificConfig.getBufferGrouperMaxLoadFactor(),
-            querySpecificConfig.getBufferGrouperInitialBuckets(),
+            initialBuckets,
             true
         );
       }
@@ -776,11 +894,15 @@ public class GroupByQueryEngineV2
 
   private static class ArrayAggregateIterator extends GroupByEngineIterator<Integer>
   {
-    private final int cardinality;
+    private final int[] cardinalities;
+    private final int[] values;
 
     @Nullable
     private final GroupByColumnSelectorPlus dim;
 
+    @Nullable
+    private BufferArrayGrouper arrayGrouper;
+
     @Nullable
     private IndexedInts multiValues;
     private int nextValIndex;
@@ -793,28 +915,33 @@ public class GroupByQueryEngineV2
         @Nullable DateTime fudgeTimestamp,
         GroupByColumnSelectorPlus[] dims,
         boolean allSingleValueDims,
-        int cardinality
+        int[] cardinalities
     )
     {
       super(query, querySpecificConfig, cursor, buffer, fudgeTimestamp, dims, allSingleValueDims);
-      this.cardinality = cardinality;
+      this.cardinalities = cardinalities;
+      this.values = new int[dims.length];
       if (dims.length == 1) {
         this.dim = dims[0];
       } else if (dims.length == 0) {
         this.dim = null;
+      } else if (allSingleValueDims && dims.length == cardinalities.length) {
+        // Keys are computed from all dims; see aggregateSingleValueDims.
+        this.dim = null;
       } else {
-        throw new IAE("Group key should be a single dimension");
+        throw new IAE("Group key should be a single dimension, or multiple single-valued dimensions");
       }
     }
 
     @Override
     protected IntGrouper newGrouper()
     {
-      return new BufferArrayGrouper(
+      arrayGrouper = new BufferArrayGrouper(
           Suppliers.ofInstance(buffer),
           AggregatorAdapters.factorizeBuffered(cursor.getColumnSelectorFactory(), query.getAggregatorSpecs()),
-          cardinality
+          cardinalities
       );
+      return arrayGrouper;
     }
 
     @Override
@@ -837,6 +964,13 @@ public class GroupByQueryEngineV2
           // dim is always an indexed string dimension
           final IndexedInts indexedInts = ((DimensionSelector) dim.getSelector()).getRow();
           key = getSingleValue(indexedInts);
+        } else if (dims.length > 1) {
+          for (int i = 0; i < dims.length; i++) {
+            // dims are always single-valued indexed string dimensions
+            values[i] = getSingleValue(((DimensionSelector) dims[i].getSelector()).getRow());
+          }
+          // shift by -1 to match the keys of single-dimension groupers; see BufferArrayGrouper.
+          key = arrayGrouper.computeIndex(values) - 1;
         } else {
           key = 0;
         }
@@ -886,13 +1020,23 @@ public class GroupByQueryEngineV2
     protected void putToRow(Integer key, ResultRow resultRow)
     {
       if (dim != null) {
-        if (key != GroupByColumnSelectorStrategy.GROUP_BY_MISSING_VALUE) {
-          resultRow.set(dim.getResultRowPosition(), ((DimensionSelector) dim.getSelector()).lookupName(key));
-        } else {
-          resultRow.set(dim.getResultRowPosition(), NullHandling.defaultStringValue());
+        putToRow(dim, key, resultRow);
+      } else if (dims.length > 1) {
+        arrayGrouper.decodeIndex(key + 1, values);
+        for (int i = 0; i < dims.length; i++) {
+          putToRow(dims[i], values[i], resultRow);
         }
       }
     }
+
+    private static void putToRow(GroupByColumnSelectorPlus dim, int value, ResultRow resultRow)
+    {
+      if (value != GroupByColumnSelectorStrategy.GROUP_BY_MISSING_VALUE) {
+        resultRow.set(dim.getResultRowPosition(), ((DimensionSelector) dim.getSelector()).lookupName(value));
+      } else {
+        resultRow.set(dim.getResultRowPosition(), NullHandling.defaultStringValue());
+      }
+    }
   }
 
   private static class GroupByEngineKeySerde implements Grouper.KeySerde<ByteBuffer>
@@ -21,7 +21,9 @@ package org.apache.druid.query.groupby.epinephelinae;
 
 import com.google.common.base.Supplier;
 import it.unimi.dsi.fastutil.HashCommon;
+import it.unimi.dsi.fastutil.ints.IntArrays;
 import it.unimi.dsi.fastutil.ints.IntIterator;
+import it.unimi.dsi.fastutil.ints.IntIterators;
 import org.apache.datasketches.memory.Memory;
 import org.apache.datasketches.memory.WritableMemory;
 import org.apache.druid.java.util.common.CloseableIterators;
@@ -217,6 +219,15 @@ public class HashVectorGrouper implements VectorGrouper
 
   @Override
   public CloseableIterator<Grouper.Entry<Memory>> iterator()
+  {
+    return iterator(false);
+  }
+
+  /**
+   * Iterate through entry buckets, like {@link #iterator()}. If "sorted" is true, entries are returned in the order
+   * given by {@link #compareKeys}.
+   */
+  public CloseableIterator<Grouper.Entry<Memory>> iterator(final boolean sorted)
   {
     if (!initialized) {
       // it's possible for iterator() to be called before initialization when
@@ -224,7 +235,7 @@ public class HashVectorGrouper implements VectorGrouper
       return CloseableIterators.withEmptyBaggage(Collections.emptyIterator());
     }
 
-    final IntIterator baseIterator = hashTable.bucketIterator();
+    final IntIterator baseIterator = sorted ? sortedBucketIterator() : hashTable.bucketIterator();
 
     return new CloseableIterator<Grouper.Entry<Memory>>()
     {
@@ -268,6 +279,48 @@ public class HashVectorGrouper implements VectorGrouper
     aggregators.close();
   }
 
+  /**
+   * Compares two keys of size "keySize" byte-by-byte. This is the order used by {@link #iterator(boolean)}.
+   */
+  public static int compareKeys(
+      final Memory lhs,
+      final long lhsPosition,
+      final Memory rhs,
+      final long rhsPosition,
+      final int keySize
+  )
+  {
+    return lhs.compareTo(lhsPosition, keySize, rhs, rhsPosition, keySize);
+  }
+
+  /**
+   * Returns the used buckets of {@link #hashTable}, sorted by key.
+   */
+  private IntIterator sortedBucketIterator()
+  {
+    final int[] buckets = new int[hashTable.size()];
+    final IntIterator bucketIterator = hashTable.bucketIterator();
+    for (int i = 0; i < buckets.length; i++) {
+      buckets[i] = bucketIterator.nextInt();
+    }
+
+    final Memory memory = hashTable.memory();
+    final int keyOffset = hashTable.bucketKeyOffset();
+
+    IntArrays.quickSort(
+        buckets,
+        (bucket1, bucket2) -> compareKeys(
+            memory,
+            hashTable.bucketMemoryPosition(bucket1) + keyOffset,
+            memory,
+            hashTable.bucketMemoryPosition(bucket2) + keyOffset,
+            keySize
+        )
+    );
+
+    return IntIterators.wrap(buckets);
+  }
+
 
   /**
    * Initializes the given bucket with the given key and fresh, empty aggregation state. Must only be called if
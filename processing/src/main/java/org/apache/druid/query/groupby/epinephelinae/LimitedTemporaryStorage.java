@@ -52,6 +52,9 @@ public class LimitedTemporaryStorage implements Closeable
   private final AtomicLong bytesUsed = new AtomicLong();
   private final Set<File> files = new TreeSet<>();
 
+  // Used to name files, since they may be deleted before the storage is closed. Guarded by "files".
+  private int numFilesCreated = 0;
+
   private volatile boolean closed = false;
 
   private boolean createdStorageDirectory = false;
@@ -87,7 +90,7 @@ public class LimitedTemporaryStorage implements Closeable
         createdStorageDirectory = true;
       }
 
-      final File theFile = new File(storageDirectory, StringUtils.format("%08d.tmp", files.size()));
+      final File theFile = new File(storageDirectory, StringUtils.format("%08d.tmp", numFilesCreated++));
       final EnumSet<StandardOpenOption> openOptions = EnumSet.of(
           StandardOpenOption.CREATE_NEW,
           StandardOpenOption.WRITE
@@ -119,26 +119,31 @@ public class RowBasedGrouperHelper
       final int mergeBufferSize
   )
   {
-    return createGrouperAccumulatorPair(
-        query,
-        subquery,
-        config,
-        bufferSupplier,
-        null,
-        SINGLE_THREAD_CONCURRENCY_HINT,
-        temporaryStorage,
-        spillMapper,
-        null,
-        UNKNOWN_THREAD_PRIORITY,
-        false,
-        UNKNOWN_TIMEOUT,
-        mergeBufferSize
-    );
+    final Pair<Grouper<RowBasedKey>, Supplier<Accumulator<AggregateResult, ResultRow>>> pair =
+        createGrouperAccumulatorPair(
+            query,
+            subquery,
+            config,
+            bufferSupplier,
+            null,
+            SINGLE_THREAD_CONCURRENCY_HINT,
+            temporaryStorage,
+            spillMapper,
+            null,
+            UNKNOWN_THREAD_PRIORITY,
+            false,
+            UNKNOWN_TIMEOUT,
+            mergeBufferSize
+        );
+
+    return new Pair<>(pair.lhs, pair.rhs.get());
   }
 
   /**
    * Create a {@link Grouper} that groups according to the dimensions and aggregators in "query", along with
-   * an {@link Accumulator} that accepts ResultRows and forwards them to the grouper.
+   * a supplier of {@link Accumulator} that accept ResultRows and forward them to the grouper. Each accumulator reuses
+   * a single grouping key for all of its rows, so it must only be used by one thread at a time; get a new one for
+   * each sequence that is accumulated concurrently.
    *
    * The pair will operate in one of two modes:
    *
@@ -166,7 +171,7 @@ public class RowBasedGrouperHelper
    * @param queryTimeoutAt      when this query times out, in milliseconds since the epoch
    * @param mergeBufferSize     size of the merge buffers from "bufferSupplier"
    */
-  public static Pair<Grouper<RowBasedKey>, Accumulator<AggregateResult, ResultRow>> createGrouperAccumulatorPair(
+  public static Pair<Grouper<RowBasedKey>, Supplier<Accumulator<AggregateResult, ResultRow>>> createGrouperAccumulatorPair(
       final GroupByQuery query,
       @Nullable final GroupByQuery subquery,
       final GroupByQueryConfig config,
@@ -306,34 +311,40 @@ public class RowBasedGrouperHelper
       rowPredicate = getResultRowPredicate(query, subquery);
     }
 
-    final Accumulator<AggregateResult, ResultRow> accumulator = (priorResult, row) -> {
-      BaseQuery.checkInterrupted();
+    final Supplier<Accumulator<AggregateResult, ResultRow>> accumulatorSupplier = () -> {
+      // Groupers serialize keys as soon as they are aggregated and never hold on to them, so an accumulator can reuse
+      // a single key object instead of allocating two objects per row.
+      final Comparable[] keyValues = new Comparable[keySize];
+      final RowBasedKey key = new RowBasedKey(keyValues);
 
-      if (priorResult != null && !priorResult.isOk()) {
-        // Pass-through error returns without doing more work.
-        return priorResult;
-      }
+      return (priorResult, row) -> {
+        BaseQuery.checkInterrupted();
 
-      if (!grouper.isInitialized()) {
-        grouper.init();
-      }
+        if (priorResult != null && !priorResult.isOk()) {
+          // Pass-through error returns without doing more work.
+          return priorResult;
+        }
 
-      if (!rowPredicate.test(row)) {
-        return AggregateResult.ok();
-      }
+        if (!grouper.isInitialized()) {
+          grouper.init();
+        }
 
-      columnSelectorRow.set(row);
+        if (!rowPredicate.test(row)) {
+          return AggregateResult.ok();
+        }
+
+        columnSelectorRow.set(row);
 
-      final Comparable[] key = new Comparable[keySize];
-      valueExtractFn.apply(row, key);
+        valueExtractFn.apply(row, keyValues);
 
-      final AggregateResult aggregateResult = grouper.aggregate(new RowBasedKey(key));
-      columnSelectorRow.set(null);
+        final AggregateResult aggregateResult = grouper.aggregate(key);
+        columnSelectorRow.set(null);
 
-      return aggregateResult;
+        return aggregateResult;
+      };
     };
 
-    return new Pair<>(grouper, accumulator);
+    return new Pair<>(grouper, accumulatorSupplier);
   }
 
   /**
@@ -0,0 +1,279 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.apache.druid.query.groupby.epinephelinae;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.collect.Iterators;
+import net.jpountz.lz4.LZ4BlockInputStream;
+import net.jpountz.lz4.LZ4BlockOutputStream;
+import org.apache.datasketches.memory.Memory;
+import org.apache.druid.java.util.common.CloseableIterators;
+import org.apache.druid.java.util.common.io.Closer;
+import org.apache.druid.java.util.common.parsers.CloseableIterator;
+import org.apache.druid.query.BaseQuery;
+import org.apache.druid.query.aggregation.AggregatorFactory;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Vectorized version of {@link SpillingGrouper}, based around a single underlying {@link HashVectorGrouper}. Not
+ * thread-safe.
+ *
+ * When the underlying grouper is full, its contents are sorted and written to temporary files using "spillMapper".
+ * The iterator merges the sorted runs and combines entries with equal keys, so each key is returned only once.
+ */
+public class SpillingVectorGrouper implements VectorGrouper
+{
+  private static final String DISK_FULL_MESSAGE =
+      "Not enough disk space to execute this query. Try raising druid.query.groupBy.maxOnDiskStorage.";
+
+  private final HashVectorGrouper grouper;
+  private final int keySize;
+  private final AggregatorFactory[] aggregatorFactories;
+  private final LimitedTemporaryStorage temporaryStorage;
+  private final ObjectMapper spillMapper;
+  private final Comparator<Grouper.Entry<Memory>> keyComparator;
+
+  private final List<File> files = new ArrayList<>();
+
+  public SpillingVectorGrouper(
+      final HashVectorGrouper grouper,
+      final int keySize,
+      final AggregatorFactory[] aggregatorFactories,
+      final LimitedTemporaryStorage temporaryStorage,
+      final ObjectMapper spillMapper
+  )
+  {
+    this.grouper = grouper;
+    this.keySize = keySize;
+    this.aggregatorFactories = aggregatorFactories;
+    this.temporaryStorage = temporaryStorage;
+    this.spillMapper = spillMapper;
+    this.keyComparator = (entry1, entry2) -> HashVectorGrouper.compareKeys(entry1.getKey(), 0, entry2.getKey(), 0, keySize);
+  }
+
+  @Override
+  public void initVectorized(final int maxVectorSize)
+  {
+    grouper.initVectorized(maxVectorSize);
+  }
+
+  @Override
+  public AggregateResult aggregateVector(final Memory keySpace, final int startRow, final int endRow)
+  {
+    int aggregatedRows = 0;
+    boolean spilled = false;
+
+    while (true) {
+      final AggregateResult result = grouper.aggregateVector(
+          keySpace.region((long) aggregatedRows * keySize, (long) (endRow - startRow - aggregatedRows) * keySize),
+          startRow + aggregatedRows,
+          endRow
+      );
+
+      if (result.isOk()) {
+        return AggregateResult.ok();
+      }
+
+      aggregatedRows += result.getCount();
+
+      if (temporaryStorage.maxSize() <= 0 || (spilled && result.getCount() == 0)) {
+        // Spilling is disabled, or the grouper cannot fit even a single key after spilling.
+        return AggregateResult.partial(aggregatedRows, result.getReason());
+      }
+
+      // Warning: this can potentially block up a processing thread for a while.
+      try {
+        spill();
+        spilled = true;
+      }
+      catch (TemporaryStorageFullException e) {
+        return AggregateResult.partial(aggregatedRows, DISK_FULL_MESSAGE);
+      }
+      catch (IOException e) {
+        throw new RuntimeException(e);
+      }
+    }
+  }
+
+  @Override
+  public void reset()
+  {
+    grouper.reset();
+    deleteFiles();
+  }
+
+  @Override
+  public void close()
+  {
+    grouper.close();
+    deleteFiles();
+  }
+
+  @Override
+  public CloseableIterator<Grouper.Entry<Memory>> iterator()
+  {
+    if (files.isEmpty()) {
+      return grouper.iterator();
+    }
+
+    final List<CloseableIterator<Grouper.Entry<Memory>>> iterators = new ArrayList<>(1 + files.size());
+    iterators.add(grouper.iterator(true));
+
+    final Closer closer = Closer.create();
+    for (final File file : files) {
+      final MappingIterator<Grouper.Entry<byte[]>> fileIterator = read(file);
+      iterators.add(
+          CloseableIterators.withEmptyBaggage(
+              Iterators.transform(
+                  fileIterator,
+                  entry -> {
+                    final Object[] deserializedValues = new Object[entry.getValues().length];
+                    for (int i = 0; i < deserializedValues.length; i++) {
+                      deserializedValues[i] = aggregatorFactories[i].deserialize(entry.getValues()[i]);
+                      if (deserializedValues[i] instanceof Integer) {
+                        // Same hack as SpillingGrouper: Jackson reads small longs as ints.
+                        deserializedValues[i] = ((Integer) deserializedValues[i]).longValue();
+                      }
+                    }
+                    return new Grouper.Entry<>(
+                        Memory.wrap(entry.getKey(), ByteOrder.nativeOrder()),
+                        deserializedValues
+                    );
+                  }
+              )
+          )
+      );
+      closer.register(fileIterator);
+    }
+
+    return CloseableIterators.wrap(
+        new CombiningIterator(CloseableIterators.mergeSorted(iterators, keyComparator)),
+        closer
+    );
+  }
+
+  private void spill() throws IOException
+  {
+    final LimitedTemporaryStorage.LimitedOutputStream out = temporaryStorage.createFile();
+
+    try (
+        final CloseableIterator<Grouper.Entry<Memory>> iterator = grouper.iterator(true);
+        final LZ4BlockOutputStream compressedOut = new LZ4BlockOutputStream(out);
+        final JsonGenerator jsonGenerator = spillMapper.getFactory().createGenerator(compressedOut)
+    ) {
+      while (iterator.hasNext()) {
+        BaseQuery.checkInterrupted();
+
+        final Grouper.Entry<Memory> entry = iterator.next();
+        final byte[] keyBytes = new byte[keySize];
+        entry.getKey().getByteArray(0, keyBytes, 0, keySize);
+        jsonGenerator.writeObject(new Grouper.Entry<>(keyBytes, entry.getValues()));
+      }
+    }
+    catch (Throwable e) {
+      // Incomplete runs are discarded. The grouper still holds everything that was not spilled before.
+      temporaryStorage.delete(out.getFile());
+      throw e;
+    }
+
+    files.add(out.getFile());
+    grouper.reset();
+  }
+
+  private MappingIterator<Grouper.Entry<byte[]>> read(final File file)
+  {
+    try {
+      return spillMapper.readValues(
+          spillMapper.getFactory().createParser(new LZ4BlockInputStream(new FileInputStream(file))),
+          spillMapper.getTypeFactory().constructParametricType(Grouper.Entry.class, byte[].class)
+      );
+    }
+    catch (IOException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  private void deleteFiles()
+  {
+    for (final File file : files) {
+      temporaryStorage.delete(file);
+    }
+    files.clear();
+  }
+
+  /**
+   * Combines adjacent entries with equal keys from a key-sorted iterator.
+   */
+  private class CombiningIterator implements Iterator<Grouper.Entry<Memory>>
+  {
+    private final Iterator<Grouper.Entry<Memory>> baseIterator;
+    private Grouper.Entry<Memory> nextEntry;
+
+    CombiningIterator(final Iterator<Grouper.Entry<Memory>> baseIterator)
+    {
+      this.baseIterator = baseIterator;
+      this.nextEntry = baseIterator.hasNext() ? baseIterator.next() : null;
+    }
+
+    @Override
+    public boolean hasNext()
+    {
+      return nextEntry != null;
+    }
+
+    @Override
+    public Grouper.Entry<Memory> next()
+    {
+      if (nextEntry == null) {
+        throw new NoSuchElementException();
+      }
+
+      final Grouper.Entry<Memory> entry = nextEntry;
+      nextEntry = null;
+
+      while (baseIterator.hasNext()) {
+        final Grouper.Entry<Memory> candidate = baseIterator.next();
+
+        if (keyComparator.compare(entry, candidate) == 0) {
+          for (int i = 0; i < aggregatorFactories.length; i++) {
+            entry.getValues()[i] = aggregatorFactories[i].combine(entry.getValues()[i], candidate.getValues()[i]);
+          }
+        } else {
+          nextEntry = candidate;
+          break;
+        }
+      }
+
+      return entry;
+    }
+  }
+}
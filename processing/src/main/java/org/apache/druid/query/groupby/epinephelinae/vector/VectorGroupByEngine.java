@@ -19,6 +19,7 @@
 
 package org.apache.druid.query.groupby.epinephelinae.vector;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Suppliers;
 import org.apache.datasketches.memory.Memory;
@@ -30,6 +31,7 @@ import org.apache.druid.java.util.common.io.Closer;
 import org.apache.druid.java.util.common.parsers.CloseableIterator;
 import org.apache.druid.query.QueryContexts;
 import org.apache.druid.query.aggregation.AggregatorAdapters;
+import org.apache.druid.query.aggregation.AggregatorFactory;
 import org.apache.druid.query.dimension.DimensionSpec;
 import org.apache.druid.query.filter.Filter;
 import org.apache.druid.query.groupby.GroupByQuery;
@@ -40,6 +42,8 @@ import org.apache.druid.query.groupby.epinephelinae.BufferArrayGrouper;
 import org.apache.druid.query.groupby.epinephelinae.CloseableGrouperIterator;
 import org.apache.druid.query.groupby.epinephelinae.GroupByQueryEngineV2;
 import org.apache.druid.query.groupby.epinephelinae.HashVectorGrouper;
+import org.apache.druid.query.groupby.epinephelinae.LimitedTemporaryStorage;
+import org.apache.druid.query.groupby.epinephelinae.SpillingVectorGrouper;
 import org.apache.druid.query.groupby.epinephelinae.VectorGrouper;
 import org.apache.druid.query.vector.VectorCursorGranularizer;
 import org.apache.druid.segment.DimensionHandlerUtils;
@@ -125,7 +129,9 @@ public class VectorGroupByEngine
       @Nullable final DateTime fudgeTimestamp,
       @Nullable final Filter filter,
       final Interval interval,
-      final GroupByQueryConfig config
+      final GroupByQueryConfig config,
+      @Nullable final LimitedTemporaryStorage temporaryStorage,
+      final ObjectMapper spillMapper
   )
   {
     if (!canVectorize(query, storageAdapter, filter)) {
@@ -190,7 +196,9 @@ public class VectorGroupByEngine
                   interval,
                   dimensions,
                   processingBuffer,
-                  fudgeTimestamp
+                  fudgeTimestamp,
+                  temporaryStorage,
+                  spillMapper
               );
             }
             catch (Throwable e) {
@@ -230,6 +238,9 @@ public class VectorGroupByEngine
     private final DateTime fudgeTimestamp;
     private final int keySize;
     private final WritableMemory keySpace;
+    @Nullable
+    private final LimitedTemporaryStorage temporaryStorage;
+    private final ObjectMapper spillMapper;
     private final VectorGrouper vectorGrouper;
 
     @Nullable
@@ -254,7 +265,9 @@ public class VectorGroupByEngine
         final Interval queryInterval,
         final List<GroupByVectorColumnSelector> selectors,
         final ByteBuffer processingBuffer,
-        @Nullable final DateTime fudgeTimestamp
+        @Nullable final DateTime fudgeTimestamp,
+        @Nullable final LimitedTemporaryStorage temporaryStorage,
+        final ObjectMapper spillMapper
     )
     {
       this.query = query;
@@ -266,6 +279,8 @@ public class VectorGroupByEngine
       this.fudgeTimestamp = fudgeTimestamp;
       this.keySize = selectors.stream().mapToInt(GroupByVectorColumnSelector::getGroupingKeySize).sum();
       this.keySpace = WritableMemory.allocate(keySize * cursor.getMaxVectorSize());
+      this.temporaryStorage = temporaryStorage;
+      this.spillMapper = spillMapper;
       this.vectorGrouper = makeGrouper();
       this.granulizer = VectorCursorGranularizer.create(storageAdapter, cursor, query.getGranularity(), queryInterval);
 
@@ -329,24 +344,24 @@ public class VectorGroupByEngine
     {
       final VectorGrouper grouper;
 
-      final int cardinalityForArrayAggregation = GroupByQueryEngineV2.getCardinalityForArrayAggregation(
+      final int[] cardinalitiesForArrayAggregation = GroupByQueryEngineV2.getCardinalitiesForArrayAggregation(
           querySpecificConfig,
           query,
           storageAdapter,
           processingBuffer
       );
 
-      if (cardinalityForArrayAggregation >= 0) {
+      if (cardinalitiesForArrayAggregation != null) {
         grouper = new BufferArrayGrouper(
             Suppliers.ofInstance(processingBuffer),
             AggregatorAdapters.factorizeVector(
                 cursor.getColumnSelectorFactory(),
                 query.getAggregatorSpecs()
             ),
-            cardinalityForArrayAggregation
+            cardinalitiesForArrayAggregation
         );
       } else {
-        grouper = new HashVectorGrouper(
+        final HashVectorGrouper hashGrouper = new HashVectorGrouper(
             Suppliers.ofInstance(processingBuffer),
             keySize,
             AggregatorAdapters.factorizeVector(
@@ -355,8 +370,23 @@ public class VectorGroupByEngine
             ),
             querySpecificConfig.getBufferGrouperMaxSize(),
             querySpecificConfig.getBufferGrouperMaxLoadFactor(),
-            querySpecificConfig.getBufferGrouperInitialBuckets()
+            GroupByQueryEngineV2.getInitialBucketsForHashAggregation(querySpecificConfig, query, storageAdapter)
         );
+
+        if (temporaryStorage != null && temporaryStorage.maxSize() > 0) {
+          // Spill sorted runs instead of emitting partial results whenever the table fills up, so each key is
+          // returned at most once per granularity bucket. The storage belongs to the merging runner, so spilled
+          // runs count against the same per-query limit as the merge.
+          grouper = new SpillingVectorGrouper(
+              hashGrouper,
+              keySize,
+              query.getAggregatorSpecs().toArray(new AggregatorFactory[0]),
+              temporaryStorage,
+              spillMapper
+          );
+        } else {
+          grouper = hashGrouper;
+        }
       }
 
       grouper.initVectorized(cursor.getMaxVectorSize());
@@ -164,8 +164,8 @@ public interface GroupByStrategy
   /**
    * Merge a variety of single-segment query runners into a combined runner. Used by
    * {@link org.apache.druid.query.groupby.GroupByQueryRunnerFactory#mergeRunners(ExecutorService, Iterable)}. In
-   * that sense, it is intended to go along with {@link #process(GroupByQuery, StorageAdapter)} (the runners created
-   * by that method will be fed into this method).
+   * that sense, it is intended to go along with {@link #process(GroupByQuery, StorageAdapter, ResponseContext)} (the
+   * runners created by that method will be fed into this method).
    *
    * This method is only called on data servers, like Historicals (not the Broker).
    *
@@ -183,12 +183,14 @@ public interface GroupByStrategy
    *
    * This method is only called on data servers, like Historicals (not the Broker).
    *
-   * @param query          the groupBy query
-   * @param storageAdapter storage adatper for the segment in question
+   * @param query           the groupBy query
+   * @param storageAdapter  storage adatper for the segment in question
+   * @param responseContext response context of the query, which may carry resources of the runner created by
+   *                        {@link #mergeRunners}
    *
    * @return result sequence for the storage adapter
    */
-  Sequence<ResultRow> process(GroupByQuery query, StorageAdapter storageAdapter);
+  Sequence<ResultRow> process(GroupByQuery query, StorageAdapter storageAdapter, ResponseContext responseContext);
 
   /**
    * Returns whether this strategy supports pushing down outer queries. This is used by
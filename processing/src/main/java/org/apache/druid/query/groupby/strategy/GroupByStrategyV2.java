@@ -56,6 +56,7 @@ import org.apache.druid.query.dimension.DefaultDimensionSpec;
 import org.apache.druid.query.dimension.DimensionSpec;
 import org.apache.druid.query.groupby.GroupByQuery;
 import org.apache.druid.query.groupby.GroupByQueryConfig;
+import org.apache.druid.query.groupby.GroupByQueryQueryToolChest;
 import org.apache.druid.query.groupby.ResultRow;
 import org.apache.druid.query.groupby.epinephelinae.GroupByBinaryFnV2;
 import org.apache.druid.query.groupby.epinephelinae.GroupByMergingQueryRunnerV2;
@@ -118,9 +119,13 @@ public class GroupByStrategyV2 implements GroupByStrategy
     final int requiredMergeBufferNum = countRequiredMergeBufferNum(query, 1) +
                                        numMergeBuffersNeededForSubtotalsSpec(query);
 
-    if (requiredMergeBufferNum > mergeBufferPool.maxSize()) {
+    // When executing subtotals pushed down by the Broker, the runner from mergeRunners takes its own merge buffers
+    // from the same pool while the ones reserved here are held, so all of them must fit in the pool at once.
+    final int totalMergeBufferNum = requiredMergeBufferNum + numMergeBuffersNeededForPushedDownSubtotalsMerge(query);
+
+    if (totalMergeBufferNum > mergeBufferPool.maxSize()) {
       throw new ResourceLimitExceededException(
-          "Query needs " + requiredMergeBufferNum + " merge buffers, but only "
+          "Query needs " + totalMergeBufferNum + " merge buffers, but only "
           + mergeBufferPool.maxSize() + " merge buffers were configured"
       );
     } else if (requiredMergeBufferNum == 0) {
@@ -390,8 +395,11 @@ public class GroupByStrategyV2 implements GroupByStrategy
           processingConfig.intermediateComputeSizeBytes()
       );
 
-      List<String> queryDimNames = baseSubtotalQuery.getDimensions().stream().map(DimensionSpec::getOutputName)
-                                                    .collect(Collectors.toList());
+      List<String> queryDimNames = getSubtotalsBaseDimensionNames(baseSubtotalQuery);
+      final boolean executingPushedDownSubtotals = query.getContextBoolean(
+          GroupByQueryConfig.CTX_KEY_EXECUTING_PUSHED_DOWN_SUBTOTALS,
+          false
+      );
 
       // Only needed to make LimitSpec.filterColumns(..) call later in case base query has a non default LimitSpec.
       Set<String> aggsAndPostAggs = null;
@@ -403,7 +411,8 @@ public class GroupByStrategyV2 implements GroupByStrategy
       List<Sequence<ResultRow>> subtotalsResults = new ArrayList<>(subtotals.size());
 
       // Iterate through each subtotalSpec, build results for it and add to subtotalsResults
-      for (List<String> subtotalSpec : subtotals) {
+      for (int subtotalIndex = 0; subtotalIndex < subtotals.size(); subtotalIndex++) {
+        final List<String> subtotalSpec = subtotals.get(subtotalIndex);
         final ImmutableSet<String> dimsInSubtotalSpec = ImmutableSet.copyOf(subtotalSpec);
         final List<DimensionSpec> dimensions = query.getDimensions();
         final List<DimensionSpec> newDimensions = new ArrayList<>();
@@ -443,12 +452,12 @@ public class GroupByStrategyV2 implements GroupByStrategy
             .withDimensionSpecs(newDimensions);
 
         final GroupByRowProcessor.ResultSupplier resultSupplierOneFinal = resultSupplierOne;
+        final Sequence<ResultRow> subtotalResults;
         if (Utils.isPrefix(subtotalSpec, queryDimNames)) {
           // Since subtotalSpec is a prefix of base query dimensions, so results from base query are also sorted
           // by subtotalSpec as needed by stream merging.
-          subtotalsResults.add(
-              processSubtotalsResultAndOptionallyClose(() -> resultSupplierOneFinal, subtotalSpec, subtotalQuery, false)
-          );
+          subtotalResults =
+              processSubtotalsResultAndOptionallyClose(() -> resultSupplierOneFinal, subtotalSpec, subtotalQuery, false);
         } else {
           // Since subtotalSpec is not a prefix of base query dimensions, so results from base query are not sorted
           // by subtotalSpec. So we first add the result of base query into another resultSupplier which are sorted
@@ -467,9 +476,25 @@ public class GroupByStrategyV2 implements GroupByStrategy
               processingConfig.intermediateComputeSizeBytes()
           );
 
+          subtotalResults =
+              processSubtotalsResultAndOptionallyClose(resultSupplierTwo, subtotalSpec, subtotalQuery, true);
+        }
+
+        if (executingPushedDownSubtotals) {
+          // Tag rows with the grouping id, so the Broker can tell subtotals apart when merging them.
+          final int groupingIdPosition = query.getResultRowDimensionStart();
+          final long groupingId = subtotalIndex;
           subtotalsResults.add(
-              processSubtotalsResultAndOptionallyClose(resultSupplierTwo, subtotalSpec, subtotalQuery, true)
+              Sequences.map(
+                  subtotalResults,
+                  row -> {
+                    row.set(groupingIdPosition, groupingId);
+                    return row;
+                  }
+              )
           );
+        } else {
+          subtotalsResults.add(subtotalResults);
         }
       }
 
@@ -531,15 +556,34 @@ public class GroupByStrategyV2 implements GroupByStrategy
     return aggsAndPostAggs;
   }
 
+  /**
+   * Returns the output names of the dimensions that subtotals are computed from. When executing subtotals pushed down
+   * by the Broker (see {@link GroupByQueryQueryToolChest#isSubtotalsPushDown}), the first dimension is a constant
+   * grouping id that is not part of any subtotal, and does not affect the order of results.
+   */
+  private static List<String> getSubtotalsBaseDimensionNames(GroupByQuery query)
+  {
+    final List<String> dimensionNames = query.getDimensions()
+                                             .stream()
+                                             .map(DimensionSpec::getOutputName)
+                                             .collect(Collectors.toList());
+
+    if (query.getContextBoolean(GroupByQueryConfig.CTX_KEY_EXECUTING_PUSHED_DOWN_SUBTOTALS, false)) {
+      return dimensionNames.subList(1, dimensionNames.size());
+    } else {
+      return dimensionNames;
+    }
+  }
+
   private int numMergeBuffersNeededForSubtotalsSpec(GroupByQuery query)
   {
     List<List<String>> subtotalSpecs = query.getSubtotalsSpec();
-    if (subtotalSpecs == null || subtotalSpecs.size() == 0) {
+    if (subtotalSpecs == null || subtotalSpecs.size() == 0 || GroupByQueryQueryToolChest.isSubtotalsPushDown(query)) {
+      // Pushed-down subtotals are computed by data servers; the Broker only merges them.
       return 0;
     }
 
-    List<String> queryDimOutputNames = query.getDimensions().stream().map(DimensionSpec::getOutputName).collect(
-        Collectors.toList());
+    List<String> queryDimOutputNames = getSubtotalsBaseDimensionNames(query);
     for (List<String> subtotalSpec : subtotalSpecs) {
       if (!Utils.isPrefix(subtotalSpec, queryDimOutputNames)) {
         return 2;
@@ -549,6 +593,19 @@ public class GroupByStrategyV2 implements GroupByStrategy
     return 1;
   }
 
+  /**
+   * Returns the number of merge buffers that {@link GroupByMergingQueryRunnerV2} takes, in addition to the ones
+   * reserved by {@link #prepareResource}, when executing subtotals pushed down by the Broker.
+   */
+  private int numMergeBuffersNeededForPushedDownSubtotalsMerge(GroupByQuery query)
+  {
+    if (!query.getContextBoolean(GroupByQueryConfig.CTX_KEY_EXECUTING_PUSHED_DOWN_SUBTOTALS, false)) {
+      return 0;
+    }
+
+    return configSupplier.get().withOverrides(query).getNumParallelCombineThreads() > 1 ? 2 : 1;
+  }
+
   @Override
   public QueryRunner<ResultRow> mergeRunners(
       final ListeningExecutorService exec,
@@ -569,13 +626,19 @@ public class GroupByStrategyV2 implements GroupByStrategy
   }
 
   @Override
-  public Sequence<ResultRow> process(GroupByQuery query, StorageAdapter storageAdapter)
+  public Sequence<ResultRow> process(
+      GroupByQuery query,
+      StorageAdapter storageAdapter,
+      ResponseContext responseContext
+  )
   {
     return GroupByQueryEngineV2.process(
         query,
         storageAdapter,
         bufferPool,
-        configSupplier.get().withOverrides(query)
+        configSupplier.get().withOverrides(query),
+        GroupByMergingQueryRunnerV2.getTemporaryStorage(responseContext),
+        spillMapper
     );
   }
 
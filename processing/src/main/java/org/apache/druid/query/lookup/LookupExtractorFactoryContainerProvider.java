@@ -40,4 +40,13 @@ public interface LookupExtractorFactoryContainerProvider
    * Returns a lookup container for the provided lookupName, if it exists.
    */
   Optional<LookupExtractorFactoryContainer> get(String lookupName);
+
+  /**
+   * Returns a number that increases whenever the set of lookups changes. The default implementation is for providers
+   * whose lookups never change.
+   */
+  default long getVersion()
+  {
+    return 0;
+  }
 }
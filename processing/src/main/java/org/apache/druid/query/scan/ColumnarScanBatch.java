@@ -0,0 +1,145 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.druid.query.scan;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.google.common.base.Preconditions;
+import org.apache.druid.java.util.common.IAE;
+import org.apache.druid.java.util.common.UOE;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * A batch of scan query results laid out by column: "values" holds one list per entry of "columns", each with
+ * "numRows" values. Built from a {@link ScanResultValue} by {@link #fromScanResultValue}.
+ */
+public class ColumnarScanBatch
+{
+  private final List<String> columns;
+  private final int numRows;
+  private final List<List<Object>> values;
+
+  @JsonCreator
+  public ColumnarScanBatch(
+      @JsonProperty("columns") List<String> columns,
+      @JsonProperty("numRows") int numRows,
+      @JsonProperty("values") List<List<Object>> values
+  )
+  {
+    this.columns = Preconditions.checkNotNull(columns, "columns");
+    this.numRows = numRows;
+    this.values = Preconditions.checkNotNull(values, "values");
+
+    if (columns.size() != values.size()) {
+      throw new IAE("Expected [%d] value lists, got [%d]", columns.size(), values.size());
+    }
+  }
+
+  /**
+   * Transposes the rows of a {@link ScanResultValue} into columns.
+   */
+  @SuppressWarnings("unchecked")
+  public static ColumnarScanBatch fromScanResultValue(
+      final ScanResultValue value,
+      final ScanQuery.ResultFormat resultFormat
+  )
+  {
+    final List<String> columns = value.getColumns();
+    final List<Object> events = (List<Object>) value.getEvents();
+    final List<List<Object>> values = new ArrayList<>(columns.size());
+
+    for (int i = 0; i < columns.size(); i++) {
+      values.add(new ArrayList<>(events.size()));
+    }
+
+    if (resultFormat == ScanQuery.ResultFormat.RESULT_FORMAT_LIST) {
+      for (Object event : events) {
+        final Map<String, Object> row = (Map<String, Object>) event;
+        for (int i = 0; i < columns.size(); i++) {
+          values.get(i).add(row.get(columns.get(i)));
+        }
+      }
+    } else if (resultFormat == ScanQuery.ResultFormat.RESULT_FORMAT_COMPACTED_LIST) {
+      for (Object event : events) {
+        final List<Object> row = (List<Object>) event;
+        for (int i = 0; i < columns.size(); i++) {
+          values.get(i).add(row.get(i));
+        }
+      }
+    } else {
+      throw new UOE("Unable to transpose results of format [%s]", resultFormat.toString());
+    }
+
+    return new ColumnarScanBatch(columns, events.size(), values);
+  }
+
+  @JsonProperty
+  public List<String> getColumns()
+  {
+    return columns;
+  }
+
+  @JsonProperty
+  public int getNumRows()
+  {
+    return numRows;
+  }
+
+  @JsonProperty
+  public List<List<Object>> getValues()
+  {
+    return values;
+  }
+
+  @Override
+  public boolean equals(Object o)
+  {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+    ColumnarScanBatch that = (ColumnarScanBatch) o;
+    return numRows == that.numRows &&
+           Objects.equals(columns, that.columns) &&
+           Objects.equals(values, that.values);
+  }
+
+  @Override
+  public int hashCode()
+  {
+    return Objects.hash(columns, numRows, values);
+  }
+
+  @Override
+  public String toString()
+  {
+    return "ColumnarScanBatch{" +
+           "columns=" + columns +
+           ", numRows=" + numRows +
+           ", values=" + values +
+           '}';
+  }
+}
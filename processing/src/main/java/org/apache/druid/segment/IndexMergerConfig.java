@@ -0,0 +1,42 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.druid.segment;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import javax.validation.constraints.Min;
+
+/**
+ * Runtime configuration of {@link IndexMergerV9}, bound to "druid.peon.indexMerger" by {@link IndexMergerModule}.
+ */
+public class IndexMergerConfig
+{
+  /**
+   * Number of threads used to write the indexes of dimension columns once rows are merged.
+   */
+  @JsonProperty
+  @Min(1)
+  private int numColumnWriterThreads = 1;
+
+  public int getNumColumnWriterThreads()
+  {
+    return numColumnWriterThreads;
+  }
+}
@@ -21,6 +21,7 @@ package org.apache.druid.segment;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.common.base.Preconditions;
+import com.google.common.base.Throwables;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Lists;
@@ -34,6 +35,7 @@ import org.apache.druid.java.util.common.FileUtils;
 import org.apache.druid.java.util.common.IAE;
 import org.apache.druid.java.util.common.ISE;
 import org.apache.druid.java.util.common.JodaUtils;
+import org.apache.druid.java.util.common.concurrent.Execs;
 import org.apache.druid.java.util.common.guava.Comparators;
 import org.apache.druid.java.util.common.io.Closer;
 import org.apache.druid.java.util.common.io.smoosh.FileSmoosher;
@@ -81,6 +83,9 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
@@ -160,14 +165,43 @@ public class IndexMergerV9 implements IndexMerger
   private final ObjectMapper mapper;
   private final IndexIO indexIO;
   private final SegmentWriteOutMediumFactory defaultSegmentWriteOutMediumFactory;
+  private final int numColumnWriterThreads;
 
-  @Inject
   public IndexMergerV9(ObjectMapper mapper, IndexIO indexIO, SegmentWriteOutMediumFactory defaultSegmentWriteOutMediumFactory)
+  {
+    this(mapper, indexIO, defaultSegmentWriteOutMediumFactory, 1);
+  }
+
+  @Inject
+  public IndexMergerV9(
+      ObjectMapper mapper,
+      IndexIO indexIO,
+      SegmentWriteOutMediumFactory defaultSegmentWriteOutMediumFactory,
+      IndexMergerConfig config
+  )
+  {
+    this(mapper, indexIO, defaultSegmentWriteOutMediumFactory, config.getNumColumnWriterThreads());
+  }
+
+  /**
+   * @param numColumnWriterThreads number of threads used to write the indexes of dimension columns once the rows are
+   *                               merged. Each dimension is written to its own child {@link SegmentWriteOutMedium}, so
+   *                               columns can be written concurrently. 1 means writing all columns in the calling
+   *                               thread.
+   */
+  public IndexMergerV9(
+      ObjectMapper mapper,
+      IndexIO indexIO,
+      SegmentWriteOutMediumFactory defaultSegmentWriteOutMediumFactory,
+      int numColumnWriterThreads
+  )
   {
     this.mapper = Preconditions.checkNotNull(mapper, "null ObjectMapper");
     this.indexIO = Preconditions.checkNotNull(indexIO, "null IndexIO");
     this.defaultSegmentWriteOutMediumFactory =
         Preconditions.checkNotNull(defaultSegmentWriteOutMediumFactory, "null SegmentWriteOutMediumFactory");
+    Preconditions.checkArgument(numColumnWriterThreads > 0, "numColumnWriterThreads must be positive");
+    this.numColumnWriterThreads = numColumnWriterThreads;
   }
 
   private File makeIndexFiles(
@@ -180,7 +214,8 @@ public class IndexMergerV9 implements IndexMerger
       final Function<List<TransformableRowIterator>, TimeAndDimsIterator> rowMergerFn,
       final boolean fillRowNumConversions,
       final IndexSpec indexSpec,
-      final @Nullable SegmentWriteOutMediumFactory segmentWriteOutMediumFactory
+      final @Nullable SegmentWriteOutMediumFactory segmentWriteOutMediumFactory,
+      final boolean isIntermediatePersist
   ) throws IOException
   {
     progress.start();
@@ -239,9 +274,20 @@ public class IndexMergerV9 implements IndexMerger
 
       final Map<String, DimensionHandler> handlers = makeDimensionHandlers(mergedDimensions, dimCapabilities);
       final List<DimensionMergerV9> mergers = new ArrayList<>();
+      // Mergers report progress from the column writer threads, and ProgressIndicator is not thread-safe.
+      final ProgressIndicator dimensionProgress = numColumnWriterThreads > 1
+                                                  ? new SynchronizedProgressIndicator(progress)
+                                                  : progress;
       for (int i = 0; i < mergedDimensions.size(); i++) {
         DimensionHandler handler = handlers.get(mergedDimensions.get(i));
-        mergers.add(handler.makeMerger(indexSpec, segmentWriteOutMedium, dimCapabilities.get(i), progress, closer));
+        // SegmentWriteOutMedium is not thread-safe, so every dimension gets its own child medium when the indexes of
+        // the dimensions are written concurrently, see writeDimensionIndexes().
+        final SegmentWriteOutMedium dimensionWriteOutMedium = numColumnWriterThreads > 1
+                                                              ? segmentWriteOutMedium.makeChildWriteOutMedium()
+                                                              : segmentWriteOutMedium;
+        mergers.add(
+            handler.makeMerger(indexSpec, dimensionWriteOutMedium, dimCapabilities.get(i), dimensionProgress, closer)
+        );
       }
 
       /************* Setup Dim Conversions **************/
@@ -288,9 +334,9 @@ public class IndexMergerV9 implements IndexMerger
           indexSpec
       );
 
+      writeDimensionIndexes(mergers, rowNumConversions);
       for (int i = 0; i < mergedDimensions.size(); i++) {
         DimensionMergerV9 merger = mergers.get(i);
-        merger.writeIndexes(rowNumConversions);
         if (merger.canSkip()) {
           continue;
         }
@@ -304,6 +350,9 @@ public class IndexMergerV9 implements IndexMerger
       progress.progress();
       makeIndexBinary(v9Smoosher, adapters, outDir, mergedDimensions, mergedMetrics, progress, indexSpec, mergers);
       makeMetadataBinary(v9Smoosher, progress, segmentMetadata);
+      if (!isIntermediatePersist) {
+        makeSegmentLoaderFiles(v9Smoosher, outDir, progress, indexSpec);
+      }
 
       v9Smoosher.close();
       progress.stop();
@@ -318,6 +367,27 @@ public class IndexMergerV9 implements IndexMerger
     }
   }
 
+  private void makeSegmentLoaderFiles(
+      final FileSmoosher v9Smoosher,
+      final File outDir,
+      final ProgressIndicator progress,
+      final IndexSpec indexSpec
+  ) throws IOException
+  {
+    final SegmentizerFactory segmentLoader = indexSpec.getSegmentLoader();
+    if (segmentLoader != null && segmentLoader.hasMergedSegmentFiles()) {
+      progress.startSection("make segment loader files");
+      final long startTime = System.currentTimeMillis();
+      // Read the segment through the meta file written so far; files the segment loader adds go in the same smoosh.
+      v9Smoosher.flushMetaFile();
+      try (QueryableIndex index = indexIO.loadIndex(outDir)) {
+        segmentLoader.writeMergedSegmentFiles(index, v9Smoosher);
+      }
+      log.debug("Completed segment loader files in %,d millis.", System.currentTimeMillis() - startTime);
+      progress.stopSection("make segment loader files");
+    }
+  }
+
   private void makeMetadataBinary(
       final FileSmoosher v9Smoosher,
       final ProgressIndicator progress,
@@ -517,6 +587,63 @@ public class IndexMergerV9 implements IndexMerger
     progress.stopSection(section);
   }
 
+  /**
+   * Writes the indexes of all dimensions. If this merger is configured with more than one column writer thread, the
+   * dimensions are written concurrently; the resulting columns are still added to the smoosher in the calling thread,
+   * in the dimension order, so the produced segment is the same as when the indexes are written sequentially.
+   */
+  private void writeDimensionIndexes(
+      final List<DimensionMergerV9> mergers,
+      @Nullable final List<IntBuffer> rowNumConversions
+  ) throws IOException
+  {
+    final int numThreads = Math.min(numColumnWriterThreads, mergers.size());
+    if (numThreads <= 1) {
+      for (DimensionMergerV9 merger : mergers) {
+        merger.writeIndexes(rowNumConversions);
+      }
+      return;
+    }
+
+    final long startTime = System.currentTimeMillis();
+    final ExecutorService exec = Execs.multiThreaded(numThreads, "IndexMergerV9-columnWriter-%d");
+    try {
+      final List<Future<?>> futures = new ArrayList<>(mergers.size());
+      for (DimensionMergerV9 merger : mergers) {
+        futures.add(
+            exec.submit(
+                () -> {
+                  merger.writeIndexes(rowNumConversions);
+                  return null;
+                }
+            )
+        );
+      }
+      for (Future<?> future : futures) {
+        try {
+          future.get();
+        }
+        catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          throw new RuntimeException(e);
+        }
+        catch (ExecutionException e) {
+          Throwables.propagateIfPossible(e.getCause(), IOException.class);
+          throw new RuntimeException(e.getCause());
+        }
+      }
+    }
+    finally {
+      exec.shutdownNow();
+    }
+    log.debug(
+        "Completed indexes of %,d dimensions with %,d threads in %,d millis.",
+        mergers.size(),
+        numThreads,
+        System.currentTimeMillis() - startTime
+    );
+  }
+
   private void makeColumn(
       final FileSmoosher v9Smoosher,
       final String columnName,
@@ -878,7 +1005,8 @@ public class IndexMergerV9 implements IndexMerger
         outDir,
         indexSpec,
         progress,
-        segmentWriteOutMediumFactory
+        segmentWriteOutMediumFactory,
+        true
     );
   }
 
@@ -921,7 +1049,8 @@ public class IndexMergerV9 implements IndexMerger
         outDir,
         indexSpec,
         progress,
-        segmentWriteOutMediumFactory
+        segmentWriteOutMediumFactory,
+        false
     );
   }
 
@@ -934,7 +1063,7 @@ public class IndexMergerV9 implements IndexMerger
       IndexSpec indexSpec
   ) throws IOException
   {
-    return merge(indexes, rollup, metricAggs, outDir, indexSpec, new BaseProgressIndicator(), null);
+    return merge(indexes, rollup, metricAggs, outDir, indexSpec, new BaseProgressIndicator(), null, false);
   }
 
   private File merge(
@@ -944,7 +1073,8 @@ public class IndexMergerV9 implements IndexMerger
       File outDir,
       IndexSpec indexSpec,
       ProgressIndicator progress,
-      @Nullable SegmentWriteOutMediumFactory segmentWriteOutMediumFactory
+      @Nullable SegmentWriteOutMediumFactory segmentWriteOutMediumFactory,
+      boolean isIntermediatePersist
   ) throws IOException
   {
     FileUtils.deleteDirectory(outDir);
@@ -1006,7 +1136,8 @@ public class IndexMergerV9 implements IndexMerger
         rowMergerFn,
         true,
         indexSpec,
-        segmentWriteOutMediumFactory
+        segmentWriteOutMediumFactory,
+        isIntermediatePersist
     );
   }
 
@@ -1036,7 +1167,8 @@ public class IndexMergerV9 implements IndexMerger
           Iterables::getOnlyElement,
           false,
           indexSpec,
-          segmentWriteOutMediumFactory
+          segmentWriteOutMediumFactory,
+          false
       );
     }
   }
@@ -1069,7 +1201,8 @@ public class IndexMergerV9 implements IndexMerger
         MergingRowIterator::new,
         true,
         indexSpec,
-        segmentWriteOutMediumFactory
+        segmentWriteOutMediumFactory,
+        false
     );
   }
 
@@ -1209,4 +1342,44 @@ public class IndexMergerV9 implements IndexMerger
       );
     }
   }
+
+  private static class SynchronizedProgressIndicator implements ProgressIndicator
+  {
+    private final ProgressIndicator delegate;
+
+    SynchronizedProgressIndicator(ProgressIndicator delegate)
+    {
+      this.delegate = delegate;
+    }
+
+    @Override
+    public synchronized void progress()
+    {
+      delegate.progress();
+    }
+
+    @Override
+    public synchronized void start()
+    {
+      delegate.start();
+    }
+
+    @Override
+    public synchronized void stop()
+    {
+      delegate.stop();
+    }
+
+    @Override
+    public synchronized void startSection(String section)
+    {
+      delegate.startSection(section);
+    }
+
+    @Override
+    public synchronized void stopSection(String section)
+    {
+      delegate.stopSection(section);
+    }
+  }
 }
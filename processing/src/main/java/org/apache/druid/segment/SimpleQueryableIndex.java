@@ -169,7 +169,6 @@ public class SimpleQueryableIndex extends AbstractIndex implements QueryableInde
     return columns;
   }
 
-  @VisibleForTesting
   public SmooshedFileMapper getFileMapper()
   {
     return fileMapper;
@@ -19,6 +19,7 @@
 
 package org.apache.druid.segment.join;
 
+import org.apache.druid.java.util.common.ISE;
 import org.apache.druid.java.util.common.io.Closer;
 import org.apache.druid.query.BaseQuery;
 import org.apache.druid.query.dimension.DimensionSpec;
@@ -27,6 +28,13 @@ import org.apache.druid.segment.ColumnValueSelector;
 import org.apache.druid.segment.Cursor;
 import org.apache.druid.segment.DimensionSelector;
 import org.apache.druid.segment.column.ColumnCapabilities;
+import org.apache.druid.segment.vector.MultiValueDimensionVectorSelector;
+import org.apache.druid.segment.vector.SingleValueDimensionVectorSelector;
+import org.apache.druid.segment.vector.VectorColumnSelectorFactory;
+import org.apache.druid.segment.vector.VectorCursor;
+import org.apache.druid.segment.vector.VectorObjectSelector;
+import org.apache.druid.segment.vector.VectorSizeInspector;
+import org.apache.druid.segment.vector.VectorValueSelector;
 import org.joda.time.DateTime;
 
 import javax.annotation.Nonnull;
@@ -219,4 +227,238 @@ public class HashJoinEngine
     joinCursor.initialize();
     return joinCursor;
   }
+
+  /**
+   * Vectorized version of {@link #makeJoinCursor}. Only supports joins that are not righty (see
+   * {@link JoinType#isRighty()}) onto joinables whose {@link Joinable#canVectorizeJoin} method returns true for the
+   * clause's condition. Since each left-hand row matches at most one right-hand row, the join is computed one vector
+   * at a time: the matcher probes the right-hand side for the entire left-hand vector, and for non-lefty joins, rows
+   * without a match are dropped using a selection vector.
+   */
+  public static VectorCursor makeJoinVectorCursor(
+      final VectorCursor leftCursor,
+      final JoinableClause joinableClause,
+      final Closer closer
+  )
+  {
+    if (joinableClause.getJoinType().isRighty()) {
+      throw new ISE("Cannot vectorize join of type[%s]", joinableClause.getJoinType());
+    }
+
+    final boolean lefty = joinableClause.getJoinType().isLefty();
+    final VectorColumnSelectorFactory leftColumnSelectorFactory = leftCursor.getColumnSelectorFactory();
+    final VectorJoinMatcher joinMatcher = joinableClause.getJoinable()
+                                                        .makeVectorJoinMatcher(
+                                                            leftColumnSelectorFactory,
+                                                            joinableClause.getCondition(),
+                                                            closer
+                                                        );
+
+    class JoinVectorCursor
+        implements VectorCursor, SelectedVectorColumnSelectorFactory.Selection, VectorJoinMatcher.MatchedRows
+    {
+      // Positions of the left-hand rows that matched something. Only used for non-lefty joins.
+      private final int[] selection = new int[leftCursor.getMaxVectorSize()];
+      private final int[] selectedMatchedRows = new int[leftCursor.getMaxVectorSize()];
+      private int[] matchedRows = selectedMatchedRows;
+      private int currentVectorSize = 0;
+      private boolean allSelected = true;
+      private int id = 0;
+
+      private final VectorColumnSelectorFactory columnSelectorFactory = new JoinVectorColumnSelectorFactory(
+          lefty ? leftColumnSelectorFactory : new SelectedVectorColumnSelectorFactory(leftColumnSelectorFactory, this),
+          joinMatcher.makeColumnSelectorFactory(this)
+      );
+
+      private void advanceToMatch()
+      {
+        while (!leftCursor.isDone()) {
+          matchCurrentVector();
+
+          if (currentVectorSize > 0) {
+            return;
+          }
+
+          leftCursor.advance();
+        }
+
+        currentVectorSize = 0;
+      }
+
+      private void matchCurrentVector()
+      {
+        final int[] matches = joinMatcher.match();
+        final int leftVectorSize = leftCursor.getCurrentVectorSize();
+        id++;
+
+        if (lefty) {
+          matchedRows = matches;
+          currentVectorSize = leftVectorSize;
+          allSelected = true;
+        } else {
+          int numSelected = 0;
+
+          for (int i = 0; i < leftVectorSize; i++) {
+            if (matches[i] != VectorJoinMatcher.NO_MATCH) {
+              selection[numSelected] = i;
+              selectedMatchedRows[numSelected] = matches[i];
+              numSelected++;
+            }
+          }
+
+          matchedRows = selectedMatchedRows;
+          currentVectorSize = numSelected;
+          allSelected = numSelected == leftVectorSize;
+        }
+      }
+
+      @Override
+      public VectorColumnSelectorFactory getColumnSelectorFactory()
+      {
+        return columnSelectorFactory;
+      }
+
+      @Override
+      public void advance()
+      {
+        leftCursor.advance();
+        advanceToMatch();
+      }
+
+      @Override
+      public boolean isDone()
+      {
+        return leftCursor.isDone();
+      }
+
+      @Override
+      public void reset()
+      {
+        leftCursor.reset();
+        advanceToMatch();
+      }
+
+      @Override
+      public void close()
+      {
+        leftCursor.close();
+      }
+
+      @Override
+      public int getMaxVectorSize()
+      {
+        return leftCursor.getMaxVectorSize();
+      }
+
+      @Override
+      public int getCurrentVectorSize()
+      {
+        return currentVectorSize;
+      }
+
+      @Override
+      public int getId()
+      {
+        return id;
+      }
+
+      @Override
+      public boolean isAllSelected()
+      {
+        return allSelected;
+      }
+
+      @Override
+      public int[] getSelection()
+      {
+        return selection;
+      }
+
+      @Override
+      public int[] getMatchedRows()
+      {
+        return matchedRows;
+      }
+
+      class JoinVectorColumnSelectorFactory implements VectorColumnSelectorFactory
+      {
+        private final VectorColumnSelectorFactory leftFactory;
+        private final VectorColumnSelectorFactory rightFactory;
+
+        JoinVectorColumnSelectorFactory(
+            final VectorColumnSelectorFactory leftFactory,
+            final VectorColumnSelectorFactory rightFactory
+        )
+        {
+          this.leftFactory = leftFactory;
+          this.rightFactory = rightFactory;
+        }
+
+        @Override
+        public VectorSizeInspector getVectorSizeInspector()
+        {
+          return JoinVectorCursor.this;
+        }
+
+        @Override
+        public SingleValueDimensionVectorSelector makeSingleValueDimensionSelector(DimensionSpec dimensionSpec)
+        {
+          if (joinableClause.includesColumn(dimensionSpec.getDimension())) {
+            return rightFactory.makeSingleValueDimensionSelector(
+                dimensionSpec.withDimension(joinableClause.unprefix(dimensionSpec.getDimension()))
+            );
+          } else {
+            return leftFactory.makeSingleValueDimensionSelector(dimensionSpec);
+          }
+        }
+
+        @Override
+        public MultiValueDimensionVectorSelector makeMultiValueDimensionSelector(DimensionSpec dimensionSpec)
+        {
+          if (joinableClause.includesColumn(dimensionSpec.getDimension())) {
+            return rightFactory.makeMultiValueDimensionSelector(
+                dimensionSpec.withDimension(joinableClause.unprefix(dimensionSpec.getDimension()))
+            );
+          } else {
+            return leftFactory.makeMultiValueDimensionSelector(dimensionSpec);
+          }
+        }
+
+        @Override
+        public VectorValueSelector makeValueSelector(String column)
+        {
+          if (joinableClause.includesColumn(column)) {
+            return rightFactory.makeValueSelector(joinableClause.unprefix(column));
+          } else {
+            return leftFactory.makeValueSelector(column);
+          }
+        }
+
+        @Override
+        public VectorObjectSelector makeObjectSelector(String column)
+        {
+          if (joinableClause.includesColumn(column)) {
+            return rightFactory.makeObjectSelector(joinableClause.unprefix(column));
+          } else {
+            return leftFactory.makeObjectSelector(column);
+          }
+        }
+
+        @Nullable
+        @Override
+        public ColumnCapabilities getColumnCapabilities(String column)
+        {
+          if (joinableClause.includesColumn(column)) {
+            return rightFactory.getColumnCapabilities(joinableClause.unprefix(column));
+          } else {
+            return leftFactory.getColumnCapabilities(column);
+          }
+        }
+      }
+    }
+
+    final JoinVectorCursor joinCursor = new JoinVectorCursor();
+    joinCursor.advanceToMatch();
+    return joinCursor;
+  }
 }
@@ -23,11 +23,13 @@ import com.google.common.collect.Iterables;
 import com.google.common.collect.Lists;
 import org.apache.druid.java.util.common.ISE;
 import org.apache.druid.java.util.common.granularity.Granularity;
+import org.apache.druid.java.util.common.guava.CloseQuietly;
 import org.apache.druid.java.util.common.guava.Sequence;
 import org.apache.druid.java.util.common.guava.Sequences;
 import org.apache.druid.java.util.common.io.Closer;
 import org.apache.druid.query.QueryMetrics;
 import org.apache.druid.query.filter.Filter;
+import org.apache.druid.segment.ColumnInspector;
 import org.apache.druid.segment.Cursor;
 import org.apache.druid.segment.Metadata;
 import org.apache.druid.segment.StorageAdapter;
@@ -35,12 +37,16 @@ import org.apache.druid.segment.VirtualColumn;
 import org.apache.druid.segment.VirtualColumns;
 import org.apache.druid.segment.column.ColumnCapabilities;
 import org.apache.druid.segment.column.ColumnHolder;
+import org.apache.druid.segment.column.ValueType;
 import org.apache.druid.segment.data.Indexed;
 import org.apache.druid.segment.data.ListIndexed;
+import org.apache.druid.segment.filter.Filters;
 import org.apache.druid.segment.join.filter.JoinFilterAnalyzer;
 import org.apache.druid.segment.join.filter.JoinFilterPreAnalysis;
 import org.apache.druid.segment.join.filter.JoinFilterPreAnalysisKey;
 import org.apache.druid.segment.join.filter.JoinFilterSplit;
+import org.apache.druid.segment.vector.VectorColumnSelectorFactory;
+import org.apache.druid.segment.vector.VectorCursor;
 import org.joda.time.DateTime;
 import org.joda.time.Interval;
 
@@ -50,6 +56,7 @@ import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 
@@ -211,24 +218,7 @@ public class HashJoinSegmentStorageAdapter implements StorageAdapter
       @Nullable final QueryMetrics<?> queryMetrics
   )
   {
-    // Filter pre-analysis key implied by the call to "makeCursors". We need to sanity-check that it matches
-    // the actual pre-analysis that was done. Note: we can't infer a rewrite config from the "makeCursors" call (it
-    // requires access to the query context) so we'll need to skip sanity-checking it, by re-using the one present
-    // in the cached key.)
-    final JoinFilterPreAnalysisKey keyIn =
-        new JoinFilterPreAnalysisKey(
-            joinFilterPreAnalysis.getKey().getRewriteConfig(),
-            clauses,
-            virtualColumns,
-            filter
-        );
-
-    final JoinFilterPreAnalysisKey keyCached = joinFilterPreAnalysis.getKey();
-
-    if (!keyIn.equals(keyCached)) {
-      // It is a bug if this happens. The implied key and the cached key should always match.
-      throw new ISE("Pre-analysis mismatch, cannot execute query");
-    }
+    checkPreAnalysisKey(filter, virtualColumns);
 
     final List<VirtualColumn> preJoinVirtualColumns = new ArrayList<>();
     final List<VirtualColumn> postJoinVirtualColumns = new ArrayList<>();
@@ -247,10 +237,11 @@ public class HashJoinSegmentStorageAdapter implements StorageAdapter
     //
     // If it's done in the SQL planner, that will likely mean adding a 'baseFilter' parameter to this class that would
     // be passed in to the below baseAdapter.makeCursors call (instead of the null filter).
+    final VirtualColumns baseVirtualColumns = VirtualColumns.create(preJoinVirtualColumns);
     final Sequence<Cursor> baseCursorSequence = baseAdapter.makeCursors(
-        joinFilterSplit.getBaseTableFilter().isPresent() ? joinFilterSplit.getBaseTableFilter().get() : null,
+        makeBaseFilter(joinFilterSplit, baseVirtualColumns),
         interval,
-        VirtualColumns.create(preJoinVirtualColumns),
+        baseVirtualColumns,
         gran,
         descending,
         queryMetrics
@@ -276,6 +267,193 @@ public class HashJoinSegmentStorageAdapter implements StorageAdapter
     ).withBaggage(joinablesCloser);
   }
 
+  @Override
+  public boolean canVectorize(@Nullable final Filter filter, final VirtualColumns virtualColumns, final boolean descending)
+  {
+    final List<VirtualColumn> preJoinVirtualColumns = new ArrayList<>();
+    final List<VirtualColumn> postJoinVirtualColumns = new ArrayList<>();
+
+    determineBaseColumnsWithPreAndPostJoinVirtualColumns(
+        virtualColumns,
+        preJoinVirtualColumns,
+        postJoinVirtualColumns
+    );
+
+    if (!postJoinVirtualColumns.isEmpty()) {
+      // Post-join virtual columns are not supported by the vectorized join engine.
+      return false;
+    }
+
+    final JoinFilterSplit joinFilterSplit = JoinFilterAnalyzer.splitFilter(joinFilterPreAnalysis);
+    preJoinVirtualColumns.addAll(joinFilterSplit.getPushDownVirtualColumns());
+
+    final VirtualColumns baseVirtualColumns = VirtualColumns.create(preJoinVirtualColumns);
+
+    if (!baseAdapter.canVectorize(joinFilterSplit.getBaseTableFilter().orElse(null), baseVirtualColumns, descending)) {
+      return false;
+    }
+
+    if (joinFilterSplit.getJoinTableFilter().isPresent()
+        && !joinFilterSplit.getJoinTableFilter().get().canVectorizeMatcher()) {
+      return false;
+    }
+
+    // Each clause sees the base columns, plus the columns of all clauses that came before it.
+    ColumnInspector leftInspector = column -> baseVirtualColumns.getColumnCapabilitiesWithFallback(baseAdapter, column);
+
+    for (final JoinableClause clause : clauses) {
+      if (clause.getJoinType().isRighty()
+          || !clause.getJoinable().canVectorizeJoin(clause.getCondition(), leftInspector)) {
+        return false;
+      }
+
+      final ColumnInspector clauseLeftInspector = leftInspector;
+      leftInspector = column -> clause.includesColumn(column)
+                                ? clause.getJoinable().getColumnCapabilities(clause.unprefix(column))
+                                : clauseLeftInspector.getColumnCapabilities(column);
+    }
+
+    return true;
+  }
+
+  @Override
+  @Nullable
+  public VectorCursor makeVectorCursor(
+      @Nullable final Filter filter,
+      final Interval interval,
+      final VirtualColumns virtualColumns,
+      final boolean descending,
+      final int vectorSize,
+      @Nullable final QueryMetrics<?> queryMetrics
+  )
+  {
+    if (!canVectorize(filter, virtualColumns, descending)) {
+      throw new ISE("Cannot vectorize. Check 'canVectorize' before calling 'makeVectorCursor'.");
+    }
+
+    checkPreAnalysisKey(filter, virtualColumns);
+
+    final List<VirtualColumn> preJoinVirtualColumns = new ArrayList<>();
+    determineBaseColumnsWithPreAndPostJoinVirtualColumns(virtualColumns, preJoinVirtualColumns, null);
+
+    final JoinFilterSplit joinFilterSplit = JoinFilterAnalyzer.splitFilter(joinFilterPreAnalysis);
+    preJoinVirtualColumns.addAll(joinFilterSplit.getPushDownVirtualColumns());
+
+    final VirtualColumns baseVirtualColumns = VirtualColumns.create(preJoinVirtualColumns);
+    final VectorCursor baseCursor = baseAdapter.makeVectorCursor(
+        makeBaseFilter(joinFilterSplit, baseVirtualColumns),
+        interval,
+        baseVirtualColumns,
+        descending,
+        vectorSize,
+        queryMetrics
+    );
+
+    if (baseCursor == null) {
+      return null;
+    }
+
+    // Resources held by the joinables are released when the returned cursor is closed.
+    final Closer joinablesCloser = Closer.create();
+    VectorCursor retVal = baseCursor;
+
+    for (JoinableClause clause : clauses) {
+      retVal = HashJoinEngine.makeJoinVectorCursor(retVal, clause, joinablesCloser);
+    }
+
+    final VectorCursor joinCursor = PostJoinVectorCursor.wrap(
+        retVal,
+        joinFilterSplit.getJoinTableFilter().orElse(null)
+    );
+
+    return new VectorCursor()
+    {
+      @Override
+      public VectorColumnSelectorFactory getColumnSelectorFactory()
+      {
+        return joinCursor.getColumnSelectorFactory();
+      }
+
+      @Override
+      public void advance()
+      {
+        joinCursor.advance();
+      }
+
+      @Override
+      public boolean isDone()
+      {
+        return joinCursor.isDone();
+      }
+
+      @Override
+      public void reset()
+      {
+        joinCursor.reset();
+      }
+
+      @Override
+      public void close()
+      {
+        joinCursor.close();
+        CloseQuietly.close(joinablesCloser);
+      }
+
+      @Override
+      public int getMaxVectorSize()
+      {
+        return joinCursor.getMaxVectorSize();
+      }
+
+      @Override
+      public int getCurrentVectorSize()
+      {
+        return joinCursor.getCurrentVectorSize();
+      }
+    };
+  }
+
+  /**
+   * Returns the filter for {@link #baseAdapter}: the base table filter from "joinFilterSplit", plus any runtime filters
+   * from {@link #getRuntimeFilters}.
+   */
+  @Nullable
+  private Filter makeBaseFilter(final JoinFilterSplit joinFilterSplit, final VirtualColumns baseVirtualColumns)
+  {
+    final List<Filter> filters = new ArrayList<>();
+    joinFilterSplit.getBaseTableFilter().ifPresent(filters::add);
+    filters.addAll(getRuntimeFilters(baseVirtualColumns));
+    return Filters.and(filters);
+  }
+
+  /**
+   * Returns the runtime filters from {@link JoinFilterPreAnalysis#getRuntimeFilters()} that apply to string columns
+   * with bitmap indexes in this segment. Those can be resolved without reading any rows; for other columns, probing
+   * the join table directly is about as cheap.
+   */
+  private List<Filter> getRuntimeFilters(final VirtualColumns baseVirtualColumns)
+  {
+    final List<Filter> filters = new ArrayList<>();
+
+    for (final Map.Entry<String, Filter> entry : joinFilterPreAnalysis.getRuntimeFilters().entrySet()) {
+      final String column = entry.getKey();
+
+      if (baseVirtualColumns.exists(column)) {
+        continue;
+      }
+
+      final ColumnCapabilities capabilities = baseAdapter.getColumnCapabilities(column);
+
+      if (capabilities != null
+          && capabilities.getType() == ValueType.STRING
+          && capabilities.hasBitmapIndexes()) {
+        filters.add(entry.getValue());
+      }
+    }
+
+    return filters;
+  }
+
   /**
    * Returns whether "column" will be selected from "baseAdapter". This is true if it is not shadowed by any joinables
    * (i.e. if it does not start with any of their prefixes).
@@ -329,6 +507,30 @@ public class HashJoinSegmentStorageAdapter implements StorageAdapter
     return baseColumns;
   }
 
+  /**
+   * Filter pre-analysis key implied by the call to "makeCursors" or "makeVectorCursor". We need to sanity-check that
+   * it matches the actual pre-analysis that was done. Note: we can't infer a rewrite config from the call (it
+   * requires access to the query context) so we'll need to skip sanity-checking it, by re-using the one present
+   * in the cached key.)
+   */
+  private void checkPreAnalysisKey(@Nullable final Filter filter, final VirtualColumns virtualColumns)
+  {
+    final JoinFilterPreAnalysisKey keyIn =
+        new JoinFilterPreAnalysisKey(
+            joinFilterPreAnalysis.getKey().getRewriteConfig(),
+            clauses,
+            virtualColumns,
+            filter
+        );
+
+    final JoinFilterPreAnalysisKey keyCached = joinFilterPreAnalysis.getKey();
+
+    if (!keyIn.equals(keyCached)) {
+      // It is a bug if this happens. The implied key and the cached key should always match.
+      throw new ISE("Pre-analysis mismatch, cannot execute query");
+    }
+  }
+
   /**
    * Returns the JoinableClause corresponding to a particular column, based on the clauses' prefixes.
    *
@@ -19,10 +19,13 @@
 
 package org.apache.druid.segment.join;
 
+import org.apache.druid.java.util.common.UOE;
 import org.apache.druid.java.util.common.io.Closer;
+import org.apache.druid.segment.ColumnInspector;
 import org.apache.druid.segment.ColumnSelectorFactory;
 import org.apache.druid.segment.ReferenceCountedObject;
 import org.apache.druid.segment.column.ColumnCapabilities;
+import org.apache.druid.segment.vector.VectorColumnSelectorFactory;
 
 import javax.annotation.Nullable;
 import java.util.List;
@@ -85,6 +88,53 @@ public interface Joinable extends ReferenceCountedObject
       Closer closer
   );
 
+  /**
+   * Returns true if {@link #makeVectorJoinMatcher} can be called for this condition.
+   *
+   * @param condition     join condition for the matcher
+   * @param leftInspector capabilities of the columns on the left-hand side of the join
+   */
+  default boolean canVectorizeJoin(JoinConditionAnalysis condition, ColumnInspector leftInspector)
+  {
+    return false;
+  }
+
+  /**
+   * Creates a VectorJoinMatcher that can be used to implement a vectorized join onto this Joinable. Check
+   * {@link #canVectorizeJoin} before calling this method.
+   *
+   * @param leftColumnSelectorFactory column selector factory that allows access to the left-hand side of the join
+   * @param condition                 join condition for the matcher
+   * @param closer                    closer that will run after join cursor has completed to clean up any per query
+   *                                  resources the joinable uses
+   *
+   * @return the matcher
+   */
+  default VectorJoinMatcher makeVectorJoinMatcher(
+      VectorColumnSelectorFactory leftColumnSelectorFactory,
+      JoinConditionAnalysis condition,
+      Closer closer
+  )
+  {
+    throw new UOE("Cannot vectorize join on condition[%s]", condition.getOriginalExpression());
+  }
+
+  /**
+   * Returns the distinct values of a column from this Joinable, as strings. Used by
+   * {@link HashJoinSegmentStorageAdapter} to derive runtime filters on the left-hand side of inner joins, so the
+   * returned set may include values that no row would actually match, but must not leave out any value that could.
+   *
+   * @param columnName   name of the column
+   * @param maxNumValues maximum number of values to retrieve. If the column has more distinct values than this,
+   *                     return absent.
+   *
+   * @return the set of values, or absent if they cannot be determined within the limit
+   */
+  default Optional<Set<String>> getColumnValues(String columnName, long maxNumValues)
+  {
+    return Optional.empty();
+  }
+
   /**
    * Searches a column from this Joinable for a particular value, finds rows that match,
    * and returns values of a second column for those rows.
@@ -0,0 +1,139 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.druid.segment.join;
+
+import org.apache.druid.query.filter.Filter;
+import org.apache.druid.query.filter.vector.ReadableVectorMatch;
+import org.apache.druid.query.filter.vector.VectorMatch;
+import org.apache.druid.query.filter.vector.VectorValueMatcher;
+import org.apache.druid.segment.vector.VectorColumnSelectorFactory;
+import org.apache.druid.segment.vector.VectorCursor;
+
+import javax.annotation.Nullable;
+
+/**
+ * A VectorCursor decorator used by {@link HashJoinSegmentStorageAdapter#makeVectorCursor} to add post-join filters.
+ * Vectorized version of {@link PostJoinCursor}.
+ */
+public class PostJoinVectorCursor implements VectorCursor, SelectedVectorColumnSelectorFactory.Selection
+{
+  private final VectorCursor baseCursor;
+  private final VectorColumnSelectorFactory columnSelectorFactory;
+  private final VectorValueMatcher valueMatcher;
+
+  private ReadableVectorMatch match = VectorMatch.allFalse();
+  private int id = 0;
+
+  private PostJoinVectorCursor(VectorCursor baseCursor, Filter filter)
+  {
+    this.baseCursor = baseCursor;
+    this.columnSelectorFactory = new SelectedVectorColumnSelectorFactory(baseCursor.getColumnSelectorFactory(), this);
+    this.valueMatcher = filter.makeVectorMatcher(baseCursor.getColumnSelectorFactory());
+  }
+
+  public static VectorCursor wrap(final VectorCursor baseCursor, @Nullable final Filter filter)
+  {
+    if (filter == null) {
+      return baseCursor;
+    }
+
+    final PostJoinVectorCursor postJoinCursor = new PostJoinVectorCursor(baseCursor, filter);
+    postJoinCursor.advanceToMatch();
+    return postJoinCursor;
+  }
+
+  private void advanceToMatch()
+  {
+    while (!baseCursor.isDone()) {
+      match = valueMatcher.match(VectorMatch.allTrue(baseCursor.getCurrentVectorSize()));
+      id++;
+
+      if (!match.isAllFalse()) {
+        return;
+      }
+
+      baseCursor.advance();
+    }
+
+    match = VectorMatch.allFalse();
+  }
+
+  @Override
+  public VectorColumnSelectorFactory getColumnSelectorFactory()
+  {
+    return columnSelectorFactory;
+  }
+
+  @Override
+  public void advance()
+  {
+    baseCursor.advance();
+    advanceToMatch();
+  }
+
+  @Override
+  public boolean isDone()
+  {
+    return baseCursor.isDone();
+  }
+
+  @Override
+  public void reset()
+  {
+    baseCursor.reset();
+    advanceToMatch();
+  }
+
+  @Override
+  public void close()
+  {
+    baseCursor.close();
+  }
+
+  @Override
+  public int getMaxVectorSize()
+  {
+    return baseCursor.getMaxVectorSize();
+  }
+
+  @Override
+  public int getCurrentVectorSize()
+  {
+    return match.getSelectionSize();
+  }
+
+  @Override
+  public int getId()
+  {
+    return id;
+  }
+
+  @Override
+  public boolean isAllSelected()
+  {
+    return match.isAllTrue(baseCursor.getCurrentVectorSize());
+  }
+
+  @Override
+  public int[] getSelection()
+  {
+    return match.getSelection();
+  }
+}
@@ -0,0 +1,451 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.druid.segment.join;
+
+import org.apache.druid.query.dimension.DimensionSpec;
+import org.apache.druid.segment.IdLookup;
+import org.apache.druid.segment.column.ColumnCapabilities;
+import org.apache.druid.segment.data.IndexedInts;
+import org.apache.druid.segment.vector.MultiValueDimensionVectorSelector;
+import org.apache.druid.segment.vector.SingleValueDimensionVectorSelector;
+import org.apache.druid.segment.vector.VectorColumnSelectorFactory;
+import org.apache.druid.segment.vector.VectorObjectSelector;
+import org.apache.druid.segment.vector.VectorSizeInspector;
+import org.apache.druid.segment.vector.VectorValueSelector;
+
+import javax.annotation.Nullable;
+
+/**
+ * A {@link VectorColumnSelectorFactory} that exposes a subset of the rows of the current vector of some base factory.
+ * Used by the vectorized join cursors created by {@link HashJoinEngine#makeJoinVectorCursor} and
+ * {@link PostJoinVectorCursor} to drop rows that were eliminated by the join condition or by a post-join filter.
+ *
+ * Selected rows are copied into vectors owned by each selector, so callers see contiguous vectors of size
+ * {@link Selection#getCurrentVectorSize()}.
+ */
+class SelectedVectorColumnSelectorFactory implements VectorColumnSelectorFactory
+{
+  private static final int NO_ID = -1;
+
+  private final VectorColumnSelectorFactory baseFactory;
+  private final Selection selection;
+
+  SelectedVectorColumnSelectorFactory(final VectorColumnSelectorFactory baseFactory, final Selection selection)
+  {
+    this.baseFactory = baseFactory;
+    this.selection = selection;
+  }
+
+  @Override
+  public VectorSizeInspector getVectorSizeInspector()
+  {
+    return selection;
+  }
+
+  @Override
+  public SingleValueDimensionVectorSelector makeSingleValueDimensionSelector(final DimensionSpec dimensionSpec)
+  {
+    return new SelectedSingleValueDimensionVectorSelector(
+        baseFactory.makeSingleValueDimensionSelector(dimensionSpec),
+        selection
+    );
+  }
+
+  @Override
+  public MultiValueDimensionVectorSelector makeMultiValueDimensionSelector(final DimensionSpec dimensionSpec)
+  {
+    return new SelectedMultiValueDimensionVectorSelector(
+        baseFactory.makeMultiValueDimensionSelector(dimensionSpec),
+        selection
+    );
+  }
+
+  @Override
+  public VectorValueSelector makeValueSelector(final String column)
+  {
+    return new SelectedVectorValueSelector(baseFactory.makeValueSelector(column), selection);
+  }
+
+  @Override
+  public VectorObjectSelector makeObjectSelector(final String column)
+  {
+    return new SelectedVectorObjectSelector(baseFactory.makeObjectSelector(column), selection);
+  }
+
+  @Nullable
+  @Override
+  public ColumnCapabilities getColumnCapabilities(final String column)
+  {
+    return baseFactory.getColumnCapabilities(column);
+  }
+
+  /**
+   * Rows selected from the current vector of the base factory.
+   */
+  interface Selection extends VectorSizeInspector
+  {
+    /**
+     * Returns an id that changes whenever the selection changes.
+     */
+    int getId();
+
+    /**
+     * Returns true if every row of the current base vector is selected. In this case, selectors read the base vector
+     * directly and {@link #getSelection()} is not used.
+     */
+    boolean isAllSelected();
+
+    /**
+     * Returns positions in the current base vector of the selected rows, in increasing order. Only the first
+     * "getCurrentVectorSize" positions are valid.
+     */
+    int[] getSelection();
+  }
+
+  private static class SelectedSingleValueDimensionVectorSelector implements SingleValueDimensionVectorSelector
+  {
+    private final SingleValueDimensionVectorSelector baseSelector;
+    private final Selection selection;
+    private final int[] rowVector;
+    private int rowVectorId = NO_ID;
+
+    SelectedSingleValueDimensionVectorSelector(
+        final SingleValueDimensionVectorSelector baseSelector,
+        final Selection selection
+    )
+    {
+      this.baseSelector = baseSelector;
+      this.selection = selection;
+      this.rowVector = new int[selection.getMaxVectorSize()];
+    }
+
+    @Override
+    public int[] getRowVector()
+    {
+      if (selection.isAllSelected()) {
+        return baseSelector.getRowVector();
+      }
+
+      if (rowVectorId != selection.getId()) {
+        final int[] baseVector = baseSelector.getRowVector();
+        final int[] selected = selection.getSelection();
+        for (int i = 0; i < selection.getCurrentVectorSize(); i++) {
+          rowVector[i] = baseVector[selected[i]];
+        }
+        rowVectorId = selection.getId();
+      }
+
+      return rowVector;
+    }
+
+    @Override
+    public int getValueCardinality()
+    {
+      return baseSelector.getValueCardinality();
+    }
+
+    @Nullable
+    @Override
+    public String lookupName(final int id)
+    {
+      return baseSelector.lookupName(id);
+    }
+
+    @Override
+    public boolean nameLookupPossibleInAdvance()
+    {
+      return baseSelector.nameLookupPossibleInAdvance();
+    }
+
+    @Nullable
+    @Override
+    public IdLookup idLookup()
+    {
+      return baseSelector.idLookup();
+    }
+
+    @Override
+    public int getMaxVectorSize()
+    {
+      return selection.getMaxVectorSize();
+    }
+
+    @Override
+    public int getCurrentVectorSize()
+    {
+      return selection.getCurrentVectorSize();
+    }
+  }
+
+  private static class SelectedMultiValueDimensionVectorSelector implements MultiValueDimensionVectorSelector
+  {
+    private final MultiValueDimensionVectorSelector baseSelector;
+    private final Selection selection;
+    private final IndexedInts[] rowVector;
+    private int rowVectorId = NO_ID;
+
+    SelectedMultiValueDimensionVectorSelector(
+        final MultiValueDimensionVectorSelector baseSelector,
+        final Selection selection
+    )
+    {
+      this.baseSelector = baseSelector;
+      this.selection = selection;
+      this.rowVector = new IndexedInts[selection.getMaxVectorSize()];
+    }
+
+    @Override
+    public IndexedInts[] getRowVector()
+    {
+      if (selection.isAllSelected()) {
+        return baseSelector.getRowVector();
+      }
+
+      if (rowVectorId != selection.getId()) {
+        final IndexedInts[] baseVector = baseSelector.getRowVector();
+        final int[] selected = selection.getSelection();
+        for (int i = 0; i < selection.getCurrentVectorSize(); i++) {
+          rowVector[i] = baseVector[selected[i]];
+        }
+        rowVectorId = selection.getId();
+      }
+
+      return rowVector;
+    }
+
+    @Override
+    public int getValueCardinality()
+    {
+      return baseSelector.getValueCardinality();
+    }
+
+    @Nullable
+    @Override
+    public String lookupName(final int id)
+    {
+      return baseSelector.lookupName(id);
+    }
+
+    @Override
+    public boolean nameLookupPossibleInAdvance()
+    {
+      return baseSelector.nameLookupPossibleInAdvance();
+    }
+
+    @Nullable
+    @Override
+    public IdLookup idLookup()
+    {
+      return baseSelector.idLookup();
+    }
+
+    @Override
+    public int getMaxVectorSize()
+    {
+      return selection.getMaxVectorSize();
+    }
+
+    @Override
+    public int getCurrentVectorSize()
+    {
+      return selection.getCurrentVectorSize();
+    }
+  }
+
+  private static class SelectedVectorValueSelector implements VectorValueSelector
+  {
+    private final VectorValueSelector baseSelector;
+    private final Selection selection;
+
+    @Nullable
+    private long[] longVector;
+    private int longVectorId = NO_ID;
+
+    @Nullable
+    private float[] floatVector;
+    private int floatVectorId = NO_ID;
+
+    @Nullable
+    private double[] doubleVector;
+    private int doubleVectorId = NO_ID;
+
+    @Nullable
+    private boolean[] nullVector;
+    private int nullVectorId = NO_ID;
+
+    SelectedVectorValueSelector(final VectorValueSelector baseSelector, final Selection selection)
+    {
+      this.baseSelector = baseSelector;
+      this.selection = selection;
+    }
+
+    @Override
+    public long[] getLongVector()
+    {
+      if (selection.isAllSelected()) {
+        return baseSelector.getLongVector();
+      }
+
+      if (longVectorId != selection.getId()) {
+        if (longVector == null) {
+          longVector = new long[selection.getMaxVectorSize()];
+        }
+
+        final long[] baseVector = baseSelector.getLongVector();
+        final int[] selected = selection.getSelection();
+        for (int i = 0; i < selection.getCurrentVectorSize(); i++) {
+          longVector[i] = baseVector[selected[i]];
+        }
+        longVectorId = selection.getId();
+      }
+
+      return longVector;
+    }
+
+    @Override
+    public float[] getFloatVector()
+    {
+      if (selection.isAllSelected()) {
+        return baseSelector.getFloatVector();
+      }
+
+      if (floatVectorId != selection.getId()) {
+        if (floatVector == null) {
+          floatVector = new float[selection.getMaxVectorSize()];
+        }
+
+        final float[] baseVector = baseSelector.getFloatVector();
+        final int[] selected = selection.getSelection();
+        for (int i = 0; i < selection.getCurrentVectorSize(); i++) {
+          floatVector[i] = baseVector[selected[i]];
+        }
+        floatVectorId = selection.getId();
+      }
+
+      return floatVector;
+    }
+
+    @Override
+    public double[] getDoubleVector()
+    {
+      if (selection.isAllSelected()) {
+        return baseSelector.getDoubleVector();
+      }
+
+      if (doubleVectorId != selection.getId()) {
+        if (doubleVector == null) {
+          doubleVector = new double[selection.getMaxVectorSize()];
+        }
+
+        final double[] baseVector = baseSelector.getDoubleVector();
+        final int[] selected = selection.getSelection();
+        for (int i = 0; i < selection.getCurrentVectorSize(); i++) {
+          doubleVector[i] = baseVector[selected[i]];
+        }
+        doubleVectorId = selection.getId();
+      }
+
+      return doubleVector;
+    }
+
+    @Nullable
+    @Override
+    public boolean[] getNullVector()
+    {
+      final boolean[] baseVector = baseSelector.getNullVector();
+
+      if (baseVector == null || selection.isAllSelected()) {
+        return baseVector;
+      }
+
+      if (nullVectorId != selection.getId()) {
+        if (nullVector == null) {
+          nullVector = new boolean[selection.getMaxVectorSize()];
+        }
+
+        final int[] selected = selection.getSelection();
+        for (int i = 0; i < selection.getCurrentVectorSize(); i++) {
+          nullVector[i] = baseVector[selected[i]];
+        }
+        nullVectorId = selection.getId();
+      }
+
+      return nullVector;
+    }
+
+    @Override
+    public int getMaxVectorSize()
+    {
+      return selection.getMaxVectorSize();
+    }
+
+    @Override
+    public int getCurrentVectorSize()
+    {
+      return selection.getCurrentVectorSize();
+    }
+  }
+
+  private static class SelectedVectorObjectSelector implements VectorObjectSelector
+  {
+    private final VectorObjectSelector baseSelector;
+    private final Selection selection;
+    private final Object[] objectVector;
+    private int objectVectorId = NO_ID;
+
+    SelectedVectorObjectSelector(final VectorObjectSelector baseSelector, final Selection selection)
+    {
+      this.baseSelector = baseSelector;
+      this.selection = selection;
+      this.objectVector = new Object[selection.getMaxVectorSize()];
+    }
+
+    @Override
+    public Object[] getObjectVector()
+    {
+      if (selection.isAllSelected()) {
+        return baseSelector.getObjectVector();
+      }
+
+      if (objectVectorId != selection.getId()) {
+        final Object[] baseVector = baseSelector.getObjectVector();
+        final int[] selected = selection.getSelection();
+        for (int i = 0; i < selection.getCurrentVectorSize(); i++) {
+          objectVector[i] = baseVector[selected[i]];
+        }
+        objectVectorId = selection.getId();
+      }
+
+      return objectVector;
+    }
+
+    @Override
+    public int getMaxVectorSize()
+    {
+      return selection.getMaxVectorSize();
+    }
+
+    @Override
+    public int getCurrentVectorSize()
+    {
+      return selection.getCurrentVectorSize();
+    }
+  }
+}
@@ -0,0 +1,63 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.druid.segment.join;
+
+import org.apache.druid.segment.vector.VectorColumnSelectorFactory;
+import org.apache.druid.segment.vector.VectorSizeInspector;
+
+/**
+ * Vectorized version of {@link JoinMatcher}. Created by {@link Joinable#makeVectorJoinMatcher}, and used by
+ * {@link HashJoinEngine#makeJoinVectorCursor}.
+ *
+ * Unlike {@link JoinMatcher}, a vector matcher can only be used for conditions where each left-hand row matches at
+ * most one right-hand row, so a batch of matches can be represented as a single array of right-hand row numbers.
+ */
+public interface VectorJoinMatcher
+{
+  int NO_MATCH = -1;
+
+  /**
+   * Matches the current vector of the left-hand side. Returns an array where position "i" holds the right-hand row
+   * matched by left-hand row "i", or {@link #NO_MATCH} if there is no such row. Only the first
+   * "getCurrentVectorSize" positions are valid. The array is owned by the matcher and is reused across calls.
+   */
+  int[] match();
+
+  /**
+   * Creates a column selector factory for the right-hand side. Selectors created by this factory read the right-hand
+   * rows given by {@link MatchedRows#getMatchedRows()}.
+   */
+  VectorColumnSelectorFactory makeColumnSelectorFactory(MatchedRows matchedRows);
+
+  /**
+   * Right-hand row numbers for the current vector of a join cursor. Rows are either right-hand row numbers or
+   * {@link #NO_MATCH}, which selectors should treat as null.
+   */
+  interface MatchedRows extends VectorSizeInspector
+  {
+    /**
+     * Returns an id that changes whenever {@link #getMatchedRows()} changes. Selectors may use this to avoid
+     * recomputing vectors that they have already computed.
+     */
+    int getId();
+
+    int[] getMatchedRows();
+  }
+}
@@ -19,6 +19,7 @@
 
 package org.apache.druid.segment.join.filter;
 
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import org.apache.druid.java.util.common.Pair;
@@ -26,11 +27,16 @@ import org.apache.druid.math.expr.Expr;
 import org.apache.druid.query.filter.Filter;
 import org.apache.druid.query.filter.InDimFilter;
 import org.apache.druid.segment.VirtualColumn;
+import org.apache.druid.segment.column.ColumnCapabilities;
 import org.apache.druid.segment.column.ValueType;
 import org.apache.druid.segment.filter.FalseFilter;
 import org.apache.druid.segment.filter.Filters;
 import org.apache.druid.segment.filter.OrFilter;
 import org.apache.druid.segment.filter.SelectorFilter;
+import org.apache.druid.segment.join.Equality;
+import org.apache.druid.segment.join.JoinType;
+import org.apache.druid.segment.join.JoinableClause;
+import org.apache.druid.segment.join.filter.rewrite.JoinFilterRewriteConfig;
 import org.apache.druid.segment.virtual.ExpressionVirtualColumn;
 
 import java.util.ArrayList;
@@ -94,7 +100,8 @@ public class JoinFilterAnalyzer
     joinableClauses.splitVirtualColumns(key.getVirtualColumns(), preJoinVirtualColumns, postJoinVirtualColumns);
 
     final JoinFilterPreAnalysis.Builder preAnalysisBuilder =
-        new JoinFilterPreAnalysis.Builder(key, postJoinVirtualColumns);
+        new JoinFilterPreAnalysis.Builder(key, postJoinVirtualColumns)
+            .withRuntimeFilters(computeRuntimeFilters(key, joinableClauses));
 
     if (key.getFilter() == null || !key.getRewriteConfig().isEnableFilterPushDown()) {
       return preAnalysisBuilder.build();
@@ -137,6 +144,61 @@ public class JoinFilterAnalyzer
     return preAnalysisBuilder.withCorrelations(correlations).build();
   }
 
+  /**
+   * Derives filters on base columns from the right-hand sides of inner joins. A left-hand row can only be part of the
+   * output of an inner join if its key is one of the right-hand keys, so rows that fail these filters can be skipped
+   * before they reach the join. Filters are only derived for string keys, and only when the right-hand side has at
+   * most {@link JoinFilterRewriteConfig#getRuntimeFilterMaxSize()} distinct keys. Reading the keys can mean scanning
+   * the whole right-hand side, which is why this is done once per query rather than per segment.
+   *
+   * @return filters keyed by the base column they apply to
+   */
+  private static Map<String, Filter> computeRuntimeFilters(
+      final JoinFilterPreAnalysisKey key,
+      final JoinableClauses joinableClauses
+  )
+  {
+    final long maxSize = key.getRewriteConfig().getRuntimeFilterMaxSize();
+    final Map<String, Filter> filters = new HashMap<>();
+
+    if (maxSize <= 0) {
+      return filters;
+    }
+
+    for (final JoinableClause clause : joinableClauses.getJoinableClauses()) {
+      if (clause.getJoinType() != JoinType.INNER) {
+        continue;
+      }
+
+      for (final Equality equality : clause.getCondition().getEquiConditions()) {
+        final String leftColumn = equality.getLeftExpr().getBindingIfIdentifier();
+
+        if (leftColumn == null
+            || joinableClauses.getColumnFromJoinIfExists(leftColumn) != null
+            || key.getVirtualColumns().exists(leftColumn)) {
+          continue;
+        }
+
+        final ColumnCapabilities rightCapabilities =
+            clause.getJoinable().getColumnCapabilities(equality.getRightColumn());
+
+        if (rightCapabilities != null && rightCapabilities.getType() == ValueType.STRING) {
+          clause.getJoinable()
+                .getColumnValues(equality.getRightColumn(), maxSize)
+                .ifPresent(
+                    values -> filters.merge(
+                        leftColumn,
+                        new InDimFilter(leftColumn, values, null, null).toFilter(),
+                        (filter1, filter2) -> Filters.and(ImmutableList.of(filter1, filter2))
+                    )
+                );
+        }
+      }
+    }
+
+    return filters;
+  }
+
   /**
    * @param joinFilterPreAnalysis The pre-analysis computed by {@link #computeJoinFilterPreAnalysis)}
    *
@@ -42,6 +42,7 @@ import java.util.Set;
  * - A list of filter clauses from the original filter's CNF representation that only reference the base table
  * - A list of filter clauses from the original filter's CNF representation that reference RHS join tables
  * - A list of virtual columns that can only be computed post-join
+ * - Runtime filters on base table columns, derived from the right-hand keys of inner joins
  * - The JoinFilterRewriteConfig that this pre-analysis is associated with.
  */
 public class JoinFilterPreAnalysis
@@ -52,6 +53,7 @@ public class JoinFilterPreAnalysis
   private final JoinFilterCorrelations correlations;
   private final List<VirtualColumn> postJoinVirtualColumns;
   private final Equiconditions equiconditions;
+  private final Map<String, Filter> runtimeFilters;
 
   private JoinFilterPreAnalysis(
       final JoinFilterPreAnalysisKey key,
@@ -59,7 +61,8 @@ public class JoinFilterPreAnalysis
       final List<Filter> normalizedBaseTableClauses,
       final List<Filter> normalizedJoinTableClauses,
       final JoinFilterCorrelations correlations,
-      final Equiconditions equiconditions
+      final Equiconditions equiconditions,
+      final Map<String, Filter> runtimeFilters
   )
   {
     this.key = key;
@@ -68,6 +71,7 @@ public class JoinFilterPreAnalysis
     this.normalizedJoinTableClauses = normalizedJoinTableClauses;
     this.correlations = correlations;
     this.equiconditions = equiconditions;
+    this.runtimeFilters = runtimeFilters;
   }
 
   public JoinFilterPreAnalysisKey getKey()
@@ -126,6 +130,15 @@ public class JoinFilterPreAnalysis
     return equiconditions;
   }
 
+  /**
+   * Returns filters that base table rows must match to be part of the join output, keyed by the base column they apply
+   * to. Whether a segment can make use of them depends on its columns.
+   */
+  public Map<String, Filter> getRuntimeFilters()
+  {
+    return runtimeFilters;
+  }
+
   /**
    * A Builder class to build {@link JoinFilterPreAnalysis}
    */
@@ -143,6 +156,8 @@ public class JoinFilterPreAnalysis
     private final List<VirtualColumn> postJoinVirtualColumns;
     @Nonnull
     private Equiconditions equiconditions = new Equiconditions(Collections.emptyMap());
+    @Nonnull
+    private Map<String, Filter> runtimeFilters = Collections.emptyMap();
 
     public Builder(
         @Nonnull JoinFilterPreAnalysisKey key,
@@ -173,6 +188,12 @@ public class JoinFilterPreAnalysis
       return this;
     }
 
+    public Builder withRuntimeFilters(Map<String, Filter> runtimeFilters)
+    {
+      this.runtimeFilters = runtimeFilters;
+      return this;
+    }
+
     public Equiconditions computeEquiconditionsFromJoinableClauses()
     {
       Map<String, Set<Expr>> equiconditionsMap = new HashMap<>();
@@ -197,7 +218,8 @@ public class JoinFilterPreAnalysis
           normalizedBaseTableClauses,
           normalizedJoinTableClauses,
           correlations,
-          equiconditions
+          equiconditions,
+          runtimeFilters
       );
     }
 
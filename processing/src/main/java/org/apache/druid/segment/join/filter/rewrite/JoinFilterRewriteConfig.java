@@ -53,17 +53,41 @@ public class JoinFilterRewriteConfig
    */
   private final long filterRewriteMaxSize;
 
+  /**
+   * The max allowed number of right-hand key values for runtime filters on the base table. Zero disables runtime
+   * filters. In production this should generally be {@code QueryContexts.getJoinRuntimeFilterMaxSize(query)}.
+   */
+  private final long runtimeFilterMaxSize;
+
   public JoinFilterRewriteConfig(
       boolean enableFilterPushDown,
       boolean enableFilterRewrite,
       boolean enableRewriteValueColumnFilters,
       long filterRewriteMaxSize
   )
+  {
+    this(
+        enableFilterPushDown,
+        enableFilterRewrite,
+        enableRewriteValueColumnFilters,
+        filterRewriteMaxSize,
+        QueryContexts.DEFAULT_JOIN_RUNTIME_FILTER_MAX_SIZE
+    );
+  }
+
+  public JoinFilterRewriteConfig(
+      boolean enableFilterPushDown,
+      boolean enableFilterRewrite,
+      boolean enableRewriteValueColumnFilters,
+      long filterRewriteMaxSize,
+      long runtimeFilterMaxSize
+  )
   {
     this.enableFilterPushDown = enableFilterPushDown;
     this.enableFilterRewrite = enableFilterRewrite;
     this.enableRewriteValueColumnFilters = enableRewriteValueColumnFilters;
     this.filterRewriteMaxSize = filterRewriteMaxSize;
+    this.runtimeFilterMaxSize = runtimeFilterMaxSize;
   }
 
   public static JoinFilterRewriteConfig forQuery(final Query<?> query)
@@ -72,7 +96,8 @@ public class JoinFilterRewriteConfig
         QueryContexts.getEnableJoinFilterPushDown(query),
         QueryContexts.getEnableJoinFilterRewrite(query),
         QueryContexts.getEnableJoinFilterRewriteValueColumnFilters(query),
-        QueryContexts.getJoinFilterRewriteMaxSize(query)
+        QueryContexts.getJoinFilterRewriteMaxSize(query),
+        QueryContexts.getJoinRuntimeFilterMaxSize(query)
     );
   }
 
@@ -96,6 +121,11 @@ public class JoinFilterRewriteConfig
     return filterRewriteMaxSize;
   }
 
+  public long getRuntimeFilterMaxSize()
+  {
+    return runtimeFilterMaxSize;
+  }
+
   @Override
   public boolean equals(Object o)
   {
@@ -109,7 +139,8 @@ public class JoinFilterRewriteConfig
     return enableFilterPushDown == that.enableFilterPushDown &&
            enableFilterRewrite == that.enableFilterRewrite &&
            enableRewriteValueColumnFilters == that.enableRewriteValueColumnFilters &&
-           filterRewriteMaxSize == that.filterRewriteMaxSize;
+           filterRewriteMaxSize == that.filterRewriteMaxSize &&
+           runtimeFilterMaxSize == that.runtimeFilterMaxSize;
   }
 
   @Override
@@ -119,7 +150,8 @@ public class JoinFilterRewriteConfig
         enableFilterPushDown,
         enableFilterRewrite,
         enableRewriteValueColumnFilters,
-        filterRewriteMaxSize
+        filterRewriteMaxSize,
+        runtimeFilterMaxSize
     );
   }
 }
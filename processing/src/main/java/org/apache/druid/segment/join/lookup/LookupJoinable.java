@@ -34,7 +34,9 @@ import org.apache.druid.segment.join.Joinable;
 import javax.annotation.Nullable;
 import java.io.Closeable;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 
@@ -92,6 +94,27 @@ public class LookupJoinable implements Joinable
     return LookupJoinMatcher.create(extractor, leftSelectorFactory, condition, remainderNeeded);
   }
 
+  @Override
+  public Optional<Set<String>> getColumnValues(String columnName, long maxNumValues)
+  {
+    if (!ALL_COLUMNS.contains(columnName) || !extractor.canIterate()) {
+      return Optional.empty();
+    }
+
+    final boolean isKeyColumn = LookupColumnSelectorFactory.KEY_COLUMN.equals(columnName);
+    final Set<String> values = new HashSet<>();
+
+    for (Map.Entry<String, String> entry : extractor.iterable()) {
+      values.add(isKeyColumn ? entry.getKey() : entry.getValue());
+
+      if (values.size() > maxNumValues) {
+        return Optional.empty();
+      }
+    }
+
+    return Optional.of(values);
+  }
+
   @Override
   public Optional<Set<String>> getCorrelatedColumnValues(
       String searchColumnName,
@@ -20,11 +20,15 @@
 package org.apache.druid.segment.join.table;
 
 import com.google.common.base.Preconditions;
+import com.google.common.primitives.Ints;
 import org.apache.druid.java.util.common.IAE;
+import org.apache.druid.java.util.common.StringUtils;
 import org.apache.druid.java.util.common.granularity.Granularities;
 import org.apache.druid.java.util.common.guava.Sequence;
 import org.apache.druid.java.util.common.guava.Sequences;
 import org.apache.druid.java.util.common.io.Closer;
+import org.apache.druid.java.util.common.io.smoosh.FileSmoosher;
+import org.apache.druid.java.util.common.io.smoosh.SmooshedWriter;
 import org.apache.druid.java.util.common.logger.Logger;
 import org.apache.druid.query.cache.CacheKeyBuilder;
 import org.apache.druid.segment.BaseObjectColumnValueSelector;
@@ -47,19 +51,25 @@ import org.apache.druid.timeline.SegmentId;
 import org.joda.time.chrono.ISOChronology;
 
 import javax.annotation.Nullable;
+import java.io.ByteArrayOutputStream;
 import java.io.Closeable;
+import java.io.DataOutputStream;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 public class BroadcastSegmentIndexedTable implements IndexedTable
 {
   private static final Logger LOG = new Logger(BroadcastSegmentIndexedTable.class);
   private static final byte CACHE_PREFIX = 0x01;
+  private static final byte PERSISTED_INDEXES_VERSION = 0x01;
 
   private final QueryableIndexSegment segment;
   private final QueryableIndexStorageAdapter adapter;
@@ -74,6 +84,23 @@ public class BroadcastSegmentIndexedTable implements IndexedTable
       final Set<String> keyColumns,
       final String version
   )
+  {
+    this(theSegment, keyColumns, version, null);
+  }
+
+  /**
+   * Creates a table, using previously persisted key column indexes if they are available.
+   *
+   * @param persistedIndexes key column indexes read by {@link #readKeyColumnIndexes}, or null. If any key column is
+   *                         missing from this map, or has a different type, all key column indexes are built from the
+   *                         segment instead.
+   */
+  public BroadcastSegmentIndexedTable(
+      final QueryableIndexSegment theSegment,
+      final Set<String> keyColumns,
+      final String version,
+      @Nullable final Map<String, ? extends Index> persistedIndexes
+  )
   {
     this.keyColumns = keyColumns;
     this.version = version;
@@ -88,32 +115,184 @@ public class BroadcastSegmentIndexedTable implements IndexedTable
         "Segment[%s] must have a QueryableIndexSegment",
         segment.getId()
     );
+    this.rowSignature = computeRowSignature(adapter, queryableIndex);
+
+    if (persistedIndexes != null && canUsePersistedIndexes(rowSignature, keyColumns, persistedIndexes)) {
+      this.keyColumnsIndexes = new ArrayList<>(rowSignature.size());
+      for (int i = 0; i < rowSignature.size(); i++) {
+        final String columnName = rowSignature.getColumnName(i);
+        keyColumnsIndexes.add(keyColumns.contains(columnName) ? persistedIndexes.get(columnName) : null);
+      }
+
+      LOG.info("Created BroadcastSegmentIndexedTable with %s rows, using persisted indexes.", adapter.getNumRows());
+    } else {
+      // initialize keycolumn index builders
+      final ArrayList<RowBasedIndexBuilder> indexBuilders = new ArrayList<>(rowSignature.size());
+      final List<String> keyColumnNames = new ArrayList<>(keyColumns.size());
+      final List<Consumer<Object>> keyColumnAdders = new ArrayList<>(keyColumns.size());
+      for (int i = 0; i < rowSignature.size(); i++) {
+        final RowBasedIndexBuilder m;
+        final String columnName = rowSignature.getColumnName(i);
+        if (keyColumns.contains(columnName)) {
+          m = new RowBasedIndexBuilder(getKeyType(rowSignature, i));
+          keyColumnNames.add(columnName);
+          keyColumnAdders.add(m::add);
+        } else {
+          m = null;
+        }
+        indexBuilders.add(m);
+      }
+
+      final int totalRows = readKeyColumns(segment, adapter, queryableIndex, keyColumnNames, keyColumnAdders);
+
+      this.keyColumnsIndexes = indexBuilders.stream()
+                                            .map(builder -> builder != null ? builder.build() : null)
+                                            .collect(Collectors.toList());
+
+      LOG.info("Created BroadcastSegmentIndexedTable with %s rows.", totalRows);
+    }
+  }
+
+  /**
+   * Writes indexes of the given key columns of a segment to a smooshed file named "fileName", which can later be
+   * memory-mapped and read by {@link #readKeyColumnIndexes} instead of building indexes on heap each time the segment
+   * is loaded.
+   */
+  public static void persistKeyColumnIndexes(
+      final QueryableIndexSegment segment,
+      final Set<String> keyColumns,
+      final FileSmoosher smoosher,
+      final String fileName
+  ) throws IOException
+  {
+    final QueryableIndexStorageAdapter adapter = (QueryableIndexStorageAdapter) segment.asStorageAdapter();
+    final QueryableIndex queryableIndex = segment.asQueryableIndex();
+    final RowSignature rowSignature = computeRowSignature(adapter, queryableIndex);
+
+    final List<String> keyColumnNames = new ArrayList<>(keyColumns.size());
+    final List<PersistedIndex.Builder> builders = new ArrayList<>(keyColumns.size());
+    for (int i = 0; i < rowSignature.size(); i++) {
+      final String columnName = rowSignature.getColumnName(i);
+      if (keyColumns.contains(columnName)) {
+        keyColumnNames.add(columnName);
+        builders.add(new PersistedIndex.Builder(getKeyType(rowSignature, i)));
+      }
+    }
+
+    readKeyColumns(
+        segment,
+        adapter,
+        queryableIndex,
+        keyColumnNames,
+        builders.stream().<Consumer<Object>>map(builder -> builder::add).collect(Collectors.toList())
+    );
+
+    // Header: version, number of columns, then the name and size of each column. Index contents follow, in order.
+    final ByteArrayOutputStream header = new ByteArrayOutputStream();
+    final DataOutputStream headerOut = new DataOutputStream(header);
+    headerOut.writeByte(PERSISTED_INDEXES_VERSION);
+    headerOut.writeInt(keyColumnNames.size());
+    for (int i = 0; i < keyColumnNames.size(); i++) {
+      final byte[] nameBytes = StringUtils.toUtf8(keyColumnNames.get(i));
+      headerOut.writeInt(nameBytes.length);
+      headerOut.write(nameBytes);
+      headerOut.writeLong(builders.get(i).getSerializedSize());
+    }
+    headerOut.flush();
+
+    long size = header.size();
+    for (PersistedIndex.Builder builder : builders) {
+      size += builder.getSerializedSize();
+    }
 
+    try (final SmooshedWriter writer = smoosher.addWithSmooshedWriter(fileName, size)) {
+      writer.write(ByteBuffer.wrap(header.toByteArray()));
+      for (PersistedIndex.Builder builder : builders) {
+        builder.writeTo(writer);
+      }
+    }
+  }
+
+  /**
+   * Reads key column indexes written by {@link #persistKeyColumnIndexes}. Does not copy the contents of "buffer", so
+   * the returned indexes are only valid as long as the buffer is.
+   */
+  public static Map<String, Index> readKeyColumnIndexes(final ByteBuffer buffer)
+  {
+    final ByteBuffer theBuffer = buffer.duplicate();
+
+    final byte version = theBuffer.get();
+    if (version != PERSISTED_INDEXES_VERSION) {
+      throw new IAE("Unknown version[%s] of persisted indexes", version);
+    }
+
+    final int numColumns = theBuffer.getInt();
+    final List<String> columnNames = new ArrayList<>(numColumns);
+    final List<Integer> sizes = new ArrayList<>(numColumns);
+    for (int i = 0; i < numColumns; i++) {
+      final int nameLength = theBuffer.getInt();
+      columnNames.add(StringUtils.fromUtf8(theBuffer, nameLength));
+      sizes.add(Ints.checkedCast(theBuffer.getLong()));
+    }
+
+    final Map<String, Index> indexes = new HashMap<>();
+    for (int i = 0; i < numColumns; i++) {
+      indexes.put(columnNames.get(i), PersistedIndex.read(theBuffer));
+      theBuffer.position(theBuffer.position() + sizes.get(i));
+    }
+
+    return indexes;
+  }
+
+  private static RowSignature computeRowSignature(
+      final QueryableIndexStorageAdapter adapter,
+      final QueryableIndex queryableIndex
+  )
+  {
     RowSignature.Builder sigBuilder = RowSignature.builder();
     sigBuilder.add(ColumnHolder.TIME_COLUMN_NAME, ValueType.LONG);
     for (String column : queryableIndex.getColumnNames()) {
       sigBuilder.add(column, adapter.getColumnCapabilities(column).getType());
     }
-    this.rowSignature = sigBuilder.build();
+    return sigBuilder.build();
+  }
 
-    // initialize keycolumn index builders
-    final ArrayList<RowBasedIndexBuilder> indexBuilders = new ArrayList<>(rowSignature.size());
-    final List<String> keyColumnNames = new ArrayList<>(keyColumns.size());
+  private static ValueType getKeyType(final RowSignature rowSignature, final int column)
+  {
+    return rowSignature.getColumnType(column).orElse(IndexedTableJoinMatcher.DEFAULT_KEY_TYPE);
+  }
+
+  private static boolean canUsePersistedIndexes(
+      final RowSignature rowSignature,
+      final Set<String> keyColumns,
+      final Map<String, ? extends Index> persistedIndexes
+  )
+  {
     for (int i = 0; i < rowSignature.size(); i++) {
-      final RowBasedIndexBuilder m;
       final String columnName = rowSignature.getColumnName(i);
       if (keyColumns.contains(columnName)) {
-        final ValueType keyType =
-            rowSignature.getColumnType(i).orElse(IndexedTableJoinMatcher.DEFAULT_KEY_TYPE);
-
-        m = new RowBasedIndexBuilder(keyType);
-        keyColumnNames.add(columnName);
-      } else {
-        m = null;
+        final Index index = persistedIndexes.get(columnName);
+        if (index == null || index.keyType() != getKeyType(rowSignature, i)) {
+          return false;
+        }
       }
-      indexBuilders.add(m);
     }
 
+    return true;
+  }
+
+  /**
+   * Reads every row of the given key columns, passing each value to the corresponding "keyColumnAdders" entry.
+   * Returns the number of rows read.
+   */
+  private static int readKeyColumns(
+      final QueryableIndexSegment segment,
+      final QueryableIndexStorageAdapter adapter,
+      final QueryableIndex queryableIndex,
+      final List<String> keyColumnNames,
+      final List<Consumer<Object>> keyColumnAdders
+  )
+  {
     // sort of like the dump segment tool, but build key column indexes when reading the segment
     final Sequence<Cursor> cursors = adapter.makeCursors(
         Filters.toFilter(null),
@@ -148,17 +327,14 @@ public class BroadcastSegmentIndexedTable implements IndexedTable
 
           while (!cursor.isDone()) {
             for (int keyColumnSelectorIndex = 0; keyColumnSelectorIndex < selectors.size(); keyColumnSelectorIndex++) {
-              final String keyColumnName = keyColumnNames.get(keyColumnSelectorIndex);
-              final int columnPosition = rowSignature.indexOf(keyColumnName);
-              final RowBasedIndexBuilder keyColumnIndexBuilder = indexBuilders.get(columnPosition);
-              keyColumnIndexBuilder.add(selectors.get(keyColumnSelectorIndex).getObject());
+              keyColumnAdders.get(keyColumnSelectorIndex).accept(selectors.get(keyColumnSelectorIndex).getObject());
             }
 
             if (rowNumber % 100_000 == 0) {
               if (rowNumber == 0) {
-                LOG.debug("Indexed first row for table %s", theSegment.getId());
+                LOG.debug("Indexed first row for table %s", segment.getId());
               } else {
-                LOG.debug("Indexed row %s for table %s", rowNumber, theSegment.getId());
+                LOG.debug("Indexed row %s for table %s", rowNumber, segment.getId());
               }
             }
             rowNumber++;
@@ -168,13 +344,7 @@ public class BroadcastSegmentIndexedTable implements IndexedTable
         }
     );
 
-    Integer totalRows = sequence.accumulate(0, (accumulated, in) -> accumulated += in);
-
-    this.keyColumnsIndexes = indexBuilders.stream()
-                                          .map(builder -> builder != null ? builder.build() : null)
-                                          .collect(Collectors.toList());
-
-    LOG.info("Created BroadcastSegmentIndexedTable with %s rows.", totalRows);
+    return sequence.accumulate(0, (accumulated, in) -> accumulated += in);
   }
 
   @Override
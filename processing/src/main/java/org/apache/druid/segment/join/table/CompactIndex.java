@@ -0,0 +1,163 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.druid.segment.join.table;
+
+import com.google.common.base.Preconditions;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.ints.IntList;
+import it.unimi.dsi.fastutil.ints.IntLists;
+import it.unimi.dsi.fastutil.longs.Long2IntMap;
+import it.unimi.dsi.fastutil.objects.Object2IntMap;
+import org.apache.druid.segment.DimensionHandlerUtils;
+import org.apache.druid.segment.column.ValueType;
+
+import javax.annotation.Nullable;
+
+/**
+ * An {@link IndexedTable.Index} backed by a primitive-valued hash table of keys and a flat array of row numbers.
+ *
+ * If keys are unique, the hash table maps each key directly to its row number. Otherwise, it maps each key to a key
+ * id, and the rows for key id {@code k} are {@code rows[offsets[k]]} through {@code rows[offsets[k + 1] - 1]}, in
+ * ascending order.
+ *
+ * Compared to a map of keys to {@link IntList}, this avoids one object per key, which matters for large tables.
+ */
+public class CompactIndex implements IndexedTable.Index
+{
+  static final int NO_KEY = -1;
+
+  private final ValueType keyType;
+
+  @Nullable
+  private final Long2IntMap longKeyIds;
+
+  @Nullable
+  private final Object2IntMap<Object> keyIds;
+
+  @Nullable
+  private final int[] offsets;
+
+  @Nullable
+  private final IntList rows;
+
+  /**
+   * Creates a new instance. Exactly one of "longKeyIds" and "keyIds" must be provided, and "offsets" and "rows" must
+   * be provided if and only if keys are not unique.
+   *
+   * @param keyType    type of keys
+   * @param longKeyIds for long-typed keys, a map of keys to key ids or row numbers; must return {@link #NO_KEY} for
+   *                   missing keys
+   * @param keyIds     for other types of keys, a map of keys to key ids or row numbers; must return {@link #NO_KEY}
+   *                   for missing keys
+   * @param offsets    start of the rows for each key id in "rows", followed by the total number of rows
+   * @param rows       row numbers for all keys, grouped by key id
+   *
+   * @see RowBasedIndexBuilder#build() the main caller
+   */
+  CompactIndex(
+      final ValueType keyType,
+      @Nullable final Long2IntMap longKeyIds,
+      @Nullable final Object2IntMap<Object> keyIds,
+      @Nullable final int[] offsets,
+      @Nullable final int[] rows
+  )
+  {
+    this.keyType = Preconditions.checkNotNull(keyType, "keyType");
+    this.longKeyIds = longKeyIds;
+    this.keyIds = keyIds;
+    this.offsets = offsets;
+    this.rows = rows == null ? null : IntArrayList.wrap(rows);
+
+    Preconditions.checkArgument((longKeyIds == null) != (keyIds == null), "Exactly one of longKeyIds, keyIds");
+    Preconditions.checkArgument((offsets == null) == (rows == null), "Both or neither of offsets, rows");
+  }
+
+  @Override
+  public ValueType keyType()
+  {
+    return keyType;
+  }
+
+  @Override
+  public boolean areKeysUnique()
+  {
+    return offsets == null;
+  }
+
+  @Override
+  public IntList find(Object key)
+  {
+    final int keyId = findKeyId(key);
+
+    if (keyId == NO_KEY) {
+      return IntLists.EMPTY_LIST;
+    } else if (offsets == null) {
+      // Unique keys: "keyId" is the row number.
+      return IntLists.singleton(keyId);
+    } else {
+      assert rows != null;
+      return rows.subList(offsets[keyId], offsets[keyId + 1]);
+    }
+  }
+
+  @Override
+  public RowNumberIterator find(Object key, RowNumberIterator iterator)
+  {
+    final int keyId = findKeyId(key);
+
+    if (keyId == NO_KEY) {
+      return iterator.resetEmpty();
+    } else if (offsets == null) {
+      // Unique keys: "keyId" is the row number.
+      return iterator.resetSingle(keyId);
+    } else {
+      assert rows != null;
+      return iterator.reset(rows, offsets[keyId], offsets[keyId + 1]);
+    }
+  }
+
+  @Override
+  public int findUniqueLong(long key)
+  {
+    if (longKeyIds != null && offsets == null) {
+      final int row = longKeyIds.get(key);
+      return row == NO_KEY ? NOT_FOUND : row;
+    } else {
+      throw new UnsupportedOperationException();
+    }
+  }
+
+  /**
+   * Returns the key id, or the row number if keys are unique, of "key", or {@link #NO_KEY} if it is not in the index.
+   */
+  private int findKeyId(Object key)
+  {
+    final Object convertedKey = DimensionHandlerUtils.convertObjectToType(key, keyType, false);
+
+    if (convertedKey == null) {
+      return NO_KEY;
+    } else if (longKeyIds != null) {
+      return longKeyIds.get((long) convertedKey);
+    } else {
+      assert keyIds != null;
+      return keyIds.getInt(convertedKey);
+    }
+  }
+}
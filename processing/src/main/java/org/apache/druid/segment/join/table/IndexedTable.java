@@ -135,6 +135,16 @@ public interface IndexedTable extends ReferenceCountedObject, Closeable
      */
     IntList find(Object key);
 
+    /**
+     * Resets "iterator" to the row numbers corresponding to "key", like {@link #find(Object)}, and returns it.
+     * Implementations override this to avoid allocating on every lookup, so callers on hot paths should prefer it and
+     * reuse one iterator across calls.
+     */
+    default RowNumberIterator find(Object key, RowNumberIterator iterator)
+    {
+      return iterator.reset(find(key));
+    }
+
     /**
      * Returns the row number corresponding to "key" in this index, or {@link #NOT_FOUND} if the key does not exist
      * in the index.
@@ -373,6 +373,12 @@ public class IndexedTableJoinMatcher implements JoinMatcher
       return index.find(key);
     }
 
+    private IntIterator getRowNumbers(DimensionSelector selector, int dimensionId, RowNumberIterator iterator)
+    {
+      final String key = selector.lookupName(dimensionId);
+      return index.find(key, iterator);
+    }
+
     private IntList getAndCacheRowNumbers(DimensionSelector selector, int dimensionId)
     {
       return dimensionCaches.getAndLoadIfAbsent(selector).getAndLoadIfAbsent(dimensionId);
@@ -397,13 +403,13 @@ public class IndexedTableJoinMatcher implements JoinMatcher
         // If the cardinality is unknown, then the selector does not have a "real" dictionary and the dimension id
         // is not valid outside the context of a specific row. This means we cannot use a cache and must fall
         // back to this slow code path.
+        final RowNumberIterator iterator = new RowNumberIterator();
         return () -> {
           final IndexedInts row = selector.getRow();
 
           if (row.size() == 1) {
             int dimensionId = row.get(0);
-            IntList rowNumbers = getRowNumbers(selector, dimensionId);
-            return rowNumbers.iterator();
+            return getRowNumbers(selector, dimensionId, iterator);
           } else if (row.size() == 0) {
             return IntIterators.EMPTY_ITERATOR;
           } else {
@@ -436,26 +442,29 @@ public class IndexedTableJoinMatcher implements JoinMatcher
     @Override
     public ConditionMatcher makeFloatProcessor(BaseFloatColumnValueSelector selector)
     {
+      final RowNumberIterator iterator = new RowNumberIterator();
       if (NullHandling.replaceWithDefault()) {
-        return () -> index.find(selector.getFloat()).iterator();
+        return () -> index.find(selector.getFloat(), iterator);
       } else {
-        return () -> selector.isNull() ? IntIterators.EMPTY_ITERATOR : index.find(selector.getFloat()).iterator();
+        return () -> selector.isNull() ? IntIterators.EMPTY_ITERATOR : index.find(selector.getFloat(), iterator);
       }
     }
 
     @Override
     public ConditionMatcher makeDoubleProcessor(BaseDoubleColumnValueSelector selector)
     {
+      final RowNumberIterator iterator = new RowNumberIterator();
       if (NullHandling.replaceWithDefault()) {
-        return () -> index.find(selector.getDouble()).iterator();
+        return () -> index.find(selector.getDouble(), iterator);
       } else {
-        return () -> selector.isNull() ? IntIterators.EMPTY_ITERATOR : index.find(selector.getDouble()).iterator();
+        return () -> selector.isNull() ? IntIterators.EMPTY_ITERATOR : index.find(selector.getDouble(), iterator);
       }
     }
 
     @Override
     public ConditionMatcher makeLongProcessor(BaseLongColumnValueSelector selector)
     {
+      final RowNumberIterator iterator = new RowNumberIterator();
       if (NullHandling.replaceWithDefault()) {
         return new ConditionMatcher()
         {
@@ -468,7 +477,7 @@ public class IndexedTableJoinMatcher implements JoinMatcher
           @Override
           public IntIterator match()
           {
-            return index.find(selector.getLong()).iterator();
+            return index.find(selector.getLong(), iterator);
           }
         };
       } else {
@@ -483,7 +492,7 @@ public class IndexedTableJoinMatcher implements JoinMatcher
           @Override
           public IntIterator match()
           {
-            return selector.isNull() ? IntIterators.EMPTY_ITERATOR : index.find(selector.getLong()).iterator();
+            return selector.isNull() ? IntIterators.EMPTY_ITERATOR : index.find(selector.getLong(), iterator);
           }
         };
       }
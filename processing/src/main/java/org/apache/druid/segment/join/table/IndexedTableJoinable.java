@@ -21,11 +21,14 @@ package org.apache.druid.segment.join.table;
 
 import it.unimi.dsi.fastutil.ints.IntList;
 import org.apache.druid.java.util.common.io.Closer;
+import org.apache.druid.segment.ColumnInspector;
 import org.apache.druid.segment.ColumnSelectorFactory;
 import org.apache.druid.segment.column.ColumnCapabilities;
 import org.apache.druid.segment.join.JoinConditionAnalysis;
 import org.apache.druid.segment.join.JoinMatcher;
 import org.apache.druid.segment.join.Joinable;
+import org.apache.druid.segment.join.VectorJoinMatcher;
+import org.apache.druid.segment.vector.VectorColumnSelectorFactory;
 
 import javax.annotation.Nullable;
 import java.io.Closeable;
@@ -88,6 +91,22 @@ public class IndexedTableJoinable implements Joinable
     );
   }
 
+  @Override
+  public boolean canVectorizeJoin(final JoinConditionAnalysis condition, final ColumnInspector leftInspector)
+  {
+    return IndexedTableVectorJoinMatcher.canVectorize(table, condition, leftInspector);
+  }
+
+  @Override
+  public VectorJoinMatcher makeVectorJoinMatcher(
+      final VectorColumnSelectorFactory leftColumnSelectorFactory,
+      final JoinConditionAnalysis condition,
+      final Closer closer
+  )
+  {
+    return new IndexedTableVectorJoinMatcher(table, leftColumnSelectorFactory, condition, closer);
+  }
+
   @Override
   public Optional<Set<String>> getCorrelatedColumnValues(
       String searchColumnName,
@@ -148,6 +167,40 @@ public class IndexedTableJoinable implements Joinable
     }
   }
 
+  @Override
+  public Optional<Set<String>> getColumnValues(String columnName, long maxNumValues)
+  {
+    final int columnPosition = table.rowSignature().indexOf(columnName);
+
+    if (columnPosition < 0) {
+      return Optional.empty();
+    }
+
+    if (table.keyColumns().contains(columnName)
+        && table.columnIndex(columnPosition).areKeysUnique()
+        && table.numRows() > maxNumValues) {
+      // Every row has a different value; no need to read them to know there are too many.
+      return Optional.empty();
+    }
+
+    try (final IndexedTable.Reader reader = table.columnReader(columnPosition)) {
+      final Set<String> values = new HashSet<>();
+
+      for (int i = 0; i < table.numRows(); i++) {
+        values.add(Objects.toString(reader.read(i), null));
+
+        if (values.size() > maxNumValues) {
+          return Optional.empty();
+        }
+      }
+
+      return Optional.of(values);
+    }
+    catch (IOException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
   @Override
   public Optional<Closeable> acquireReferences()
   {
@@ -0,0 +1,370 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.druid.segment.join.table;
+
+import org.apache.druid.java.util.common.ISE;
+import org.apache.druid.java.util.common.io.Closer;
+import org.apache.druid.query.dimension.DimensionSpec;
+import org.apache.druid.segment.DimensionHandlerUtils;
+import org.apache.druid.segment.IdLookup;
+import org.apache.druid.segment.column.ColumnCapabilities;
+import org.apache.druid.segment.join.VectorJoinMatcher;
+import org.apache.druid.segment.vector.MultiValueDimensionVectorSelector;
+import org.apache.druid.segment.vector.NilVectorSelector;
+import org.apache.druid.segment.vector.SingleValueDimensionVectorSelector;
+import org.apache.druid.segment.vector.VectorColumnSelectorFactory;
+import org.apache.druid.segment.vector.VectorObjectSelector;
+import org.apache.druid.segment.vector.VectorSizeInspector;
+import org.apache.druid.segment.vector.VectorValueSelector;
+
+import javax.annotation.Nullable;
+
+/**
+ * Vectorized version of {@link IndexedTableColumnSelectorFactory}. Selectors read the right-hand rows given by
+ * {@link VectorJoinMatcher.MatchedRows}, treating {@link VectorJoinMatcher#NO_MATCH} as null.
+ */
+public class IndexedTableVectorColumnSelectorFactory implements VectorColumnSelectorFactory
+{
+  private static final int NO_ID = -1;
+
+  private final IndexedTable table;
+  private final VectorJoinMatcher.MatchedRows matchedRows;
+  private final Closer closer;
+
+  IndexedTableVectorColumnSelectorFactory(
+      final IndexedTable table,
+      final VectorJoinMatcher.MatchedRows matchedRows,
+      final Closer closer
+  )
+  {
+    this.table = table;
+    this.matchedRows = matchedRows;
+    this.closer = closer;
+  }
+
+  @Override
+  public VectorSizeInspector getVectorSizeInspector()
+  {
+    return matchedRows;
+  }
+
+  @Override
+  public SingleValueDimensionVectorSelector makeSingleValueDimensionSelector(final DimensionSpec dimensionSpec)
+  {
+    if (!dimensionSpec.canVectorize()) {
+      throw new ISE("DimensionSpec[%s] cannot be vectorized", dimensionSpec);
+    }
+
+    final int columnNumber = table.rowSignature().indexOf(dimensionSpec.getDimension());
+
+    if (columnNumber < 0) {
+      return dimensionSpec.decorate(NilVectorSelector.create(matchedRows));
+    } else {
+      return dimensionSpec.decorate(new DimensionVectorSelector(columnNumber));
+    }
+  }
+
+  @Override
+  public MultiValueDimensionVectorSelector makeMultiValueDimensionSelector(final DimensionSpec dimensionSpec)
+  {
+    throw new ISE(
+        "Column[%s] is not a multi-value string column, do not ask for a multi-value selector",
+        dimensionSpec.getDimension()
+    );
+  }
+
+  @Override
+  public VectorValueSelector makeValueSelector(final String column)
+  {
+    final int columnNumber = table.rowSignature().indexOf(column);
+
+    if (columnNumber < 0) {
+      return NilVectorSelector.create(matchedRows);
+    } else {
+      return new ValueVectorSelector(columnNumber);
+    }
+  }
+
+  @Override
+  public VectorObjectSelector makeObjectSelector(final String column)
+  {
+    final int columnNumber = table.rowSignature().indexOf(column);
+
+    if (columnNumber < 0) {
+      return NilVectorSelector.create(matchedRows);
+    } else {
+      return new ObjectVectorSelector(columnNumber);
+    }
+  }
+
+  @Nullable
+  @Override
+  public ColumnCapabilities getColumnCapabilities(final String column)
+  {
+    return IndexedTableColumnSelectorFactory.columnCapabilities(table, column);
+  }
+
+  private IndexedTable.Reader makeReader(final int columnNumber)
+  {
+    final IndexedTable.Reader reader = table.columnReader(columnNumber);
+    closer.register(reader);
+    return reader;
+  }
+
+  /**
+   * Like {@link IndexedTableDimensionSelector}, uses row numbers as dictionary ids, and {@link IndexedTable#numRows()}
+   * as the id for null.
+   */
+  private class DimensionVectorSelector implements SingleValueDimensionVectorSelector
+  {
+    private final IndexedTable.Reader columnReader;
+    private final int[] rowVector;
+    private int rowVectorId = NO_ID;
+
+    DimensionVectorSelector(final int columnNumber)
+    {
+      this.columnReader = makeReader(columnNumber);
+      this.rowVector = new int[matchedRows.getMaxVectorSize()];
+    }
+
+    @Override
+    public int[] getRowVector()
+    {
+      if (rowVectorId != matchedRows.getId()) {
+        final int[] rows = matchedRows.getMatchedRows();
+
+        for (int i = 0; i < matchedRows.getCurrentVectorSize(); i++) {
+          rowVector[i] = rows[i] == VectorJoinMatcher.NO_MATCH ? table.numRows() : rows[i];
+        }
+
+        rowVectorId = matchedRows.getId();
+      }
+
+      return rowVector;
+    }
+
+    @Override
+    public int getValueCardinality()
+    {
+      return IndexedTableDimensionSelector.computeDimensionSelectorCardinality(table);
+    }
+
+    @Nullable
+    @Override
+    public String lookupName(final int id)
+    {
+      if (id == table.numRows()) {
+        return null;
+      } else {
+        return DimensionHandlerUtils.convertObjectToString(columnReader.read(id));
+      }
+    }
+
+    @Override
+    public boolean nameLookupPossibleInAdvance()
+    {
+      return true;
+    }
+
+    @Nullable
+    @Override
+    public IdLookup idLookup()
+    {
+      return null;
+    }
+
+    @Override
+    public int getMaxVectorSize()
+    {
+      return matchedRows.getMaxVectorSize();
+    }
+
+    @Override
+    public int getCurrentVectorSize()
+    {
+      return matchedRows.getCurrentVectorSize();
+    }
+  }
+
+  /**
+   * Like {@link IndexedTableColumnValueSelector}, treats any non-numeric value as null.
+   */
+  private class ValueVectorSelector implements VectorValueSelector
+  {
+    private final IndexedTable.Reader columnReader;
+    private final Object[] values;
+    private final boolean[] nulls;
+    private int valuesId = NO_ID;
+
+    @Nullable
+    private long[] longVector;
+    private int longVectorId = NO_ID;
+
+    @Nullable
+    private float[] floatVector;
+    private int floatVectorId = NO_ID;
+
+    @Nullable
+    private double[] doubleVector;
+    private int doubleVectorId = NO_ID;
+
+    ValueVectorSelector(final int columnNumber)
+    {
+      this.columnReader = makeReader(columnNumber);
+      this.values = new Object[matchedRows.getMaxVectorSize()];
+      this.nulls = new boolean[matchedRows.getMaxVectorSize()];
+    }
+
+    @Override
+    public long[] getLongVector()
+    {
+      if (longVectorId != matchedRows.getId()) {
+        if (longVector == null) {
+          longVector = new long[matchedRows.getMaxVectorSize()];
+        }
+
+        readValues();
+
+        for (int i = 0; i < matchedRows.getCurrentVectorSize(); i++) {
+          longVector[i] = nulls[i] ? 0L : ((Number) values[i]).longValue();
+        }
+
+        longVectorId = matchedRows.getId();
+      }
+
+      return longVector;
+    }
+
+    @Override
+    public float[] getFloatVector()
+    {
+      if (floatVectorId != matchedRows.getId()) {
+        if (floatVector == null) {
+          floatVector = new float[matchedRows.getMaxVectorSize()];
+        }
+
+        readValues();
+
+        for (int i = 0; i < matchedRows.getCurrentVectorSize(); i++) {
+          floatVector[i] = nulls[i] ? 0f : ((Number) values[i]).floatValue();
+        }
+
+        floatVectorId = matchedRows.getId();
+      }
+
+      return floatVector;
+    }
+
+    @Override
+    public double[] getDoubleVector()
+    {
+      if (doubleVectorId != matchedRows.getId()) {
+        if (doubleVector == null) {
+          doubleVector = new double[matchedRows.getMaxVectorSize()];
+        }
+
+        readValues();
+
+        for (int i = 0; i < matchedRows.getCurrentVectorSize(); i++) {
+          doubleVector[i] = nulls[i] ? 0d : ((Number) values[i]).doubleValue();
+        }
+
+        doubleVectorId = matchedRows.getId();
+      }
+
+      return doubleVector;
+    }
+
+    @Override
+    public boolean[] getNullVector()
+    {
+      readValues();
+      return nulls;
+    }
+
+    private void readValues()
+    {
+      if (valuesId != matchedRows.getId()) {
+        final int[] rows = matchedRows.getMatchedRows();
+
+        for (int i = 0; i < matchedRows.getCurrentVectorSize(); i++) {
+          final Object value = rows[i] == VectorJoinMatcher.NO_MATCH ? null : columnReader.read(rows[i]);
+          values[i] = value;
+          nulls[i] = !(value instanceof Number);
+        }
+
+        valuesId = matchedRows.getId();
+      }
+    }
+
+    @Override
+    public int getMaxVectorSize()
+    {
+      return matchedRows.getMaxVectorSize();
+    }
+
+    @Override
+    public int getCurrentVectorSize()
+    {
+      return matchedRows.getCurrentVectorSize();
+    }
+  }
+
+  private class ObjectVectorSelector implements VectorObjectSelector
+  {
+    private final IndexedTable.Reader columnReader;
+    private final Object[] objectVector;
+    private int objectVectorId = NO_ID;
+
+    ObjectVectorSelector(final int columnNumber)
+    {
+      this.columnReader = makeReader(columnNumber);
+      this.objectVector = new Object[matchedRows.getMaxVectorSize()];
+    }
+
+    @Override
+    public Object[] getObjectVector()
+    {
+      if (objectVectorId != matchedRows.getId()) {
+        final int[] rows = matchedRows.getMatchedRows();
+
+        for (int i = 0; i < matchedRows.getCurrentVectorSize(); i++) {
+          objectVector[i] = rows[i] == VectorJoinMatcher.NO_MATCH ? null : columnReader.read(rows[i]);
+        }
+
+        objectVectorId = matchedRows.getId();
+      }
+
+      return objectVector;
+    }
+
+    @Override
+    public int getMaxVectorSize()
+    {
+      return matchedRows.getMaxVectorSize();
+    }
+
+    @Override
+    public int getCurrentVectorSize()
+    {
+      return matchedRows.getCurrentVectorSize();
+    }
+  }
+}
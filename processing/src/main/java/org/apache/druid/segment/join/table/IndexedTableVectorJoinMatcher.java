@@ -0,0 +1,319 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.druid.segment.join.table;
+
+import com.google.common.annotations.VisibleForTesting;
+import it.unimi.dsi.fastutil.ints.IntList;
+import org.apache.druid.common.config.NullHandling;
+import org.apache.druid.java.util.common.IAE;
+import org.apache.druid.java.util.common.ISE;
+import org.apache.druid.java.util.common.io.Closer;
+import org.apache.druid.query.dimension.DefaultDimensionSpec;
+import org.apache.druid.segment.ColumnInspector;
+import org.apache.druid.segment.DimensionDictionarySelector;
+import org.apache.druid.segment.column.ColumnCapabilities;
+import org.apache.druid.segment.column.ValueType;
+import org.apache.druid.segment.join.Equality;
+import org.apache.druid.segment.join.JoinConditionAnalysis;
+import org.apache.druid.segment.join.VectorJoinMatcher;
+import org.apache.druid.segment.vector.SingleValueDimensionVectorSelector;
+import org.apache.druid.segment.vector.VectorColumnSelectorFactory;
+import org.apache.druid.segment.vector.VectorSizeInspector;
+import org.apache.druid.segment.vector.VectorValueSelector;
+
+import javax.annotation.Nullable;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Vectorized version of {@link IndexedTableJoinMatcher}. Only supports equi-join conditions on key columns with
+ * unique keys, where the left-hand side of each equality is a direct column reference.
+ */
+public class IndexedTableVectorJoinMatcher implements VectorJoinMatcher
+{
+  // Left-hand dictionaries up to this size have their id -> row mappings cached.
+  @VisibleForTesting
+  static final int CACHE_MAX_SIZE = 65536;
+
+  private static final int UNKNOWN_ROW = -2;
+
+  private final IndexedTable table;
+  private final VectorSizeInspector leftSizeInspector;
+  private final List<KeyMatcher> keyMatchers;
+  private final int[] matches;
+  @Nullable
+  private final int[] scratch;
+  private final Closer closer;
+
+  IndexedTableVectorJoinMatcher(
+      final IndexedTable table,
+      final VectorColumnSelectorFactory leftSelectorFactory,
+      final JoinConditionAnalysis condition,
+      final Closer closer
+  )
+  {
+    this.table = table;
+    this.leftSizeInspector = leftSelectorFactory.getVectorSizeInspector();
+    this.matches = new int[leftSelectorFactory.getMaxVectorSize()];
+    this.closer = closer;
+
+    if (condition.isAlwaysFalse()) {
+      this.keyMatchers = Collections.emptyList();
+      Arrays.fill(matches, NO_MATCH);
+    } else if (canVectorize(table, condition, leftSelectorFactory)) {
+      this.keyMatchers =
+          condition.getEquiConditions()
+                   .stream()
+                   .map(eq -> makeKeyMatcher(getIndex(table, eq), leftSelectorFactory, eq))
+                   .collect(Collectors.toList());
+    } else {
+      throw new IAE(
+          "Cannot build vectorized hash-join matcher on condition: %s",
+          condition.getOriginalExpression()
+      );
+    }
+
+    this.scratch = keyMatchers.size() > 1 ? new int[matches.length] : null;
+  }
+
+  /**
+   * Returns whether a vectorized matcher can be built for the provided condition. See
+   * {@link org.apache.druid.segment.join.Joinable#canVectorizeJoin}.
+   */
+  static boolean canVectorize(
+      final IndexedTable table,
+      final JoinConditionAnalysis condition,
+      final ColumnInspector leftInspector
+  )
+  {
+    if (condition.isAlwaysFalse()) {
+      return true;
+    }
+
+    if (condition.isAlwaysTrue()
+        || !condition.getNonEquiConditions().isEmpty()
+        || condition.getEquiConditions().isEmpty()) {
+      return false;
+    }
+
+    for (Equality equality : condition.getEquiConditions()) {
+      final String leftColumn = equality.getLeftExpr().getBindingIfIdentifier();
+
+      if (leftColumn == null
+          || !table.keyColumns().contains(equality.getRightColumn())
+          || !getIndex(table, equality).areKeysUnique()) {
+        return false;
+      }
+
+      final ColumnCapabilities capabilities = leftInspector.getColumnCapabilities(leftColumn);
+
+      if (capabilities != null && !canMatchKeys(capabilities)) {
+        return false;
+      }
+    }
+
+    return true;
+  }
+
+  @Override
+  public int[] match()
+  {
+    if (keyMatchers.isEmpty()) {
+      // Always-false condition.
+      return matches;
+    }
+
+    final int vectorSize = leftSizeInspector.getCurrentVectorSize();
+    keyMatchers.get(0).match(matches, vectorSize);
+
+    for (int i = 1; i < keyMatchers.size(); i++) {
+      assert scratch != null;
+      keyMatchers.get(i).match(scratch, vectorSize);
+
+      for (int j = 0; j < vectorSize; j++) {
+        if (matches[j] != scratch[j]) {
+          matches[j] = NO_MATCH;
+        }
+      }
+    }
+
+    return matches;
+  }
+
+  @Override
+  public VectorColumnSelectorFactory makeColumnSelectorFactory(final MatchedRows matchedRows)
+  {
+    return new IndexedTableVectorColumnSelectorFactory(table, matchedRows, closer);
+  }
+
+  private static boolean canMatchKeys(final ColumnCapabilities capabilities)
+  {
+    switch (capabilities.getType()) {
+      case STRING:
+        return capabilities.hasMultipleValues().isFalse();
+      case LONG:
+      case FLOAT:
+      case DOUBLE:
+        return true;
+      default:
+        return false;
+    }
+  }
+
+  private static IndexedTable.Index getIndex(final IndexedTable table, final Equality condition)
+  {
+    return table.columnIndex(table.rowSignature().indexOf(condition.getRightColumn()));
+  }
+
+  private static KeyMatcher makeKeyMatcher(
+      final IndexedTable.Index index,
+      final VectorColumnSelectorFactory selectorFactory,
+      final Equality condition
+  )
+  {
+    final String leftColumn = condition.getLeftExpr().getBindingIfIdentifier();
+    final ColumnCapabilities capabilities = selectorFactory.getColumnCapabilities(leftColumn);
+
+    // Nonexistent columns are read as nulls, using whatever selector is natural for the key type.
+    final ValueType leftType = capabilities != null ? capabilities.getType() : index.keyType();
+
+    switch (leftType) {
+      case STRING:
+        return makeDimensionKeyMatcher(
+            index,
+            selectorFactory.makeSingleValueDimensionSelector(DefaultDimensionSpec.of(leftColumn))
+        );
+      case LONG:
+        return makeLongKeyMatcher(index, selectorFactory.makeValueSelector(leftColumn));
+      case FLOAT:
+        return makeFloatKeyMatcher(index, selectorFactory.makeValueSelector(leftColumn));
+      case DOUBLE:
+        return makeDoubleKeyMatcher(index, selectorFactory.makeValueSelector(leftColumn));
+      default:
+        throw new ISE("Cannot build vectorized hash-join matcher on column[%s] of type[%s]", leftColumn, leftType);
+    }
+  }
+
+  private static KeyMatcher makeDimensionKeyMatcher(
+      final IndexedTable.Index index,
+      final SingleValueDimensionVectorSelector selector
+  )
+  {
+    final int cardinality = selector.getValueCardinality();
+
+    if (selector.nameLookupPossibleInAdvance()
+        && cardinality != DimensionDictionarySelector.CARDINALITY_UNKNOWN
+        && cardinality <= CACHE_MAX_SIZE) {
+      // Dictionary ids are valid outside the context of a specific vector, so their rows can be cached.
+      final int[] cache = new int[cardinality];
+      Arrays.fill(cache, UNKNOWN_ROW);
+
+      return (rows, vectorSize) -> {
+        final int[] ids = selector.getRowVector();
+
+        for (int i = 0; i < vectorSize; i++) {
+          final int id = ids[i];
+          int row = cache[id];
+
+          if (row == UNKNOWN_ROW) {
+            row = findUnique(index, selector.lookupName(id));
+            cache[id] = row;
+          }
+
+          rows[i] = row;
+        }
+      };
+    } else {
+      return (rows, vectorSize) -> {
+        final int[] ids = selector.getRowVector();
+
+        for (int i = 0; i < vectorSize; i++) {
+          rows[i] = findUnique(index, selector.lookupName(ids[i]));
+        }
+      };
+    }
+  }
+
+  private static KeyMatcher makeLongKeyMatcher(final IndexedTable.Index index, final VectorValueSelector selector)
+  {
+    final boolean longKeys = index.keyType() == ValueType.LONG;
+
+    return (rows, vectorSize) -> {
+      final long[] values = selector.getLongVector();
+
+      // Like IndexedTableJoinMatcher, nulls are only skipped in SQL-compatible mode. Otherwise, they match the
+      // default value.
+      final boolean[] nulls = NullHandling.sqlCompatible() ? selector.getNullVector() : null;
+
+      for (int i = 0; i < vectorSize; i++) {
+        if (nulls != null && nulls[i]) {
+          rows[i] = NO_MATCH;
+        } else if (longKeys) {
+          rows[i] = index.findUniqueLong(values[i]);
+        } else {
+          rows[i] = findUnique(index, values[i]);
+        }
+      }
+    };
+  }
+
+  private static KeyMatcher makeFloatKeyMatcher(final IndexedTable.Index index, final VectorValueSelector selector)
+  {
+    return (rows, vectorSize) -> {
+      final float[] values = selector.getFloatVector();
+      final boolean[] nulls = NullHandling.sqlCompatible() ? selector.getNullVector() : null;
+
+      for (int i = 0; i < vectorSize; i++) {
+        rows[i] = nulls != null && nulls[i] ? NO_MATCH : findUnique(index, values[i]);
+      }
+    };
+  }
+
+  private static KeyMatcher makeDoubleKeyMatcher(final IndexedTable.Index index, final VectorValueSelector selector)
+  {
+    return (rows, vectorSize) -> {
+      final double[] values = selector.getDoubleVector();
+      final boolean[] nulls = NullHandling.sqlCompatible() ? selector.getNullVector() : null;
+
+      for (int i = 0; i < vectorSize; i++) {
+        rows[i] = nulls != null && nulls[i] ? NO_MATCH : findUnique(index, values[i]);
+      }
+    };
+  }
+
+  private static int findUnique(final IndexedTable.Index index, @Nullable final Object key)
+  {
+    final IntList rows = index.find(key);
+    return rows.isEmpty() ? NO_MATCH : rows.getInt(0);
+  }
+
+  /**
+   * Matches one of the equi-conditions for the current left-hand vector.
+   */
+  private interface KeyMatcher
+  {
+    /**
+     * Fills the first "vectorSize" positions of "rows" with the matching right-hand row, or {@link #NO_MATCH}.
+     */
+    void match(int[] rows, int vectorSize);
+  }
+}
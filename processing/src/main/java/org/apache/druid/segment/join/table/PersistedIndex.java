@@ -0,0 +1,525 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.druid.segment.join.table;
+
+import com.google.common.collect.Lists;
+import com.google.common.primitives.Ints;
+import com.google.common.primitives.UnsignedBytes;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.ints.IntList;
+import it.unimi.dsi.fastutil.ints.IntLists;
+import org.apache.druid.java.util.common.IAE;
+import org.apache.druid.java.util.common.ISE;
+import org.apache.druid.java.util.common.StringUtils;
+import org.apache.druid.segment.DimensionHandlerUtils;
+import org.apache.druid.segment.column.ValueType;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An {@link IndexedTable.Index} stored in a {@link ByteBuffer}, typically memory-mapped from a file written when the
+ * segment was created. See {@link BroadcastSegmentIndexedTable#persistKeyColumnIndexes}. Keys are sorted and found
+ * by binary search, so nothing needs to be built on heap when the index is loaded.
+ *
+ * Layout:
+ *
+ * byte 1       : version
+ * byte 2       : key type, one of the TYPE_ constants
+ * byte 3       : 0x1 if keys are unique, 0x0 otherwise
+ * bytes 4-7    : number of keys, N
+ * bytes 8-11   : number of rows with non-null keys, R
+ * keys         : N longs for long keys, N doubles for float and double keys. For string keys, N + 1 ints giving the
+ *                position of each key in the following UTF-8 bytes, followed by the bytes themselves. String keys are
+ *                sorted by their UTF-8 bytes.
+ * offsets      : N + 1 ints, only if keys are not unique. Rows for key i are rows[offsets[i]] through
+ *                rows[offsets[i + 1] - 1].
+ * rows         : R ints, sorted within each key
+ */
+public class PersistedIndex implements IndexedTable.Index
+{
+  private static final byte VERSION = 0x1;
+
+  private static final byte TYPE_LONG = 0x1;
+  private static final byte TYPE_FLOAT = 0x2;
+  private static final byte TYPE_DOUBLE = 0x3;
+  private static final byte TYPE_STRING = 0x4;
+
+  private final ValueType keyType;
+  private final boolean keysUnique;
+  private final int numKeys;
+
+  @Nullable
+  private final LongBuffer longKeys;
+
+  @Nullable
+  private final DoubleBuffer doubleKeys;
+
+  @Nullable
+  private final IntBuffer stringKeyOffsets;
+
+  @Nullable
+  private final ByteBuffer stringKeyBytes;
+
+  @Nullable
+  private final IntBuffer offsets;
+
+  private final IntBuffer rows;
+
+  private PersistedIndex(
+      final ValueType keyType,
+      final boolean keysUnique,
+      final int numKeys,
+      @Nullable final LongBuffer longKeys,
+      @Nullable final DoubleBuffer doubleKeys,
+      @Nullable final IntBuffer stringKeyOffsets,
+      @Nullable final ByteBuffer stringKeyBytes,
+      @Nullable final IntBuffer offsets,
+      final IntBuffer rows
+  )
+  {
+    this.keyType = keyType;
+    this.keysUnique = keysUnique;
+    this.numKeys = numKeys;
+    this.longKeys = longKeys;
+    this.doubleKeys = doubleKeys;
+    this.stringKeyOffsets = stringKeyOffsets;
+    this.stringKeyBytes = stringKeyBytes;
+    this.offsets = offsets;
+    this.rows = rows;
+  }
+
+  /**
+   * Reads an index written by {@link Builder#writeTo}, starting at the current position of "buffer". Does not copy
+   * the contents of the buffer, nor modify its position.
+   */
+  public static PersistedIndex read(final ByteBuffer buffer)
+  {
+    final ByteBuffer theBuffer = buffer.slice();
+
+    final byte version = theBuffer.get();
+    if (version != VERSION) {
+      throw new IAE("Unknown version[%s]", version);
+    }
+
+    final ValueType keyType = fromTypeCode(theBuffer.get());
+    final boolean keysUnique = theBuffer.get() == 0x1;
+    final int numKeys = theBuffer.getInt();
+    final int numRows = theBuffer.getInt();
+
+    LongBuffer longKeys = null;
+    DoubleBuffer doubleKeys = null;
+    IntBuffer stringKeyOffsets = null;
+    ByteBuffer stringKeyBytes = null;
+
+    switch (keyType) {
+      case LONG:
+        longKeys = slice(theBuffer, numKeys * Long.BYTES).asLongBuffer();
+        break;
+      case FLOAT:
+      case DOUBLE:
+        doubleKeys = slice(theBuffer, numKeys * Double.BYTES).asDoubleBuffer();
+        break;
+      default:
+        stringKeyOffsets = slice(theBuffer, (numKeys + 1) * Integer.BYTES).asIntBuffer();
+        stringKeyBytes = slice(theBuffer, stringKeyOffsets.get(numKeys));
+    }
+
+    final IntBuffer offsets = keysUnique ? null : slice(theBuffer, (numKeys + 1) * Integer.BYTES).asIntBuffer();
+    final IntBuffer rows = slice(theBuffer, numRows * Integer.BYTES).asIntBuffer();
+
+    return new PersistedIndex(
+        keyType,
+        keysUnique,
+        numKeys,
+        longKeys,
+        doubleKeys,
+        stringKeyOffsets,
+        stringKeyBytes,
+        offsets,
+        rows
+    );
+  }
+
+  @Override
+  public ValueType keyType()
+  {
+    return keyType;
+  }
+
+  @Override
+  public boolean areKeysUnique()
+  {
+    return keysUnique;
+  }
+
+  @Override
+  public IntList find(Object key)
+  {
+    final Object convertedKey = DimensionHandlerUtils.convertObjectToType(key, keyType, false);
+
+    if (convertedKey == null) {
+      return IntLists.EMPTY_LIST;
+    }
+
+    final int keyNumber = findKey(convertedKey);
+
+    if (keyNumber < 0) {
+      return IntLists.EMPTY_LIST;
+    } else if (keysUnique) {
+      return IntLists.singleton(rows.get(keyNumber));
+    } else {
+      assert offsets != null;
+      final int start = offsets.get(keyNumber);
+      final int end = offsets.get(keyNumber + 1);
+      final IntArrayList found = new IntArrayList(end - start);
+
+      for (int i = start; i < end; i++) {
+        found.add(rows.get(i));
+      }
+
+      return found;
+    }
+  }
+
+  @Override
+  public int findUniqueLong(long key)
+  {
+    if (longKeys != null && keysUnique) {
+      final int keyNumber = findLongKey(key);
+      return keyNumber < 0 ? NOT_FOUND : rows.get(keyNumber);
+    } else {
+      throw new UnsupportedOperationException();
+    }
+  }
+
+  /**
+   * Returns the position of "key" in the sorted key list, or a negative number if it is not present.
+   */
+  private int findKey(final Object convertedKey)
+  {
+    switch (keyType) {
+      case LONG:
+        return findLongKey((Long) convertedKey);
+      case FLOAT:
+      case DOUBLE:
+        return findDoubleKey(((Number) convertedKey).doubleValue());
+      default:
+        return findStringKey(StringUtils.toUtf8((String) convertedKey));
+    }
+  }
+
+  private int findLongKey(final long key)
+  {
+    assert longKeys != null;
+
+    int low = 0;
+    int high = numKeys - 1;
+
+    while (low <= high) {
+      final int mid = (low + high) >>> 1;
+      final int cmp = Long.compare(longKeys.get(mid), key);
+
+      if (cmp < 0) {
+        low = mid + 1;
+      } else if (cmp > 0) {
+        high = mid - 1;
+      } else {
+        return mid;
+      }
+    }
+
+    return -1;
+  }
+
+  private int findDoubleKey(final double key)
+  {
+    assert doubleKeys != null;
+
+    int low = 0;
+    int high = numKeys - 1;
+
+    while (low <= high) {
+      final int mid = (low + high) >>> 1;
+      final int cmp = Double.compare(doubleKeys.get(mid), key);
+
+      if (cmp < 0) {
+        low = mid + 1;
+      } else if (cmp > 0) {
+        high = mid - 1;
+      } else {
+        return mid;
+      }
+    }
+
+    return -1;
+  }
+
+  private int findStringKey(final byte[] key)
+  {
+    assert stringKeyOffsets != null && stringKeyBytes != null;
+
+    int low = 0;
+    int high = numKeys - 1;
+
+    while (low <= high) {
+      final int mid = (low + high) >>> 1;
+      final int cmp = compareUtf8(stringKeyOffsets.get(mid), stringKeyOffsets.get(mid + 1), key);
+
+      if (cmp < 0) {
+        low = mid + 1;
+      } else if (cmp > 0) {
+        high = mid - 1;
+      } else {
+        return mid;
+      }
+    }
+
+    return -1;
+  }
+
+  /**
+   * Compares stringKeyBytes[start, end) to "key", as unsigned bytes.
+   */
+  private int compareUtf8(final int start, final int end, final byte[] key)
+  {
+    assert stringKeyBytes != null;
+
+    final int length = end - start;
+    final int minLength = Math.min(length, key.length);
+
+    for (int i = 0; i < minLength; i++) {
+      final int cmp = UnsignedBytes.compare(stringKeyBytes.get(start + i), key[i]);
+      if (cmp != 0) {
+        return cmp;
+      }
+    }
+
+    return Integer.compare(length, key.length);
+  }
+
+  private static ByteBuffer slice(final ByteBuffer buffer, final int numBytes)
+  {
+    final ByteBuffer slice = buffer.slice();
+    slice.limit(numBytes);
+    buffer.position(buffer.position() + numBytes);
+    return slice;
+  }
+
+  private static byte toTypeCode(final ValueType keyType)
+  {
+    switch (keyType) {
+      case LONG:
+        return TYPE_LONG;
+      case FLOAT:
+        return TYPE_FLOAT;
+      case DOUBLE:
+        return TYPE_DOUBLE;
+      case STRING:
+        return TYPE_STRING;
+      default:
+        throw new IAE("Cannot persist index with key type[%s]", keyType);
+    }
+  }
+
+  private static ValueType fromTypeCode(final byte typeCode)
+  {
+    switch (typeCode) {
+      case TYPE_LONG:
+        return ValueType.LONG;
+      case TYPE_FLOAT:
+        return ValueType.FLOAT;
+      case TYPE_DOUBLE:
+        return ValueType.DOUBLE;
+      case TYPE_STRING:
+        return ValueType.STRING;
+      default:
+        throw new IAE("Unknown key type code[%s]", typeCode);
+    }
+  }
+
+  /**
+   * Builds and writes a {@link PersistedIndex}. Used the same way as {@link RowBasedIndexBuilder}.
+   */
+  public static class Builder
+  {
+    private final ValueType keyType;
+    private final Map<Object, IntArrayList> index = new HashMap<>();
+    private int currentRow = 0;
+    private int numRows = 0;
+
+    @Nullable
+    private List<Object> sortedKeys = null;
+
+    // UTF-8 bytes of each key in "sortedKeys", for string keys only.
+    @Nullable
+    private List<byte[]> utf8Keys = null;
+
+    public Builder(final ValueType keyType)
+    {
+      this.keyType = keyType;
+
+      // Validate the type up front.
+      toTypeCode(keyType);
+    }
+
+    /**
+     * Add a key to the index. This must be called exactly once per row, even for null values or values that are the
+     * wrong type, because the builder keeps an internal row-number counter.
+     */
+    public Builder add(@Nullable final Object key)
+    {
+      if (sortedKeys != null) {
+        throw new ISE("Cannot add keys after serializing");
+      }
+
+      final Object castKey = DimensionHandlerUtils.convertObjectToType(key, keyType);
+
+      if (castKey != null) {
+        index.computeIfAbsent(castKey, k -> new IntArrayList()).add(currentRow);
+        numRows++;
+      }
+
+      currentRow++;
+      return this;
+    }
+
+    public long getSerializedSize()
+    {
+      prepareForSerialization();
+
+      final long keysSize;
+      if (utf8Keys != null) {
+        long stringBytes = 0;
+        for (byte[] utf8Key : utf8Keys) {
+          stringBytes += utf8Key.length;
+        }
+        keysSize = (long) (utf8Keys.size() + 1) * Integer.BYTES + stringBytes;
+      } else {
+        keysSize = (long) sortedKeys.size() * Long.BYTES;
+      }
+
+      final long offsetsSize = areKeysUnique() ? 0 : (long) (sortedKeys.size() + 1) * Integer.BYTES;
+      return 3 + 2 * Integer.BYTES + keysSize + offsetsSize + (long) numRows * Integer.BYTES;
+    }
+
+    public void writeTo(final WritableByteChannel channel) throws IOException
+    {
+      prepareForSerialization();
+
+      final boolean keysUnique = areKeysUnique();
+      final int numKeys = sortedKeys.size();
+
+      final ByteBuffer header = ByteBuffer.allocate(3 + 2 * Integer.BYTES);
+      header.put(VERSION).put(toTypeCode(keyType)).put(keysUnique ? (byte) 0x1 : (byte) 0x0);
+      header.putInt(numKeys).putInt(numRows);
+      header.flip();
+      channel.write(header);
+
+      if (utf8Keys != null) {
+        final ByteBuffer keyOffsetsBuffer = ByteBuffer.allocate(Ints.checkedCast((long) (numKeys + 1) * Integer.BYTES));
+        int keyOffset = 0;
+        keyOffsetsBuffer.putInt(keyOffset);
+        for (byte[] utf8Key : utf8Keys) {
+          keyOffset = Math.addExact(keyOffset, utf8Key.length);
+          keyOffsetsBuffer.putInt(keyOffset);
+        }
+        keyOffsetsBuffer.flip();
+        channel.write(keyOffsetsBuffer);
+
+        for (byte[] utf8Key : utf8Keys) {
+          channel.write(ByteBuffer.wrap(utf8Key));
+        }
+      } else {
+        final ByteBuffer keysBuffer = ByteBuffer.allocate(Ints.checkedCast((long) numKeys * Long.BYTES));
+        for (Object key : sortedKeys) {
+          if (keyType == ValueType.LONG) {
+            keysBuffer.putLong((Long) key);
+          } else {
+            keysBuffer.putDouble(((Number) key).doubleValue());
+          }
+        }
+        keysBuffer.flip();
+        channel.write(keysBuffer);
+      }
+
+      if (!keysUnique) {
+        final ByteBuffer offsetsBuffer = ByteBuffer.allocate(Ints.checkedCast((long) (numKeys + 1) * Integer.BYTES));
+        int offset = 0;
+        offsetsBuffer.putInt(offset);
+        for (Object key : sortedKeys) {
+          offset += index.get(key).size();
+          offsetsBuffer.putInt(offset);
+        }
+        offsetsBuffer.flip();
+        channel.write(offsetsBuffer);
+      }
+
+      final ByteBuffer rowsBuffer = ByteBuffer.allocate(Ints.checkedCast((long) numRows * Integer.BYTES));
+      for (Object key : sortedKeys) {
+        final IntArrayList keyRows = index.get(key);
+        for (int i = 0; i < keyRows.size(); i++) {
+          rowsBuffer.putInt(keyRows.getInt(i));
+        }
+      }
+      rowsBuffer.flip();
+      channel.write(rowsBuffer);
+    }
+
+    private boolean areKeysUnique()
+    {
+      return index.size() == numRows;
+    }
+
+    private void prepareForSerialization()
+    {
+      if (sortedKeys != null) {
+        return;
+      }
+
+      sortedKeys = new ArrayList<>(index.keySet());
+
+      if (keyType == ValueType.STRING) {
+        final Comparator<byte[]> comparator = UnsignedBytes.lexicographicalComparator();
+        final Map<Object, byte[]> utf8ByKey = new HashMap<>();
+        for (Object key : sortedKeys) {
+          utf8ByKey.put(key, StringUtils.toUtf8((String) key));
+        }
+        sortedKeys.sort((a, b) -> comparator.compare(utf8ByKey.get(a), utf8ByKey.get(b)));
+        utf8Keys = Lists.transform(sortedKeys, utf8ByKey::get);
+      } else if (keyType == ValueType.LONG) {
+        sortedKeys.sort(Comparator.comparingLong(key -> (Long) key));
+      } else {
+        // Float keys are stored as doubles, so sort them the same way.
+        sortedKeys.sort(Comparator.comparingDouble(key -> ((Number) key).doubleValue()));
+      }
+    }
+  }
+}
@@ -21,18 +21,16 @@ package org.apache.druid.segment.join.table;
 
 import com.google.common.primitives.Ints;
 import it.unimi.dsi.fastutil.ints.IntArrayList;
-import it.unimi.dsi.fastutil.ints.IntList;
-import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
-import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.Long2IntMap;
+import it.unimi.dsi.fastutil.longs.Long2IntOpenHashMap;
+import it.unimi.dsi.fastutil.objects.Object2IntMap;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
 import it.unimi.dsi.fastutil.objects.ObjectIterator;
-import org.apache.druid.java.util.common.ISE;
 import org.apache.druid.segment.DimensionHandlerUtils;
 import org.apache.druid.segment.column.ValueType;
 
 import javax.annotation.Nullable;
 import java.util.Arrays;
-import java.util.HashMap;
-import java.util.Map;
 
 /**
  * Utility class for creating {@link IndexedTable.Index} instances.
@@ -41,8 +39,8 @@ import java.util.Map;
  */
 public class RowBasedIndexBuilder
 {
-  // Long2ObjectOpenHashMap<IntList> is (very) roughly 15x bigger than int[] per entry.
-  private static final long INT_ARRAY_SPACE_SAVINGS_FACTOR = 15;
+  // CompactIndex is (very) roughly 5x bigger than int[] per entry, accounting for hash table load factor.
+  private static final long INT_ARRAY_SPACE_SAVINGS_FACTOR = 5;
 
   // A number that is small enough that we shouldn't worry about making a full array for it. (Yields a 1MB array.)
   private static final long INT_ARRAY_SMALL_SIZE_OK = 250_000;
@@ -50,7 +48,19 @@ public class RowBasedIndexBuilder
   private int currentRow = 0;
   private int nullKeys = 0;
   private final ValueType keyType;
-  private final Map<Object, IntList> index;
+
+  // Dictionary of distinct keys. Exactly one of these is nonnull: "longKeyIds" for long-typed keys, "keyIds" for
+  // everything else.
+  @Nullable
+  private final Long2IntOpenHashMap longKeyIds;
+  @Nullable
+  private final Object2IntOpenHashMap<Object> keyIds;
+
+  // Key id of each row, or NO_KEY for null keys.
+  private final IntArrayList rowKeyIds = new IntArrayList();
+
+  // Number of rows for each key id.
+  private final IntArrayList keyCounts = new IntArrayList();
 
   private long minLongKey = Long.MAX_VALUE;
   private long maxLongKey = Long.MIN_VALUE;
@@ -60,13 +70,13 @@ public class RowBasedIndexBuilder
     this.keyType = keyType;
 
     if (keyType == ValueType.LONG) {
-      // We're specializing the type even though we don't specialize usage in this class, for two reasons:
-      //  (1) It's still useful to reduce overall memory footprint.
-      //  (2) MapIndex specifically checks for Long2ObjectMap instances and *does* specialize usage.
-      final Long2ObjectOpenHashMap<IntList> theMap = new Long2ObjectOpenHashMap<>();
-      index = (Map) theMap;
+      longKeyIds = new Long2IntOpenHashMap();
+      longKeyIds.defaultReturnValue(CompactIndex.NO_KEY);
+      keyIds = null;
     } else {
-      index = new HashMap<>();
+      longKeyIds = null;
+      keyIds = new Object2IntOpenHashMap<>();
+      keyIds.defaultReturnValue(CompactIndex.NO_KEY);
     }
   }
 
@@ -80,18 +90,37 @@ public class RowBasedIndexBuilder
     final Object castKey = DimensionHandlerUtils.convertObjectToType(key, keyType);
 
     if (castKey != null) {
-      final IntList rowNums = index.computeIfAbsent(castKey, k -> new IntArrayList());
-      rowNums.add(currentRow);
+      int keyId;
 
-      // Track min, max long value so we can decide later on if it's appropriate to use an array-backed implementation.
-      if (keyType == ValueType.LONG && (long) castKey < minLongKey) {
-        minLongKey = (long) castKey;
-      }
+      if (longKeyIds != null) {
+        final long longKey = (long) castKey;
+        keyId = longKeyIds.get(longKey);
+
+        if (keyId == CompactIndex.NO_KEY) {
+          keyId = keyCounts.size();
+          longKeyIds.put(longKey, keyId);
+          keyCounts.add(0);
+        }
 
-      if (keyType == ValueType.LONG && (long) castKey > maxLongKey) {
-        maxLongKey = (long) castKey;
+        // Track min, max long value so we can decide later on if it's appropriate to use an array-backed
+        // implementation.
+        minLongKey = Math.min(minLongKey, longKey);
+        maxLongKey = Math.max(maxLongKey, longKey);
+      } else {
+        assert keyIds != null;
+        keyId = keyIds.getInt(castKey);
+
+        if (keyId == CompactIndex.NO_KEY) {
+          keyId = keyCounts.size();
+          keyIds.put(castKey, keyId);
+          keyCounts.add(0);
+        }
       }
+
+      keyCounts.set(keyId, keyCounts.getInt(keyId) + 1);
+      rowKeyIds.add(keyId);
     } else {
+      rowKeyIds.add(CompactIndex.NO_KEY);
       nullKeys++;
     }
 
@@ -105,54 +134,128 @@ public class RowBasedIndexBuilder
    */
   public IndexedTable.Index build()
   {
-    final boolean keysUnique = index.size() == currentRow - nullKeys;
+    final int numKeys = keyCounts.size();
+    final boolean keysUnique = numKeys == currentRow - nullKeys;
 
-    if (keyType == ValueType.LONG && keysUnique && index.size() > 0) {
-      // May be a good candidate for UniqueLongArrayIndex. Check the range of values as compared to min and max.
-      long range;
+    if (keysUnique) {
+      // Each key id has exactly one row, so the dictionary can map keys directly to row numbers.
+      final int[] keyRows = new int[numKeys];
 
-      try {
-        // Add 1 so "range" would be equal to the size of the necessary array.
-        range = Math.addExact(Math.subtractExact(maxLongKey, minLongKey), 1);
+      for (int row = 0; row < currentRow; row++) {
+        final int keyId = rowKeyIds.getInt(row);
+        if (keyId != CompactIndex.NO_KEY) {
+          keyRows[keyId] = row;
+        }
       }
-      catch (ArithmeticException e) {
-        // Overflow; way too big.
-        range = 0;
+
+      if (longKeyIds != null && numKeys > 0) {
+        final UniqueLongArrayIndex arrayIndex = maybeMakeUniqueLongArrayIndex(keyRows);
+        if (arrayIndex != null) {
+          // Early return of specialized implementation.
+          return arrayIndex;
+        }
       }
 
-      // Use a UniqueLongArrayIndex if the range of values is small enough.
-      final long rangeThreshold = Math.max(
-          INT_ARRAY_SMALL_SIZE_OK,
-          Math.min(Integer.MAX_VALUE, INT_ARRAY_SPACE_SAVINGS_FACTOR * index.size())
-      );
+      return makeCompactIndex(keyRows, null, null);
+    } else {
+      // Lay out row numbers for each key contiguously: rows for key id "k" are at [offsets[k], offsets[k + 1]) in
+      // "rows". Row numbers are added in order, so each range is sorted.
+      final int[] offsets = new int[numKeys + 1];
+      for (int keyId = 0; keyId < numKeys; keyId++) {
+        offsets[keyId + 1] = offsets[keyId] + keyCounts.getInt(keyId);
+      }
 
-      if (range > 0 && range < rangeThreshold) {
-        final int[] indexAsArray = new int[Ints.checkedCast(range)];
-        Arrays.fill(indexAsArray, IndexedTable.Index.NOT_FOUND);
+      final int[] rows = new int[currentRow - nullKeys];
+      final int[] positions = Arrays.copyOf(offsets, numKeys);
 
-        // Safe to cast to Long2ObjectMap because the constructor always uses one for long-typed keys.
-        final ObjectIterator<Long2ObjectMap.Entry<IntList>> entries =
-            ((Long2ObjectMap<IntList>) ((Map) index)).long2ObjectEntrySet().iterator();
+      for (int row = 0; row < currentRow; row++) {
+        final int keyId = rowKeyIds.getInt(row);
+        if (keyId != CompactIndex.NO_KEY) {
+          rows[positions[keyId]++] = row;
+        }
+      }
 
-        while (entries.hasNext()) {
-          final Long2ObjectMap.Entry<IntList> entry = entries.next();
-          final IntList rowNums = entry.getValue();
+      return makeCompactIndex(null, offsets, rows);
+    }
+  }
 
-          if (rowNums.size() != 1) {
-            throw new ISE("Expected single element");
-          }
+  /**
+   * Returns a {@link UniqueLongArrayIndex} if the range of values is small enough, otherwise null.
+   */
+  @Nullable
+  private UniqueLongArrayIndex maybeMakeUniqueLongArrayIndex(final int[] keyRows)
+  {
+    assert longKeyIds != null;
 
-          indexAsArray[Ints.checkedCast(entry.getLongKey() - minLongKey)] = rowNums.getInt(0);
-          entries.remove();
-        }
+    // May be a good candidate for UniqueLongArrayIndex. Check the range of values as compared to min and max.
+    long range;
 
-        assert index.isEmpty();
+    try {
+      // Add 1 so "range" would be equal to the size of the necessary array.
+      range = Math.addExact(Math.subtractExact(maxLongKey, minLongKey), 1);
+    }
+    catch (ArithmeticException e) {
+      // Overflow; way too big.
+      range = 0;
+    }
+
+    final long rangeThreshold = Math.max(
+        INT_ARRAY_SMALL_SIZE_OK,
+        Math.min(Integer.MAX_VALUE, INT_ARRAY_SPACE_SAVINGS_FACTOR * longKeyIds.size())
+    );
 
-        // Early return of specialized implementation.
-        return new UniqueLongArrayIndex(indexAsArray, minLongKey);
+    if (range > 0 && range < rangeThreshold) {
+      final int[] indexAsArray = new int[Ints.checkedCast(range)];
+      Arrays.fill(indexAsArray, IndexedTable.Index.NOT_FOUND);
+
+      final ObjectIterator<Long2IntMap.Entry> entries = longKeyIds.long2IntEntrySet().fastIterator();
+
+      while (entries.hasNext()) {
+        final Long2IntMap.Entry entry = entries.next();
+        indexAsArray[Ints.checkedCast(entry.getLongKey() - minLongKey)] = keyRows[entry.getIntValue()];
       }
+
+      return new UniqueLongArrayIndex(indexAsArray, minLongKey);
+    } else {
+      return null;
     }
+  }
+
+  /**
+   * Creates a {@link CompactIndex} from the key dictionary. If "keyRows" is provided, keys are unique and the
+   * dictionary is rewritten in place to map each key to its row. Otherwise, "offsets" and "rows" hold the row numbers
+   * for each key id.
+   */
+  private CompactIndex makeCompactIndex(
+      @Nullable final int[] keyRows,
+      @Nullable final int[] offsets,
+      @Nullable final int[] rows
+  )
+  {
+    if (longKeyIds != null) {
+      if (keyRows != null) {
+        final ObjectIterator<Long2IntMap.Entry> entries = longKeyIds.long2IntEntrySet().fastIterator();
+        while (entries.hasNext()) {
+          final Long2IntMap.Entry entry = entries.next();
+          entry.setValue(keyRows[entry.getIntValue()]);
+        }
+      }
+
+      longKeyIds.trim();
+      return new CompactIndex(keyType, longKeyIds, null, offsets, rows);
+    } else {
+      assert keyIds != null;
 
-    return new MapIndex(keyType, index, keysUnique);
+      if (keyRows != null) {
+        final ObjectIterator<Object2IntMap.Entry<Object>> entries = keyIds.object2IntEntrySet().fastIterator();
+        while (entries.hasNext()) {
+          final Object2IntMap.Entry<Object> entry = entries.next();
+          entry.setValue(keyRows[entry.getIntValue()]);
+        }
+      }
+
+      keyIds.trim();
+      return new CompactIndex(keyType, null, keyIds, offsets, rows);
+    }
   }
 }
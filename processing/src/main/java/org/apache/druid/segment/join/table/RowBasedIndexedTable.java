@@ -37,7 +37,7 @@ import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
- * An IndexedTable composed of a List-based table and Map-based indexes. The implementation is agnostic to the
+ * An IndexedTable composed of a List-based table and hash-based indexes. The implementation is agnostic to the
  * specific row type; it uses a {@link RowAdapter} to work with any sort of object.
  * The class allows passing in a cache key. If the key is non-null, results of any join on this table can be cached.
  * That cache becomes invalidated if this key changes. Creators of this class can pass in a non-null cache key if its
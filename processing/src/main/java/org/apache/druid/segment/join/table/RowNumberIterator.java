@@ -0,0 +1,94 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.druid.segment.join.table;
+
+import it.unimi.dsi.fastutil.ints.AbstractIntIterator;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.ints.IntList;
+import it.unimi.dsi.fastutil.ints.IntLists;
+
+import java.util.NoSuchElementException;
+
+/**
+ * A reusable iterator over a range of an {@link IntList} of row numbers, filled in by
+ * {@link IndexedTable.Index#find(Object, RowNumberIterator)}. Reusing one instance per caller lets indexes return
+ * the rows for a key without allocating a list or an iterator on every lookup.
+ */
+public class RowNumberIterator extends AbstractIntIterator
+{
+  private final IntArrayList single = IntArrayList.wrap(new int[1]);
+
+  private IntList rows = IntLists.EMPTY_LIST;
+  private int position;
+  private int end;
+
+  /**
+   * Resets this iterator to the elements of "rows" from "start" (inclusive) to "end" (exclusive), and returns it.
+   * The list is not copied, so it must not change while it is being iterated.
+   */
+  public RowNumberIterator reset(final IntList rows, final int start, final int end)
+  {
+    this.rows = rows;
+    this.position = start;
+    this.end = end;
+    return this;
+  }
+
+  /**
+   * Resets this iterator to all elements of "rows", and returns it.
+   */
+  public RowNumberIterator reset(final IntList rows)
+  {
+    return reset(rows, 0, rows.size());
+  }
+
+  /**
+   * Resets this iterator to a single row number, and returns it.
+   */
+  public RowNumberIterator resetSingle(final int row)
+  {
+    single.set(0, row);
+    return reset(single, 0, 1);
+  }
+
+  /**
+   * Resets this iterator to no row numbers, and returns it.
+   */
+  public RowNumberIterator resetEmpty()
+  {
+    return reset(IntLists.EMPTY_LIST, 0, 0);
+  }
+
+  @Override
+  public boolean hasNext()
+  {
+    return position < end;
+  }
+
+  @Override
+  public int nextInt()
+  {
+    if (position >= end) {
+      throw new NoSuchElementException();
+    }
+
+    return rows.getInt(position++);
+  }
+}
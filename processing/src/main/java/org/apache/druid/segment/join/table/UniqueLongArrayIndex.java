@@ -75,6 +75,21 @@ public class UniqueLongArrayIndex implements IndexedTable.Index
     return IntLists.EMPTY_LIST;
   }
 
+  @Override
+  public RowNumberIterator find(Object key, RowNumberIterator iterator)
+  {
+    final Long longKey = DimensionHandlerUtils.convertObjectToLong(key);
+
+    if (longKey != null) {
+      final int row = findUniqueLong(longKey);
+      if (row >= 0) {
+        return iterator.resetSingle(row);
+      }
+    }
+
+    return iterator.resetEmpty();
+  }
+
   @Override
   public int findUniqueLong(long key)
   {
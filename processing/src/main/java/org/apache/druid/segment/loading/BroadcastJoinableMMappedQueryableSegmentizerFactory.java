@@ -22,32 +22,57 @@ package org.apache.druid.segment.loading;
 import com.fasterxml.jackson.annotation.JacksonInject;
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import org.apache.druid.java.util.common.guava.CloseQuietly;
+import org.apache.druid.java.util.common.io.smoosh.FileSmoosher;
 import org.apache.druid.segment.IndexIO;
+import org.apache.druid.segment.QueryableIndex;
 import org.apache.druid.segment.QueryableIndexSegment;
 import org.apache.druid.segment.Segment;
+import org.apache.druid.segment.SimpleQueryableIndex;
 import org.apache.druid.segment.join.table.BroadcastSegmentIndexedTable;
 import org.apache.druid.segment.join.table.IndexedTable;
 import org.apache.druid.timeline.DataSegment;
+import org.apache.druid.timeline.SegmentId;
 
 import javax.annotation.Nullable;
 import java.io.File;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 
+/**
+ * A {@link SegmentizerFactory} for segments of broadcast tables that can be used as the right-hand side of joins. Loaded
+ * segments can be viewed as an {@link IndexedTable} through {@link Segment#as}.
+ *
+ * If "persistJoinIndex" is set, indexes of the key columns are written to the smooshed file
+ * {@link #JOIN_INDEX_FILE_NAME} when segments are merged, see {@link #writeMergedSegmentFiles}. That file is
+ * memory-mapped when the segment is loaded, rather than building the indexes on heap.
+ */
 public class BroadcastJoinableMMappedQueryableSegmentizerFactory implements SegmentizerFactory
 {
+  public static final String JOIN_INDEX_FILE_NAME = "join_index.bin";
+
   private final IndexIO indexIO;
   private final Set<String> keyColumns;
+  private final boolean persistJoinIndex;
 
   @JsonCreator
   public BroadcastJoinableMMappedQueryableSegmentizerFactory(
       @JacksonInject IndexIO indexIO,
-      @JsonProperty("keyColumns") Set<String> keyColumns
+      @JsonProperty("keyColumns") Set<String> keyColumns,
+      @JsonProperty("persistJoinIndex") @Nullable Boolean persistJoinIndex
   )
   {
     this.indexIO = indexIO;
     this.keyColumns = keyColumns;
+    this.persistJoinIndex = persistJoinIndex != null && persistJoinIndex;
+  }
+
+  public BroadcastJoinableMMappedQueryableSegmentizerFactory(IndexIO indexIO, Set<String> keyColumns)
+  {
+    this(indexIO, keyColumns, null);
   }
 
   @JsonProperty
@@ -56,27 +81,68 @@ public class BroadcastJoinableMMappedQueryableSegmentizerFactory implements Segm
     return keyColumns;
   }
 
+  @JsonProperty
+  public boolean isPersistJoinIndex()
+  {
+    return persistJoinIndex;
+  }
+
+  @Override
+  public boolean hasMergedSegmentFiles()
+  {
+    return persistJoinIndex;
+  }
+
+  @Override
+  public void writeMergedSegmentFiles(QueryableIndex index, FileSmoosher smoosher) throws IOException
+  {
+    // The segment is closed by the caller, along with "index".
+    final QueryableIndexSegment segment = new QueryableIndexSegment(index, SegmentId.dummy(JOIN_INDEX_FILE_NAME));
+    BroadcastSegmentIndexedTable.persistKeyColumnIndexes(segment, keyColumns, smoosher, JOIN_INDEX_FILE_NAME);
+  }
+
   @Override
   public Segment factorize(DataSegment dataSegment, File parentDir, boolean lazy) throws SegmentLoadingException
   {
+    QueryableIndex index = null;
+
     try {
-      return new QueryableIndexSegment(indexIO.loadIndex(parentDir, lazy), dataSegment.getId()) {
+      index = indexIO.loadIndex(parentDir, lazy);
+      final Map<String, IndexedTable.Index> persistedIndexes = readJoinIndex(index);
+
+      return new QueryableIndexSegment(index, dataSegment.getId()) {
         @Nullable
         @Override
         public <T> T as(Class<T> clazz)
         {
           if (clazz.equals(IndexedTable.class)) {
-            return (T) new BroadcastSegmentIndexedTable(this, keyColumns, dataSegment.getVersion());
+            return (T) new BroadcastSegmentIndexedTable(this, keyColumns, dataSegment.getVersion(), persistedIndexes);
           }
           return super.as(clazz);
         }
       };
     }
     catch (IOException e) {
+      CloseQuietly.close(index);
       throw new SegmentLoadingException(e, "%s", e.getMessage());
     }
   }
 
+  /**
+   * Reads the indexes written by {@link #writeMergedSegmentFiles}, or returns null if the segment has none. The
+   * indexes are mapped along with the rest of the segment's smoosh files, and unmapped when "index" is closed.
+   */
+  @Nullable
+  private static Map<String, IndexedTable.Index> readJoinIndex(QueryableIndex index) throws IOException
+  {
+    if (!(index instanceof SimpleQueryableIndex)) {
+      return null;
+    }
+
+    final ByteBuffer joinIndexBuffer = ((SimpleQueryableIndex) index).getFileMapper().mapFile(JOIN_INDEX_FILE_NAME);
+    return joinIndexBuffer != null ? BroadcastSegmentIndexedTable.readKeyColumnIndexes(joinIndexBuffer) : null;
+  }
+
   @Override
   public boolean equals(Object o)
   {
@@ -87,12 +153,13 @@ public class BroadcastJoinableMMappedQueryableSegmentizerFactory implements Segm
       return false;
     }
     BroadcastJoinableMMappedQueryableSegmentizerFactory that = (BroadcastJoinableMMappedQueryableSegmentizerFactory) o;
-    return Objects.equals(keyColumns, that.keyColumns);
+    return persistJoinIndex == that.persistJoinIndex &&
+           Objects.equals(keyColumns, that.keyColumns);
   }
 
   @Override
   public int hashCode()
   {
-    return Objects.hash(keyColumns);
+    return Objects.hash(keyColumns, persistJoinIndex);
   }
 }
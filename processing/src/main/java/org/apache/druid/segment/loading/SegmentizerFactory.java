@@ -20,10 +20,13 @@
 package org.apache.druid.segment.loading;
 
 import com.fasterxml.jackson.annotation.JsonTypeInfo;
+import org.apache.druid.java.util.common.io.smoosh.FileSmoosher;
+import org.apache.druid.segment.QueryableIndex;
 import org.apache.druid.segment.Segment;
 import org.apache.druid.timeline.DataSegment;
 
 import java.io.File;
+import java.io.IOException;
 
 /**
  * Factory that loads segment files from the disk and creates {@link Segment} object
@@ -32,4 +35,27 @@ import java.io.File;
 public interface SegmentizerFactory
 {
   Segment factorize(DataSegment segment, File parentDir, boolean lazy) throws SegmentLoadingException;
+
+  /**
+   * Whether {@link #writeMergedSegmentFiles} should be called for segments merged with this factory in their
+   * {@link org.apache.druid.segment.IndexSpec}.
+   */
+  default boolean hasMergedSegmentFiles()
+  {
+    return false;
+  }
+
+  /**
+   * Called by {@link org.apache.druid.segment.IndexMergerV9} after it has written the columns of a merged segment that
+   * will be loaded by this factory, if {@link #hasMergedSegmentFiles} is true. It is not called for intermediate
+   * persists. Files added to "smoosher" are stored in the segment's smoosh files, where {@link #factorize} can map
+   * them.
+   *
+   * @param index    the merged segment, as written so far
+   * @param smoosher the smoosher the segment is being written to
+   */
+  default void writeMergedSegmentFiles(QueryableIndex index, FileSmoosher smoosher) throws IOException
+  {
+    // Nothing to write by default.
+  }
 }
@@ -23,6 +23,9 @@ import com.fasterxml.jackson.annotation.JsonSubTypes;
 import com.fasterxml.jackson.annotation.JsonTypeInfo;
 import org.apache.druid.guice.annotations.ExtensionPoint;
 
+import javax.annotation.Nullable;
+import java.util.Set;
+
 /**
  * A row transform that is part of a {@link TransformSpec}. Transforms allow adding new fields to input rows. Each
  * one has a "name" (the name of the new field) which can be referred to by DimensionSpecs, AggregatorFactories, etc.
@@ -52,4 +55,14 @@ public interface Transform
    * as output.
    */
   RowFunction getRowFunction();
+
+  /**
+   * Returns the names of the input fields read by this transform, or null if they are not known. Readers may skip
+   * parsing input fields which are not used by ingestion, so transforms which return null disable that optimization.
+   */
+  @Nullable
+  default Set<String> getRequiredColumns()
+  {
+    return null;
+  }
 }
@@ -94,6 +94,27 @@ public class TransformSpec
     return transforms;
   }
 
+  /**
+   * Returns the names of the input fields read by the filter and the transforms of this spec, or null if some of them
+   * are not known. See {@link Transform#getRequiredColumns()}.
+   */
+  @Nullable
+  public Set<String> getRequiredColumns()
+  {
+    final Set<String> requiredColumns = new HashSet<>();
+    if (filter != null) {
+      requiredColumns.addAll(filter.getRequiredColumns());
+    }
+    for (Transform transform : transforms) {
+      final Set<String> transformColumns = transform.getRequiredColumns();
+      if (transformColumns == null) {
+        return null;
+      }
+      requiredColumns.addAll(transformColumns);
+    }
+    return requiredColumns;
+  }
+
   public <T> InputRowParser<T> decorate(final InputRowParser<T> parser)
   {
     // Always decorates, even if the transformSpec is a no-op. This is so fromInputRowParser can insist that the
@@ -23,6 +23,7 @@ import com.google.common.base.Preconditions;
 import org.apache.druid.math.expr.Expr;
 import org.apache.druid.math.expr.ExprType;
 import org.apache.druid.math.expr.vector.ExprVectorProcessor;
+import org.apache.druid.query.dimension.DefaultDimensionSpec;
 import org.apache.druid.query.expression.ExprUtils;
 import org.apache.druid.segment.column.ColumnCapabilities;
 import org.apache.druid.segment.column.ValueType;
@@ -32,6 +33,7 @@ import org.apache.druid.segment.vector.VectorColumnSelectorFactory;
 import org.apache.druid.segment.vector.VectorObjectSelector;
 import org.apache.druid.segment.vector.VectorValueSelector;
 
+import javax.annotation.Nullable;
 import java.util.List;
 
 public class ExpressionVectorSelectors
@@ -48,13 +50,21 @@ public class ExpressionVectorSelectors
   {
     final ExpressionPlan plan = ExpressionPlanner.plan(factory, expression);
     Preconditions.checkArgument(plan.is(ExpressionPlan.Trait.VECTORIZABLE));
-    // only constant expressions are currently supported, nothing else should get here
+    // only constant and single dictionary encoded string input expressions are currently supported, nothing else
+    // should get here
 
     if (plan.isConstant()) {
       String constant = plan.getExpression().eval(ExprUtils.nilBindings()).asString();
       return ConstantVectorSelectors.singleValueDimensionVectorSelector(factory.getVectorSizeInspector(), constant);
     }
-    throw new IllegalStateException("Only constant expressions currently support dimension selectors");
+
+    final SingleStringInputCachingExpressionVectorSelector cachingSelector = makeCachingSelector(factory, plan);
+    if (cachingSelector != null) {
+      return cachingSelector;
+    }
+    throw new IllegalStateException(
+        "Only constant and single string input expressions currently support dimension selectors"
+    );
   }
 
   public static VectorValueSelector makeVectorValueSelector(
@@ -71,6 +81,12 @@ public class ExpressionVectorSelectors
           (Number) plan.getExpression().eval(ExprUtils.nilBindings()).value()
       );
     }
+
+    final SingleStringInputCachingExpressionVectorSelector cachingSelector = makeCachingSelector(factory, plan);
+    if (cachingSelector != null) {
+      return cachingSelector;
+    }
+
     final Expr.VectorInputBinding bindings = createVectorBindings(plan.getAnalysis(), factory);
     final ExprVectorProcessor<?> processor = plan.getExpression().buildVectorized(bindings);
     return new ExpressionVectorValueSelector(processor, bindings);
@@ -91,11 +107,37 @@ public class ExpressionVectorSelectors
       );
     }
 
+    final SingleStringInputCachingExpressionVectorSelector cachingSelector = makeCachingSelector(factory, plan);
+    if (cachingSelector != null) {
+      return cachingSelector;
+    }
+
     final Expr.VectorInputBinding bindings = createVectorBindings(plan.getAnalysis(), factory);
     final ExprVectorProcessor<?> processor = plan.getExpression().buildVectorized(bindings);
     return new ExpressionVectorObjectSelector(processor, bindings);
   }
 
+  /**
+   * Expressions on a single, single valued, dictionary encoded string column only need to be evaluated once per
+   * dictionary id, instead of once per row. Returns null if the plan or the column's selector does not allow this.
+   */
+  @Nullable
+  private static SingleStringInputCachingExpressionVectorSelector makeCachingSelector(
+      VectorColumnSelectorFactory factory,
+      ExpressionPlan plan
+  )
+  {
+    if (plan.is(ExpressionPlan.Trait.SINGLE_INPUT_SCALAR) && plan.getSingleInputType() == ValueType.STRING) {
+      final SingleValueDimensionVectorSelector inputSelector =
+          factory.makeSingleValueDimensionSelector(DefaultDimensionSpec.of(plan.getSingleInputName()));
+
+      if (SingleStringInputCachingExpressionVectorSelector.canCache(inputSelector)) {
+        return new SingleStringInputCachingExpressionVectorSelector(inputSelector, plan.getExpression());
+      }
+    }
+    return null;
+  }
+
   private static Expr.VectorInputBinding createVectorBindings(
       Expr.BindingAnalysis bindingAnalysis,
       VectorColumnSelectorFactory vectorColumnSelectorFactory
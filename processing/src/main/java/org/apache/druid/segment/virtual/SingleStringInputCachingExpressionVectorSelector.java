@@ -0,0 +1,252 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.druid.segment.virtual;
+
+import com.google.common.base.Preconditions;
+import org.apache.druid.java.util.common.ISE;
+import org.apache.druid.math.expr.Expr;
+import org.apache.druid.math.expr.ExprEval;
+import org.apache.druid.segment.DimensionDictionarySelector;
+import org.apache.druid.segment.IdLookup;
+import org.apache.druid.segment.vector.SingleValueDimensionVectorSelector;
+import org.apache.druid.segment.vector.VectorObjectSelector;
+import org.apache.druid.segment.vector.VectorValueSelector;
+
+import javax.annotation.Nullable;
+
+/**
+ * Vectorized version of {@link SingleStringInputCachingExpressionColumnValueSelector} and
+ * {@link SingleStringInputDimensionSelector}. Evaluates an expression on a single-valued, dictionary encoded string
+ * column once per dictionary id, rather than once per row, caching results for the first CACHE_SIZE ids. As a
+ * dimension selector, passes the underlying dictionary ids through and only evaluates the expression in
+ * {@link #lookupName}, so the values it produces are not necessarily unique. Must only be used on selectors with
+ * dictionaries, see {@link #canCache}.
+ */
+public class SingleStringInputCachingExpressionVectorSelector
+    implements SingleValueDimensionVectorSelector, VectorValueSelector, VectorObjectSelector
+{
+  private static final int CACHE_SIZE = 1000;
+
+  private final SingleValueDimensionVectorSelector selector;
+  private final Expr expression;
+  private final Expr.ObjectBinding bindings;
+  private final ExprEval[] evals;
+  @Nullable
+  private final ExprEval[] arrayEvalCache;
+  @Nullable
+  private final SingleStringInputCachingExpressionColumnValueSelector.LruEvalCache lruEvalCache;
+
+  // Dictionary id currently being evaluated; read lazily so cache hits do not need to look up the input value.
+  private int currentId;
+
+  @Nullable
+  private long[] longVector;
+  @Nullable
+  private float[] floatVector;
+  @Nullable
+  private double[] doubleVector;
+  @Nullable
+  private boolean[] nullVector;
+  @Nullable
+  private Object[] objectVector;
+
+  public SingleStringInputCachingExpressionVectorSelector(
+      final SingleValueDimensionVectorSelector selector,
+      final Expr expression
+  )
+  {
+    // Verify expression has just one binding.
+    if (expression.analyzeInputs().getRequiredBindings().size() != 1) {
+      throw new ISE("Expected expression with just one binding");
+    }
+
+    if (!canCache(selector)) {
+      throw new ISE("Selector of class[%s] does not have a dictionary, cannot use it.", selector.getClass().getName());
+    }
+
+    this.selector = Preconditions.checkNotNull(selector, "selector");
+    this.expression = Preconditions.checkNotNull(expression, "expression");
+    this.evals = new ExprEval[selector.getMaxVectorSize()];
+
+    this.bindings = name -> selector.lookupName(currentId);
+
+    if (selector.getValueCardinality() <= CACHE_SIZE) {
+      arrayEvalCache = new ExprEval[selector.getValueCardinality()];
+      lruEvalCache = null;
+    } else {
+      arrayEvalCache = null;
+      lruEvalCache = new SingleStringInputCachingExpressionColumnValueSelector.LruEvalCache(expression, bindings);
+    }
+  }
+
+  /**
+   * Returns whether the provided selector has a dictionary that this class can cache results of.
+   */
+  public static boolean canCache(final SingleValueDimensionVectorSelector selector)
+  {
+    return selector.getValueCardinality() != DimensionDictionarySelector.CARDINALITY_UNKNOWN
+           && selector.nameLookupPossibleInAdvance();
+  }
+
+  /**
+   * Get the underlying selector row vector. Use {@link #lookupName} to get the expression result for an id.
+   */
+  @Override
+  public int[] getRowVector()
+  {
+    return selector.getRowVector();
+  }
+
+  @Override
+  public int getValueCardinality()
+  {
+    return selector.getValueCardinality();
+  }
+
+  @Nullable
+  @Override
+  public String lookupName(final int id)
+  {
+    return eval(id).asString();
+  }
+
+  @Override
+  public boolean nameLookupPossibleInAdvance()
+  {
+    return true;
+  }
+
+  @Nullable
+  @Override
+  public IdLookup idLookup()
+  {
+    return null;
+  }
+
+  @Override
+  public long[] getLongVector()
+  {
+    if (longVector == null) {
+      longVector = new long[evals.length];
+    }
+
+    final ExprEval[] vector = evalVector();
+    for (int i = 0; i < selector.getCurrentVectorSize(); i++) {
+      longVector[i] = vector[i].asLong();
+    }
+    return longVector;
+  }
+
+  @Override
+  public float[] getFloatVector()
+  {
+    if (floatVector == null) {
+      floatVector = new float[evals.length];
+    }
+
+    final ExprEval[] vector = evalVector();
+    for (int i = 0; i < selector.getCurrentVectorSize(); i++) {
+      floatVector[i] = (float) vector[i].asDouble();
+    }
+    return floatVector;
+  }
+
+  @Override
+  public double[] getDoubleVector()
+  {
+    if (doubleVector == null) {
+      doubleVector = new double[evals.length];
+    }
+
+    final ExprEval[] vector = evalVector();
+    for (int i = 0; i < selector.getCurrentVectorSize(); i++) {
+      doubleVector[i] = vector[i].asDouble();
+    }
+    return doubleVector;
+  }
+
+  @Nullable
+  @Override
+  public boolean[] getNullVector()
+  {
+    if (nullVector == null) {
+      nullVector = new boolean[evals.length];
+    }
+
+    // Like SingleStringInputCachingExpressionColumnValueSelector#isNull, a non-null string may still be a null number.
+    final ExprEval[] vector = evalVector();
+    for (int i = 0; i < selector.getCurrentVectorSize(); i++) {
+      nullVector[i] = vector[i].isNumericNull();
+    }
+    return nullVector;
+  }
+
+  @Override
+  public Object[] getObjectVector()
+  {
+    if (objectVector == null) {
+      objectVector = new Object[evals.length];
+    }
+
+    final ExprEval[] vector = evalVector();
+    for (int i = 0; i < selector.getCurrentVectorSize(); i++) {
+      objectVector[i] = vector[i].value();
+    }
+    return objectVector;
+  }
+
+  @Override
+  public int getMaxVectorSize()
+  {
+    return selector.getMaxVectorSize();
+  }
+
+  @Override
+  public int getCurrentVectorSize()
+  {
+    return selector.getCurrentVectorSize();
+  }
+
+  private ExprEval[] evalVector()
+  {
+    final int[] ids = selector.getRowVector();
+
+    for (int i = 0; i < selector.getCurrentVectorSize(); i++) {
+      evals[i] = eval(ids[i]);
+    }
+
+    return evals;
+  }
+
+  private ExprEval eval(final int id)
+  {
+    currentId = id;
+
+    if (arrayEvalCache != null) {
+      if (arrayEvalCache[id] == null) {
+        arrayEvalCache[id] = expression.eval(bindings);
+      }
+      return arrayEvalCache[id];
+    } else {
+      assert lruEvalCache != null;
+      return lruEvalCache.compute(id);
+    }
+  }
+}
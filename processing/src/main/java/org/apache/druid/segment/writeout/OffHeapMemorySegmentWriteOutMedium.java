@@ -35,6 +35,12 @@ public final class OffHeapMemorySegmentWriteOutMedium implements SegmentWriteOut
     return writeOutBytes;
   }
 
+  @Override
+  public SegmentWriteOutMedium makeChildWriteOutMedium()
+  {
+    return closer.register(new OffHeapMemorySegmentWriteOutMedium());
+  }
+
   @Override
   public Closer getCloser()
   {
@@ -35,6 +35,12 @@ public final class OnHeapMemorySegmentWriteOutMedium implements SegmentWriteOutM
     return new HeapByteBufferWriteOutBytes();
   }
 
+  @Override
+  public SegmentWriteOutMedium makeChildWriteOutMedium()
+  {
+    return closer.register(new OnHeapMemorySegmentWriteOutMedium());
+  }
+
   @Override
   public Closer getCloser()
   {
@@ -39,6 +39,14 @@ public interface SegmentWriteOutMedium extends Closeable
    */
   WriteOutBytes makeWriteOutBytes() throws IOException;
 
+  /**
+   * Creates a new child SegmentWriteOutMedium, which is closed when this SegmentWriteOutMedium is closed. Implementations
+   * of SegmentWriteOutMedium are not thread-safe; child mediums allow to write different parts of a segment from
+   * different threads, each of them using its own child medium. Child mediums must be created from the thread which
+   * owns this SegmentWriteOutMedium.
+   */
+  SegmentWriteOutMedium makeChildWriteOutMedium() throws IOException;
+
   /**
    * Returns a closer of this SegmentWriteOutMedium, which is closed in this SegmentWriteOutMedium's close() method.
    * Could be used to "attach" some random resources to this SegmentWriteOutMedium, to be closed at the same time.
@@ -25,6 +25,7 @@ import org.apache.druid.java.util.common.io.Closer;
 import java.io.File;
 import java.io.IOException;
 import java.nio.channels.FileChannel;
+import java.nio.file.Files;
 import java.nio.file.StandardOpenOption;
 
 public final class TmpFileSegmentWriteOutMedium implements SegmentWriteOutMedium
@@ -54,6 +55,14 @@ public final class TmpFileSegmentWriteOutMedium implements SegmentWriteOutMedium
     return new FileWriteOutBytes(file, ch);
   }
 
+  @Override
+  public SegmentWriteOutMedium makeChildWriteOutMedium() throws IOException
+  {
+    // Each child gets its own directory, because closing a medium deletes its whole temporary files directory.
+    File childDir = Files.createTempDirectory(dir.toPath(), "child").toFile();
+    return closer.register(new TmpFileSegmentWriteOutMedium(childDir));
+  }
+
   @Override
   public Closer getCloser()
   {
@@ -0,0 +1,210 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.druid.query;
+
+import com.google.common.collect.ImmutableList;
+import org.apache.druid.segment.column.RowSignature;
+import org.apache.druid.segment.column.ValueType;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import javax.annotation.Nullable;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+@RunWith(Parameterized.class)
+public class OffHeapRowListTest
+{
+  private static final RowSignature SIGNATURE =
+      RowSignature.builder()
+                  .addTimeColumn()
+                  .add("s", ValueType.STRING)
+                  .add("f", ValueType.FLOAT)
+                  .add("d", ValueType.DOUBLE)
+                  .add("a", ValueType.STRING_ARRAY)
+                  .add("u", null)
+                  .build();
+
+  @Rule
+  public ExpectedException expectedException = ExpectedException.none();
+
+  @Rule
+  public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  private final boolean spillToDisk;
+
+  public OffHeapRowListTest(final boolean spillToDisk)
+  {
+    this.spillToDisk = spillToDisk;
+  }
+
+  @Parameterized.Parameters(name = "spillToDisk = {0}")
+  public static Iterable<Object[]> constructorFeeder()
+  {
+    return ImmutableList.of(new Object[]{false}, new Object[]{true});
+  }
+
+  @Test
+  public void testRoundTrip()
+  {
+    final List<Object[]> rows = ImmutableList.of(
+        new Object[]{1L, "a", 1.5f, 2.5d, ImmutableList.of("x", "y"), "u"},
+        new Object[]{2L, null, null, null, null, null},
+        new Object[]{3L, "a", 0f, -1d, ImmutableList.of("x", "y"), 7L},
+        new Object[]{4L, "b", 1.5f, 2.5d, ImmutableList.of(), new Object[]{"z"}},
+        new Object[]{5L, "", Float.NaN, Double.MAX_VALUE, ImmutableList.of("x"), "u"}
+    );
+
+    final OffHeapRowList list = build(SIGNATURE, rows);
+
+    Assert.assertEquals(rows.size(), list.size());
+
+    for (int i = 0; i < rows.size(); i++) {
+      Assert.assertTrue("row #" + i, Arrays.deepEquals(rows.get(i), list.get(i)));
+    }
+
+    Assert.assertEquals(rows.size(), ImmutableList.copyOf(list).size());
+  }
+
+  @Test
+  public void testNumbersCoercedToColumnType()
+  {
+    final OffHeapRowList list = build(
+        SIGNATURE,
+        ImmutableList.of(
+            new Object[]{4, "b", 1.5d, 2.5f, null, null},
+            new Object[]{(short) 5, "b", 2L, 3, null, null}
+        )
+    );
+
+    Assert.assertArrayEquals(new Object[]{4L, "b", 1.5f, 2.5d, null, null}, list.get(0));
+    Assert.assertArrayEquals(new Object[]{5L, "b", 2f, 3d, null, null}, list.get(1));
+  }
+
+  @Test
+  public void testNonNumericValuesInNumericColumns()
+  {
+    final OffHeapRowList list = build(
+        SIGNATURE,
+        ImmutableList.of(new Object[]{"x", "b", "1.5", true, null, null})
+    );
+
+    Assert.assertArrayEquals(new Object[]{"x", "b", "1.5", true, null, null}, list.get(0));
+  }
+
+  @Test
+  public void testManyPages()
+  {
+    final RowSignature signature =
+        RowSignature.builder()
+                    .add("s", ValueType.STRING)
+                    .add("l", ValueType.LONG)
+                    .build();
+
+    final List<Object[]> rows = new ArrayList<>();
+    for (int i = 0; i < 250_000; i++) {
+      rows.add(new Object[]{String.valueOf(i % 100), (long) i});
+    }
+
+    final OffHeapRowList list = build(signature, rows);
+
+    Assert.assertEquals(rows.size(), list.size());
+
+    for (int i = 0; i < rows.size(); i += 997) {
+      Assert.assertArrayEquals("row #" + i, rows.get(i), list.get(i));
+    }
+
+    Assert.assertArrayEquals(rows.get(rows.size() - 1), list.get(rows.size() - 1));
+  }
+
+  @Test
+  public void testNoColumns()
+  {
+    final OffHeapRowList list = build(RowSignature.empty(), ImmutableList.of(new Object[0], new Object[0]));
+
+    Assert.assertEquals(2, list.size());
+    Assert.assertArrayEquals(new Object[0], list.get(1));
+  }
+
+  @Test
+  public void testNoRows()
+  {
+    final OffHeapRowList list = build(SIGNATURE, ImmutableList.of());
+
+    Assert.assertTrue(list.isEmpty());
+  }
+
+  @Test(expected = IndexOutOfBoundsException.class)
+  public void testGetOutOfBounds()
+  {
+    build(SIGNATURE, ImmutableList.of()).get(0);
+  }
+
+  @Test
+  public void testWrongRowLength()
+  {
+    try (OffHeapRowList.Builder builder = OffHeapRowList.builder(SIGNATURE, spillDirectory())) {
+      expectedException.expect(IllegalStateException.class);
+      expectedException.expectMessage("Expected row of length[6], got[1]");
+      builder.add(new Object[]{1L});
+    }
+  }
+
+  @Test
+  public void testSpillFileDeletedOnBuild()
+  {
+    final File spillDirectory = spillDirectory();
+
+    try (OffHeapRowList.Builder builder = OffHeapRowList.builder(SIGNATURE, spillDirectory)) {
+      builder.add(new Object[]{1L, "a", 1.5f, 2.5d, null, null});
+
+      if (spillDirectory != null) {
+        Assert.assertEquals(1, spillDirectory.list().length);
+      }
+
+      Assert.assertArrayEquals(new Object[]{1L, "a", 1.5f, 2.5d, null, null}, builder.build().get(0));
+    }
+
+    if (spillDirectory != null) {
+      Assert.assertEquals(0, spillDirectory.list().length);
+    }
+  }
+
+  private OffHeapRowList build(final RowSignature signature, final List<Object[]> rows)
+  {
+    try (OffHeapRowList.Builder builder = OffHeapRowList.builder(signature, spillDirectory())) {
+      rows.forEach(builder::add);
+      return builder.build();
+    }
+  }
+
+  @Nullable
+  private File spillDirectory()
+  {
+    return spillToDisk ? new File(temporaryFolder.getRoot(), "spill") : null;
+  }
+}
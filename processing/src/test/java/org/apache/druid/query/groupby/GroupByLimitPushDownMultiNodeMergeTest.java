@@ -53,6 +53,7 @@ import org.apache.druid.query.QueryRunner;
 import org.apache.druid.query.QueryRunnerFactory;
 import org.apache.druid.query.QueryToolChest;
 import org.apache.druid.query.QueryWatcher;
+import org.apache.druid.query.ResourceLimitExceededException;
 import org.apache.druid.query.aggregation.CountAggregatorFactory;
 import org.apache.druid.query.aggregation.LongSumAggregatorFactory;
 import org.apache.druid.query.context.ResponseContext;
@@ -81,6 +82,7 @@ import org.apache.druid.segment.incremental.IncrementalIndex;
 import org.apache.druid.segment.incremental.IncrementalIndexSchema;
 import org.apache.druid.segment.virtual.ExpressionVirtualColumn;
 import org.apache.druid.segment.writeout.OffHeapMemorySegmentWriteOutMediumFactory;
+import org.apache.druid.testing.InitializedNullHandlingTest;
 import org.apache.druid.timeline.SegmentId;
 import org.joda.time.DateTimeZone;
 import org.joda.time.Period;
@@ -101,7 +103,7 @@ import java.util.concurrent.ExecutorService;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Function;
 
-public class GroupByLimitPushDownMultiNodeMergeTest
+public class GroupByLimitPushDownMultiNodeMergeTest extends InitializedNullHandlingTest
 {
   public static final ObjectMapper JSON_MAPPER;
 
@@ -703,6 +705,257 @@ public class GroupByLimitPushDownMultiNodeMergeTest
     Assert.assertEquals(expectedRow3, results.get(3));
   }
 
+  @Test
+  public void testRefinedLimitPushDownMerge()
+  {
+    QueryToolChest<ResultRow, GroupByQuery> toolChest = groupByFactory.getToolchest();
+    QueryRunner<ResultRow> theRunner = new FinalizeResultsQueryRunner<>(
+        toolChest.mergeResults(
+            groupByFactory.mergeRunners(executorService, getRunner1(0))
+        ),
+        (QueryToolChest) toolChest
+    );
+
+    QueryRunner<ResultRow> theRunner2 = new FinalizeResultsQueryRunner<>(
+        toolChest.mergeResults(
+            groupByFactory2.mergeRunners(executorService, getRunner2(1))
+        ),
+        (QueryToolChest) toolChest
+    );
+
+    QueryRunner<ResultRow> finalRunner = new FinalizeResultsQueryRunner<>(
+        toolChest.mergeResults(
+            new QueryRunner<ResultRow>()
+            {
+              @Override
+              public Sequence<ResultRow> run(QueryPlus<ResultRow> queryPlus, ResponseContext responseContext)
+              {
+                return Sequences
+                    .simple(
+                        ImmutableList.of(
+                            theRunner.run(queryPlus, responseContext),
+                            theRunner2.run(queryPlus, responseContext)
+                        )
+                    )
+                    .flatMerge(Function.identity(), queryPlus.getQuery().getResultOrdering());
+              }
+            }
+        ),
+        (QueryToolChest) toolChest
+    );
+
+    QuerySegmentSpec intervalSpec = new MultipleIntervalSegmentSpec(
+        Collections.singletonList(Intervals.utc(1500000000000L, 1600000000000L))
+    );
+
+    GroupByQuery query = GroupByQuery
+        .builder()
+        .setDataSource("blah")
+        .setQuerySegmentSpec(intervalSpec)
+        .setDimensions(
+            new DefaultDimensionSpec("dimA", "dimA"),
+            new ExtractionDimensionSpec(
+                ColumnHolder.TIME_COLUMN_NAME,
+                "hour",
+                ValueType.STRING,
+                new TimeFormatExtractionFn(
+                    null,
+                    null,
+                    null,
+                    new PeriodGranularity(new Period("PT1H"), null, DateTimeZone.UTC),
+                    true
+                )
+            )
+        )
+        .setAggregatorSpecs(new LongSumAggregatorFactory("metASum", "metA"))
+        .setLimitSpec(
+            new DefaultLimitSpec(
+                Collections.singletonList(
+                    new OrderByColumnSpec("metASum", OrderByColumnSpec.Direction.DESCENDING, StringComparators.NUMERIC)
+                ),
+                1
+            )
+        )
+        .setContext(
+            ImmutableMap.of(
+                GroupByQueryConfig.CTX_KEY_REFINE_LIMIT_PUSH_DOWN, true,
+                GroupByQueryConfig.CTX_KEY_REFINE_LIMIT_PUSH_DOWN_THRESHOLD, 2
+            )
+        )
+        .setGranularity(Granularities.ALL)
+        .build();
+
+    Assert.assertTrue(GroupByQueryQueryToolChest.isRefinedLimitPushDown(query));
+
+    // Each node has four groups, so with a threshold of 2 some of them are dropped by the first pass. The second pass
+    // recomputes the candidates exactly, summing (pomegranate, 1505264400000) across both nodes: 5028 + 2698.
+    ResultRow expectedRow = GroupByQueryRunnerTestHelper.createExpectedRow(
+        query,
+        "2017-07-14T02:40:00.000Z",
+        "dimA", "pomegranate",
+        "hour", "1505264400000",
+        "metASum", 7726L
+    );
+
+    List<ResultRow> results = finalRunner.run(QueryPlus.wrap(query), ResponseContext.createEmpty()).toList();
+    Assert.assertEquals(Collections.singletonList(expectedRow), results);
+
+    // With the default threshold, no node drops any groups, so the first pass is already exact.
+    GroupByQuery queryWithDefaultThreshold = query.withOverriddenContext(
+        ImmutableMap.of(GroupByQueryConfig.CTX_KEY_REFINE_LIMIT_PUSH_DOWN_THRESHOLD, 1000)
+    );
+    results = finalRunner.run(QueryPlus.wrap(queryWithDefaultThreshold), ResponseContext.createEmpty()).toList();
+    Assert.assertEquals(Collections.singletonList(expectedRow), results);
+  }
+
+  @Test
+  public void testSubtotalsPushDownMerge()
+  {
+    QueryToolChest<ResultRow, GroupByQuery> toolChest = groupByFactory.getToolchest();
+    QueryRunner<ResultRow> theRunner = new FinalizeResultsQueryRunner<>(
+        toolChest.mergeResults(
+            groupByFactory.mergeRunners(executorService, getRunner1(0))
+        ),
+        (QueryToolChest) toolChest
+    );
+
+    QueryRunner<ResultRow> theRunner2 = new FinalizeResultsQueryRunner<>(
+        toolChest.mergeResults(
+            groupByFactory2.mergeRunners(executorService, getRunner2(1))
+        ),
+        (QueryToolChest) toolChest
+    );
+
+    QueryRunner<ResultRow> finalRunner = new FinalizeResultsQueryRunner<>(
+        toolChest.mergeResults(
+            new QueryRunner<ResultRow>()
+            {
+              @Override
+              public Sequence<ResultRow> run(QueryPlus<ResultRow> queryPlus, ResponseContext responseContext)
+              {
+                return Sequences
+                    .simple(
+                        ImmutableList.of(
+                            theRunner.run(queryPlus, responseContext),
+                            theRunner2.run(queryPlus, responseContext)
+                        )
+                    )
+                    .flatMerge(Function.identity(), queryPlus.getQuery().getResultOrdering());
+              }
+            }
+        ),
+        (QueryToolChest) toolChest
+    );
+
+    QuerySegmentSpec intervalSpec = new MultipleIntervalSegmentSpec(
+        Collections.singletonList(Intervals.utc(1500000000000L, 1600000000000L))
+    );
+
+    GroupByQuery query = GroupByQuery
+        .builder()
+        .setDataSource("blah")
+        .setQuerySegmentSpec(intervalSpec)
+        .setDimensions(
+            new DefaultDimensionSpec("dimA", "dimA"),
+            new ExtractionDimensionSpec(
+                ColumnHolder.TIME_COLUMN_NAME,
+                "hour",
+                ValueType.STRING,
+                new TimeFormatExtractionFn(
+                    null,
+                    null,
+                    null,
+                    new PeriodGranularity(new Period("PT1H"), null, DateTimeZone.UTC),
+                    true
+                )
+            )
+        )
+        .setAggregatorSpecs(new LongSumAggregatorFactory("metASum", "metA"))
+        .setSubtotalsSpec(
+            ImmutableList.of(
+                ImmutableList.of("dimA", "hour"),
+                ImmutableList.of("dimA"),
+                ImmutableList.of()
+            )
+        )
+        .setContext(ImmutableMap.of(GroupByQueryConfig.CTX_KEY_PUSH_DOWN_SUBTOTALS, true))
+        .setGranularity(Granularities.ALL)
+        .build();
+
+    Assert.assertTrue(GroupByQueryQueryToolChest.isSubtotalsPushDown(query));
+
+    List<ResultRow> expectedResults = Arrays.asList(
+        ResultRow.of("mango", "1505260800000", 26L),
+        ResultRow.of("mango", "1505264400000", 10L),
+        ResultRow.of("pomegranate", "1505260800000", 7113L),
+        ResultRow.of("pomegranate", "1505264400000", 7726L),
+        ResultRow.of("mango", null, 36L),
+        ResultRow.of("pomegranate", null, 14839L),
+        ResultRow.of(null, null, 14875L)
+    );
+
+    List<ResultRow> results = finalRunner.run(QueryPlus.wrap(query), ResponseContext.createEmpty()).toList();
+    Assert.assertEquals(expectedResults, results);
+
+    // Computing subtotals on the Broker gives the same results.
+    GroupByQuery queryWithoutPushDown = query.withOverriddenContext(
+        ImmutableMap.of(GroupByQueryConfig.CTX_KEY_PUSH_DOWN_SUBTOTALS, false)
+    );
+    results = finalRunner.run(QueryPlus.wrap(queryWithoutPushDown), ResponseContext.createEmpty()).toList();
+    Assert.assertEquals(expectedResults, results);
+
+    // Limits are applied by the Broker, across all subtotals.
+    GroupByQuery queryWithLimit = query.withLimitSpec(
+        new DefaultLimitSpec(
+            Collections.singletonList(
+                new OrderByColumnSpec("metASum", OrderByColumnSpec.Direction.DESCENDING, StringComparators.NUMERIC)
+            ),
+            3
+        )
+    );
+    results = finalRunner.run(QueryPlus.wrap(queryWithLimit), ResponseContext.createEmpty()).toList();
+    Assert.assertEquals(
+        Arrays.asList(
+            ResultRow.of(null, null, 14875L),
+            ResultRow.of("pomegranate", null, 14839L),
+            ResultRow.of("pomegranate", "1505264400000", 7726L)
+        ),
+        results
+    );
+  }
+
+  @Test(expected = ResourceLimitExceededException.class)
+  public void testSubtotalsPushDownNotPrefixNeedsMoreMergeBuffers()
+  {
+    QueryToolChest<ResultRow, GroupByQuery> toolChest = groupByFactory.getToolchest();
+    QueryRunner<ResultRow> theRunner = new FinalizeResultsQueryRunner<>(
+        toolChest.mergeResults(
+            groupByFactory.mergeRunners(executorService, getRunner1(0))
+        ),
+        (QueryToolChest) toolChest
+    );
+
+    GroupByQuery query = GroupByQuery
+        .builder()
+        .setDataSource("blah")
+        .setQuerySegmentSpec(
+            new MultipleIntervalSegmentSpec(
+                Collections.singletonList(Intervals.utc(1500000000000L, 1600000000000L))
+            )
+        )
+        .setDimensions(new DefaultDimensionSpec("dimA", "dimA"), new DefaultDimensionSpec("dimB", "dimB"))
+        .setAggregatorSpecs(new LongSumAggregatorFactory("metASum", "metA"))
+        .setSubtotalsSpec(ImmutableList.of(ImmutableList.of("dimB"), ImmutableList.of()))
+        .setContext(ImmutableMap.of(GroupByQueryConfig.CTX_KEY_PUSH_DOWN_SUBTOTALS, true))
+        .setGranularity(Granularities.ALL)
+        .build();
+
+    // "dimB" is not a prefix of the dimensions, so the data server needs two merge buffers for subtotals on top of
+    // the one its merging runner takes, but the pool only has two.
+    GroupByQuery pushDownQuery = GroupByQueryQueryToolChest.makeSubtotalsPushDownQuery(query);
+    theRunner.run(QueryPlus.wrap(pushDownQuery), ResponseContext.createEmpty()).toList();
+  }
+
   private List<QueryRunner<ResultRow>> getRunner1(int qIndexNumber)
   {
     List<QueryRunner<ResultRow>> runners = new ArrayList<>();
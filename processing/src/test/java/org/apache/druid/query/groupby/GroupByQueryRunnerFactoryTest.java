@@ -20,11 +20,15 @@
 package org.apache.druid.query.groupby;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Iterables;
+import com.google.common.collect.Sets;
 import org.apache.druid.data.input.impl.CSVParseSpec;
 import org.apache.druid.data.input.impl.DimensionsSpec;
 import org.apache.druid.data.input.impl.StringInputRowParser;
 import org.apache.druid.data.input.impl.TimestampSpec;
 import org.apache.druid.java.util.common.Pair;
+import org.apache.druid.java.util.common.concurrent.Execs;
 import org.apache.druid.java.util.common.granularity.Granularities;
 import org.apache.druid.java.util.common.guava.MergeSequence;
 import org.apache.druid.java.util.common.guava.Sequence;
@@ -36,6 +40,9 @@ import org.apache.druid.query.QueryRunner;
 import org.apache.druid.query.aggregation.CountAggregatorFactory;
 import org.apache.druid.query.context.ResponseContext;
 import org.apache.druid.query.dimension.DefaultDimensionSpec;
+import org.apache.druid.query.groupby.epinephelinae.GroupByMergingQueryRunnerV2;
+import org.apache.druid.query.groupby.epinephelinae.LimitedTemporaryStorage;
+import org.apache.druid.query.groupby.strategy.GroupByStrategySelector;
 import org.apache.druid.query.spec.LegacySegmentSpec;
 import org.apache.druid.segment.CloserRule;
 import org.apache.druid.segment.IncrementalIndexSegment;
@@ -44,13 +51,16 @@ import org.apache.druid.segment.TestHelper;
 import org.apache.druid.segment.incremental.IncrementalIndex;
 import org.apache.druid.timeline.SegmentId;
 import org.junit.After;
+import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Set;
 
 /**
  *
@@ -136,6 +146,47 @@ public class GroupByQueryRunnerFactoryTest
     TestHelper.assertExpectedObjects(expectedResults, result.toList(), "");
   }
 
+  @Test
+  public void testMergeRunnersShareTemporaryStorage()
+  {
+    GroupByQuery query = GroupByQuery
+        .builder()
+        .setDataSource("xx")
+        .setQuerySegmentSpec(new LegacySegmentSpec("1970/3000"))
+        .setGranularity(Granularities.ALL)
+        .setDimensions(new DefaultDimensionSpec("tags", "tags"))
+        .setAggregatorSpecs(new CountAggregatorFactory("count"))
+        .setContext(ImmutableMap.of(GroupByQueryConfig.CTX_KEY_STRATEGY, GroupByStrategySelector.STRATEGY_V2))
+        .build();
+
+    final Set<LimitedTemporaryStorage> temporaryStorages = Sets.newConcurrentHashSet();
+    final List<QueryRunner<ResultRow>> runners = new ArrayList<>();
+    for (int i = 0; i < 2; i++) {
+      runners.add(
+          (queryPlus, responseContext) -> {
+            temporaryStorages.add(GroupByMergingQueryRunnerV2.getTemporaryStorage(responseContext));
+            try {
+              return factory.createRunner(createSegment()).run(queryPlus, responseContext);
+            }
+            catch (Exception e) {
+              throw new RuntimeException(e);
+            }
+          }
+      );
+    }
+
+    final ResponseContext responseContext = ResponseContext.createEmpty();
+    final List<ResultRow> results = factory.mergeRunners(Execs.directExecutor(), runners)
+                                           .run(QueryPlus.wrap(query), responseContext)
+                                           .toList();
+
+    // Both per-segment runners spill into the storage of the merge, so they share its maxOnDiskStorage.
+    Assert.assertEquals(2, results.size());
+    Assert.assertEquals(1, temporaryStorages.size());
+    Assert.assertNotNull(Iterables.getOnlyElement(temporaryStorages));
+    Assert.assertNull(GroupByMergingQueryRunnerV2.getTemporaryStorage(responseContext));
+  }
+
   private Segment createSegment() throws Exception
   {
     IncrementalIndex incrementalIndex = new IncrementalIndex.Builder()
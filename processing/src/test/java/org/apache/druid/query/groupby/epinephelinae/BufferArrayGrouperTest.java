@@ -38,8 +38,11 @@ import org.junit.BeforeClass;
 import org.junit.Test;
 
 import java.nio.ByteBuffer;
+import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 public class BufferArrayGrouperTest
 {
@@ -77,10 +80,88 @@ public class BufferArrayGrouperTest
     );
   }
 
+  @Test
+  public void testAggregateMultipleDimensions()
+  {
+    final TestColumnSelectorFactory columnSelectorFactory = GrouperTestUtil.newColumnSelectorFactory();
+    final BufferArrayGrouper grouper = newGrouper(columnSelectorFactory, 32768, new int[]{3, 5});
+
+    columnSelectorFactory.setRow(new MapBasedRow(0, ImmutableMap.of("value", 10L)));
+    grouper.aggregate(grouper.computeIndex(new int[]{2, 4}) - 1);
+    grouper.aggregate(grouper.computeIndex(new int[]{0, 1}) - 1);
+    grouper.aggregate(grouper.computeIndex(new int[]{-1, 1}) - 1);
+    grouper.aggregate(grouper.computeIndex(new int[]{2, 4}) - 1);
+
+    final List<List<Object>> entries = new ArrayList<>();
+    final int[] values = new int[2];
+    grouper.iterator(false).forEachRemaining(
+        entry -> {
+          grouper.decodeIndex(entry.getKey() + 1, values);
+          entries.add(ImmutableList.of(values[0], values[1], entry.getValues()[0], entry.getValues()[1]));
+        }
+    );
+
+    // Slots are in index order, where the first dimension is the least significant.
+    Assert.assertEquals(
+        ImmutableList.of(
+            ImmutableList.of(-1, 1, 10L, 1L),
+            ImmutableList.of(0, 1, 10L, 1L),
+            ImmutableList.of(2, 4, 20L, 2L)
+        ),
+        entries
+    );
+
+    // Vector keys have one int per dimension.
+    final List<List<Integer>> vectorKeys = new ArrayList<>();
+    grouper.iterator().forEachRemaining(
+        entry -> vectorKeys.add(ImmutableList.of(entry.getKey().getInt(0), entry.getKey().getInt(Integer.BYTES)))
+    );
+    Assert.assertEquals(
+        ImmutableList.of(ImmutableList.of(-1, 1), ImmutableList.of(0, 1), ImmutableList.of(2, 4)),
+        vectorKeys
+    );
+  }
+
+  @Test
+  public void testComputeAndDecodeIndex()
+  {
+    final BufferArrayGrouper grouper =
+        newGrouper(GrouperTestUtil.newColumnSelectorFactory(), 32768, new int[]{2, 3, 4});
+    final int[] values = new int[3];
+    final Set<Integer> seen = new HashSet<>();
+
+    for (int a = -1; a < 2; a++) {
+      for (int b = -1; b < 3; b++) {
+        for (int c = -1; c < 4; c++) {
+          final int index = grouper.computeIndex(new int[]{a, b, c});
+          Assert.assertTrue(index >= 0 && index < 3 * 4 * 5);
+          Assert.assertTrue(seen.add(index));
+          grouper.decodeIndex(index, values);
+          Assert.assertArrayEquals(new int[]{a, b, c}, values);
+        }
+      }
+    }
+
+    // A single dimension is indexed by its value shifted by one, like the single-cardinality constructor.
+    Assert.assertEquals(
+        6,
+        newGrouper(GrouperTestUtil.newColumnSelectorFactory(), 32768, new int[]{10}).computeIndex(new int[]{5})
+    );
+  }
+
   private BufferArrayGrouper newGrouper(
       TestColumnSelectorFactory columnSelectorFactory,
       int bufferSize
   )
+  {
+    return newGrouper(columnSelectorFactory, bufferSize, new int[]{1000});
+  }
+
+  private BufferArrayGrouper newGrouper(
+      TestColumnSelectorFactory columnSelectorFactory,
+      int bufferSize,
+      int[] cardinalities
+  )
   {
     final ByteBuffer buffer = ByteBuffer.allocate(bufferSize);
 
@@ -93,7 +174,7 @@ public class BufferArrayGrouperTest
                 new CountAggregatorFactory("count")
             )
         ),
-        1000
+        cardinalities
     );
     grouper.init();
     return grouper;
@@ -124,4 +205,22 @@ public class BufferArrayGrouperTest
       );
     }
   }
+
+  @Test
+  public void testRequiredBufferCapacityMultipleDimensions()
+  {
+    final AggregatorFactory[] aggregatorFactories = new AggregatorFactory[]{
+        new LongSumAggregatorFactory("sum", "sum")
+    };
+
+    // (9 + 1) * (9 + 1) slots need as much space as a single dimension of cardinality 99.
+    Assert.assertEquals(
+        BufferArrayGrouper.requiredBufferCapacity(99, aggregatorFactories),
+        BufferArrayGrouper.requiredBufferCapacity(new int[]{9, 9}, aggregatorFactories)
+    );
+    Assert.assertEquals(
+        -1,
+        BufferArrayGrouper.requiredBufferCapacity(new int[]{65536, 65536}, aggregatorFactories)
+    );
+  }
 }
@@ -19,16 +19,35 @@
 
 package org.apache.druid.query.groupby.epinephelinae;
 
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import org.apache.druid.java.util.common.granularity.Granularities;
+import org.apache.druid.math.expr.ExprMacroTable;
+import org.apache.druid.query.QueryRunnerTestHelper;
+import org.apache.druid.query.dimension.DefaultDimensionSpec;
+import org.apache.druid.query.filter.SelectorDimFilter;
+import org.apache.druid.query.groupby.GroupByQuery;
+import org.apache.druid.query.groupby.GroupByQueryConfig;
 import org.apache.druid.segment.ColumnSelectorFactory;
+import org.apache.druid.segment.QueryableIndexStorageAdapter;
+import org.apache.druid.segment.StorageAdapter;
+import org.apache.druid.segment.TestIndex;
+import org.apache.druid.segment.VirtualColumns;
 import org.apache.druid.segment.column.ColumnCapabilities;
 import org.apache.druid.segment.column.ColumnCapabilitiesImpl;
 import org.apache.druid.segment.column.ValueType;
+import org.apache.druid.segment.virtual.ExpressionVirtualColumn;
+import org.apache.druid.testing.InitializedNullHandlingTest;
 import org.easymock.EasyMock;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 
-public class GroupByQueryEngineV2Test
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.stream.Collectors;
+
+public class GroupByQueryEngineV2Test extends InitializedNullHandlingTest
 {
   private static final String DIM = "d0";
   ColumnSelectorFactory factory;
@@ -132,4 +151,182 @@ public class GroupByQueryEngineV2Test
     Assert.assertTrue(GroupByQueryEngineV2.canPushDownLimit(factory, DIM));
     EasyMock.verify(factory);
   }
+
+  @Test
+  public void testEstimateNumGroups()
+  {
+    final StorageAdapter adapter = new QueryableIndexStorageAdapter(TestIndex.getMMappedTestIndex());
+
+    Assert.assertEquals(1, GroupByQueryEngineV2.estimateNumGroups(makeQuery(), adapter));
+    Assert.assertEquals(3, GroupByQueryEngineV2.estimateNumGroups(makeQuery("market"), adapter));
+    Assert.assertEquals(27, GroupByQueryEngineV2.estimateNumGroups(makeQuery("market", "quality"), adapter));
+
+    // Nonexistent columns have a single (null) value.
+    Assert.assertEquals(3, GroupByQueryEngineV2.estimateNumGroups(makeQuery("market", "nonexistent"), adapter));
+
+    // Numeric columns have unknown cardinality, so the number of rows is the bound.
+    Assert.assertEquals(
+        adapter.getNumRows(),
+        GroupByQueryEngineV2.estimateNumGroups(makeQuery("market", "index"), adapter)
+    );
+
+    // Multi-value dimensions can generate more groups than rows.
+    Assert.assertEquals(-1, GroupByQueryEngineV2.estimateNumGroups(makeQuery("placementish"), adapter));
+  }
+
+  @Test
+  public void testEstimateNumGroupsWithVirtualColumn()
+  {
+    final StorageAdapter adapter = new QueryableIndexStorageAdapter(TestIndex.getMMappedTestIndex());
+    final GroupByQuery query = makeQuery("v0")
+        .withVirtualColumns(
+            VirtualColumns.create(
+                ImmutableList.of(
+                    new ExpressionVirtualColumn("v0", "market", ValueType.STRING, ExprMacroTable.nil())
+                )
+            )
+        );
+
+    Assert.assertEquals(-1, GroupByQueryEngineV2.estimateNumGroups(query, adapter));
+  }
+
+  @Test
+  public void testGetInitialBucketsForHashAggregation()
+  {
+    final StorageAdapter adapter = new QueryableIndexStorageAdapter(TestIndex.getMMappedTestIndex());
+    final GroupByQuery estimatingQuery = makeQuery("market").withOverriddenContext(
+        ImmutableMap.of("estimateInitialBuckets", true)
+    );
+    final GroupByQueryConfig config = new GroupByQueryConfig().withOverrides(estimatingQuery);
+
+    // ceil(3 / 0.7) + 1
+    Assert.assertEquals(
+        6,
+        GroupByQueryEngineV2.getInitialBucketsForHashAggregation(config, estimatingQuery, adapter)
+    );
+
+    // Estimates are off by default.
+    Assert.assertEquals(
+        0,
+        GroupByQueryEngineV2.getInitialBucketsForHashAggregation(
+            new GroupByQueryConfig(),
+            makeQuery("market"),
+            adapter
+        )
+    );
+
+    // Estimates are only used for granularity "all".
+    Assert.assertEquals(
+        0,
+        GroupByQueryEngineV2.getInitialBucketsForHashAggregation(
+            config,
+            new GroupByQuery.Builder(estimatingQuery).setGranularity(Granularities.DAY).build(),
+            adapter
+        )
+    );
+
+    // Estimates ignore filters, so they are not used for filtered queries.
+    Assert.assertEquals(
+        0,
+        GroupByQueryEngineV2.getInitialBucketsForHashAggregation(
+            config,
+            new GroupByQuery.Builder(estimatingQuery)
+                .setDimFilter(new SelectorDimFilter("market", "spot", null))
+                .build(),
+            adapter
+        )
+    );
+
+    // Estimates are capped, no matter how many rows the segment has.
+    final StorageAdapter largeAdapter = EasyMock.createMock(StorageAdapter.class);
+    EasyMock.expect(largeAdapter.getNumRows()).andReturn(10_000_000).anyTimes();
+    EasyMock.expect(largeAdapter.getColumnCapabilities("market")).andReturn(null).anyTimes();
+    EasyMock.expect(largeAdapter.getDimensionCardinality("market")).andReturn(Integer.MAX_VALUE).anyTimes();
+    EasyMock.replay(largeAdapter);
+    Assert.assertEquals(
+        8 * 1024,
+        GroupByQueryEngineV2.getInitialBucketsForHashAggregation(config, estimatingQuery, largeAdapter)
+    );
+
+    // Configured value wins.
+    final GroupByQuery configuredQuery = estimatingQuery.withOverriddenContext(
+        ImmutableMap.of("bufferGrouperInitialBuckets", 100)
+    );
+    Assert.assertEquals(
+        100,
+        GroupByQueryEngineV2.getInitialBucketsForHashAggregation(
+            config.withOverrides(configuredQuery),
+            configuredQuery,
+            adapter
+        )
+    );
+  }
+
+  @Test
+  public void testGetCardinalitiesForArrayAggregation()
+  {
+    final StorageAdapter adapter = new QueryableIndexStorageAdapter(TestIndex.getMMappedTestIndex());
+    final GroupByQueryConfig config = new GroupByQueryConfig();
+    final ByteBuffer buffer = ByteBuffer.allocate(1 << 20);
+
+    Assert.assertArrayEquals(
+        new int[]{3},
+        GroupByQueryEngineV2.getCardinalitiesForArrayAggregation(config, makeQuery("market"), adapter, buffer)
+    );
+    Assert.assertArrayEquals(
+        new int[]{3, 9},
+        GroupByQueryEngineV2.getCardinalitiesForArrayAggregation(
+            config,
+            makeQuery("market", "quality"),
+            adapter,
+            buffer
+        )
+    );
+
+    // A single multi-value dimension can use array-based aggregation, but not in combination with other dimensions.
+    Assert.assertNotNull(
+        GroupByQueryEngineV2.getCardinalitiesForArrayAggregation(config, makeQuery("placementish"), adapter, buffer)
+    );
+    Assert.assertNull(
+        GroupByQueryEngineV2.getCardinalitiesForArrayAggregation(
+            config,
+            makeQuery("market", "placementish"),
+            adapter,
+            buffer
+        )
+    );
+
+    // Queries without dimensions aggregate into a single slot.
+    Assert.assertArrayEquals(
+        new int[]{1},
+        GroupByQueryEngineV2.getCardinalitiesForArrayAggregation(config, makeQuery(), adapter, buffer)
+    );
+
+    // Numeric dimensions and arrays that do not fit in the buffer use hash-based aggregation.
+    Assert.assertNull(
+        GroupByQueryEngineV2.getCardinalitiesForArrayAggregation(config, makeQuery("market", "index"), adapter, buffer)
+    );
+    Assert.assertNull(
+        GroupByQueryEngineV2.getCardinalitiesForArrayAggregation(
+            config,
+            makeQuery("market", "quality"),
+            adapter,
+            ByteBuffer.allocate(64)
+        )
+    );
+  }
+
+  private static GroupByQuery makeQuery(final String... dimensions)
+  {
+    return GroupByQuery
+        .builder()
+        .setDataSource(QueryRunnerTestHelper.DATA_SOURCE)
+        .setGranularity(Granularities.ALL)
+        .setInterval(TestIndex.DATA_INTERVAL)
+        .setDimensions(
+            Arrays.stream(dimensions).map(DefaultDimensionSpec::of).collect(Collectors.toList())
+        )
+        .setAggregatorSpecs(QueryRunnerTestHelper.ROWS_COUNT)
+        .build();
+  }
 }
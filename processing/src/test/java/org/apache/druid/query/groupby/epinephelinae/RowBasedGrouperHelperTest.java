@@ -0,0 +1,107 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.druid.query.groupby.epinephelinae;
+
+import com.google.common.base.Supplier;
+import com.google.common.base.Suppliers;
+import com.google.common.collect.ImmutableMap;
+import org.apache.druid.jackson.DefaultObjectMapper;
+import org.apache.druid.java.util.common.Intervals;
+import org.apache.druid.java.util.common.Pair;
+import org.apache.druid.java.util.common.granularity.Granularities;
+import org.apache.druid.java.util.common.guava.Accumulator;
+import org.apache.druid.query.aggregation.LongSumAggregatorFactory;
+import org.apache.druid.query.dimension.DefaultDimensionSpec;
+import org.apache.druid.query.groupby.GroupByQuery;
+import org.apache.druid.query.groupby.GroupByQueryConfig;
+import org.apache.druid.query.groupby.ResultRow;
+import org.apache.druid.query.groupby.epinephelinae.RowBasedGrouperHelper.RowBasedKey;
+import org.apache.druid.testing.InitializedNullHandlingTest;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.Map;
+
+public class RowBasedGrouperHelperTest extends InitializedNullHandlingTest
+{
+  private static final int BUFFER_SIZE = 1024 * 1024;
+
+  @Rule
+  public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  @Test
+  public void testAccumulatorsDoNotShareKeys() throws IOException
+  {
+    final GroupByQuery query = GroupByQuery
+        .builder()
+        .setDataSource("dummy")
+        .setInterval(Intervals.ETERNITY)
+        .setGranularity(Granularities.ALL)
+        .setDimensions(new DefaultDimensionSpec("dim", "dim"))
+        .setAggregatorSpecs(new LongSumAggregatorFactory("sum", "sum"))
+        .build();
+
+    final Pair<Grouper<RowBasedKey>, Supplier<Accumulator<AggregateResult, ResultRow>>> pair =
+        RowBasedGrouperHelper.createGrouperAccumulatorPair(
+            query,
+            null,
+            new GroupByQueryConfig(),
+            Suppliers.ofInstance(ByteBuffer.allocate(BUFFER_SIZE)),
+            null,
+            -1,
+            new LimitedTemporaryStorage(temporaryFolder.newFolder(), 0),
+            new DefaultObjectMapper(),
+            null,
+            0,
+            false,
+            -1L,
+            BUFFER_SIZE
+        );
+
+    final Accumulator<AggregateResult, ResultRow> first = pair.rhs.get();
+    final Accumulator<AggregateResult, ResultRow> second = pair.rhs.get();
+    Assert.assertNotSame(first, second);
+
+    // Interleave rows between the two accumulators, as concurrently merged sequences would.
+    AggregateResult result = AggregateResult.ok();
+    result = first.accumulate(result, ResultRow.of("x", 1L));
+    result = second.accumulate(result, ResultRow.of("y", 2L));
+    result = first.accumulate(result, ResultRow.of("y", 30L));
+    result = second.accumulate(result, ResultRow.of("x", 400L));
+    result = first.accumulate(result, ResultRow.of("z", 5000L));
+    Assert.assertTrue(result.isOk());
+
+    final Map<Object, Object> sums = new HashMap<>();
+    try (CloseableGrouperIterator<RowBasedKey, ResultRow> iterator =
+             RowBasedGrouperHelper.makeGrouperIterator(pair.lhs, query, pair.lhs)) {
+      while (iterator.hasNext()) {
+        final ResultRow row = iterator.next();
+        sums.put(row.get(0), row.get(1));
+      }
+    }
+
+    Assert.assertEquals(ImmutableMap.of("x", 401L, "y", 32L, "z", 5000L), sums);
+  }
+}
@@ -0,0 +1,185 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.druid.query.groupby.epinephelinae;
+
+import com.google.common.base.Suppliers;
+import org.apache.datasketches.memory.Memory;
+import org.apache.datasketches.memory.WritableMemory;
+import org.apache.druid.jackson.DefaultObjectMapper;
+import org.apache.druid.java.util.common.parsers.CloseableIterator;
+import org.apache.druid.query.aggregation.AggregatorAdapters;
+import org.apache.druid.query.aggregation.AggregatorFactory;
+import org.apache.druid.query.aggregation.CountAggregatorFactory;
+import org.apache.druid.segment.vector.VectorColumnSelectorFactory;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.mockito.Mockito;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+public class SpillingVectorGrouperTest
+{
+  private static final int KEY_SIZE = Integer.BYTES;
+  private static final int NUM_KEYS = 100;
+  private static final int VECTOR_SIZE = 64;
+
+  @Rule
+  public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  @Test
+  public void testSpillAndMerge() throws IOException
+  {
+    final File storageDirectory = temporaryFolder.newFolder();
+
+    try (
+        final LimitedTemporaryStorage temporaryStorage = new LimitedTemporaryStorage(storageDirectory, 1024 * 1024);
+        final SpillingVectorGrouper grouper = makeGrouper(temporaryStorage)
+    ) {
+      aggregateKeys(grouper, 5);
+
+      // bufferGrouperMaxSize is smaller than the number of keys, so the grouper must have spilled.
+      Assert.assertTrue(storageDirectory.list().length > 0);
+
+      final Map<Integer, Long> counts = new HashMap<>();
+      try (CloseableIterator<Grouper.Entry<Memory>> iterator = grouper.iterator()) {
+        while (iterator.hasNext()) {
+          final Grouper.Entry<Memory> entry = iterator.next();
+          final Long previous = counts.put(entry.getKey().getInt(0), ((Number) entry.getValues()[0]).longValue());
+          Assert.assertNull("each key appears once", previous);
+        }
+      }
+
+      Assert.assertEquals(NUM_KEYS, counts.size());
+      for (int key = 0; key < NUM_KEYS; key++) {
+        Assert.assertEquals(Long.valueOf(5), counts.get(key));
+      }
+
+      grouper.reset();
+      Assert.assertEquals(0, storageDirectory.list().length);
+    }
+  }
+
+  @Test
+  public void testSharedStorageLimit() throws IOException
+  {
+    // Measure how much one grouper spills on its own.
+    final long bytesSpilledByOneGrouper;
+    final File storageDirectory = temporaryFolder.newFolder();
+    try (
+        final LimitedTemporaryStorage temporaryStorage = new LimitedTemporaryStorage(storageDirectory, 1024 * 1024);
+        final SpillingVectorGrouper grouper = makeGrouper(temporaryStorage)
+    ) {
+      aggregateKeys(grouper, 5);
+      long bytes = 0;
+      for (File file : storageDirectory.listFiles()) {
+        bytes += file.length();
+      }
+      bytesSpilledByOneGrouper = bytes;
+    }
+    Assert.assertTrue(bytesSpilledByOneGrouper > 0);
+
+    // Groupers that share a storage, like the per-segment groupers of one query, share its limit too.
+    try (
+        final LimitedTemporaryStorage temporaryStorage =
+            new LimitedTemporaryStorage(temporaryFolder.newFolder(), bytesSpilledByOneGrouper);
+        final SpillingVectorGrouper first = makeGrouper(temporaryStorage);
+        final SpillingVectorGrouper second = makeGrouper(temporaryStorage)
+    ) {
+      aggregateKeys(first, 5);
+
+      final WritableMemory keySpace = WritableMemory.allocate(KEY_SIZE * VECTOR_SIZE);
+      AggregateResult result = AggregateResult.ok();
+      for (int start = 0; start < NUM_KEYS && result.isOk(); start += VECTOR_SIZE) {
+        final int end = Math.min(start + VECTOR_SIZE, NUM_KEYS);
+        for (int key = start; key < end; key++) {
+          keySpace.putInt((long) (key - start) * KEY_SIZE, key);
+        }
+        result = second.aggregateVector(keySpace, 0, end - start);
+      }
+
+      Assert.assertFalse(result.isOk());
+      Assert.assertTrue(result.getReason().startsWith("Not enough disk space"));
+    }
+  }
+
+  @Test
+  public void testSpillingDisabled() throws IOException
+  {
+    try (
+        final LimitedTemporaryStorage temporaryStorage = new LimitedTemporaryStorage(temporaryFolder.newFolder(), 0);
+        final SpillingVectorGrouper grouper = makeGrouper(temporaryStorage)
+    ) {
+      final WritableMemory keySpace = WritableMemory.allocate(KEY_SIZE * VECTOR_SIZE);
+      for (int i = 0; i < VECTOR_SIZE; i++) {
+        keySpace.putInt((long) i * KEY_SIZE, i);
+      }
+
+      final AggregateResult result = grouper.aggregateVector(keySpace, 0, VECTOR_SIZE);
+      Assert.assertFalse(result.isOk());
+      Assert.assertEquals(10, result.getCount());
+    }
+  }
+
+  private static SpillingVectorGrouper makeGrouper(final LimitedTemporaryStorage temporaryStorage)
+  {
+    final AggregatorFactory[] aggregatorFactories = new AggregatorFactory[]{new CountAggregatorFactory("count")};
+    final SpillingVectorGrouper grouper = new SpillingVectorGrouper(
+        new HashVectorGrouper(
+            Suppliers.ofInstance(ByteBuffer.allocate(4096)),
+            KEY_SIZE,
+            AggregatorAdapters.factorizeVector(
+                Mockito.mock(VectorColumnSelectorFactory.class),
+                Collections.singletonList(aggregatorFactories[0])
+            ),
+            10,
+            0.f,
+            0
+        ),
+        KEY_SIZE,
+        aggregatorFactories,
+        temporaryStorage,
+        new DefaultObjectMapper()
+    );
+    grouper.initVectorized(VECTOR_SIZE);
+    return grouper;
+  }
+
+  private static void aggregateKeys(final SpillingVectorGrouper grouper, final int numRounds)
+  {
+    final WritableMemory keySpace = WritableMemory.allocate(KEY_SIZE * VECTOR_SIZE);
+
+    for (int round = 0; round < numRounds; round++) {
+      for (int start = 0; start < NUM_KEYS; start += VECTOR_SIZE) {
+        final int end = Math.min(start + VECTOR_SIZE, NUM_KEYS);
+        for (int key = start; key < end; key++) {
+          keySpace.putInt((long) (key - start) * KEY_SIZE, key);
+        }
+        Assert.assertTrue(grouper.aggregateVector(keySpace, 0, end - start).isOk());
+      }
+    }
+  }
+}
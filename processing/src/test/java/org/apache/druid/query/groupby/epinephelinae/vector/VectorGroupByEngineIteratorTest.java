@@ -20,6 +20,7 @@
 package org.apache.druid.query.groupby.epinephelinae.vector;
 
 import org.apache.commons.lang3.mutable.MutableObject;
+import org.apache.druid.jackson.DefaultObjectMapper;
 import org.apache.druid.query.QueryContexts;
 import org.apache.druid.query.QueryRunnerTestHelper;
 import org.apache.druid.query.aggregation.AggregatorFactory;
@@ -27,6 +28,7 @@ import org.apache.druid.query.aggregation.DoubleSumAggregatorFactory;
 import org.apache.druid.query.dimension.DefaultDimensionSpec;
 import org.apache.druid.query.groupby.GroupByQuery;
 import org.apache.druid.query.groupby.GroupByQueryConfig;
+import org.apache.druid.query.groupby.epinephelinae.LimitedTemporaryStorage;
 import org.apache.druid.query.groupby.epinephelinae.VectorGrouper;
 import org.apache.druid.query.groupby.epinephelinae.vector.VectorGroupByEngine.VectorGroupByEngineIterator;
 import org.apache.druid.segment.DimensionHandlerUtils;
@@ -37,7 +39,9 @@ import org.apache.druid.segment.filter.Filters;
 import org.apache.druid.segment.vector.VectorCursor;
 import org.apache.druid.testing.InitializedNullHandlingTest;
 import org.joda.time.Interval;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 import org.mockito.Mockito;
 
 import java.io.IOException;
@@ -47,6 +51,9 @@ import java.util.stream.Collectors;
 
 public class VectorGroupByEngineIteratorTest extends InitializedNullHandlingTest
 {
+  @Rule
+  public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
   @Test
   public void testCreateOneGrouperAndCloseItWhenClose() throws IOException
   {
@@ -87,7 +94,9 @@ public class VectorGroupByEngineIteratorTest extends InitializedNullHandlingTest
         interval,
         dimensions,
         byteBuffer,
-        null
+        null,
+        new LimitedTemporaryStorage(temporaryFolder.newFolder(), 0),
+        new DefaultObjectMapper()
     )
     {
       @Override
@@ -0,0 +1,115 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.druid.query.scan;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import org.apache.druid.jackson.DefaultObjectMapper;
+import org.apache.druid.java.util.common.UOE;
+import org.apache.druid.segment.column.ColumnHolder;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class ColumnarScanBatchTest
+{
+  private static final ObjectMapper JSON_MAPPER = new DefaultObjectMapper();
+  private static final List<String> COLUMNS = ImmutableList.of(ColumnHolder.TIME_COLUMN_NAME, "name", "count");
+
+  private static final ColumnarScanBatch EXPECTED = new ColumnarScanBatch(
+      COLUMNS,
+      2,
+      ImmutableList.of(
+          Arrays.asList(1000L, 2000L),
+          Arrays.asList("Feridun", null),
+          Arrays.asList(4, 6)
+      )
+  );
+
+  @Test
+  public void testFromCompactedList()
+  {
+    final ScanResultValue value = new ScanResultValue(
+        "segment",
+        COLUMNS,
+        ImmutableList.of(Arrays.asList(1000L, "Feridun", 4), Arrays.asList(2000L, null, 6))
+    );
+
+    Assert.assertEquals(
+        EXPECTED,
+        ColumnarScanBatch.fromScanResultValue(value, ScanQuery.ResultFormat.RESULT_FORMAT_COMPACTED_LIST)
+    );
+  }
+
+  @Test
+  public void testFromList()
+  {
+    // Missing keys are read as nulls.
+    final Map<String, Object> secondRow = new HashMap<>();
+    secondRow.put(ColumnHolder.TIME_COLUMN_NAME, 2000L);
+    secondRow.put("count", 6);
+
+    final ScanResultValue value = new ScanResultValue(
+        "segment",
+        COLUMNS,
+        ImmutableList.of(
+            ImmutableMap.of(ColumnHolder.TIME_COLUMN_NAME, 1000L, "name", "Feridun", "count", 4),
+            secondRow
+        )
+    );
+
+    Assert.assertEquals(
+        EXPECTED,
+        ColumnarScanBatch.fromScanResultValue(value, ScanQuery.ResultFormat.RESULT_FORMAT_LIST)
+    );
+  }
+
+  @Test(expected = UOE.class)
+  public void testFromValueVector()
+  {
+    final ScanResultValue value = new ScanResultValue("segment", COLUMNS, ImmutableList.of());
+    ColumnarScanBatch.fromScanResultValue(value, ScanQuery.ResultFormat.RESULT_FORMAT_VALUE_VECTOR);
+  }
+
+  @Test
+  public void testSerde() throws IOException
+  {
+    final ColumnarScanBatch batch = new ColumnarScanBatch(
+        COLUMNS,
+        2,
+        ImmutableList.of(
+            Arrays.asList(1000, 2000),
+            Arrays.asList("Feridun", null),
+            Arrays.asList(4, 6)
+        )
+    );
+
+    Assert.assertEquals(
+        batch,
+        JSON_MAPPER.readValue(JSON_MAPPER.writeValueAsString(batch), ColumnarScanBatch.class)
+    );
+  }
+}
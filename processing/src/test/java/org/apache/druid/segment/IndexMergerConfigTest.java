@@ -0,0 +1,70 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.druid.segment;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.inject.Guice;
+import com.google.inject.Injector;
+import com.google.inject.ProvisionException;
+import org.apache.druid.guice.ConfigModule;
+import org.apache.druid.guice.DruidGuiceExtensions;
+import org.apache.druid.jackson.DefaultObjectMapper;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Properties;
+
+public class IndexMergerConfigTest
+{
+  @Test
+  public void testDefault()
+  {
+    Assert.assertEquals(1, makeInjector(new Properties()).getInstance(IndexMergerConfig.class).getNumColumnWriterThreads());
+  }
+
+  @Test
+  public void testNumColumnWriterThreads()
+  {
+    final Properties props = new Properties();
+    props.setProperty("druid.peon.indexMerger.numColumnWriterThreads", "4");
+    Assert.assertEquals(4, makeInjector(props).getInstance(IndexMergerConfig.class).getNumColumnWriterThreads());
+  }
+
+  @Test(expected = ProvisionException.class)
+  public void testInvalidNumColumnWriterThreads()
+  {
+    final Properties props = new Properties();
+    props.setProperty("druid.peon.indexMerger.numColumnWriterThreads", "0");
+    makeInjector(props).getInstance(IndexMergerConfig.class);
+  }
+
+  private static Injector makeInjector(final Properties props)
+  {
+    return Guice.createInjector(
+        binder -> {
+          binder.bind(Properties.class).toInstance(props);
+          binder.bind(ObjectMapper.class).toInstance(new DefaultObjectMapper());
+          binder.install(new ConfigModule());
+          binder.install(new DruidGuiceExtensions());
+        },
+        new IndexMergerModule()
+    );
+  }
+}
@@ -20,6 +20,8 @@
 package org.apache.druid.segment.join;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Lists;
 import org.apache.druid.common.config.NullHandling;
 import org.apache.druid.java.util.common.DateTimes;
@@ -27,8 +29,11 @@ import org.apache.druid.java.util.common.Intervals;
 import org.apache.druid.java.util.common.StringUtils;
 import org.apache.druid.java.util.common.granularity.Granularities;
 import org.apache.druid.math.expr.ExprMacroTable;
+import org.apache.druid.query.QueryContexts;
+import org.apache.druid.query.extraction.MapLookupExtractor;
 import org.apache.druid.query.filter.ExpressionDimFilter;
 import org.apache.druid.query.filter.Filter;
+import org.apache.druid.query.filter.InDimFilter;
 import org.apache.druid.query.filter.OrDimFilter;
 import org.apache.druid.query.filter.SelectorDimFilter;
 import org.apache.druid.segment.VirtualColumn;
@@ -36,12 +41,18 @@ import org.apache.druid.segment.VirtualColumns;
 import org.apache.druid.segment.column.ColumnCapabilities;
 import org.apache.druid.segment.column.ValueType;
 import org.apache.druid.segment.filter.SelectorFilter;
+import org.apache.druid.segment.join.filter.JoinFilterAnalyzer;
 import org.apache.druid.segment.join.filter.JoinFilterPreAnalysis;
+import org.apache.druid.segment.join.filter.JoinFilterPreAnalysisKey;
+import org.apache.druid.segment.join.filter.rewrite.JoinFilterRewriteConfig;
 import org.apache.druid.segment.join.lookup.LookupJoinable;
 import org.apache.druid.segment.join.table.IndexedTableJoinable;
+import org.apache.druid.segment.vector.VectorCursor;
 import org.junit.Assert;
 import org.junit.Test;
 
+import javax.annotation.Nullable;
+
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
@@ -478,6 +489,79 @@ public class HashJoinSegmentStorageAdapterTest extends BaseHashJoinSegmentStorag
     );
   }
 
+  @Test
+  public void test_makeCursors_factToSmallLookupInnerWithRuntimeFilter()
+  {
+    final List<JoinableClause> joinableClauses = ImmutableList.of(
+        new JoinableClause(
+            FACT_TO_COUNTRY_ON_ISO_CODE_PREFIX,
+            LookupJoinable.wrap(new MapLookupExtractor(ImmutableMap.of("CA", "Canada", "MX", "Mexico"), false)),
+            JoinType.INNER,
+            JoinConditionAnalysis.forExpression(
+                StringUtils.format("\"%sk\" == countryIsoCode", FACT_TO_COUNTRY_ON_ISO_CODE_PREFIX),
+                FACT_TO_COUNTRY_ON_ISO_CODE_PREFIX,
+                ExprMacroTable.nil()
+            )
+        )
+    );
+
+    final List<String> columns = ImmutableList.of(
+        "page",
+        "countryIsoCode",
+        FACT_TO_COUNTRY_ON_ISO_CODE_PREFIX + "v"
+    );
+
+    final List<Object[]> expectedRows = ImmutableList.of(
+        new Object[]{"Mathis Bolly", "MX", "Mexico"},
+        new Object[]{"Didier Leclair", "CA", "Canada"},
+        new Object[]{"Les Argonautes", "CA", "Canada"},
+        new Object[]{"Sarah Michelle Gellar", "CA", "Canada"}
+    );
+
+    // Results must be the same whether or not the key set of the lookup is pushed down to the base table.
+    for (long runtimeFilterMaxSize : new long[]{0, 1, 10000}) {
+      final JoinFilterPreAnalysis joinFilterPreAnalysis = JoinFilterAnalyzer.computeJoinFilterPreAnalysis(
+          new JoinFilterPreAnalysisKey(
+              new JoinFilterRewriteConfig(
+                  true,
+                  true,
+                  true,
+                  QueryContexts.DEFAULT_ENABLE_JOIN_FILTER_REWRITE_MAX_SIZE,
+                  runtimeFilterMaxSize
+              ),
+              joinableClauses,
+              VirtualColumns.EMPTY,
+              null
+          )
+      );
+
+      // The key set is read once, when pre-analyzing the query, and only if it is within the limit.
+      Assert.assertEquals(
+          runtimeFilterMaxSize >= 2
+          ? ImmutableMap.of("countryIsoCode", new InDimFilter("countryIsoCode", ImmutableSet.of("CA", "MX")).toFilter())
+          : ImmutableMap.of(),
+          joinFilterPreAnalysis.getRuntimeFilters()
+      );
+
+      JoinTestHelper.verifyCursors(
+          new HashJoinSegmentStorageAdapter(
+              factSegment.asStorageAdapter(),
+              joinableClauses,
+              joinFilterPreAnalysis
+          ).makeCursors(
+              null,
+              Intervals.ETERNITY,
+              VirtualColumns.EMPTY,
+              Granularities.ALL,
+              false,
+              null
+          ),
+          columns,
+          expectedRows
+      );
+    }
+  }
+
   @Test
   public void test_makeCursors_factToCountryInnerUsingLookup()
   {
@@ -2055,4 +2139,178 @@ public class HashJoinSegmentStorageAdapterTest extends BaseHashJoinSegmentStorag
     Assert.assertEquals(expectedPostJoin, actualPostJoin);
   }
 
+  @Test
+  public void test_makeVectorCursor_factToCountryLeft()
+  {
+    verifyVectorCursorMatchesCursors(
+        ImmutableList.of(factToCountryOnIsoCode(JoinType.LEFT)),
+        null,
+        ImmutableList.of(
+            "page",
+            "countryIsoCode",
+            FACT_TO_COUNTRY_ON_ISO_CODE_PREFIX + "countryIsoCode",
+            FACT_TO_COUNTRY_ON_ISO_CODE_PREFIX + "countryName",
+            FACT_TO_COUNTRY_ON_ISO_CODE_PREFIX + "countryNumber"
+        )
+    );
+  }
+
+  @Test
+  public void test_makeVectorCursor_factToCountryInner()
+  {
+    verifyVectorCursorMatchesCursors(
+        ImmutableList.of(factToCountryOnIsoCode(JoinType.INNER)),
+        null,
+        ImmutableList.of(
+            "page",
+            "countryIsoCode",
+            "delta",
+            FACT_TO_COUNTRY_ON_ISO_CODE_PREFIX + "countryIsoCode",
+            FACT_TO_COUNTRY_ON_ISO_CODE_PREFIX + "countryName",
+            FACT_TO_COUNTRY_ON_ISO_CODE_PREFIX + "countryNumber"
+        )
+    );
+  }
+
+  @Test
+  public void test_makeVectorCursor_factToCountryInnerUsingCountryNumber()
+  {
+    verifyVectorCursorMatchesCursors(
+        ImmutableList.of(factToCountryOnNumber(JoinType.INNER)),
+        null,
+        ImmutableList.of(
+            "page",
+            "countryNumber",
+            FACT_TO_COUNTRY_ON_NUMBER_PREFIX + "countryIsoCode",
+            FACT_TO_COUNTRY_ON_NUMBER_PREFIX + "countryName",
+            FACT_TO_COUNTRY_ON_NUMBER_PREFIX + "countryNumber"
+        )
+    );
+  }
+
+  @Test
+  public void test_makeVectorCursor_factToCountryToCountryInner()
+  {
+    // Second clause is keyed on a column from the first clause.
+    final JoinableClause countryToCountry = new JoinableClause(
+        FACT_TO_COUNTRY_ON_NUMBER_PREFIX,
+        new IndexedTableJoinable(countriesTable),
+        JoinType.INNER,
+        JoinConditionAnalysis.forExpression(
+            StringUtils.format(
+                "\"%scountryNumber\" == \"%scountryNumber\"",
+                FACT_TO_COUNTRY_ON_ISO_CODE_PREFIX,
+                FACT_TO_COUNTRY_ON_NUMBER_PREFIX
+            ),
+            FACT_TO_COUNTRY_ON_NUMBER_PREFIX,
+            ExprMacroTable.nil()
+        )
+    );
+
+    verifyVectorCursorMatchesCursors(
+        ImmutableList.of(factToCountryOnIsoCode(JoinType.LEFT), countryToCountry),
+        null,
+        ImmutableList.of(
+            "page",
+            FACT_TO_COUNTRY_ON_ISO_CODE_PREFIX + "countryName",
+            FACT_TO_COUNTRY_ON_NUMBER_PREFIX + "countryIsoCode"
+        )
+    );
+  }
+
+  @Test
+  public void test_makeVectorCursor_factToCountryInnerWithFilterOnJoinable()
+  {
+    verifyVectorCursorMatchesCursors(
+        ImmutableList.of(factToCountryOnIsoCode(JoinType.INNER)),
+        new OrDimFilter(
+            new SelectorDimFilter(FACT_TO_COUNTRY_ON_ISO_CODE_PREFIX + "countryName", "Australia", null),
+            new SelectorDimFilter("channel", "#de.wikipedia", null)
+        ).toFilter(),
+        ImmutableList.of(
+            "page",
+            "channel",
+            FACT_TO_COUNTRY_ON_ISO_CODE_PREFIX + "countryName"
+        )
+    );
+  }
+
+  @Test
+  public void test_canVectorize_notSupported()
+  {
+    final List<List<JoinableClause>> clauseLists = ImmutableList.of(
+        ImmutableList.of(factToCountryOnIsoCode(JoinType.RIGHT)),
+        ImmutableList.of(factToCountryOnIsoCode(JoinType.FULL)),
+        ImmutableList.of(factToRegion(JoinType.INNER)),
+        ImmutableList.of(factToCountryNameUsingIsoCodeLookup(JoinType.LEFT))
+    );
+
+    for (List<JoinableClause> clauses : clauseLists) {
+      final HashJoinSegmentStorageAdapter adapter = new HashJoinSegmentStorageAdapter(
+          factSegment.asStorageAdapter(),
+          clauses,
+          makeDefaultConfigPreAnalysis(null, clauses, VirtualColumns.EMPTY)
+      );
+
+      Assert.assertFalse(clauses.toString(), adapter.canVectorize(null, VirtualColumns.EMPTY, false));
+    }
+
+    // Post-join virtual columns are not supported.
+    final List<JoinableClause> clauses = ImmutableList.of(factToCountryOnIsoCode(JoinType.LEFT));
+    final VirtualColumns virtualColumns = VirtualColumns.create(
+        Collections.singletonList(
+            makeExpressionVirtualColumn(
+                StringUtils.format("concat(\"%scountryName\", 'x')", FACT_TO_COUNTRY_ON_ISO_CODE_PREFIX)
+            )
+        )
+    );
+
+    Assert.assertFalse(
+        new HashJoinSegmentStorageAdapter(
+            factSegment.asStorageAdapter(),
+            clauses,
+            makeDefaultConfigPreAnalysis(null, clauses, virtualColumns)
+        ).canVectorize(null, virtualColumns, false)
+    );
+  }
+
+  private void verifyVectorCursorMatchesCursors(
+      final List<JoinableClause> joinableClauses,
+      @Nullable final Filter filter,
+      final List<String> columns
+  )
+  {
+    final HashJoinSegmentStorageAdapter adapter = new HashJoinSegmentStorageAdapter(
+        factSegment.asStorageAdapter(),
+        joinableClauses,
+        makeDefaultConfigPreAnalysis(filter, joinableClauses, VirtualColumns.EMPTY)
+    );
+
+    Assert.assertTrue(adapter.canVectorize(filter, VirtualColumns.EMPTY, false));
+
+    final List<Object[]> expectedRows = JoinTestHelper.readCursors(
+        adapter.makeCursors(filter, Intervals.ETERNITY, VirtualColumns.EMPTY, Granularities.ALL, false, null),
+        columns
+    );
+
+    // Use a small vector size, so some vectors have no matches at all.
+    final List<Object[]> rows;
+    try (final VectorCursor cursor = adapter.makeVectorCursor(
+        filter,
+        Intervals.ETERNITY,
+        VirtualColumns.EMPTY,
+        false,
+        3,
+        null
+    )) {
+      rows = JoinTestHelper.readVectorCursor(cursor, columns);
+    }
+
+    Assert.assertFalse("expected some rows", expectedRows.isEmpty());
+    Assert.assertEquals("number of rows", expectedRows.size(), rows.size());
+
+    for (int i = 0; i < rows.size(); i++) {
+      Assert.assertArrayEquals("row #" + i, expectedRows.get(i), rows.get(i));
+    }
+  }
 }
@@ -39,6 +39,7 @@ import org.apache.druid.java.util.common.guava.Sequences;
 import org.apache.druid.java.util.common.jackson.JacksonUtils;
 import org.apache.druid.java.util.common.logger.Logger;
 import org.apache.druid.query.aggregation.hyperloglog.HyperUniquesAggregatorFactory;
+import org.apache.druid.query.dimension.DefaultDimensionSpec;
 import org.apache.druid.query.extraction.MapLookupExtractor;
 import org.apache.druid.segment.BaseDoubleColumnValueSelector;
 import org.apache.druid.segment.BaseFloatColumnValueSelector;
@@ -52,10 +53,16 @@ import org.apache.druid.segment.DimensionSelector;
 import org.apache.druid.segment.IndexBuilder;
 import org.apache.druid.segment.RowAdapter;
 import org.apache.druid.segment.TestHelper;
+import org.apache.druid.segment.column.ColumnCapabilities;
 import org.apache.druid.segment.column.RowSignature;
 import org.apache.druid.segment.column.ValueType;
 import org.apache.druid.segment.incremental.IncrementalIndexSchema;
 import org.apache.druid.segment.join.table.RowBasedIndexedTable;
+import org.apache.druid.segment.vector.SingleValueDimensionVectorSelector;
+import org.apache.druid.segment.vector.VectorColumnSelectorFactory;
+import org.apache.druid.segment.vector.VectorCursor;
+import org.apache.druid.segment.vector.VectorObjectSelector;
+import org.apache.druid.segment.vector.VectorValueSelector;
 import org.junit.Assert;
 
 import java.io.File;
@@ -327,6 +334,69 @@ public class JoinTestHelper
     ).toList();
   }
 
+  /**
+   * Vectorized version of {@link #readCursors}. Reads values the same way, so the results of the two can be compared.
+   */
+  public static List<Object[]> readVectorCursor(final VectorCursor cursor, final List<String> columns)
+  {
+    final VectorColumnSelectorFactory factory = cursor.getColumnSelectorFactory();
+    final List<Function<Integer, Object>> readers = new ArrayList<>();
+
+    for (String column : columns) {
+      final ColumnCapabilities capabilities = factory.getColumnCapabilities(column);
+      final ValueType type = capabilities == null ? ValueType.STRING : capabilities.getType();
+
+      switch (type) {
+        case STRING:
+          final SingleValueDimensionVectorSelector dimensionSelector =
+              factory.makeSingleValueDimensionSelector(DefaultDimensionSpec.of(column));
+          readers.add(i -> dimensionSelector.lookupName(dimensionSelector.getRowVector()[i]));
+          break;
+        case LONG:
+        case FLOAT:
+        case DOUBLE:
+          final VectorValueSelector valueSelector = factory.makeValueSelector(column);
+          readers.add(
+              i -> {
+                final boolean[] nulls = valueSelector.getNullVector();
+
+                if (NullHandling.sqlCompatible() && nulls != null && nulls[i]) {
+                  return null;
+                } else if (type == ValueType.LONG) {
+                  return valueSelector.getLongVector()[i];
+                } else if (type == ValueType.FLOAT) {
+                  return valueSelector.getFloatVector()[i];
+                } else {
+                  return valueSelector.getDoubleVector()[i];
+                }
+              }
+          );
+          break;
+        default:
+          final VectorObjectSelector objectSelector = factory.makeObjectSelector(column);
+          readers.add(i -> objectSelector.getObjectVector()[i]);
+      }
+    }
+
+    final List<Object[]> rows = new ArrayList<>();
+
+    while (!cursor.isDone()) {
+      for (int i = 0; i < cursor.getCurrentVectorSize(); i++) {
+        final Object[] row = new Object[columns.size()];
+
+        for (int j = 0; j < row.length; j++) {
+          row[j] = readers.get(j).apply(i);
+        }
+
+        rows.add(row);
+      }
+
+      cursor.advance();
+    }
+
+    return rows;
+  }
+
   public static void verifyCursors(
       final Sequence<Cursor> cursors,
       final List<String> columns,
@@ -20,6 +20,7 @@
 package org.apache.druid.segment.join.lookup;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import org.apache.druid.query.lookup.LookupExtractor;
 import org.apache.druid.segment.column.ColumnCapabilities;
@@ -249,4 +250,30 @@ public class LookupJoinableTest
         true);
     Assert.assertEquals(Optional.of(ImmutableSet.of()), correlatedValues);
   }
+
+  @Test
+  public void getColumnValuesForKeyColumnShouldReturnAllKeys()
+  {
+    Mockito.doReturn(true).when(extractor).canIterate();
+    Mockito.doReturn(ImmutableMap.of(SEARCH_KEY_VALUE, SEARCH_VALUE_VALUE).entrySet()).when(extractor).iterable();
+    Assert.assertEquals(
+        Optional.of(ImmutableSet.of(SEARCH_KEY_VALUE)),
+        target.getColumnValues(LookupColumnSelectorFactory.KEY_COLUMN, 10)
+    );
+  }
+
+  @Test
+  public void getColumnValuesAboveLimitShouldReturnEmpty()
+  {
+    Mockito.doReturn(true).when(extractor).canIterate();
+    Mockito.doReturn(ImmutableMap.of(SEARCH_KEY_VALUE, SEARCH_VALUE_VALUE).entrySet()).when(extractor).iterable();
+    Assert.assertEquals(Optional.empty(), target.getColumnValues(LookupColumnSelectorFactory.KEY_COLUMN, 0));
+  }
+
+  @Test
+  public void getColumnValuesForNonIterableLookupShouldReturnEmpty()
+  {
+    Mockito.doReturn(false).when(extractor).canIterate();
+    Assert.assertEquals(Optional.empty(), target.getColumnValues(LookupColumnSelectorFactory.KEY_COLUMN, 10));
+  }
 }
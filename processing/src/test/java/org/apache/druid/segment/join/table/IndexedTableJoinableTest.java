@@ -21,6 +21,7 @@ package org.apache.druid.segment.join.table;
 
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Sets;
 import org.apache.druid.common.config.NullHandling;
 import org.apache.druid.java.util.common.DateTimes;
 import org.apache.druid.java.util.common.io.Closer;
@@ -198,6 +199,37 @@ public class IndexedTableJoinableTest
     Assert.assertNull(selector.idLookup());
   }
 
+  @Test
+  public void getColumnValuesForKeyColumnShouldReturnAllValues()
+  {
+    Assert.assertEquals(
+        Optional.of(ImmutableSet.of("foo", "bar", "baz")),
+        target.getColumnValues(KEY_COLUMN, MAX_CORRELATION_SET_SIZE)
+    );
+  }
+
+  @Test
+  public void getColumnValuesForValueColumnShouldReturnAllValuesIncludingNull()
+  {
+    Assert.assertEquals(
+        Optional.of(Sets.newHashSet("1", "2", null)),
+        target.getColumnValues(VALUE_COLUMN, MAX_CORRELATION_SET_SIZE)
+    );
+  }
+
+  @Test
+  public void getColumnValuesAboveLimitShouldReturnEmpty()
+  {
+    Assert.assertEquals(Optional.empty(), target.getColumnValues(KEY_COLUMN, 2));
+    Assert.assertEquals(Optional.empty(), target.getColumnValues(VALUE_COLUMN, 2));
+  }
+
+  @Test
+  public void getColumnValuesForUnknownColumnShouldReturnEmpty()
+  {
+    Assert.assertEquals(Optional.empty(), target.getColumnValues(UNKNOWN_COLUMN, MAX_CORRELATION_SET_SIZE));
+  }
+
   @Test
   public void getCorrelatedColummnValuesMissingSearchColumnShouldReturnEmpty()
   {
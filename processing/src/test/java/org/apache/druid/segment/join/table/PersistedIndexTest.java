@@ -0,0 +1,188 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.druid.segment.join.table;
+
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.ints.IntList;
+import org.apache.druid.segment.column.ValueType;
+import org.apache.druid.segment.writeout.HeapByteBufferWriteOutBytes;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+public class PersistedIndexTest
+{
+  @Rule
+  public ExpectedException expectedException = ExpectedException.none();
+
+  @Test
+  public void test_stringKey_uniqueKeys() throws IOException
+  {
+    final IndexedTable.Index index = roundTrip(
+        new PersistedIndex.Builder(ValueType.STRING)
+            .add("abc")
+            .add("")
+            .add(null)
+            .add("1")
+            .add("def")
+    );
+
+    Assert.assertEquals(ValueType.STRING, index.keyType());
+    Assert.assertTrue(index.areKeysUnique());
+
+    Assert.assertEquals(intList(0), index.find("abc"));
+    Assert.assertEquals(intList(1), index.find(""));
+    Assert.assertEquals(intList(3), index.find(1L));
+    Assert.assertEquals(intList(3), index.find("1"));
+    Assert.assertEquals(intList(4), index.find("def"));
+    Assert.assertEquals(intList(), index.find(null));
+    Assert.assertEquals(intList(), index.find("nonexistent"));
+
+    expectedException.expect(UnsupportedOperationException.class);
+    index.findUniqueLong(0L);
+  }
+
+  @Test
+  public void test_stringKey_duplicateKeys() throws IOException
+  {
+    final IndexedTable.Index index = roundTrip(
+        new PersistedIndex.Builder(ValueType.STRING)
+            .add("abc")
+            .add("")
+            .add(null)
+            .add("abc")
+            .add("1")
+            .add("def")
+    );
+
+    Assert.assertEquals(ValueType.STRING, index.keyType());
+    Assert.assertFalse(index.areKeysUnique());
+
+    Assert.assertEquals(intList(0, 3), index.find("abc"));
+    Assert.assertEquals(intList(1), index.find(""));
+    Assert.assertEquals(intList(4), index.find("1"));
+    Assert.assertEquals(intList(5), index.find("def"));
+    Assert.assertEquals(intList(), index.find(null));
+    Assert.assertEquals(intList(), index.find("nonexistent"));
+  }
+
+  @Test
+  public void test_longKey_uniqueKeys() throws IOException
+  {
+    final IndexedTable.Index index = roundTrip(
+        new PersistedIndex.Builder(ValueType.LONG)
+            .add(1)
+            .add(10_000_000)
+            .add(-2)
+    );
+
+    Assert.assertEquals(ValueType.LONG, index.keyType());
+    Assert.assertTrue(index.areKeysUnique());
+
+    Assert.assertEquals(intList(0), index.find(1L));
+    Assert.assertEquals(intList(1), index.find(10_000_000L));
+    Assert.assertEquals(intList(2), index.find("-2"));
+    Assert.assertEquals(intList(), index.find(3L));
+
+    Assert.assertEquals(0, index.findUniqueLong(1L));
+    Assert.assertEquals(1, index.findUniqueLong(10_000_000L));
+    Assert.assertEquals(2, index.findUniqueLong(-2L));
+    Assert.assertEquals(IndexedTable.Index.NOT_FOUND, index.findUniqueLong(3L));
+  }
+
+  @Test
+  public void test_longKey_duplicateKeys() throws IOException
+  {
+    final IndexedTable.Index index = roundTrip(
+        new PersistedIndex.Builder(ValueType.LONG)
+            .add(1)
+            .add(5)
+            .add(1)
+            .add(2)
+    );
+
+    Assert.assertEquals(ValueType.LONG, index.keyType());
+    Assert.assertFalse(index.areKeysUnique());
+
+    Assert.assertEquals(intList(0, 2), index.find("1"));
+    Assert.assertEquals(intList(0, 2), index.find(1L));
+    Assert.assertEquals(intList(1), index.find(5L));
+    Assert.assertEquals(intList(3), index.find(2L));
+    Assert.assertEquals(intList(), index.find(3L));
+
+    expectedException.expect(UnsupportedOperationException.class);
+    index.findUniqueLong(5L);
+  }
+
+  @Test
+  public void test_floatKey_duplicateKeys() throws IOException
+  {
+    final IndexedTable.Index index = roundTrip(
+        new PersistedIndex.Builder(ValueType.FLOAT)
+            .add(1.5f)
+            .add(null)
+            .add(-0.25)
+            .add("1.5")
+    );
+
+    Assert.assertEquals(ValueType.FLOAT, index.keyType());
+    Assert.assertFalse(index.areKeysUnique());
+
+    Assert.assertEquals(intList(0, 3), index.find(1.5f));
+    Assert.assertEquals(intList(0, 3), index.find(1.5));
+    Assert.assertEquals(intList(2), index.find(-0.25f));
+    Assert.assertEquals(intList(), index.find(null));
+    Assert.assertEquals(intList(), index.find(2f));
+  }
+
+  @Test
+  public void test_emptyIndex() throws IOException
+  {
+    final IndexedTable.Index index = roundTrip(new PersistedIndex.Builder(ValueType.DOUBLE).add(null));
+
+    Assert.assertEquals(ValueType.DOUBLE, index.keyType());
+    Assert.assertEquals(intList(), index.find(1.0));
+  }
+
+  private static IndexedTable.Index roundTrip(final PersistedIndex.Builder builder) throws IOException
+  {
+    final HeapByteBufferWriteOutBytes out = new HeapByteBufferWriteOutBytes();
+
+    // Write some junk first, to check that the index is read from the current position of the buffer.
+    out.write(new byte[]{1, 2, 3});
+    builder.writeTo(out);
+    Assert.assertEquals(builder.getSerializedSize() + 3, out.size());
+
+    final ByteBuffer buffer = ByteBuffer.allocate((int) out.size());
+    out.writeTo(buffer);
+    buffer.position(3);
+
+    return PersistedIndex.read(buffer);
+  }
+
+  private static IntList intList(final int... ints)
+  {
+    return new IntArrayList(ints);
+  }
+}
@@ -46,7 +46,7 @@ public class RowBasedIndexBuilderTest
 
     final IndexedTable.Index index = builder.build();
 
-    Assert.assertThat(index, CoreMatchers.instanceOf(MapIndex.class));
+    Assert.assertThat(index, CoreMatchers.instanceOf(CompactIndex.class));
     Assert.assertEquals(ValueType.STRING, index.keyType());
     Assert.assertTrue(index.areKeysUnique());
 
@@ -76,7 +76,7 @@ public class RowBasedIndexBuilderTest
 
     final IndexedTable.Index index = builder.build();
 
-    Assert.assertThat(index, CoreMatchers.instanceOf(MapIndex.class));
+    Assert.assertThat(index, CoreMatchers.instanceOf(CompactIndex.class));
     Assert.assertEquals(ValueType.STRING, index.keyType());
     Assert.assertFalse(index.areKeysUnique());
 
@@ -129,7 +129,7 @@ public class RowBasedIndexBuilderTest
 
     final IndexedTable.Index index = builder.build();
 
-    Assert.assertThat(index, CoreMatchers.instanceOf(MapIndex.class));
+    Assert.assertThat(index, CoreMatchers.instanceOf(CompactIndex.class));
     Assert.assertEquals(ValueType.LONG, index.keyType());
     Assert.assertTrue(index.areKeysUnique());
 
@@ -156,7 +156,7 @@ public class RowBasedIndexBuilderTest
 
     final IndexedTable.Index index = builder.build();
 
-    Assert.assertThat(index, CoreMatchers.instanceOf(MapIndex.class));
+    Assert.assertThat(index, CoreMatchers.instanceOf(CompactIndex.class));
     Assert.assertEquals(ValueType.LONG, index.keyType());
     Assert.assertFalse(index.areKeysUnique());
 
@@ -171,6 +171,55 @@ public class RowBasedIndexBuilderTest
     index.findUniqueLong(5L);
   }
 
+  @Test
+  public void test_doubleKey_duplicateKeys()
+  {
+    final RowBasedIndexBuilder builder =
+        new RowBasedIndexBuilder(ValueType.DOUBLE)
+            .add(1.5)
+            .add(null)
+            .add(2)
+            .add("1.5")
+            .add(1.5f)
+            .add("abc");
+
+    final IndexedTable.Index index = builder.build();
+
+    Assert.assertThat(index, CoreMatchers.instanceOf(CompactIndex.class));
+    Assert.assertEquals(ValueType.DOUBLE, index.keyType());
+    Assert.assertFalse(index.areKeysUnique());
+
+    Assert.assertEquals(intList(0, 3, 4), index.find(1.5));
+    Assert.assertEquals(intList(0, 3, 4), index.find("1.5"));
+    Assert.assertEquals(intList(2), index.find(2L));
+    Assert.assertEquals(intList(2), index.find(2.0));
+    Assert.assertEquals(intList(), index.find(null));
+    Assert.assertEquals(intList(), index.find(3.0));
+
+    expectedException.expect(UnsupportedOperationException.class);
+    index.findUniqueLong(2L);
+  }
+
+  @Test
+  public void test_findWithIterator()
+  {
+    final IndexedTable.Index uniqueIndex =
+        new RowBasedIndexBuilder(ValueType.STRING).add("abc").add("def").build();
+    final IndexedTable.Index duplicateIndex =
+        new RowBasedIndexBuilder(ValueType.STRING).add("abc").add("def").add("abc").build();
+    final IndexedTable.Index longArrayIndex =
+        new RowBasedIndexBuilder(ValueType.LONG).add(1).add(5).build();
+
+    // One iterator, reused across lookups and indexes.
+    final RowNumberIterator iterator = new RowNumberIterator();
+
+    for (IndexedTable.Index index : new IndexedTable.Index[]{uniqueIndex, duplicateIndex, longArrayIndex}) {
+      for (Object key : new Object[]{"abc", "def", 1L, "5", null, "nonexistent"}) {
+        Assert.assertEquals(String.valueOf(key), index.find(key), new IntArrayList(index.find(key, iterator)));
+      }
+    }
+  }
+
   public IntList intList(final int... ints)
   {
     final IntArrayList retVal = new IntArrayList(ints.length);
@@ -28,46 +28,55 @@ import org.apache.druid.jackson.DefaultObjectMapper;
 import org.apache.druid.jackson.SegmentizerModule;
 import org.apache.druid.java.util.common.DateTimes;
 import org.apache.druid.java.util.common.Intervals;
+import org.apache.druid.java.util.common.io.smoosh.SmooshedFileMapper;
 import org.apache.druid.math.expr.ExprMacroTable;
 import org.apache.druid.query.expression.TestExprMacroTable;
 import org.apache.druid.segment.IndexIO;
 import org.apache.druid.segment.IndexMerger;
 import org.apache.druid.segment.IndexMergerV9;
 import org.apache.druid.segment.IndexSpec;
+import org.apache.druid.segment.QueryableIndex;
+import org.apache.druid.segment.QueryableIndexSegment;
 import org.apache.druid.segment.Segment;
 import org.apache.druid.segment.TestIndex;
 import org.apache.druid.segment.incremental.IncrementalIndex;
 import org.apache.druid.segment.join.table.BroadcastSegmentIndexedTable;
 import org.apache.druid.segment.join.table.IndexedTable;
+import org.apache.druid.segment.join.table.PersistedIndex;
 import org.apache.druid.segment.writeout.OffHeapMemorySegmentWriteOutMediumFactory;
 import org.apache.druid.testing.InitializedNullHandlingTest;
 import org.apache.druid.timeline.DataSegment;
+import org.hamcrest.CoreMatchers;
 import org.joda.time.Interval;
 import org.junit.Assert;
+import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.TemporaryFolder;
 
 import java.io.File;
 import java.io.IOException;
-import java.util.List;
 import java.util.Set;
 
 public class BroadcastJoinableMMappedQueryableSegmentizerFactoryTest extends InitializedNullHandlingTest
 {
   private static final String TABLE_NAME = "test";
+  private static final Interval TEST_INTERVAL = Intervals.of("2011-01-12T00:00:00.000Z/2011-05-01T00:00:00.000Z");
   private static final Set<String> KEY_COLUMNS =
       ImmutableSet.of("market", "longNumericNull", "doubleNumericNull", "floatNumericNull", "partial_null_column");
 
   @Rule
   public TemporaryFolder temporaryFolder = new TemporaryFolder();
 
-  @Test
-  public void testSegmentizer() throws IOException, SegmentLoadingException
+  private ObjectMapper mapper;
+  private IndexIO indexIO;
+
+  @Before
+  public void setUp()
   {
-    final ObjectMapper mapper = new DefaultObjectMapper();
+    mapper = new DefaultObjectMapper();
     mapper.registerModule(new SegmentizerModule());
-    final IndexIO indexIO = new IndexIO(mapper, () -> 0);
+    indexIO = new IndexIO(mapper, () -> 0);
     mapper.setInjectableValues(
         new InjectableValues.Std()
             .addValue(ExprMacroTable.class.getName(), TestExprMacroTable.INSTANCE)
@@ -75,32 +84,123 @@ public class BroadcastJoinableMMappedQueryableSegmentizerFactoryTest extends Ini
             .addValue(IndexIO.class, indexIO)
             .addValue(DataSegment.PruneSpecsHolder.class, DataSegment.PruneSpecsHolder.DEFAULT)
     );
+  }
 
-    IndexMerger indexMerger = new IndexMergerV9(mapper, indexIO, OffHeapMemorySegmentWriteOutMediumFactory.instance());
-
+  @Test
+  public void testSegmentizer() throws IOException, SegmentLoadingException
+  {
     SegmentizerFactory expectedFactory = new BroadcastJoinableMMappedQueryableSegmentizerFactory(
         indexIO,
         KEY_COLUMNS
     );
-    Interval testInterval = Intervals.of("2011-01-12T00:00:00.000Z/2011-05-01T00:00:00.000Z");
-    IncrementalIndex data = TestIndex.makeRealtimeIndex("druid.sample.numeric.tsv");
+    File persistedSegmentRoot = merge(persist(expectedFactory), expectedFactory);
+    Assert.assertFalse(hasJoinIndex(persistedSegmentRoot));
+
+    final Segment loaded = load(persistedSegmentRoot, expectedFactory);
+    final BroadcastSegmentIndexedTable table = (BroadcastSegmentIndexedTable) loaded.as(IndexedTable.class);
+    Assert.assertNotNull(table);
+  }
+
+  @Test
+  public void testSegmentizerWithPersistedJoinIndex() throws IOException, SegmentLoadingException
+  {
+    SegmentizerFactory expectedFactory = new BroadcastJoinableMMappedQueryableSegmentizerFactory(
+        indexIO,
+        KEY_COLUMNS,
+        true
+    );
+    // Intermediate persists do not write the index, merges write it in the smoosh.
+    File intermediateSegmentRoot = persist(expectedFactory);
+    Assert.assertFalse(hasJoinIndex(intermediateSegmentRoot));
+    File persistedSegmentRoot = merge(intermediateSegmentRoot, expectedFactory);
+    Assert.assertTrue(hasJoinIndex(persistedSegmentRoot));
+    Assert.assertFalse(
+        new File(persistedSegmentRoot, BroadcastJoinableMMappedQueryableSegmentizerFactory.JOIN_INDEX_FILE_NAME).exists()
+    );
+
+    final Segment loaded = load(persistedSegmentRoot, expectedFactory);
+    final IndexedTable table = loaded.as(IndexedTable.class);
+    Assert.assertNotNull(table);
+
+    // Compare with indexes built on heap.
+    final IndexedTable builtTable = new BroadcastSegmentIndexedTable(
+        (QueryableIndexSegment) loaded,
+        KEY_COLUMNS,
+        table.version()
+    );
+
+    for (String keyColumn : KEY_COLUMNS) {
+      final int columnNumber = table.rowSignature().indexOf(keyColumn);
+      final IndexedTable.Index index = table.columnIndex(columnNumber);
+      final IndexedTable.Index builtIndex = builtTable.columnIndex(columnNumber);
+
+      Assert.assertThat(index, CoreMatchers.instanceOf(PersistedIndex.class));
+      Assert.assertEquals(builtIndex.keyType(), index.keyType());
+      Assert.assertEquals(builtIndex.areKeysUnique(), index.areKeysUnique());
 
-    List<String> columnNames = data.getColumnNames();
+      try (final IndexedTable.Reader reader = table.columnReader(columnNumber)) {
+        for (int row = 0; row < table.numRows(); row++) {
+          final Object value = reader.read(row);
+          Assert.assertEquals(keyColumn, builtIndex.find(value), index.find(value));
+        }
+      }
+    }
+
+    loaded.close();
+  }
+
+  private File persist(SegmentizerFactory segmentizerFactory) throws IOException
+  {
+    IndexMerger indexMerger = new IndexMergerV9(mapper, indexIO, OffHeapMemorySegmentWriteOutMediumFactory.instance());
+    IncrementalIndex data = TestIndex.makeRealtimeIndex("druid.sample.numeric.tsv");
     File segment = new File(temporaryFolder.newFolder(), "segment");
-    File persistedSegmentRoot = indexMerger.persist(
+    return indexMerger.persist(
         data,
-        testInterval,
+        TEST_INTERVAL,
         segment,
-        new IndexSpec(
-            null,
-            null,
-            null,
-            null,
-            expectedFactory
-        ),
+        makeIndexSpec(segmentizerFactory),
         null
     );
+  }
 
+  private File merge(File persistedSegmentRoot, SegmentizerFactory segmentizerFactory) throws IOException
+  {
+    IndexMerger indexMerger = new IndexMergerV9(mapper, indexIO, OffHeapMemorySegmentWriteOutMediumFactory.instance());
+    File segment = new File(temporaryFolder.newFolder(), "merged");
+    try (QueryableIndex index = indexIO.loadIndex(persistedSegmentRoot)) {
+      return indexMerger.mergeQueryableIndex(
+          ImmutableList.of(index),
+          false,
+          TestIndex.METRIC_AGGS,
+          segment,
+          makeIndexSpec(segmentizerFactory),
+          null
+      );
+    }
+  }
+
+  private static IndexSpec makeIndexSpec(SegmentizerFactory segmentizerFactory)
+  {
+    return new IndexSpec(
+        null,
+        null,
+        null,
+        null,
+        segmentizerFactory
+    );
+  }
+
+  private static boolean hasJoinIndex(File segmentRoot) throws IOException
+  {
+    try (SmooshedFileMapper fileMapper = SmooshedFileMapper.load(segmentRoot)) {
+      return fileMapper.getInternalFilenames()
+                       .contains(BroadcastJoinableMMappedQueryableSegmentizerFactory.JOIN_INDEX_FILE_NAME);
+    }
+  }
+
+  private Segment load(File persistedSegmentRoot, SegmentizerFactory expectedFactory)
+      throws IOException, SegmentLoadingException
+  {
     File factoryJson = new File(persistedSegmentRoot, "factory.json");
     Assert.assertTrue(factoryJson.exists());
     SegmentizerFactory factory = mapper.readValue(factoryJson, SegmentizerFactory.class);
@@ -110,18 +210,15 @@ public class BroadcastJoinableMMappedQueryableSegmentizerFactoryTest extends Ini
     // load a segment
     final DataSegment dataSegment = new DataSegment(
         TABLE_NAME,
-        testInterval,
+        TEST_INTERVAL,
         DateTimes.nowUtc().toString(),
         ImmutableMap.of(),
-        columnNames,
+        ImmutableList.of(),
         ImmutableList.of(),
         null,
         null,
         persistedSegmentRoot.getTotalSpace()
     );
-    final Segment loaded = factory.factorize(dataSegment, persistedSegmentRoot, false);
-
-    final BroadcastSegmentIndexedTable table = (BroadcastSegmentIndexedTable) loaded.as(IndexedTable.class);
-    Assert.assertNotNull(table);
+    return factory.factorize(dataSegment, persistedSegmentRoot, false);
   }
 }
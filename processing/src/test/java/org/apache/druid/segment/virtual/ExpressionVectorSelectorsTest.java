@@ -81,6 +81,10 @@ public class ExpressionVectorSelectorsTest
       "parse_long(string1) * double3",
       "parse_long(string5) * parse_long(string1)",
       "parse_long(string5) * parse_long(string1) * double3",
+      "parse_long(string3) + 1",
+      "cast(string2, 'DOUBLE')",
+      "cast(string2, 'LONG') * 2",
+      "string2",
       "'string constant'",
       "1",
       "192412.24124",
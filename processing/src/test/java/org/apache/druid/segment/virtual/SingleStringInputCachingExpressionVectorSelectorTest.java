@@ -0,0 +1,164 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.druid.segment.virtual;
+
+import org.apache.druid.common.config.NullHandling;
+import org.apache.druid.math.expr.ExprMacroTable;
+import org.apache.druid.math.expr.Parser;
+import org.apache.druid.segment.DimensionDictionarySelector;
+import org.apache.druid.segment.IdLookup;
+import org.apache.druid.segment.vector.SingleValueDimensionVectorSelector;
+import org.apache.druid.testing.InitializedNullHandlingTest;
+import org.junit.Assert;
+import org.junit.Test;
+
+import javax.annotation.Nullable;
+
+public class SingleStringInputCachingExpressionVectorSelectorTest extends InitializedNullHandlingTest
+{
+  private static final String[] DICTIONARY = new String[]{"1", "2", "foo"};
+
+  @Test
+  public void testEvaluatesOncePerDictionaryId()
+  {
+    final CountingDictionarySelector inputSelector = new CountingDictionarySelector(
+        new int[]{0, 1, 0, 0, 1, 1},
+        DICTIONARY.length
+    );
+    final SingleStringInputCachingExpressionVectorSelector selector = new SingleStringInputCachingExpressionVectorSelector(
+        inputSelector,
+        Parser.parse("parse_long(x) * 2", ExprMacroTable.nil())
+    );
+
+    Assert.assertArrayEquals(new long[]{2, 4, 2, 2, 4, 4}, selector.getLongVector());
+    Assert.assertArrayEquals(new double[]{2, 4, 2, 2, 4, 4}, selector.getDoubleVector(), 0.0);
+    Assert.assertArrayEquals(new Object[]{2L, 4L, 2L, 2L, 4L, 4L}, selector.getObjectVector());
+    Assert.assertArrayEquals(new boolean[6], selector.getNullVector());
+    Assert.assertEquals(2, inputSelector.lookups);
+  }
+
+  @Test
+  public void testDimensionSelector()
+  {
+    final CountingDictionarySelector inputSelector = new CountingDictionarySelector(
+        new int[]{2, 0, 1, 2},
+        DICTIONARY.length
+    );
+    final SingleStringInputCachingExpressionVectorSelector selector = new SingleStringInputCachingExpressionVectorSelector(
+        inputSelector,
+        Parser.parse("concat(x, 'x')", ExprMacroTable.nil())
+    );
+
+    // Dictionary ids are passed through, only names are transformed.
+    Assert.assertArrayEquals(new int[]{2, 0, 1, 2}, selector.getRowVector());
+    Assert.assertEquals(DICTIONARY.length, selector.getValueCardinality());
+    Assert.assertTrue(selector.nameLookupPossibleInAdvance());
+    Assert.assertNull(selector.idLookup());
+    Assert.assertEquals("foox", selector.lookupName(2));
+    Assert.assertEquals("1x", selector.lookupName(0));
+    Assert.assertEquals("foox", selector.lookupName(2));
+    Assert.assertEquals(2, inputSelector.lookups);
+  }
+
+  @Test
+  public void testNumericNulls()
+  {
+    final SingleStringInputCachingExpressionVectorSelector selector = new SingleStringInputCachingExpressionVectorSelector(
+        new CountingDictionarySelector(new int[]{0, 2}, DICTIONARY.length),
+        Parser.parse("parse_long(x)", ExprMacroTable.nil())
+    );
+
+    Assert.assertArrayEquals(new boolean[]{false, NullHandling.sqlCompatible()}, selector.getNullVector());
+    Assert.assertArrayEquals(new Object[]{1L, NullHandling.defaultLongValue()}, selector.getObjectVector());
+  }
+
+  @Test
+  public void testCanCache()
+  {
+    Assert.assertTrue(
+        SingleStringInputCachingExpressionVectorSelector.canCache(
+            new CountingDictionarySelector(new int[]{0}, DICTIONARY.length)
+        )
+    );
+    Assert.assertFalse(
+        SingleStringInputCachingExpressionVectorSelector.canCache(
+            new CountingDictionarySelector(new int[]{0}, DimensionDictionarySelector.CARDINALITY_UNKNOWN)
+        )
+    );
+  }
+
+  private static class CountingDictionarySelector implements SingleValueDimensionVectorSelector
+  {
+    private final int[] rowVector;
+    private final int cardinality;
+    private int lookups = 0;
+
+    CountingDictionarySelector(final int[] rowVector, final int cardinality)
+    {
+      this.rowVector = rowVector;
+      this.cardinality = cardinality;
+    }
+
+    @Override
+    public int[] getRowVector()
+    {
+      return rowVector;
+    }
+
+    @Override
+    public int getValueCardinality()
+    {
+      return cardinality;
+    }
+
+    @Nullable
+    @Override
+    public String lookupName(final int id)
+    {
+      lookups++;
+      return DICTIONARY[id];
+    }
+
+    @Override
+    public boolean nameLookupPossibleInAdvance()
+    {
+      return true;
+    }
+
+    @Nullable
+    @Override
+    public IdLookup idLookup()
+    {
+      return null;
+    }
+
+    @Override
+    public int getMaxVectorSize()
+    {
+      return rowVector.length;
+    }
+
+    @Override
+    public int getCurrentVectorSize()
+    {
+      return rowVector.length;
+    }
+  }
+}
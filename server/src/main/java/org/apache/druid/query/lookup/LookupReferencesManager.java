@@ -63,6 +63,7 @@ import java.util.concurrent.ExecutorCompletionService;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.concurrent.locks.LockSupport;
 import java.util.function.Function;
@@ -94,6 +95,9 @@ public class LookupReferencesManager implements LookupExtractorFactoryContainerP
   @VisibleForTesting
   final AtomicReference<LookupUpdateState> stateRef = new AtomicReference<>();
 
+  // Incremented after every change to the lookupMap of "stateRef". See getVersion.
+  private final AtomicLong version = new AtomicLong();
+
   @VisibleForTesting
   final LookupSnapshotTaker lookupSnapshotTaker;
 
@@ -226,6 +230,7 @@ public class LookupReferencesManager implements LookupExtractorFactoryContainerP
     atomicallyUpdateStateRef(
         oldState -> new LookupUpdateState(immutableLookupMap, oldState.pendingNotices, ImmutableList.of())
     );
+    version.incrementAndGet();
   }
 
   @LifecycleStop
@@ -308,6 +313,12 @@ public class LookupReferencesManager implements LookupExtractorFactoryContainerP
     return stateRef.get().lookupMap.keySet();
   }
 
+  @Override
+  public long getVersion()
+  {
+    return version.get();
+  }
+
   // Note that this should ensure that "toLoad" and "toDrop" are disjoint.
   LookupsState<LookupExtractorFactoryContainer> getAllLookupsState()
   {
@@ -504,6 +515,7 @@ public class LookupReferencesManager implements LookupExtractorFactoryContainerP
         );
       }
       stateRef.set(new LookupUpdateState(builder.build(), ImmutableList.of(), ImmutableList.of()));
+      version.incrementAndGet();
     }
     catch (InterruptedException | RuntimeException e) {
       LOG.error(e, "Failed to finish lookup load process.");
@@ -59,6 +59,24 @@ public interface AppenderatorConfig extends TuningConfig
 
   PartitionsSpec getPartitionsSpec();
 
+  /**
+   * Whether to persist only the sinks holding the most data in memory, instead of all sinks, when rows added without
+   * a committer reach maxRowsInMemory or maxBytesInMemory.
+   */
+  default boolean isPersistLargestSinks()
+  {
+    return false;
+  }
+
+  /**
+   * Fraction of maxRowsInMemory and maxBytesInMemory that may stay in memory after persisting the largest sinks.
+   * Only used if {@link #isPersistLargestSinks()} is true.
+   */
+  default double getPersistLargestSinksMemoryRatio()
+  {
+    return 0.5;
+  }
+
   /**
    * Period that sets frequency to persist to local storage if no other thresholds are met
    */
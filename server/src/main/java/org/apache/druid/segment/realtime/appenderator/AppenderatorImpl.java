@@ -83,6 +83,7 @@ import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -287,14 +288,18 @@ public class AppenderatorImpl implements Appenderator
 
     boolean isPersistRequired = false;
     boolean persist = false;
+    // Whether all sinks must be persisted, or only the largest ones are enough to free up memory.
+    boolean persistAllSinks = committerSupplier != null || !tuningConfig.isPersistLargestSinks();
     List<String> persistReasons = new ArrayList<>();
 
     if (!sink.canAppendRow()) {
       persist = true;
+      persistAllSinks = true;
       persistReasons.add("No more rows can be appended to sink");
     }
     if (System.currentTimeMillis() > nextFlush) {
       persist = true;
+      persistAllSinks = true;
       persistReasons.add(StringUtils.format(
           "current time[%d] is greater than nextFlush[%d]",
           System.currentTimeMillis(),
@@ -319,10 +324,16 @@ public class AppenderatorImpl implements Appenderator
     }
     if (persist) {
       if (allowIncrementalPersists) {
-        // persistAll clears rowsCurrentlyInMemory, no need to update it.
+        // persistAll and persistLargestSinks update rowsCurrentlyInMemory, no need to update it.
         log.info("Flushing in-memory data to disk because %s.", String.join(",", persistReasons));
+        final ListenableFuture<Object> persistFuture;
+        if (persistAllSinks) {
+          persistFuture = persistAll(committerSupplier == null ? null : committerSupplier.get());
+        } else {
+          persistFuture = persistLargestSinks();
+        }
         Futures.addCallback(
-            persistAll(committerSupplier == null ? null : committerSupplier.get()),
+            persistFuture,
             new FutureCallback<Object>()
             {
               @Override
@@ -501,12 +512,56 @@ public class AppenderatorImpl implements Appenderator
   public ListenableFuture<Object> persistAll(@Nullable final Committer committer)
   {
     throwPersistErrorIfExists();
+    return persistSinks(sinks.entrySet(), committer);
+  }
+
+  /**
+   * Persists the sinks holding the most data in memory, until the data left in memory is at most
+   * {@link AppenderatorConfig#getPersistLargestSinksMemoryRatio()} of maxRowsInMemory and maxBytesInMemory. Unlike
+   * {@link #persistAll}, small sinks stay in memory and keep being rolled up. When rows are spread over many segments
+   * at once, like in the partial segment generation of perfect rollup parallel indexing, this avoids splitting the
+   * memory into lots of tiny persisted indexes that must be merged later. No commit metadata is written, so this must
+   * only be used when rows are added without a committer.
+   */
+  private ListenableFuture<Object> persistLargestSinks()
+  {
+    throwPersistErrorIfExists();
+
+    final double memoryRatio = tuningConfig.getPersistLargestSinksMemoryRatio();
+    final long maxBytesLeftInMemory = (long) (maxBytesTuningConfig * memoryRatio);
+    final long maxRowsLeftInMemory = (long) (tuningConfig.getMaxRowsInMemory() * memoryRatio);
 
+    final List<Map.Entry<SegmentIdWithShardSpec, Sink>> candidates = new ArrayList<>(sinks.entrySet());
+    candidates.sort(
+        Comparator.comparingLong((Map.Entry<SegmentIdWithShardSpec, Sink> entry) -> entry.getValue().getBytesInMemory())
+                  .thenComparingInt(entry -> entry.getValue().getNumRowsInMemory())
+                  .reversed()
+    );
+
+    final List<Map.Entry<SegmentIdWithShardSpec, Sink>> sinksToPersist = new ArrayList<>();
+    long bytesLeftInMemory = bytesCurrentlyInMemory.get();
+    int rowsLeftInMemory = rowsCurrentlyInMemory.get();
+    for (Map.Entry<SegmentIdWithShardSpec, Sink> entry : candidates) {
+      if (bytesLeftInMemory <= maxBytesLeftInMemory && rowsLeftInMemory <= maxRowsLeftInMemory) {
+        break;
+      }
+      sinksToPersist.add(entry);
+      bytesLeftInMemory -= entry.getValue().getBytesInMemory();
+      rowsLeftInMemory -= entry.getValue().getNumRowsInMemory();
+    }
+    return persistSinks(sinksToPersist, null);
+  }
+
+  private ListenableFuture<Object> persistSinks(
+      final Collection<Map.Entry<SegmentIdWithShardSpec, Sink>> sinksToPersist,
+      @Nullable final Committer committer
+  )
+  {
     final Map<String, Integer> currentHydrants = new HashMap<>();
     final List<Pair<FireHydrant, SegmentIdWithShardSpec>> indexesToPersist = new ArrayList<>();
     int numPersistedRows = 0;
     long bytesPersisted = 0L;
-    for (Map.Entry<SegmentIdWithShardSpec, Sink> entry : sinks.entrySet()) {
+    for (Map.Entry<SegmentIdWithShardSpec, Sink> entry : sinksToPersist) {
       final SegmentIdWithShardSpec identifier = entry.getKey();
       final Sink sink = entry.getValue();
       if (sink == null) {
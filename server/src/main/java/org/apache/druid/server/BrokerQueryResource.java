@@ -28,10 +28,17 @@ import org.apache.druid.client.TimelineServerView;
 import org.apache.druid.guice.annotations.Json;
 import org.apache.druid.guice.annotations.Self;
 import org.apache.druid.guice.annotations.Smile;
+import org.apache.druid.java.util.common.guava.Sequence;
 import org.apache.druid.query.Query;
+import org.apache.druid.query.QueryUnsupportedException;
+import org.apache.druid.query.scan.ColumnarScanBatch;
+import org.apache.druid.query.scan.ScanQuery;
+import org.apache.druid.query.scan.ScanResultValue;
 import org.apache.druid.server.http.security.StateResourceFilter;
+import org.apache.druid.server.security.Access;
 import org.apache.druid.server.security.AuthConfig;
 import org.apache.druid.server.security.AuthorizerMapper;
+import org.apache.druid.server.security.ForbiddenException;
 
 import javax.servlet.http.HttpServletRequest;
 import javax.ws.rs.Consumes;
@@ -45,6 +52,7 @@ import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.List;
 
 /**
  */
@@ -108,4 +116,99 @@ public class BrokerQueryResource extends QueryResource
       return ioReaderWriter.gotError(e);
     }
   }
+
+  /**
+   * Splits the segments read by a scan query into at most "numPartitions" groups of roughly equal size. The results
+   * of each group can then be fetched independently, and in parallel, by posting the query restricted to the group's
+   * segments to {@link #doColumnarPost}.
+   */
+  @POST
+  @Path("/columnar/partitions")
+  @Produces({MediaType.APPLICATION_JSON, SmileMediaTypes.APPLICATION_JACKSON_SMILE})
+  @Consumes({MediaType.APPLICATION_JSON, SmileMediaTypes.APPLICATION_JACKSON_SMILE, APPLICATION_SMILE})
+  public Response getColumnarPartitions(
+      InputStream in,
+      @QueryParam("pretty") String pretty,
+      @QueryParam("numPartitions") @DefaultValue("1") int numPartitions,
+      @Context final HttpServletRequest req
+  ) throws IOException
+  {
+    final QueryLifecycle queryLifecycle = queryLifecycleFactory.factorize();
+    final ResourceIOReaderWriter ioReaderWriter =
+        createResourceIOReaderWriter(req.getContentType(), pretty != null);
+    try {
+      queryLifecycle.initialize(ioReaderWriter.getInputMapper().readValue(in, Query.class));
+
+      final Access authResult = queryLifecycle.authorize(req);
+      if (!authResult.isAllowed()) {
+        throw new ForbiddenException(authResult.toString());
+      }
+
+      final ScanQuery scanQuery = ColumnarScans.checkPartitionableQuery(queryLifecycle.getQuery());
+      final List<ColumnarScanPartition> partitions = ColumnarScans.partition(
+          ServerViewUtil.getTargetLocations(
+              brokerServerView,
+              scanQuery.getDataSource(),
+              scanQuery.getIntervals(),
+              1
+          ),
+          numPartitions
+      );
+
+      // Nothing is executed, but the request is still logged and counted like any other query.
+      queryLifecycle.emitLogsAndMetrics(null, req.getRemoteAddr(), -1);
+      return Response.fromResponse(ioReaderWriter.ok(partitions))
+                     .header("X-Druid-Query-Id", scanQuery.getId())
+                     .build();
+    }
+    catch (ForbiddenException e) {
+      // Mapped to an error response by ForbiddenExceptionMapper.
+      throw e;
+    }
+    catch (QueryUnsupportedException e) {
+      queryLifecycle.emitLogsAndMetrics(e, req.getRemoteAddr(), -1);
+      return ioReaderWriter.gotUnsupported(e);
+    }
+    catch (Exception e) {
+      queryLifecycle.emitLogsAndMetrics(e, req.getRemoteAddr(), -1);
+      return ioReaderWriter.gotError(e);
+    }
+  }
+
+  /**
+   * Runs a scan query, like {@link #doPost}, and returns its results as a stream of {@link ColumnarScanBatch}. To
+   * fetch a single partition from {@link #getColumnarPartitions}, set the query's "intervals" to a "segments" spec
+   * listing the partition's segments.
+   */
+  @POST
+  @Path("/columnar")
+  @Produces({MediaType.APPLICATION_JSON, SmileMediaTypes.APPLICATION_JACKSON_SMILE})
+  @Consumes({MediaType.APPLICATION_JSON, SmileMediaTypes.APPLICATION_JACKSON_SMILE, APPLICATION_SMILE})
+  public Response doColumnarPost(
+      final InputStream in,
+      @QueryParam("pretty") final String pretty,
+      @Context final HttpServletRequest req
+  ) throws IOException
+  {
+    return doPost(
+        in,
+        pretty,
+        req,
+        new ResultsTransformer()
+        {
+          @Override
+          public void validate(Query<?> query)
+          {
+            ColumnarScans.checkQuery(query);
+          }
+
+          @Override
+          @SuppressWarnings("unchecked")
+          public Sequence<?> transform(Query<?> query, Sequence<?> results)
+          {
+            return ColumnarScans.toBatches((ScanQuery) query, (Sequence<ScanResultValue>) results);
+          }
+        }
+    );
+  }
 }
@@ -21,6 +21,7 @@ package org.apache.druid.server;
 
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Iterables;
 import com.google.inject.Inject;
 import org.apache.druid.client.CachingClusteredClient;
@@ -28,13 +29,19 @@ import org.apache.druid.client.DirectDruidClient;
 import org.apache.druid.client.cache.Cache;
 import org.apache.druid.client.cache.CacheConfig;
 import org.apache.druid.java.util.common.ISE;
+import org.apache.druid.java.util.common.concurrent.Execs;
+import org.apache.druid.java.util.common.guava.LazySequence;
+import org.apache.druid.java.util.common.guava.MergeSequence;
 import org.apache.druid.java.util.common.guava.Sequence;
 import org.apache.druid.java.util.common.guava.Sequences;
 import org.apache.druid.java.util.emitter.service.ServiceEmitter;
 import org.apache.druid.query.DataSource;
+import org.apache.druid.query.DruidProcessingConfig;
 import org.apache.druid.query.FluentQueryRunnerBuilder;
 import org.apache.druid.query.GlobalTableDataSource;
 import org.apache.druid.query.InlineDataSource;
+import org.apache.druid.query.JoinDataSource;
+import org.apache.druid.query.OffHeapRowList;
 import org.apache.druid.query.PostProcessingOperator;
 import org.apache.druid.query.Query;
 import org.apache.druid.query.QueryContexts;
@@ -52,15 +59,20 @@ import org.apache.druid.query.SegmentDescriptor;
 import org.apache.druid.query.TableDataSource;
 import org.apache.druid.query.context.ResponseContext;
 import org.apache.druid.query.planning.DataSourceAnalysis;
+import org.apache.druid.query.scan.ScanQuery;
+import org.apache.druid.query.topn.TopNQuery;
 import org.apache.druid.segment.column.RowSignature;
+import org.apache.druid.segment.join.JoinType;
 import org.apache.druid.segment.join.JoinableFactory;
 import org.apache.druid.server.initialization.ServerConfig;
 import org.joda.time.Interval;
 
 import javax.annotation.Nullable;
+import java.io.File;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Objects;
 import java.util.Stack;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
@@ -86,6 +98,7 @@ public class ClientQuerySegmentWalker implements QuerySegmentWalker
   private final ServerConfig serverConfig;
   private final Cache cache;
   private final CacheConfig cacheConfig;
+  private final DruidProcessingConfig processingConfig;
 
   public ClientQuerySegmentWalker(
       ServiceEmitter emitter,
@@ -97,7 +110,8 @@ public class ClientQuerySegmentWalker implements QuerySegmentWalker
       ObjectMapper objectMapper,
       ServerConfig serverConfig,
       Cache cache,
-      CacheConfig cacheConfig
+      CacheConfig cacheConfig,
+      DruidProcessingConfig processingConfig
   )
   {
     this.emitter = emitter;
@@ -110,6 +124,7 @@ public class ClientQuerySegmentWalker implements QuerySegmentWalker
     this.serverConfig = serverConfig;
     this.cache = cache;
     this.cacheConfig = cacheConfig;
+    this.processingConfig = processingConfig;
   }
 
   @Inject
@@ -123,7 +138,8 @@ public class ClientQuerySegmentWalker implements QuerySegmentWalker
       ObjectMapper objectMapper,
       ServerConfig serverConfig,
       Cache cache,
-      CacheConfig cacheConfig
+      CacheConfig cacheConfig,
+      DruidProcessingConfig processingConfig
   )
   {
     this(
@@ -136,7 +152,8 @@ public class ClientQuerySegmentWalker implements QuerySegmentWalker
         objectMapper,
         serverConfig,
         cache,
-        cacheConfig
+        cacheConfig,
+        processingConfig
     );
   }
 
@@ -150,11 +167,13 @@ public class ClientQuerySegmentWalker implements QuerySegmentWalker
     final DataSource freeTradeDataSource = globalizeIfPossible(query.getDataSource());
     // do an inlining dry run to see if any inlining is necessary, without actually running the queries.
     final int maxSubqueryRows = QueryContexts.getMaxSubqueryRows(query, serverConfig.getMaxSubqueryRows());
+    final QueryContexts.SubqueryStorage subqueryStorage = QueryContexts.getSubqueryStorage(query);
     final DataSource inlineDryRun = inlineIfNecessary(
         freeTradeDataSource,
         toolChest,
         new AtomicInteger(),
         maxSubqueryRows,
+        subqueryStorage,
         true
     );
 
@@ -171,6 +190,7 @@ public class ClientQuerySegmentWalker implements QuerySegmentWalker
             toolChest,
             new AtomicInteger(),
             maxSubqueryRows,
+            subqueryStorage,
             false
         )
     );
@@ -186,8 +206,21 @@ public class ClientQuerySegmentWalker implements QuerySegmentWalker
       // Note: clusterClient.getQueryRunnerForIntervals() can return an empty sequence if there is no segment
       // to query, but this is not correct when there's a right or full outer join going on.
       // See https://github.com/apache/druid/issues/9229 for details.
+      final int numJoinPartitions = QueryContexts.getNumJoinPartitions(newQuery);
+      final QueryRunner<T> baseClusterRunner;
+
+      if (numJoinPartitions > 1 && canPartitionJoin(newQuery)) {
+        baseClusterRunner = makePartitionedJoinRunner(
+            (JoinDataSource) newQuery.getDataSource(),
+            intervals,
+            numJoinPartitions
+        );
+      } else {
+        baseClusterRunner = makeRetryingRunner(clusterClient.getQueryRunnerForIntervals(newQuery, intervals));
+      }
+
       return new QuerySwappingQueryRunner<>(
-          decorateClusterRunner(newQuery, clusterClient.getQueryRunnerForIntervals(newQuery, intervals)),
+          decorateClusterRunner(newQuery, baseClusterRunner),
           query,
           newQuery
       );
@@ -206,7 +239,10 @@ public class ClientQuerySegmentWalker implements QuerySegmentWalker
 
     if (canRunQueryUsingClusterWalker(query)) {
       return new QuerySwappingQueryRunner<>(
-          decorateClusterRunner(freeTradeQuery, clusterClient.getQueryRunnerForSegments(freeTradeQuery, specs)),
+          decorateClusterRunner(
+              freeTradeQuery,
+              makeRetryingRunner(clusterClient.getQueryRunnerForSegments(freeTradeQuery, specs))
+          ),
           query,
           freeTradeQuery
       );
@@ -287,6 +323,7 @@ public class ClientQuerySegmentWalker implements QuerySegmentWalker
    *                             {@link QueryToolChest#canPerformSubquery}. If the toolchest can handle it, then it will
    *                             not be inlined. See {@link org.apache.druid.query.groupby.GroupByQueryQueryToolChest}
    *                             for an example of a toolchest that can handle subqueries.
+   * @param subqueryStorage      where to store the rows of inlined subqueries; see {@link #toInlineDataSource}.
    * @param dryRun               if true, does not actually execute any subqueries, but will inline empty result sets.
    */
   @SuppressWarnings({"rawtypes", "unchecked"}) // Subquery, toolchest, runner handling all use raw types
@@ -295,6 +332,7 @@ public class ClientQuerySegmentWalker implements QuerySegmentWalker
       @Nullable final QueryToolChest toolChestIfOutermost,
       final AtomicInteger subqueryRowLimitAccumulator,
       final int maxSubqueryRows,
+      final QueryContexts.SubqueryStorage subqueryStorage,
       final boolean dryRun
   )
   {
@@ -315,7 +353,14 @@ public class ClientQuerySegmentWalker implements QuerySegmentWalker
         }
 
         assert !(current instanceof QueryDataSource); // lgtm [java/contradictory-type-checks]
-        current = inlineIfNecessary(current, null, subqueryRowLimitAccumulator, maxSubqueryRows, dryRun);
+        current = inlineIfNecessary(
+            current,
+            null,
+            subqueryRowLimitAccumulator,
+            maxSubqueryRows,
+            subqueryStorage,
+            dryRun
+        );
 
         while (!stack.isEmpty()) {
           current = stack.pop().withChildren(Collections.singletonList(current));
@@ -328,7 +373,14 @@ public class ClientQuerySegmentWalker implements QuerySegmentWalker
         } else {
           // Something happened during inlining that means the toolchest is no longer able to handle this subquery.
           // We need to consider inlining it.
-          return inlineIfNecessary(current, toolChestIfOutermost, subqueryRowLimitAccumulator, maxSubqueryRows, dryRun);
+          return inlineIfNecessary(
+              current,
+              toolChestIfOutermost,
+              subqueryRowLimitAccumulator,
+              maxSubqueryRows,
+              subqueryStorage,
+              dryRun
+          );
         }
       } else if (canRunQueryUsingLocalWalker(subQuery) || canRunQueryUsingClusterWalker(subQuery)) {
         // Subquery needs to be inlined. Assign it a subquery id and run it.
@@ -351,7 +403,9 @@ public class ClientQuerySegmentWalker implements QuerySegmentWalker
             queryResults,
             warehouse.getToolChest(subQueryWithId),
             subqueryRowLimitAccumulator,
-            maxSubqueryRows
+            maxSubqueryRows,
+            dryRun ? QueryContexts.SubqueryStorage.HEAP : subqueryStorage,
+            new File(processingConfig.getTmpDir())
         );
       } else {
         // Cannot inline subquery. Attempt to inline one level deeper, and then try again.
@@ -363,6 +417,7 @@ public class ClientQuerySegmentWalker implements QuerySegmentWalker
                         null,
                         subqueryRowLimitAccumulator,
                         maxSubqueryRows,
+                        subqueryStorage,
                         dryRun
                     )
                 )
@@ -370,6 +425,7 @@ public class ClientQuerySegmentWalker implements QuerySegmentWalker
             toolChestIfOutermost,
             subqueryRowLimitAccumulator,
             maxSubqueryRows,
+            subqueryStorage,
             dryRun
         );
       }
@@ -378,36 +434,182 @@ public class ClientQuerySegmentWalker implements QuerySegmentWalker
       return dataSource.withChildren(
           dataSource.getChildren()
                     .stream()
-                    .map(child -> inlineIfNecessary(child, null, subqueryRowLimitAccumulator, maxSubqueryRows, dryRun))
+                    .map(
+                        child -> inlineIfNecessary(
+                            child,
+                            null,
+                            subqueryRowLimitAccumulator,
+                            maxSubqueryRows,
+                            subqueryStorage,
+                            dryRun
+                        )
+                    )
                     .collect(Collectors.toList())
       );
     }
   }
 
+  /**
+   * Checks if a query on a join can be run as several partitioned queries by {@link #makePartitionedJoinRunner}. The
+   * join must be an inner join (so that each left-hand row is emitted only by the partitions that match it), its
+   * right-hand side must have been inlined, and it must have at least one equi-condition to partition on. TopN queries
+   * are not partitioned, since applying the threshold to each partition separately would make them less exact.
+   */
+  private static boolean canPartitionJoin(final Query<?> query)
+  {
+    final DataSource dataSource = query.getDataSource();
+
+    if (!(dataSource instanceof JoinDataSource) || query instanceof TopNQuery) {
+      return false;
+    }
+
+    final JoinDataSource join = (JoinDataSource) dataSource;
+
+    return join.getJoinType() == JoinType.INNER
+           && join.getRight() instanceof InlineDataSource
+           && !join.getConditionAnalysis().getEquiConditions().isEmpty()
+           && ((InlineDataSource) join.getRight()).getRowSignature()
+                                                   .contains(getPartitionColumn(join));
+  }
+
+  /**
+   * Creates a runner that splits the inlined right-hand side of an inner join into "numPartitions" partitions by
+   * hashing its first equi-condition key, and issues one query per non-empty partition to {@link #clusterClient}.
+   * Partitions are run one at a time: the query for a partition is only issued once the previous one has finished, so
+   * data servers only hold the hash table for a single partition instead of for the entire right-hand side.
+   *
+   * Results of unordered scan queries are concatenated. Results of other queries must be merged in result order, like
+   * results from different servers, so each partition's results are materialized on the Broker before the next
+   * partition is issued, and merged once all partitions are done. The returned runner should be decorated by
+   * {@link #decorateClusterRunner}. Each partition is retried independently, since retrying a missing segment with the
+   * entire right-hand side would double-count rows already returned by other partitions.
+   */
+  private <T> QueryRunner<T> makePartitionedJoinRunner(
+      final JoinDataSource join,
+      final Iterable<Interval> intervals,
+      final int numPartitions
+  )
+  {
+    final InlineDataSource right = (InlineDataSource) join.getRight();
+    final int keyColumn = right.getRowSignature().indexOf(getPartitionColumn(join));
+
+    final List<List<Object[]>> partitionRows = new ArrayList<>(numPartitions);
+    for (int i = 0; i < numPartitions; i++) {
+      partitionRows.add(new ArrayList<>());
+    }
+
+    for (Object[] row : right.getRows()) {
+      partitionRows.get(Math.floorMod(Objects.hashCode(row[keyColumn]), numPartitions)).add(row);
+    }
+
+    final List<DataSource> partitions = new ArrayList<>(numPartitions);
+    for (List<Object[]> rows : partitionRows) {
+      if (!rows.isEmpty()) {
+        final InlineDataSource partition = InlineDataSource.fromIterable(rows, right.getRowSignature());
+        partitions.add(join.withChildren(ImmutableList.of(join.getLeft(), partition)));
+      }
+    }
+
+    if (partitions.isEmpty()) {
+      // Inner join with an empty right-hand side; still issue one query, since outer queries may emit rows anyway.
+      partitions.add(join);
+    }
+
+    return (queryPlus, responseContext) -> {
+      final Query<T> query = queryPlus.getQuery();
+
+      if (query instanceof ScanQuery && ((ScanQuery) query).getOrder() == ScanQuery.Order.NONE) {
+        // Concatenation opens each partition's sequence only after the previous one is exhausted.
+        return Sequences.concat(
+            Sequences.simple(partitions).map(
+                partition -> new LazySequence<>(
+                    () -> runPartition(queryPlus, partition, intervals, responseContext)
+                )
+            )
+        );
+      }
+
+      return new LazySequence<>(
+          () -> {
+            final List<Sequence<T>> materialized = new ArrayList<>(partitions.size());
+
+            for (DataSource partition : partitions) {
+              materialized.add(
+                  Sequences.simple(runPartition(queryPlus, partition, intervals, responseContext).toList())
+              );
+            }
+
+            return new MergeSequence<>(query.getResultOrdering(), Sequences.simple(materialized));
+          }
+      );
+    };
+  }
+
+  /**
+   * Runs "queryPlus" on a single partition of a join created by {@link #makePartitionedJoinRunner}, merging the
+   * partition's response context into "responseContext" once its results have been read.
+   */
+  private <T> Sequence<T> runPartition(
+      final QueryPlus<T> queryPlus,
+      final DataSource partition,
+      final Iterable<Interval> intervals,
+      final ResponseContext responseContext
+  )
+  {
+    final Query<T> partitionQuery = queryPlus.getQuery().withDataSource(partition);
+    final ResponseContext partitionContext = DirectDruidClient.makeResponseContextForQuery();
+    final Object bytesGathered = responseContext.get(ResponseContext.Key.QUERY_TOTAL_BYTES_GATHERED);
+    if (bytesGathered != null) {
+      // Share the counter, so maxScatterGatherBytes applies to all partitions together.
+      partitionContext.put(ResponseContext.Key.QUERY_TOTAL_BYTES_GATHERED, bytesGathered);
+    }
+
+    final Sequence<T> results =
+        makeRetryingRunner(clusterClient.getQueryRunnerForIntervals(partitionQuery, intervals))
+            .run(queryPlus.withQuery(partitionQuery), partitionContext);
+
+    return Sequences.withEffect(
+        results,
+        () -> {
+          DirectDruidClient.removeMagicResponseContextFields(partitionContext);
+          responseContext.merge(partitionContext);
+        },
+        Execs.directExecutor()
+    );
+  }
+
+  private static String getPartitionColumn(final JoinDataSource join)
+  {
+    return join.getConditionAnalysis().getEquiConditions().get(0).getRightColumn();
+  }
+
+  /**
+   * Wraps a runner created by {@link #clusterClient} with a {@link RetryQueryRunner}.
+   */
+  private <T> QueryRunner<T> makeRetryingRunner(final QueryRunner<T> baseClusterRunner)
+  {
+    return new RetryQueryRunner<>(
+        baseClusterRunner,
+        clusterClient::getQueryRunnerForSegments,
+        retryConfig,
+        objectMapper
+    );
+  }
+
   /**
    * Decorate query runners created by {@link #clusterClient}, adding result caching, result merging, metric
    * emission, etc. Not to be used on runners from {@link #localClient}, since we expect it to do this kind
    * of decoration to itself.
    *
    * @param query             the query
-   * @param baseClusterRunner runner from {@link #clusterClient}
+   * @param baseClusterRunner runner from {@link #clusterClient}, already wrapped by {@link #makeRetryingRunner}
    */
   private <T> QueryRunner<T> decorateClusterRunner(Query<T> query, QueryRunner<T> baseClusterRunner)
   {
     final QueryToolChest<T, Query<T>> toolChest = warehouse.getToolChest(query);
 
     return new FluentQueryRunnerBuilder<>(toolChest)
-        .create(
-            new SetAndVerifyContextQueryRunner<>(
-                serverConfig,
-                new RetryQueryRunner<>(
-                    baseClusterRunner,
-                    clusterClient::getQueryRunnerForSegments,
-                    retryConfig,
-                    objectMapper
-                )
-            )
-        )
+        .create(new SetAndVerifyContextQueryRunner<>(serverConfig, baseClusterRunner))
         .applyPreMergeDecoration()
         .mergeResults()
         .applyPostMergeDecoration()
@@ -441,6 +643,9 @@ public class ClientQuerySegmentWalker implements QuerySegmentWalker
    *                         particular master query
    * @param limit            user-configured limit. If negative, will be treated as {@link Integer#MAX_VALUE}.
    *                         If zero, this method will throw an error immediately.
+   * @param storage          where to store the rows. Anything other than {@link QueryContexts.SubqueryStorage#HEAP}
+   *                         stores them in an {@link OffHeapRowList}.
+   * @param spillDirectory   directory for the temporary files of {@link QueryContexts.SubqueryStorage#DISK}
    *
    * @throws ResourceLimitExceededException if the limit is exceeded
    */
@@ -449,7 +654,9 @@ public class ClientQuerySegmentWalker implements QuerySegmentWalker
       final Sequence<T> results,
       final QueryToolChest<T, QueryType> toolChest,
       final AtomicInteger limitAccumulator,
-      final int limit
+      final int limit,
+      final QueryContexts.SubqueryStorage storage,
+      final File spillDirectory
   )
   {
     final int limitToUse = limit < 0 ? Integer.MAX_VALUE : limit;
@@ -459,24 +666,34 @@ public class ClientQuerySegmentWalker implements QuerySegmentWalker
     }
 
     final RowSignature signature = toolChest.resultArraySignature(query);
-
-    final List<Object[]> resultList = new ArrayList<>();
-
-    toolChest.resultsAsArrays(query, results).accumulate(
-        resultList,
-        (acc, in) -> {
+    final Sequence<Object[]> rows = toolChest.resultsAsArrays(query, results).map(
+        row -> {
           if (limitAccumulator.getAndIncrement() >= limitToUse) {
             throw new ResourceLimitExceededException(
                 "Subquery generated results beyond maximum[%d]",
                 limitToUse
             );
           }
-          acc.add(in);
-          return acc;
+          return row;
         }
     );
 
-    return InlineDataSource.fromIterable(resultList, signature);
+    if (storage == QueryContexts.SubqueryStorage.HEAP) {
+      return InlineDataSource.fromIterable(rows.toList(), signature);
+    }
+
+    try (OffHeapRowList.Builder builder =
+             OffHeapRowList.builder(signature, storage == QueryContexts.SubqueryStorage.DISK ? spillDirectory : null)) {
+      rows.accumulate(
+          builder,
+          (acc, row) -> {
+            acc.add(row);
+            return acc;
+          }
+      );
+
+      return InlineDataSource.fromIterable(builder.build(), signature);
+    }
   }
 
   /**
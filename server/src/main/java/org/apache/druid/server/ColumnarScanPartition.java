@@ -0,0 +1,92 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.druid.server;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.google.common.base.Preconditions;
+import org.apache.druid.query.SegmentDescriptor;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * A group of segments whose scan results can be retrieved independently of other groups. Returned by the
+ * "/druid/v2/columnar/partitions" endpoint of {@link BrokerQueryResource}, see {@link ColumnarScans#partition}.
+ */
+public class ColumnarScanPartition
+{
+  private final List<SegmentDescriptor> segments;
+  private final long size;
+
+  @JsonCreator
+  public ColumnarScanPartition(
+      @JsonProperty("segments") List<SegmentDescriptor> segments,
+      @JsonProperty("size") long size
+  )
+  {
+    this.segments = Preconditions.checkNotNull(segments, "segments");
+    this.size = size;
+  }
+
+  @JsonProperty
+  public List<SegmentDescriptor> getSegments()
+  {
+    return segments;
+  }
+
+  /**
+   * Total size in bytes of the segments in this partition.
+   */
+  @JsonProperty
+  public long getSize()
+  {
+    return size;
+  }
+
+  @Override
+  public boolean equals(Object o)
+  {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+    ColumnarScanPartition that = (ColumnarScanPartition) o;
+    return size == that.size &&
+           Objects.equals(segments, that.segments);
+  }
+
+  @Override
+  public int hashCode()
+  {
+    return Objects.hash(segments, size);
+  }
+
+  @Override
+  public String toString()
+  {
+    return "ColumnarScanPartition{" +
+           "segments=" + segments +
+           ", size=" + size +
+           '}';
+  }
+}
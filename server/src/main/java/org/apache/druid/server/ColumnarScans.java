@@ -0,0 +1,171 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.druid.server;
+
+import org.apache.druid.java.util.common.IAE;
+import org.apache.druid.java.util.common.StringUtils;
+import org.apache.druid.java.util.common.guava.Sequence;
+import org.apache.druid.java.util.common.guava.Sequences;
+import org.apache.druid.query.LocatedSegmentDescriptor;
+import org.apache.druid.query.Query;
+import org.apache.druid.query.QueryUnsupportedException;
+import org.apache.druid.query.SegmentDescriptor;
+import org.apache.druid.query.TableDataSource;
+import org.apache.druid.query.scan.ColumnarScanBatch;
+import org.apache.druid.query.scan.ScanQuery;
+import org.apache.druid.query.scan.ScanResultValue;
+import org.apache.druid.query.spec.MultipleSpecificSegmentSpec;
+import org.joda.time.Interval;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Utilities for columnar bulk retrieval of scan query results, used by {@link BrokerQueryResource}. A client asks for
+ * the partitions of a scan query, then fetches the results of each partition, possibly in parallel, as a stream of
+ * {@link ColumnarScanBatch}.
+ */
+public class ColumnarScans
+{
+  private ColumnarScans()
+  {
+    // No instantiation.
+  }
+
+  /**
+   * Returns the query as a {@link ScanQuery}, or throws {@link QueryUnsupportedException} if its results cannot be
+   * returned in columnar form.
+   */
+  public static ScanQuery checkQuery(final Query<?> query)
+  {
+    if (!(query instanceof ScanQuery)) {
+      throw new QueryUnsupportedException(
+          StringUtils.format("Columnar results are only available for scan queries, got[%s]", query.getType())
+      );
+    }
+
+    final ScanQuery scanQuery = (ScanQuery) query;
+    if (scanQuery.getResultFormat() == ScanQuery.ResultFormat.RESULT_FORMAT_VALUE_VECTOR) {
+      throw new QueryUnsupportedException(
+          StringUtils.format("Columnar results are not available for resultFormat[%s]", scanQuery.getResultFormat())
+      );
+    }
+
+    return scanQuery;
+  }
+
+  /**
+   * Like {@link #checkQuery}, but also checks that the query can be split into partitions. Limits, offsets, and
+   * ordering are not supported, since they would apply to each partition separately.
+   */
+  public static ScanQuery checkPartitionableQuery(final Query<?> query)
+  {
+    final ScanQuery scanQuery = checkQuery(query);
+
+    if (!(scanQuery.getDataSource() instanceof TableDataSource)) {
+      throw new QueryUnsupportedException(
+          StringUtils.format("Partitions are only available for table datasources, got[%s]", scanQuery.getDataSource())
+      );
+    }
+
+    if (scanQuery.isLimited() || scanQuery.getScanRowsOffset() > 0 || scanQuery.getOrder() != ScanQuery.Order.NONE) {
+      throw new QueryUnsupportedException("Partitions are not available for queries with a limit, offset, or order");
+    }
+
+    return scanQuery;
+  }
+
+  /**
+   * Splits segments into at most "numPartitions" groups of roughly equal total size. Empty groups are not returned.
+   */
+  public static List<ColumnarScanPartition> partition(
+      final List<LocatedSegmentDescriptor> segments,
+      final int numPartitions
+  )
+  {
+    if (numPartitions < 1) {
+      throw new IAE("numPartitions must be positive, got[%d]", numPartitions);
+    }
+
+    final List<PartitionBuilder> builders = new ArrayList<>(numPartitions);
+    final PriorityQueue<PartitionBuilder> smallestFirst = new PriorityQueue<>(
+        numPartitions,
+        Comparator.comparingLong((PartitionBuilder builder) -> builder.size).thenComparingInt(builder -> builder.number)
+    );
+
+    for (int i = 0; i < numPartitions; i++) {
+      final PartitionBuilder builder = new PartitionBuilder(i);
+      builders.add(builder);
+      smallestFirst.add(builder);
+    }
+
+    // Assign the largest segments first, each to the currently smallest partition.
+    final List<LocatedSegmentDescriptor> largestFirst = new ArrayList<>(segments);
+    largestFirst.sort(Comparator.comparingLong(LocatedSegmentDescriptor::getSize).reversed());
+
+    for (LocatedSegmentDescriptor segment : largestFirst) {
+      final PartitionBuilder builder = smallestFirst.remove();
+      builder.segments.add(
+          new SegmentDescriptor(segment.getInterval(), segment.getVersion(), segment.getPartitionNumber())
+      );
+      builder.size += segment.getSize();
+      smallestFirst.add(builder);
+    }
+
+    final List<ColumnarScanPartition> partitions = new ArrayList<>();
+    for (PartitionBuilder builder : builders) {
+      if (!builder.segments.isEmpty()) {
+        builder.segments.sort(
+            Comparator.comparing(SegmentDescriptor::getInterval, Comparator.comparing(Interval::getStart))
+                      .thenComparing(SegmentDescriptor::getPartitionNumber)
+        );
+        partitions.add(new ColumnarScanPartition(builder.segments, builder.size));
+      }
+    }
+    return partitions;
+  }
+
+  /**
+   * Returns a query that only reads the segments of the provided partition.
+   */
+  public static ScanQuery forPartition(final ScanQuery query, final ColumnarScanPartition partition)
+  {
+    return (ScanQuery) query.withQuerySegmentSpec(new MultipleSpecificSegmentSpec(partition.getSegments()));
+  }
+
+  public static Sequence<ColumnarScanBatch> toBatches(final ScanQuery query, final Sequence<ScanResultValue> results)
+  {
+    return Sequences.map(results, value -> ColumnarScanBatch.fromScanResultValue(value, query.getResultFormat()));
+  }
+
+  private static class PartitionBuilder
+  {
+    private final int number;
+    private final List<SegmentDescriptor> segments = new ArrayList<>();
+    private long size = 0;
+
+    PartitionBuilder(final int number)
+    {
+      this.number = number;
+    }
+  }
+}
@@ -170,6 +170,20 @@ public class QueryResource implements QueryCountStatsProvider
       // used to get request content-type,Accept header, remote address and auth-related headers
       @Context final HttpServletRequest req
   ) throws IOException
+  {
+    return doPost(in, pretty, req, ResultsTransformer.IDENTITY);
+  }
+
+  /**
+   * Like {@link #doPost(InputStream, String, HttpServletRequest)}, but serializes results as transformed by
+   * "resultsTransformer" rather than as returned by the query.
+   */
+  protected Response doPost(
+      final InputStream in,
+      @Nullable final String pretty,
+      final HttpServletRequest req,
+      final ResultsTransformer resultsTransformer
+  ) throws IOException
   {
     final QueryLifecycle queryLifecycle = queryLifecycleFactory.factorize();
     Query<?> query = null;
@@ -207,8 +221,10 @@ public class QueryResource implements QueryCountStatsProvider
         throw new ForbiddenException(authResult.toString());
       }
 
+      resultsTransformer.validate(query);
+
       final QueryLifecycle.QueryResponse queryResponse = queryLifecycle.execute();
-      final Sequence<?> results = queryResponse.getResults();
+      final Sequence<?> results = resultsTransformer.transform(query, queryResponse.getResults());
       final ResponseContext responseContext = queryResponse.getResponseContext();
       final String prevEtag = getPreviousEtag(req);
 
@@ -403,6 +419,35 @@ public class QueryResource implements QueryCountStatsProvider
     );
   }
 
+  /**
+   * Transforms query results before they are serialized, see {@link BrokerQueryResource#doColumnarPost}.
+   */
+  protected interface ResultsTransformer
+  {
+    ResultsTransformer IDENTITY = new ResultsTransformer()
+    {
+      @Override
+      public void validate(Query<?> query)
+      {
+        // Any query is fine.
+      }
+
+      @Override
+      public Sequence<?> transform(Query<?> query, Sequence<?> results)
+      {
+        return results;
+      }
+    };
+
+    /**
+     * Called after the query is authorized and before it runs. Throws if the results of the query cannot be
+     * transformed.
+     */
+    void validate(Query<?> query);
+
+    Sequence<?> transform(Query<?> query, Sequence<?> results);
+  }
+
   protected static class ResourceIOReaderWriter
   {
     private final String contentType;
@@ -189,15 +189,19 @@ public class LookupReferencesManagerTest
 
     LookupExtractorFactoryContainer testContainer = new LookupExtractorFactoryContainer("0", lookupExtractorFactory);
 
+    final long versionBeforeAdd = lookupReferencesManager.getVersion();
     lookupReferencesManager.add("test", testContainer);
     lookupReferencesManager.handlePendingNotices();
 
     Assert.assertEquals(Optional.of(testContainer), lookupReferencesManager.get("test"));
+    Assert.assertTrue(lookupReferencesManager.getVersion() > versionBeforeAdd);
 
+    final long versionBeforeRemove = lookupReferencesManager.getVersion();
     lookupReferencesManager.remove("test");
     lookupReferencesManager.handlePendingNotices();
 
     Assert.assertEquals(Optional.empty(), lookupReferencesManager.get("test"));
+    Assert.assertTrue(lookupReferencesManager.getVersion() > versionBeforeRemove);
   }
 
   @Test
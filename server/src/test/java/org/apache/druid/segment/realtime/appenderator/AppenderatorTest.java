@@ -334,6 +334,77 @@ public class AppenderatorTest extends InitializedNullHandlingTest
     }
   }
 
+  @Test
+  public void testMaxRowsInMemoryWithoutCommitterPersistsAllSinksByDefault() throws Exception
+  {
+    try (final AppenderatorTester tester = new AppenderatorTester(4, false)) {
+      final Appenderator appenderator = tester.getAppenderator();
+
+      appenderator.startJob();
+      appenderator.add(IDENTIFIERS.get(0), ir("2000", "foo", 1), null);
+      appenderator.add(IDENTIFIERS.get(0), ir("2000", "bar", 1), null);
+      appenderator.add(IDENTIFIERS.get(0), ir("2000", "baz", 1), null);
+      Assert.assertEquals(3, ((AppenderatorImpl) appenderator).getRowsInMemory());
+      appenderator.add(IDENTIFIERS.get(1), ir("2000", "qux", 1), null);
+      Assert.assertEquals(0, ((AppenderatorImpl) appenderator).getRowsInMemory());
+      appenderator.close();
+    }
+  }
+
+  @Test
+  public void testMaxRowsInMemoryWithoutCommitterPersistsLargestSinks() throws Exception
+  {
+    try (final AppenderatorTester tester = makeTesterPersistingLargestSinks(4, 0.5)) {
+      final Appenderator appenderator = tester.getAppenderator();
+
+      appenderator.startJob();
+      appenderator.add(IDENTIFIERS.get(0), ir("2000", "foo", 1), null);
+      appenderator.add(IDENTIFIERS.get(0), ir("2000", "bar", 1), null);
+      appenderator.add(IDENTIFIERS.get(0), ir("2000", "baz", 1), null);
+      Assert.assertEquals(3, ((AppenderatorImpl) appenderator).getRowsInMemory());
+      appenderator.add(IDENTIFIERS.get(1), ir("2000", "qux", 1), null);
+      // Only the largest sink is persisted, the other one stays in memory.
+      Assert.assertEquals(1, ((AppenderatorImpl) appenderator).getRowsInMemory());
+      appenderator.add(IDENTIFIERS.get(1), ir("2000", "bob", 1), null);
+      Assert.assertEquals(2, ((AppenderatorImpl) appenderator).getRowsInMemory());
+      Assert.assertEquals(3, appenderator.getRowCount(IDENTIFIERS.get(0)));
+      Assert.assertEquals(2, appenderator.getRowCount(IDENTIFIERS.get(1)));
+      appenderator.persistAll(null).get();
+      Assert.assertEquals(0, ((AppenderatorImpl) appenderator).getRowsInMemory());
+      appenderator.close();
+    }
+  }
+
+  @Test
+  public void testPersistLargestSinksMemoryRatio() throws Exception
+  {
+    try (final AppenderatorTester tester = makeTesterPersistingLargestSinks(4, 0.5)) {
+      final Appenderator appenderator = tester.getAppenderator();
+
+      appenderator.startJob();
+      appenderator.add(IDENTIFIERS.get(0), ir("2000", "foo", 1), null);
+      appenderator.add(IDENTIFIERS.get(0), ir("2000", "bar", 1), null);
+      appenderator.add(IDENTIFIERS.get(1), ir("2000", "baz", 1), null);
+      appenderator.add(IDENTIFIERS.get(1), ir("2000", "qux", 1), null);
+      // Persisting one of the sinks leaves half of maxRowsInMemory.
+      Assert.assertEquals(2, ((AppenderatorImpl) appenderator).getRowsInMemory());
+      appenderator.close();
+    }
+
+    try (final AppenderatorTester tester = makeTesterPersistingLargestSinks(4, 0.25)) {
+      final Appenderator appenderator = tester.getAppenderator();
+
+      appenderator.startJob();
+      appenderator.add(IDENTIFIERS.get(0), ir("2000", "foo", 1), null);
+      appenderator.add(IDENTIFIERS.get(0), ir("2000", "bar", 1), null);
+      appenderator.add(IDENTIFIERS.get(1), ir("2000", "baz", 1), null);
+      appenderator.add(IDENTIFIERS.get(1), ir("2000", "qux", 1), null);
+      // Both sinks must be persisted to get down to a quarter of maxRowsInMemory.
+      Assert.assertEquals(0, ((AppenderatorImpl) appenderator).getRowsInMemory());
+      appenderator.close();
+    }
+  }
+
   @Test
   public void testMaxRowsInMemoryDisallowIncrementalPersists() throws Exception
   {
@@ -801,6 +872,21 @@ public class AppenderatorTest extends InitializedNullHandlingTest
     }
   }
 
+  private static AppenderatorTester makeTesterPersistingLargestSinks(
+      final int maxRowsInMemory,
+      final double persistLargestSinksMemoryRatio
+  )
+  {
+    return new AppenderatorTester(
+        maxRowsInMemory,
+        -1,
+        null,
+        false,
+        new SimpleRowIngestionMeters(),
+        persistLargestSinksMemoryRatio
+    );
+  }
+
   private static SegmentIdWithShardSpec si(String interval, String version, int partitionNum)
   {
     return new SegmentIdWithShardSpec(
@@ -68,6 +68,7 @@ import org.apache.druid.server.coordination.NoopDataSegmentAnnouncer;
 import org.apache.druid.timeline.DataSegment;
 import org.apache.druid.timeline.partition.LinearShardSpec;
 
+import javax.annotation.Nullable;
 import java.io.File;
 import java.io.IOException;
 import java.net.URI;
@@ -134,6 +135,22 @@ public class AppenderatorTester implements AutoCloseable
       final boolean enablePushFailure,
       final RowIngestionMeters rowIngestionMeters
   )
+  {
+    this(maxRowsInMemory, maxSizeInBytes, basePersistDirectory, enablePushFailure, rowIngestionMeters, null);
+  }
+
+  /**
+   * @param persistLargestSinksMemoryRatio if not null, the appenderator persists only its largest sinks when rows
+   *                                       are added without a committer, down to this fraction of the memory limits
+   */
+  public AppenderatorTester(
+      final int maxRowsInMemory,
+      final long maxSizeInBytes,
+      final File basePersistDirectory,
+      final boolean enablePushFailure,
+      final RowIngestionMeters rowIngestionMeters,
+      @Nullable final Double persistLargestSinksMemoryRatio
+  )
   {
     objectMapper = new DefaultObjectMapper();
     objectMapper.registerSubtypes(LinearShardSpec.class);
@@ -182,7 +199,22 @@ public class AppenderatorTester implements AutoCloseable
         null,
         null,
         null
-    );
+    )
+    {
+      @Override
+      public boolean isPersistLargestSinks()
+      {
+        return persistLargestSinksMemoryRatio != null;
+      }
+
+      @Override
+      public double getPersistLargestSinksMemoryRatio()
+      {
+        return persistLargestSinksMemoryRatio == null
+               ? super.getPersistLargestSinksMemoryRatio()
+               : persistLargestSinksMemoryRatio;
+      }
+    };
 
     metrics = new FireDepartmentMetrics();
     queryExecutor = Execs.singleThreaded("queryExecutor(%d)");
@@ -212,6 +212,9 @@ public class ClientQuerySegmentWalkerTest
   // Queries that are issued; checked by "testQuery" against its "expectedQueries" parameter.
   private List<ExpectedQuery> issuedQueries = new ArrayList<>();
 
+  // Number of queries holding lanes of "scheduler" at the time each query in "issuedQueries" was issued.
+  private List<Long> runningWhenIssued = new ArrayList<>();
+
   // A ClientQuerySegmentWalker that has two segments: one for FOO and one for BAR; each with interval INTERVAL,
   // version VERSION, and shard spec SHARD_SPEC.
   private ClientQuerySegmentWalker walker;
@@ -538,6 +541,269 @@ public class ClientQuerySegmentWalkerTest
     Assert.assertEquals(2, scheduler.getTotalReleased().get());
   }
 
+  @Test
+  public void testJoinOnGroupByOnTableWithSubqueryStorageOnDisk()
+  {
+    final GroupByQuery subquery =
+        GroupByQuery.builder()
+                    .setDataSource(FOO)
+                    .setGranularity(Granularities.ALL)
+                    .setInterval(Collections.singletonList(INTERVAL))
+                    .setDimensions(DefaultDimensionSpec.of("s"))
+                    .setDimFilter(new SelectorDimFilter("s", "y", null))
+                    .build();
+
+    final GroupByQuery query =
+        (GroupByQuery) GroupByQuery.builder()
+                                   .setDataSource(
+                                       JoinDataSource.create(
+                                           new TableDataSource(FOO),
+                                           new QueryDataSource(subquery),
+                                           "j.",
+                                           "\"j.s\" == \"s\"",
+                                           JoinType.INNER,
+                                           ExprMacroTable.nil()
+                                       )
+                                   )
+                                   .setGranularity(Granularities.ALL)
+                                   .setInterval(Intervals.ONLY_ETERNITY)
+                                   .setDimensions(DefaultDimensionSpec.of("s"), DefaultDimensionSpec.of("j.s"))
+                                   .setAggregatorSpecs(new CountAggregatorFactory("cnt"))
+                                   .setContext(ImmutableMap.of(QueryContexts.SUBQUERY_STORAGE_KEY, "disk"))
+                                   .build()
+                                   .withId(UUID.randomUUID().toString());
+
+    testQuery(
+        query,
+        ImmutableList.of(
+            ExpectedQuery.cluster(subquery),
+            ExpectedQuery.cluster(
+                query.withDataSource(
+                    query.getDataSource().withChildren(
+                        ImmutableList.of(
+                            query.getDataSource().getChildren().get(0),
+                            InlineDataSource.fromIterable(
+                                ImmutableList.of(new Object[]{"y"}),
+                                RowSignature.builder().add("s", ValueType.STRING).build()
+                            )
+                        )
+                    )
+                )
+            )
+        ),
+        ImmutableList.of(new Object[]{"y", "y", 1L})
+    );
+  }
+
+  @Test
+  public void testJoinOnGroupByOnTablePartitioned()
+  {
+    final GroupByQuery subquery =
+        GroupByQuery.builder()
+                    .setDataSource(FOO)
+                    .setGranularity(Granularities.ALL)
+                    .setInterval(Collections.singletonList(INTERVAL))
+                    .setDimensions(DefaultDimensionSpec.of("s"))
+                    .build();
+
+    final GroupByQuery query =
+        (GroupByQuery) GroupByQuery.builder()
+                                   .setDataSource(
+                                       JoinDataSource.create(
+                                           new TableDataSource(FOO),
+                                           new QueryDataSource(subquery),
+                                           "j.",
+                                           "\"j.s\" == \"s\"",
+                                           JoinType.INNER,
+                                           ExprMacroTable.nil()
+                                       )
+                                   )
+                                   .setGranularity(Granularities.ALL)
+                                   .setInterval(Intervals.ONLY_ETERNITY)
+                                   .setDimensions(DefaultDimensionSpec.of("s"), DefaultDimensionSpec.of("j.s"))
+                                   .setAggregatorSpecs(new CountAggregatorFactory("cnt"))
+                                   .setContext(ImmutableMap.of(QueryContexts.NUM_JOIN_PARTITIONS_KEY, 2))
+                                   .build()
+                                   .withId(UUID.randomUUID().toString());
+
+    final RowSignature rightSignature = RowSignature.builder().add("s", ValueType.STRING).build();
+
+    // "x" and "z" hash to partition 0; "y" hashes to partition 1.
+    testQuery(
+        query,
+        ImmutableList.of(
+            ExpectedQuery.cluster(subquery),
+            ExpectedQuery.cluster(
+                query.withDataSource(
+                    query.getDataSource().withChildren(
+                        ImmutableList.of(
+                            query.getDataSource().getChildren().get(0),
+                            InlineDataSource.fromIterable(
+                                ImmutableList.of(new Object[]{"x"}, new Object[]{"z"}),
+                                rightSignature
+                            )
+                        )
+                    )
+                )
+            ),
+            ExpectedQuery.cluster(
+                query.withDataSource(
+                    query.getDataSource().withChildren(
+                        ImmutableList.of(
+                            query.getDataSource().getChildren().get(0),
+                            InlineDataSource.fromIterable(ImmutableList.of(new Object[]{"y"}), rightSignature)
+                        )
+                    )
+                )
+            )
+        ),
+        ImmutableList.of(
+            new Object[]{"x", "x", 2L},
+            new Object[]{"y", "y", 1L},
+            new Object[]{"z", "z", 1L}
+        )
+    );
+
+    // Each partition is only issued once the previous one has finished.
+    Assert.assertEquals(ImmutableList.of(0L, 0L, 0L), runningWhenIssued);
+    Assert.assertEquals(3, scheduler.getTotalRun().get());
+    Assert.assertEquals(3, scheduler.getTotalReleased().get());
+  }
+
+  @Test
+  public void testScanJoinOnGroupByOnTablePartitioned()
+  {
+    final GroupByQuery subquery =
+        GroupByQuery.builder()
+                    .setDataSource(FOO)
+                    .setGranularity(Granularities.ALL)
+                    .setInterval(Collections.singletonList(INTERVAL))
+                    .setDimensions(DefaultDimensionSpec.of("s"))
+                    .build();
+
+    final ScanQuery query =
+        (ScanQuery) new Druids.ScanQueryBuilder()
+            .dataSource(
+                JoinDataSource.create(
+                    new TableDataSource(FOO),
+                    new QueryDataSource(subquery),
+                    "j.",
+                    "\"j.s\" == \"s\"",
+                    JoinType.INNER,
+                    ExprMacroTable.nil()
+                )
+            )
+            .intervals(new MultipleIntervalSegmentSpec(Intervals.ONLY_ETERNITY))
+            .columns("s", "n")
+            .legacy(false)
+            .resultFormat(ScanQuery.ResultFormat.RESULT_FORMAT_COMPACTED_LIST)
+            .context(ImmutableMap.of(QueryContexts.NUM_JOIN_PARTITIONS_KEY, 2))
+            .build()
+            .withId(UUID.randomUUID().toString());
+
+    final RowSignature rightSignature = RowSignature.builder().add("s", ValueType.STRING).build();
+
+    // "x" and "z" hash to partition 0; "y" hashes to partition 1. Unordered scans are concatenated in that order.
+    testQuery(
+        query,
+        ImmutableList.of(
+            ExpectedQuery.cluster(subquery),
+            ExpectedQuery.cluster(
+                query.withDataSource(
+                    query.getDataSource().withChildren(
+                        ImmutableList.of(
+                            query.getDataSource().getChildren().get(0),
+                            InlineDataSource.fromIterable(
+                                ImmutableList.of(new Object[]{"x"}, new Object[]{"z"}),
+                                rightSignature
+                            )
+                        )
+                    )
+                )
+            ),
+            ExpectedQuery.cluster(
+                query.withDataSource(
+                    query.getDataSource().withChildren(
+                        ImmutableList.of(
+                            query.getDataSource().getChildren().get(0),
+                            InlineDataSource.fromIterable(ImmutableList.of(new Object[]{"y"}), rightSignature)
+                        )
+                    )
+                )
+            )
+        ),
+        ImmutableList.of(
+            new Object[]{"x", 1},
+            new Object[]{"x", 2},
+            new Object[]{"z", 4},
+            new Object[]{"y", 3}
+        )
+    );
+
+    Assert.assertEquals(ImmutableList.of(0L, 0L, 0L), runningWhenIssued);
+    Assert.assertEquals(3, scheduler.getTotalRun().get());
+    Assert.assertEquals(3, scheduler.getTotalReleased().get());
+  }
+
+  @Test
+  public void testTopNJoinOnGroupByOnTableNotPartitioned()
+  {
+    final GroupByQuery subquery =
+        GroupByQuery.builder()
+                    .setDataSource(FOO)
+                    .setGranularity(Granularities.ALL)
+                    .setInterval(Collections.singletonList(INTERVAL))
+                    .setDimensions(DefaultDimensionSpec.of("s"))
+                    .build();
+
+    final TopNQuery query =
+        (TopNQuery) new TopNQueryBuilder().dataSource(
+                                              JoinDataSource.create(
+                                                  new TableDataSource(FOO),
+                                                  new QueryDataSource(subquery),
+                                                  "j.",
+                                                  "\"j.s\" == \"s\"",
+                                                  JoinType.INNER,
+                                                  ExprMacroTable.nil()
+                                              )
+                                          )
+                                          .granularity(Granularities.ALL)
+                                          .intervals(Intervals.ONLY_ETERNITY)
+                                          .dimension(DefaultDimensionSpec.of("j.s"))
+                                          .metric("cnt")
+                                          .threshold(1)
+                                          .aggregators(new CountAggregatorFactory("cnt"))
+                                          .context(ImmutableMap.of(QueryContexts.NUM_JOIN_PARTITIONS_KEY, 2))
+                                          .build()
+                                          .withId(UUID.randomUUID().toString());
+
+    // Per-partition thresholds would make topN less exact, so the join is run as a single query.
+    testQuery(
+        query,
+        ImmutableList.of(
+            ExpectedQuery.cluster(subquery),
+            ExpectedQuery.cluster(
+                // The threshold sent to data servers is raised to minTopNThreshold.
+                ((TopNQuery) query.withDataSource(
+                    query.getDataSource().withChildren(
+                        ImmutableList.of(
+                            query.getDataSource().getChildren().get(0),
+                            InlineDataSource.fromIterable(
+                                ImmutableList.of(new Object[]{"x"}, new Object[]{"y"}, new Object[]{"z"}),
+                                RowSignature.builder().add("s", ValueType.STRING).build()
+                            )
+                        )
+                    )
+                )).withThreshold(1000)
+            )
+        ),
+        ImmutableList.of(new Object[]{INTERVAL.getStartMillis(), "x", 2L})
+    );
+
+    Assert.assertEquals(2, scheduler.getTotalRun().get());
+    Assert.assertEquals(2, scheduler.getTotalReleased().get());
+  }
+
   @Test
   public void testJoinOnGroupByOnUnionOfTables()
   {
@@ -1269,6 +1535,7 @@ public class ClientQuerySegmentWalkerTest
         return (queryPlus, responseContext) -> {
           log.info("Query (%s): %s", how, queryPlus.getQuery());
           issuedQueries.add(new ExpectedQuery(queryPlus.getQuery(), how));
+          runningWhenIssued.add(scheduler.getTotalAcquired().get() - scheduler.getTotalReleased().get());
           return baseRunner.run(queryPlus, responseContext);
         };
       }
@@ -1330,6 +1597,7 @@ public class ClientQuerySegmentWalkerTest
   )
   {
     issuedQueries.clear();
+    runningWhenIssued.clear();
 
     final Sequence<T> resultSequence = QueryPlus.wrap(query).run(walker, ResponseContext.createEmpty());
 
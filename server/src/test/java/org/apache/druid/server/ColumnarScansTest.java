@@ -0,0 +1,136 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.druid.server;
+
+import com.google.common.collect.ImmutableList;
+import org.apache.druid.java.util.common.IAE;
+import org.apache.druid.java.util.common.Intervals;
+import org.apache.druid.query.Druids;
+import org.apache.druid.query.LocatedSegmentDescriptor;
+import org.apache.druid.query.QueryUnsupportedException;
+import org.apache.druid.query.SegmentDescriptor;
+import org.apache.druid.query.scan.ScanQuery;
+import org.apache.druid.query.spec.MultipleSpecificSegmentSpec;
+import org.apache.druid.query.timeboundary.TimeBoundaryQuery;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.List;
+
+public class ColumnarScansTest
+{
+  private static final SegmentDescriptor SEGMENT_1 = new SegmentDescriptor(Intervals.of("2000/P1D"), "v", 0);
+  private static final SegmentDescriptor SEGMENT_2 = new SegmentDescriptor(Intervals.of("2000-01-02/P1D"), "v", 0);
+  private static final SegmentDescriptor SEGMENT_3 = new SegmentDescriptor(Intervals.of("2000-01-03/P1D"), "v", 0);
+  private static final SegmentDescriptor SEGMENT_4 = new SegmentDescriptor(Intervals.of("2000-01-03/P1D"), "v", 1);
+
+  @Test
+  public void testPartition()
+  {
+    final List<LocatedSegmentDescriptor> segments = ImmutableList.of(
+        located(SEGMENT_1, 10),
+        located(SEGMENT_2, 30),
+        located(SEGMENT_3, 40),
+        located(SEGMENT_4, 20)
+    );
+
+    // Largest first, each to the smallest partition: 40 -> 0, 30 -> 1, 20 -> 1, 10 -> 0.
+    Assert.assertEquals(
+        ImmutableList.of(
+            new ColumnarScanPartition(ImmutableList.of(SEGMENT_1, SEGMENT_3), 50),
+            new ColumnarScanPartition(ImmutableList.of(SEGMENT_2, SEGMENT_4), 50)
+        ),
+        ColumnarScans.partition(segments, 2)
+    );
+  }
+
+  @Test
+  public void testPartitionMorePartitionsThanSegments()
+  {
+    Assert.assertEquals(
+        ImmutableList.of(
+            new ColumnarScanPartition(ImmutableList.of(SEGMENT_2), 30),
+            new ColumnarScanPartition(ImmutableList.of(SEGMENT_1), 10)
+        ),
+        ColumnarScans.partition(ImmutableList.of(located(SEGMENT_1, 10), located(SEGMENT_2, 30)), 5)
+    );
+  }
+
+  @Test
+  public void testPartitionNoSegments()
+  {
+    Assert.assertEquals(Collections.emptyList(), ColumnarScans.partition(Collections.emptyList(), 3));
+  }
+
+  @Test(expected = IAE.class)
+  public void testPartitionZeroPartitions()
+  {
+    ColumnarScans.partition(ImmutableList.of(located(SEGMENT_1, 10)), 0);
+  }
+
+  @Test
+  public void testCheckPartitionableQuery()
+  {
+    final ScanQuery query = scanQuery().build();
+    Assert.assertSame(query, ColumnarScans.checkPartitionableQuery(query));
+  }
+
+  @Test(expected = QueryUnsupportedException.class)
+  public void testCheckQueryNotScan()
+  {
+    ColumnarScans.checkQuery(new TimeBoundaryQuery(scanQuery().build().getDataSource(), null, null, null, null));
+  }
+
+  @Test(expected = QueryUnsupportedException.class)
+  public void testCheckQueryValueVector()
+  {
+    ColumnarScans.checkQuery(scanQuery().resultFormat(ScanQuery.ResultFormat.RESULT_FORMAT_VALUE_VECTOR).build());
+  }
+
+  @Test(expected = QueryUnsupportedException.class)
+  public void testCheckPartitionableQueryWithLimit()
+  {
+    ColumnarScans.checkPartitionableQuery(scanQuery().limit(10).build());
+  }
+
+  @Test
+  public void testForPartition()
+  {
+    final ColumnarScanPartition partition = new ColumnarScanPartition(ImmutableList.of(SEGMENT_2, SEGMENT_3), 70);
+    Assert.assertEquals(
+        new MultipleSpecificSegmentSpec(ImmutableList.of(SEGMENT_2, SEGMENT_3)),
+        ColumnarScans.forPartition(scanQuery().build(), partition).getQuerySegmentSpec()
+    );
+  }
+
+  private static Druids.ScanQueryBuilder scanQuery()
+  {
+    return Druids.newScanQueryBuilder()
+                 .dataSource("foo")
+                 .intervals(new MultipleSpecificSegmentSpec(ImmutableList.of(SEGMENT_1)))
+                 .resultFormat(ScanQuery.ResultFormat.RESULT_FORMAT_LIST);
+  }
+
+  private static LocatedSegmentDescriptor located(final SegmentDescriptor descriptor, final long size)
+  {
+    return new LocatedSegmentDescriptor(descriptor, size, Collections.emptyList());
+  }
+}
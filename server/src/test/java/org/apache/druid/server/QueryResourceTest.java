@@ -28,14 +28,19 @@ import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.MoreExecutors;
+import org.apache.druid.client.SimpleServerView;
+import org.apache.druid.client.TimelineServerView;
 import org.apache.druid.jackson.DefaultObjectMapper;
+import org.apache.druid.java.util.common.Intervals;
 import org.apache.druid.java.util.common.concurrent.Execs;
 import org.apache.druid.java.util.common.guava.LazySequence;
+import org.apache.druid.java.util.common.guava.Sequence;
 import org.apache.druid.java.util.common.guava.Sequences;
 import org.apache.druid.java.util.emitter.EmittingLogger;
 import org.apache.druid.java.util.emitter.service.ServiceEmitter;
 import org.apache.druid.query.DefaultGenericQueryMetricsFactory;
 import org.apache.druid.query.DefaultQueryConfig;
+import org.apache.druid.query.Druids;
 import org.apache.druid.query.MapQueryToolChestWarehouse;
 import org.apache.druid.query.Query;
 import org.apache.druid.query.QueryInterruptedException;
@@ -46,6 +51,10 @@ import org.apache.druid.query.QueryUnsupportedException;
 import org.apache.druid.query.Result;
 import org.apache.druid.query.SegmentDescriptor;
 import org.apache.druid.query.TruncatedResponseContextException;
+import org.apache.druid.query.scan.ColumnarScanBatch;
+import org.apache.druid.query.scan.ScanQuery;
+import org.apache.druid.query.scan.ScanResultValue;
+import org.apache.druid.query.spec.MultipleIntervalSegmentSpec;
 import org.apache.druid.query.timeboundary.TimeBoundaryResultValue;
 import org.apache.druid.server.initialization.ServerConfig;
 import org.apache.druid.server.log.TestRequestLogger;
@@ -63,6 +72,8 @@ import org.apache.druid.server.security.Authorizer;
 import org.apache.druid.server.security.AuthorizerMapper;
 import org.apache.druid.server.security.ForbiddenException;
 import org.apache.druid.server.security.Resource;
+import org.apache.druid.timeline.DataSegment;
+import org.apache.druid.timeline.partition.LinearShardSpec;
 import org.apache.http.HttpStatus;
 import org.easymock.EasyMock;
 import org.joda.time.Interval;
@@ -1109,6 +1120,143 @@ public class QueryResourceTest
     });
   }
 
+  @Test
+  public void testColumnarPost() throws IOException
+  {
+    expectPermissiveHappyPathAuth();
+
+    final QuerySegmentWalker scanWalker = new QuerySegmentWalker()
+    {
+      @Override
+      @SuppressWarnings("unchecked")
+      public <T> QueryRunner<T> getQueryRunnerForIntervals(Query<T> query, Iterable<Interval> intervals)
+      {
+        return (queryPlus, responseContext) -> (Sequence<T>) Sequences.simple(
+            ImmutableList.of(
+                new ScanResultValue(
+                    null,
+                    ImmutableList.of("dim", "met"),
+                    ImmutableList.of(ImmutableList.of("a", 1), ImmutableList.of("b", 2))
+                )
+            )
+        );
+      }
+
+      @Override
+      public <T> QueryRunner<T> getQueryRunnerForSegments(Query<T> query, Iterable<SegmentDescriptor> specs)
+      {
+        return getQueryRunnerForIntervals(query, null);
+      }
+    };
+
+    final Response response = createBrokerQueryResource(scanWalker, null).doColumnarPost(
+        new ByteArrayInputStream(JSON_MAPPER.writeValueAsBytes(simpleScanQuery())),
+        null /*pretty*/,
+        testServletRequest
+    );
+    Assert.assertEquals(HttpStatus.SC_OK, response.getStatus());
+
+    final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+    ((StreamingOutput) response.getEntity()).write(baos);
+    Assert.assertEquals(
+        ImmutableList.of(
+            new ColumnarScanBatch(
+                ImmutableList.of("dim", "met"),
+                2,
+                ImmutableList.of(ImmutableList.of("a", "b"), ImmutableList.of(1, 2))
+            )
+        ),
+        JSON_MAPPER.readValue(baos.toByteArray(), new TypeReference<List<ColumnarScanBatch>>() {})
+    );
+  }
+
+  @Test
+  public void testColumnarPostNotScanQuery() throws IOException
+  {
+    expectPermissiveHappyPathAuth();
+
+    final Response response = createBrokerQueryResource(TEST_SEGMENT_WALKER, null).doColumnarPost(
+        new ByteArrayInputStream(SIMPLE_TIMESERIES_QUERY.getBytes(StandardCharsets.UTF_8)),
+        null /*pretty*/,
+        testServletRequest
+    );
+    Assert.assertEquals(QueryUnsupportedException.STATUS_CODE, response.getStatus());
+    Assert.assertEquals(
+        "Columnar results are only available for scan queries, got[timeseries]",
+        JSON_MAPPER.readValue((byte[]) response.getEntity(), QueryUnsupportedException.class).getMessage()
+    );
+  }
+
+  @Test
+  public void testColumnarPartitions() throws IOException
+  {
+    expectPermissiveHappyPathAuth();
+
+    final SimpleServerView serverView = new SimpleServerView(WAREHOUSE, JSON_MAPPER, null);
+    final DataSegment segment = DataSegment.builder()
+                                           .dataSource("mmx_metrics")
+                                           .interval(Intervals.of("2015-01-01/P1D"))
+                                           .version("v")
+                                           .shardSpec(new LinearShardSpec(0))
+                                           .size(100)
+                                           .build();
+    serverView.addServer(SimpleServerView.createServer(1), segment);
+
+    final Response response = createBrokerQueryResource(TEST_SEGMENT_WALKER, serverView).getColumnarPartitions(
+        new ByteArrayInputStream(JSON_MAPPER.writeValueAsBytes(simpleScanQuery())),
+        null /*pretty*/,
+        4,
+        testServletRequest
+    );
+    Assert.assertEquals(HttpStatus.SC_OK, response.getStatus());
+    Assert.assertEquals(
+        ImmutableList.of(new ColumnarScanPartition(ImmutableList.of(segment.toDescriptor()), 100)),
+        JSON_MAPPER.readValue((String) response.getEntity(), new TypeReference<List<ColumnarScanPartition>>() {})
+    );
+    Assert.assertNotNull(response.getMetadata().getFirst("X-Druid-Query-Id"));
+    Assert.assertEquals(1, testRequestLogger.getNativeQuerylogs().size());
+    Assert.assertEquals(
+        response.getMetadata().getFirst("X-Druid-Query-Id"),
+        testRequestLogger.getNativeQuerylogs().get(0).getQuery().getId()
+    );
+  }
+
+  private BrokerQueryResource createBrokerQueryResource(
+      QuerySegmentWalker walker,
+      TimelineServerView serverView
+  )
+  {
+    return new BrokerQueryResource(
+        new QueryLifecycleFactory(
+            WAREHOUSE,
+            walker,
+            new DefaultGenericQueryMetricsFactory(),
+            new NoopServiceEmitter(),
+            testRequestLogger,
+            new AuthConfig(),
+            AuthTestUtils.TEST_AUTHORIZER_MAPPER,
+            Suppliers.ofInstance(new DefaultQueryConfig(ImmutableMap.of()))
+        ),
+        JSON_MAPPER,
+        JSON_MAPPER,
+        queryScheduler,
+        new AuthConfig(),
+        AuthTestUtils.TEST_AUTHORIZER_MAPPER,
+        ResponseContextConfig.newConfig(true),
+        DRUID_NODE,
+        serverView
+    );
+  }
+
+  private static ScanQuery simpleScanQuery()
+  {
+    return Druids.newScanQueryBuilder()
+                 .dataSource("mmx_metrics")
+                 .intervals(new MultipleIntervalSegmentSpec(ImmutableList.of(Intervals.of("2014-12-17/2015-12-30"))))
+                 .resultFormat(ScanQuery.ResultFormat.RESULT_FORMAT_COMPACTED_LIST)
+                 .build();
+  }
+
   private void expectPermissiveHappyPathAuth()
   {
     EasyMock.expect(testServletRequest.getAttribute(AuthConfig.DRUID_AUTHORIZATION_CHECKED))
@@ -150,7 +150,8 @@ public class QueryStackTests
           {
             return false;
           }
-        }
+        },
+        getProcessingConfig(false)
     );
   }
 
@@ -36,6 +36,9 @@ class AvaticaServerConfig
   @JsonProperty
   public int maxRowsPerFrame = 5000;
 
+  @JsonProperty
+  public boolean prefetchFrames = false;
+
   public int getMaxConnections()
   {
     return maxConnections;
@@ -55,4 +58,9 @@ class AvaticaServerConfig
   {
     return maxRowsPerFrame;
   }
+
+  public boolean isPrefetchFrames()
+  {
+    return prefetchFrames;
+  }
 }
@@ -26,6 +26,8 @@ import com.google.common.collect.ImmutableSortedMap;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
 import com.google.errorprone.annotations.concurrent.GuardedBy;
+import org.apache.calcite.avatica.metrics.MetricsSystem;
+import org.apache.calcite.avatica.metrics.noop.NoopMetricsSystem;
 import org.apache.druid.java.util.common.ISE;
 import org.apache.druid.java.util.common.logger.Logger;
 import org.apache.druid.sql.SqlLifecycleFactory;
@@ -51,6 +53,8 @@ public class DruidConnection
   private final String connectionId;
   private final int maxStatements;
   private final ImmutableMap<String, Object> context;
+  private final boolean prefetchFrames;
+  private final MetricsSystem metrics;
   private final AtomicInteger statementCounter = new AtomicInteger();
   private final AtomicReference<Future<?>> timeoutFuture = new AtomicReference<>();
 
@@ -64,10 +68,23 @@ public class DruidConnection
   private boolean open = true;
 
   public DruidConnection(final String connectionId, final int maxStatements, final Map<String, Object> context)
+  {
+    this(connectionId, maxStatements, context, false, NoopMetricsSystem.getInstance());
+  }
+
+  public DruidConnection(
+      final String connectionId,
+      final int maxStatements,
+      final Map<String, Object> context,
+      final boolean prefetchFrames,
+      final MetricsSystem metrics
+  )
   {
     this.connectionId = Preconditions.checkNotNull(connectionId);
     this.maxStatements = maxStatements;
     this.context = ImmutableMap.copyOf(context);
+    this.prefetchFrames = prefetchFrames;
+    this.metrics = Preconditions.checkNotNull(metrics, "metrics");
     this.statements = new ConcurrentHashMap<>();
   }
 
@@ -104,7 +121,9 @@ public class DruidConnection
             log.debug("Connection[%s] closed statement[%s].", connectionId, statementId);
             // statements will be accessed unsynchronized to avoid deadlock
             statements.remove(statementId);
-          }
+          },
+          prefetchFrames,
+          metrics
       );
 
       statements.put(statementId, statement);
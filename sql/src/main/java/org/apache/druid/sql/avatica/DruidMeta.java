@@ -68,6 +68,7 @@ public class DruidMeta extends MetaImpl
   private final ScheduledExecutorService exec;
   private final AvaticaServerConfig config;
   private final List<Authenticator> authenticators;
+  private final AvaticaMonitor avaticaMonitor;
 
   /** Used to track logical connections. */
   private final ConcurrentMap<String, DruidConnection> connections = new ConcurrentHashMap<>();
@@ -97,6 +98,7 @@ public class DruidMeta extends MetaImpl
 
     final AuthenticatorMapper authenticatorMapper = injector.getInstance(AuthenticatorMapper.class);
     this.authenticators = authenticatorMapper.getAuthenticatorChain();
+    this.avaticaMonitor = injector.getInstance(AvaticaMonitor.class);
   }
 
   @Override
@@ -552,7 +554,13 @@ public class DruidMeta extends MetaImpl
 
     final DruidConnection putResult = connections.putIfAbsent(
         connectionId,
-        new DruidConnection(connectionId, config.getMaxStatementsPerConnection(), context)
+        new DruidConnection(
+            connectionId,
+            config.getMaxStatementsPerConnection(),
+            context,
+            config.isPrefetchFrames(),
+            avaticaMonitor
+        )
     );
 
     if (putResult != null) {
@@ -20,11 +20,15 @@
 package org.apache.druid.sql.avatica;
 
 import com.google.common.base.Preconditions;
+import com.google.common.base.Throwables;
 import com.google.common.collect.ImmutableMap;
 import com.google.errorprone.annotations.concurrent.GuardedBy;
 import org.apache.calcite.avatica.AvaticaParameter;
 import org.apache.calcite.avatica.ColumnMetaData;
 import org.apache.calcite.avatica.Meta;
+import org.apache.calcite.avatica.metrics.Counter;
+import org.apache.calcite.avatica.metrics.MetricsSystem;
+import org.apache.calcite.avatica.metrics.noop.NoopMetricsSystem;
 import org.apache.calcite.avatica.remote.TypedValue;
 import org.apache.calcite.rel.type.RelDataType;
 import org.apache.calcite.rel.type.RelDataTypeField;
@@ -34,6 +38,7 @@ import org.apache.druid.java.util.common.concurrent.Execs;
 import org.apache.druid.java.util.common.guava.Sequence;
 import org.apache.druid.java.util.common.guava.Yielder;
 import org.apache.druid.java.util.common.guava.Yielders;
+import org.apache.druid.java.util.common.logger.Logger;
 import org.apache.druid.server.security.AuthenticationResult;
 import org.apache.druid.server.security.ForbiddenException;
 import org.apache.druid.sql.SqlLifecycle;
@@ -41,19 +46,30 @@ import org.apache.druid.sql.calcite.planner.Calcites;
 import org.apache.druid.sql.calcite.planner.PrepareResult;
 import org.apache.druid.sql.calcite.rel.QueryMaker;
 
+import javax.annotation.Nullable;
 import java.io.Closeable;
+import java.io.IOException;
 import java.sql.DatabaseMetaData;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 /**
  * Statement handle for {@link DruidMeta}. Thread-safe.
  */
 public class DruidStatement implements Closeable
 {
+  private static final Logger log = new Logger(DruidStatement.class);
+
   public static final long START_OFFSET = 0;
+  static final String PREFETCH_HITS_METRIC = "org.apache.calcite.avatica.jdbc.frame.prefetchHits";
+  static final String PREFETCH_MISSES_METRIC = "org.apache.calcite.avatica.jdbc.frame.prefetchMisses";
+
   private final String connectionId;
   private final int statementId;
   private final Map<String, Object> queryContext;
@@ -76,6 +92,9 @@ public class DruidStatement implements Closeable
    * https://github.com/apache/druid/pull/4415
    */
   private final ExecutorService yielderOpenCloseExecutor;
+  private final boolean prefetchFrames;
+  private final Counter prefetchHits;
+  private final Counter prefetchMisses;
   private State state = State.NEW;
   private String query;
   private long maxRowCount;
@@ -85,6 +104,23 @@ public class DruidStatement implements Closeable
   private Throwable throwable;
   private AuthenticationResult authenticationResult;
 
+  /**
+   * Rows read ahead of the client by a prefetch, not yet returned in a frame.
+   */
+  @GuardedBy("lock")
+  private final ArrayDeque<Object[]> prefetchedRows = new ArrayDeque<>();
+
+  /**
+   * Prefetch in progress, if any. While it is running, it owns {@link #yielder}.
+   */
+  @GuardedBy("lock")
+  @Nullable
+  private Future<PrefetchResult> prefetchFuture;
+
+  @GuardedBy("lock")
+  @Nullable
+  private Prefetch prefetch;
+
   public DruidStatement(
       final String connectionId,
       final int statementId,
@@ -92,6 +128,24 @@ public class DruidStatement implements Closeable
       final SqlLifecycle sqlLifecycle,
       final Runnable onClose
   )
+  {
+    this(connectionId, statementId, queryContext, sqlLifecycle, onClose, false, NoopMetricsSystem.getInstance());
+  }
+
+  /**
+   * @param prefetchFrames whether to read the next frame in the background after returning each frame, so it is
+   *                       ready by the time the client asks for it
+   * @param metrics        metrics system for prefetch hit and miss counts
+   */
+  public DruidStatement(
+      final String connectionId,
+      final int statementId,
+      final Map<String, Object> queryContext,
+      final SqlLifecycle sqlLifecycle,
+      final Runnable onClose,
+      final boolean prefetchFrames,
+      final MetricsSystem metrics
+  )
   {
     this.connectionId = Preconditions.checkNotNull(connectionId, "connectionId");
     this.statementId = statementId;
@@ -101,6 +155,9 @@ public class DruidStatement implements Closeable
     this.yielderOpenCloseExecutor = Execs.singleThreaded(
         StringUtils.format("JDBCYielderOpenCloseExecutor-connection-%s-statement-%d", connectionId, statementId)
     );
+    this.prefetchFrames = prefetchFrames;
+    this.prefetchHits = metrics.getCounter(PREFETCH_HITS_METRIC);
+    this.prefetchMisses = metrics.getCounter(PREFETCH_MISSES_METRIC);
   }
 
   public static List<ColumnMetaData> createColumnMetaData(final RelDataType rowType)
@@ -268,16 +325,26 @@ public class DruidStatement implements Closeable
       Preconditions.checkState(fetchOffset == offset, "fetchOffset[%,d] != offset[%,d]", fetchOffset, offset);
 
       try {
+        awaitPrefetch();
+
         final List<Object> rows = new ArrayList<>();
+        while (!prefetchedRows.isEmpty() && (fetchMaxRowCount < 0 || offset < fetchOffset + fetchMaxRowCount)) {
+          rows.add(prefetchedRows.poll());
+          offset++;
+        }
+
         while (!yielder.isDone() && (fetchMaxRowCount < 0 || offset < fetchOffset + fetchMaxRowCount)) {
           rows.add(yielder.get());
           yielder = yielder.next(null);
           offset++;
         }
 
-        final boolean done = yielder.isDone();
+        final boolean done = prefetchedRows.isEmpty() && yielder.isDone();
         if (done) {
           close();
+        } else if (prefetchFrames && fetchMaxRowCount > prefetchedRows.size()) {
+          // Assume the client will ask for a frame of the same size next.
+          startPrefetch(fetchMaxRowCount - prefetchedRows.size());
         }
 
         return new Meta.Frame(fetchOffset, done, rows);
@@ -303,7 +370,30 @@ public class DruidStatement implements Closeable
       synchronized (lock) {
         oldState = state;
         state = State.DONE;
-        if (yielder != null) {
+        prefetchedRows.clear();
+        if (prefetchFuture != null) {
+          // The prefetch owns the yielder while it runs. Interrupt it instead of waiting for it while holding the
+          // lock, and close whichever yielder it stopped at. The executor runs one task at a time, so the close
+          // only starts once the prefetch is done.
+          prefetchFuture.cancel(true);
+          final Prefetch thePrefetch = prefetch;
+          prefetchFuture = null;
+          prefetch = null;
+          yielder = null;
+
+          yielderOpenCloseExecutor.submit(
+              () -> {
+                try {
+                  thePrefetch.closeYielder();
+                }
+                catch (Throwable t) {
+                  log.warn(t, "Failed to close yielder for statement[%s-%d]", connectionId, statementId);
+                }
+              }
+          );
+
+          yielderOpenCloseExecutor.shutdown();
+        } else if (yielder != null) {
           Yielder<Object[]> theYielder = this.yielder;
           this.yielder = null;
 
@@ -365,6 +455,54 @@ public class DruidStatement implements Closeable
 
 
 
+  /**
+   * Starts reading up to "numRows" rows in the background, on {@link #yielderOpenCloseExecutor}.
+   */
+  @GuardedBy("lock")
+  private void startPrefetch(final int numRows)
+  {
+    prefetch = new Prefetch(yielder, numRows);
+    prefetchFuture = yielderOpenCloseExecutor.submit(prefetch);
+  }
+
+  /**
+   * Waits for the prefetch in progress, if any, and takes over its rows and yielder. The prefetch is a hit if it was
+   * already done, meaning the client did not have to wait for it.
+   */
+  @GuardedBy("lock")
+  private void awaitPrefetch()
+  {
+    if (prefetchFuture == null) {
+      return;
+    }
+
+    if (prefetchFuture.isDone()) {
+      prefetchHits.increment();
+    } else {
+      prefetchMisses.increment();
+    }
+
+    final PrefetchResult prefetchResult;
+    try {
+      prefetchResult = prefetchFuture.get();
+    }
+    catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RuntimeException(e);
+    }
+    catch (ExecutionException e) {
+      Throwables.propagateIfPossible(e.getCause());
+      throw new RuntimeException(e.getCause());
+    }
+    finally {
+      prefetchFuture = null;
+      prefetch = null;
+    }
+
+    prefetchedRows.addAll(prefetchResult.rows);
+    yielder = prefetchResult.yielder;
+  }
+
   private DruidStatement closeAndPropagateThrowable(Throwable t)
   {
     this.throwable = t;
@@ -388,6 +526,52 @@ public class DruidStatement implements Closeable
     throw new ISE("Invalid action for state[%s]", state);
   }
 
+  /**
+   * Reads up to "numRows" rows ahead of the client. Stops early if interrupted, and keeps track of the yielder it got
+   * to, so {@link #close} can close it after the prefetch has been cancelled.
+   */
+  private static class Prefetch implements Callable<PrefetchResult>
+  {
+    private final int numRows;
+
+    // Only advanced and closed on yielderOpenCloseExecutor, one task at a time.
+    private Yielder<Object[]> yielder;
+
+    Prefetch(final Yielder<Object[]> yielder, final int numRows)
+    {
+      this.yielder = yielder;
+      this.numRows = numRows;
+    }
+
+    @Override
+    public PrefetchResult call()
+    {
+      final List<Object[]> rows = new ArrayList<>(numRows);
+      while (!yielder.isDone() && rows.size() < numRows && !Thread.currentThread().isInterrupted()) {
+        rows.add(yielder.get());
+        yielder = yielder.next(null);
+      }
+      return new PrefetchResult(rows, yielder);
+    }
+
+    void closeYielder() throws IOException
+    {
+      yielder.close();
+    }
+  }
+
+  private static class PrefetchResult
+  {
+    private final List<Object[]> rows;
+    private final Yielder<Object[]> yielder;
+
+    PrefetchResult(final List<Object[]> rows, final Yielder<Object[]> yielder)
+    {
+      this.rows = rows;
+      this.yielder = yielder;
+    }
+  }
+
   enum State
   {
     NEW,
@@ -21,7 +21,10 @@ package org.apache.druid.sql.calcite.planner;
 
 import com.google.inject.Binder;
 import com.google.inject.Module;
+import com.google.inject.multibindings.Multibinder;
 import org.apache.druid.guice.JsonConfigProvider;
+import org.apache.druid.guice.LazySingleton;
+import org.apache.druid.sql.calcite.rel.NativeQueryRewriter;
 
 /**
  * The module responsible for provide bindings for the Calcite Planner.
@@ -33,6 +36,8 @@ public class CalcitePlannerModule implements Module
   {
     JsonConfigProvider.bind(binder, "druid.sql.planner", PlannerConfig.class);
     binder.bind(PlannerFactory.class);
+    binder.bind(SqlPlanCache.class).in(LazySingleton.class);
     binder.bind(DruidOperatorTable.class);
+    Multibinder.newSetBinder(binder, NativeQueryRewriter.class);
   }
 }
@@ -42,6 +42,7 @@ import org.apache.druid.query.ordering.StringComparator;
 import org.apache.druid.query.ordering.StringComparators;
 import org.apache.druid.segment.column.ValueType;
 import org.joda.time.DateTime;
+import org.joda.time.DateTimeConstants;
 import org.joda.time.DateTimeZone;
 import org.joda.time.Days;
 import org.joda.time.format.DateTimeFormat;
@@ -371,6 +372,24 @@ public class Calcites
     return DateTimes.EPOCH.plusDays(date).withZoneRetainFields(timeZone);
   }
 
+  /**
+   * Like {@link #calciteTimestampToJoda(long, DateTimeZone)}, but returns millis since the epoch instead of a
+   * {@link DateTime}.
+   */
+  public static long calciteTimestampToJodaMillis(final long timestamp, final DateTimeZone timeZone)
+  {
+    return DateTimeZone.UTC.getMillisKeepLocal(timeZone, timestamp);
+  }
+
+  /**
+   * Like {@link #calciteDateToJoda(int, DateTimeZone)}, but returns millis since the epoch instead of a
+   * {@link DateTime}.
+   */
+  public static long calciteDateToJodaMillis(final int date, final DateTimeZone timeZone)
+  {
+    return DateTimeZone.UTC.getMillisKeepLocal(timeZone, date * (long) DateTimeConstants.MILLIS_PER_DAY);
+  }
+
   /**
    * Find a string that is either equal to "basePrefix", or basePrefix prepended by underscores, and where nothing in
    * "strings" starts with prefix plus a digit.
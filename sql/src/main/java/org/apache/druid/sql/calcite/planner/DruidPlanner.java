@@ -66,6 +66,8 @@ import org.apache.druid.java.util.common.guava.Sequences;
 import org.apache.druid.segment.DimensionHandlerUtils;
 import org.apache.druid.sql.calcite.rel.DruidConvention;
 import org.apache.druid.sql.calcite.rel.DruidRel;
+import org.apache.druid.sql.calcite.rel.DruidUnionRel;
+import org.apache.druid.sql.calcite.rel.QueryMaker;
 
 import javax.annotation.Nullable;
 import java.io.Closeable;
@@ -80,16 +82,23 @@ public class DruidPlanner implements Closeable
   private final FrameworkConfig frameworkConfig;
   private final Planner planner;
   private final PlannerContext plannerContext;
+  private final QueryMaker queryMaker;
+  @Nullable
+  private final SqlPlanCache planCache;
   private RexBuilder rexBuilder;
 
   public DruidPlanner(
       final FrameworkConfig frameworkConfig,
-      final PlannerContext plannerContext
+      final PlannerContext plannerContext,
+      final QueryMaker queryMaker,
+      @Nullable final SqlPlanCache planCache
   )
   {
     this.frameworkConfig = frameworkConfig;
     this.planner = Frameworks.getPlanner(frameworkConfig);
     this.plannerContext = plannerContext;
+    this.queryMaker = queryMaker;
+    this.planCache = planCache;
   }
 
   public PrepareResult prepare(final String sql) throws SqlParseException, ValidationException, RelConversionException
@@ -128,13 +137,24 @@ public class DruidPlanner implements Closeable
     // the planner's type factory is not available until after parsing
     this.rexBuilder = new RexBuilder(planner.getTypeFactory());
 
+    final SqlPlanCache.Key cacheKey;
+    if (explain == null && planCache != null && planCache.isEnabled()) {
+      cacheKey = planCache.makeKey(parsed, plannerContext);
+      final SqlPlanCache.Entry cachedPlan = planCache.get(cacheKey);
+      if (cachedPlan != null) {
+        return cachedPlan.toPlannerResult(queryMaker);
+      }
+    } else {
+      cacheKey = null;
+    }
+
     SqlParameterizerShuttle sshuttle = new SqlParameterizerShuttle(plannerContext);
     SqlNode parametized = parsed.accept(sshuttle);
     final SqlNode validated = planner.validate(parametized);
     final RelRoot root = planner.rel(validated);
 
     try {
-      return planWithDruidConvention(explain, root);
+      return planWithDruidConvention(explain, root, cacheKey);
     }
     catch (RelOptPlanner.CannotPlanException e) {
       // Try again with BINDABLE convention. Used for querying Values and metadata tables.
@@ -193,7 +213,8 @@ public class DruidPlanner implements Closeable
 
   private PlannerResult planWithDruidConvention(
       final SqlExplain explain,
-      final RelRoot root
+      final RelRoot root,
+      @Nullable final SqlPlanCache.Key cacheKey
   ) throws RelConversionException
   {
     final RelNode possiblyWrappedRootRel = possiblyWrapRootWithOuterLimitFromContext(root);
@@ -212,6 +233,16 @@ public class DruidPlanner implements Closeable
 
     if (explain != null) {
       return planExplanation(druidRel, explain, dataSourceNames);
+    } else if (cacheKey != null && !(druidRel instanceof DruidUnionRel) && !dependsOnCurrentTime()) {
+      // Plans of a single native query can be cached and run again by later SQL queries.
+      final SqlPlanCache.Entry plan = new SqlPlanCache.Entry(
+          druidRel.toDruidQuery(false),
+          root.isRefTrivial() ? null : Pair.left(root.fields).stream().mapToInt(Integer::intValue).toArray(),
+          root.validatedRowType,
+          dataSourceNames
+      );
+      planCache.put(cacheKey, plan);
+      return plan.toPlannerResult(queryMaker);
     } else {
       final Supplier<Sequence<Object[]>> resultsSupplier = () -> {
         if (root.isRefTrivial()) {
@@ -235,6 +266,16 @@ public class DruidPlanner implements Closeable
     }
   }
 
+  /**
+   * Whether the plan made so far used the current time, without it being fixed by
+   * {@link PlannerContext#CTX_SQL_CURRENT_TIMESTAMP}. Such plans cannot be cached.
+   */
+  private boolean dependsOnCurrentTime()
+  {
+    return plannerContext.isLocalNowUsed()
+           && !plannerContext.getQueryContext().containsKey(PlannerContext.CTX_SQL_CURRENT_TIMESTAMP);
+  }
+
   private PlannerResult planWithBindableConvention(
       final SqlExplain explain,
       final RelRoot root
@@ -67,7 +67,7 @@ public class PlannerContext
   private final AuthenticationResult authenticationResult;
   private final String sqlQueryId;
   private final List<String> nativeQueryIds = new CopyOnWriteArrayList<>();
-
+  private volatile boolean localNowUsed = false;
 
   private PlannerContext(
       final DruidOperatorTable operatorTable,
@@ -155,9 +155,20 @@ public class PlannerContext
 
   public DateTime getLocalNow()
   {
+    localNowUsed = true;
     return localNow;
   }
 
+  /**
+   * Returns true if {@link #getLocalNow()} was called, meaning that plans made with this context may depend on the
+   * current time. Such plans are not cached by {@link SqlPlanCache}, unless the current time was set by
+   * {@link #CTX_SQL_CURRENT_TIMESTAMP}.
+   */
+  public boolean isLocalNowUsed()
+  {
+    return localNowUsed;
+  }
+
   public DateTimeZone getTimeZone()
   {
     return localNow.getZone();
@@ -20,6 +20,7 @@
 package org.apache.druid.sql.calcite.planner;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.collect.ImmutableSet;
 import com.google.inject.Inject;
 import org.apache.calcite.avatica.remote.TypedValue;
 import org.apache.calcite.avatica.util.Casing;
@@ -40,12 +41,15 @@ import org.apache.druid.math.expr.ExprMacroTable;
 import org.apache.druid.server.QueryLifecycleFactory;
 import org.apache.druid.server.security.AuthenticationResult;
 import org.apache.druid.server.security.AuthorizerMapper;
+import org.apache.druid.sql.calcite.rel.NativeQueryRewriter;
 import org.apache.druid.sql.calcite.rel.QueryMaker;
 import org.apache.druid.sql.calcite.schema.DruidSchemaName;
 
+import javax.annotation.Nullable;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
+import java.util.Set;
 
 public class PlannerFactory
 {
@@ -66,8 +70,10 @@ public class PlannerFactory
   private final ObjectMapper jsonMapper;
   private final AuthorizerMapper authorizerMapper;
   private final String druidSchemaName;
+  @Nullable
+  private final SqlPlanCache planCache;
+  private final Set<NativeQueryRewriter> queryRewriters;
 
-  @Inject
   public PlannerFactory(
       final SchemaPlus rootSchema,
       final QueryLifecycleFactory queryLifecycleFactory,
@@ -78,6 +84,60 @@ public class PlannerFactory
       final @Json ObjectMapper jsonMapper,
       final @DruidSchemaName String druidSchemaName
   )
+  {
+    this(
+        rootSchema,
+        queryLifecycleFactory,
+        operatorTable,
+        macroTable,
+        plannerConfig,
+        authorizerMapper,
+        jsonMapper,
+        druidSchemaName,
+        null,
+        ImmutableSet.of()
+    );
+  }
+
+  public PlannerFactory(
+      final SchemaPlus rootSchema,
+      final QueryLifecycleFactory queryLifecycleFactory,
+      final DruidOperatorTable operatorTable,
+      final ExprMacroTable macroTable,
+      final PlannerConfig plannerConfig,
+      final AuthorizerMapper authorizerMapper,
+      final @Json ObjectMapper jsonMapper,
+      final @DruidSchemaName String druidSchemaName,
+      final @Nullable SqlPlanCache planCache
+  )
+  {
+    this(
+        rootSchema,
+        queryLifecycleFactory,
+        operatorTable,
+        macroTable,
+        plannerConfig,
+        authorizerMapper,
+        jsonMapper,
+        druidSchemaName,
+        planCache,
+        ImmutableSet.of()
+    );
+  }
+
+  @Inject
+  public PlannerFactory(
+      final SchemaPlus rootSchema,
+      final QueryLifecycleFactory queryLifecycleFactory,
+      final DruidOperatorTable operatorTable,
+      final ExprMacroTable macroTable,
+      final PlannerConfig plannerConfig,
+      final AuthorizerMapper authorizerMapper,
+      final @Json ObjectMapper jsonMapper,
+      final @DruidSchemaName String druidSchemaName,
+      final @Nullable SqlPlanCache planCache,
+      final Set<NativeQueryRewriter> queryRewriters
+  )
   {
     this.rootSchema = rootSchema;
     this.queryLifecycleFactory = queryLifecycleFactory;
@@ -87,6 +147,8 @@ public class PlannerFactory
     this.authorizerMapper = authorizerMapper;
     this.jsonMapper = jsonMapper;
     this.druidSchemaName = druidSchemaName;
+    this.planCache = planCache;
+    this.queryRewriters = queryRewriters;
   }
 
   public DruidPlanner createPlanner(
@@ -103,7 +165,7 @@ public class PlannerFactory
         parameters,
         authenticationResult
     );
-    final QueryMaker queryMaker = new QueryMaker(queryLifecycleFactory, plannerContext, jsonMapper);
+    final QueryMaker queryMaker = new QueryMaker(queryLifecycleFactory, plannerContext, jsonMapper, queryRewriters);
     final SqlToRelConverter.Config sqlToRelConverterConfig = SqlToRelConverter
         .configBuilder()
         .withExpand(false)
@@ -155,7 +217,9 @@ public class PlannerFactory
 
     return new DruidPlanner(
         frameworkConfig,
-        plannerContext
+        plannerContext,
+        queryMaker,
+        planCache
     );
   }
 
@@ -104,7 +104,7 @@ public class Rules
   // 2) AggregateReduceFunctionsRule (it'll be added back for the Bindable rule set, but we don't want it for Druid
   //    rules since it expands AVG, STDDEV, VAR, etc, and we have aggregators specifically designed for those
   //    functions).
-  // 3) JoinCommuteRule (we don't support reordering joins yet).
+  // 3) JoinCommuteRule (general join reordering is not supported; see DruidJoinCommuteRule for the narrow case we do).
   // 4) JoinPushThroughJoinRule (we don't support reordering joins yet).
   private static final List<RelOptRule> BASE_RULES =
       ImmutableList.of(
@@ -181,7 +181,7 @@ public class Rules
   // 1) AggregateMergeRule (it causes testDoubleNestedGroupBy2 to fail)
   // 2) SemiJoinRule.PROJECT and SemiJoinRule.JOIN (we don't need to detect semi-joins, because they are handled
   //    fine as-is by DruidJoinRule).
-  // 3) JoinCommuteRule (we don't support reordering joins yet).
+  // 3) JoinCommuteRule (general join reordering is not supported; see DruidJoinCommuteRule for the narrow case we do).
   // 4) FilterJoinRule.FILTER_ON_JOIN and FilterJoinRule.JOIN
   //    Removed by https://github.com/apache/druid/pull/9773 due to issue in https://github.com/apache/druid/issues/9843
   //    TODO: Re-enable when https://github.com/apache/druid/issues/9843 is fixed
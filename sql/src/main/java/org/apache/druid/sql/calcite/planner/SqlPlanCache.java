@@ -0,0 +1,301 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.druid.sql.calcite.planner;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Supplier;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.inject.Inject;
+import org.apache.calcite.avatica.remote.TypedValue;
+import org.apache.calcite.jdbc.CalciteSchema;
+import org.apache.calcite.rel.type.RelDataType;
+import org.apache.calcite.schema.SchemaPlus;
+import org.apache.calcite.sql.SqlNode;
+import org.apache.druid.java.util.common.guava.Sequence;
+import org.apache.druid.java.util.common.guava.Sequences;
+import org.apache.druid.server.security.AuthenticationResult;
+import org.apache.druid.sql.calcite.rel.DruidQuery;
+import org.apache.druid.sql.calcite.rel.QueryMaker;
+import org.apache.druid.sql.calcite.schema.DruidSchema;
+import org.apache.druid.sql.calcite.schema.DruidSchemaName;
+import org.apache.druid.sql.calcite.schema.LookupSchema;
+
+import javax.annotation.Nullable;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.LongSupplier;
+
+/**
+ * Cache of SQL plans, so that SQL queries that were seen before can skip Calcite validation and planning, and go
+ * straight to running their native query. The size of the cache is set by {@link PlannerConfig#getPlanCacheSize()};
+ * zero disables it.
+ *
+ * Plans are keyed on the normalized SQL text (the parsed query, unparsed back to SQL), the values of any dynamic
+ * parameters, the query context other than {@link PlannerContext#CTX_SQL_QUERY_ID}, the identity of the caller,
+ * the {@link PlannerConfig} after context overrides, and the version of the schema the plan was made against. The
+ * schema version is the sum of {@link DruidSchema#getVersion()}, which also covers views, and
+ * {@link LookupSchema#getVersion()}. Whenever it changes, the whole cache is cleared.
+ *
+ * Only plans that run a single native query are cached, and only if they do not depend on the current time; see
+ * {@link PlannerContext#isLocalNowUsed()}. EXPLAIN, UNION ALL, and queries of system tables are always planned.
+ */
+public class SqlPlanCache
+{
+  @Nullable
+  private final Cache<Key, Entry> cache;
+  private final LongSupplier schemaVersionSupplier;
+  private final Object versionLock = new Object();
+  private volatile long schemaVersion;
+
+  @Inject
+  public SqlPlanCache(
+      final PlannerConfig plannerConfig,
+      final SchemaPlus rootSchema,
+      final @DruidSchemaName String druidSchemaName
+  )
+  {
+    this(plannerConfig.getPlanCacheSize(), makeSchemaVersionSupplier(rootSchema, druidSchemaName));
+  }
+
+  @VisibleForTesting
+  SqlPlanCache(final int size, final LongSupplier schemaVersionSupplier)
+  {
+    this.cache = size > 0 ? CacheBuilder.newBuilder().maximumSize(size).recordStats().build() : null;
+    this.schemaVersionSupplier = schemaVersionSupplier;
+    this.schemaVersion = schemaVersionSupplier.getAsLong();
+  }
+
+  /**
+   * Returns a supplier of the current schema version. Both component versions only go up, so their sum increases
+   * whenever either one does.
+   */
+  @VisibleForTesting
+  static LongSupplier makeSchemaVersionSupplier(final SchemaPlus rootSchema, final String druidSchemaName)
+  {
+    final SchemaPlus druidSchemaPlus = rootSchema.getSubSchema(druidSchemaName);
+    final DruidSchema druidSchema =
+        druidSchemaPlus != null && CalciteSchema.from(druidSchemaPlus).schema instanceof DruidSchema
+        ? (DruidSchema) CalciteSchema.from(druidSchemaPlus).schema
+        : null;
+
+    LookupSchema lookupSchema = null;
+    for (String schemaName : rootSchema.getSubSchemaNames()) {
+      final SchemaPlus schemaPlus = rootSchema.getSubSchema(schemaName);
+      if (schemaPlus != null && CalciteSchema.from(schemaPlus).schema instanceof LookupSchema) {
+        lookupSchema = (LookupSchema) CalciteSchema.from(schemaPlus).schema;
+      }
+    }
+
+    final LookupSchema theLookupSchema = lookupSchema;
+
+    // Schemas that are missing, or are not real DruidSchemas or LookupSchemas, never change.
+    return () -> (druidSchema != null ? druidSchema.getVersion() : 0L)
+                 + (theLookupSchema != null ? theLookupSchema.getVersion() : 0L);
+  }
+
+  public boolean isEnabled()
+  {
+    return cache != null;
+  }
+
+  /**
+   * Returns the key for a parsed query (not including EXPLAIN) planned with the given context. Must be called before
+   * planning, since the key includes the schema version the plan is made against.
+   */
+  public Key makeKey(final SqlNode parsed, final PlannerContext plannerContext)
+  {
+    final Map<String, Object> context = new HashMap<>(plannerContext.getQueryContext());
+    context.remove(PlannerContext.CTX_SQL_QUERY_ID);
+
+    final AuthenticationResult authenticationResult = plannerContext.getAuthenticationResult();
+
+    return new Key(
+        parsed.toString(),
+        context,
+        ImmutableList.copyOf(plannerContext.getParameters()),
+        authenticationResult.getIdentity(),
+        authenticationResult.getAuthorizerName(),
+        plannerContext.getPlannerConfig(),
+        checkSchemaVersion()
+    );
+  }
+
+  @Nullable
+  public Entry get(final Key key)
+  {
+    if (cache == null || key.schemaVersion != checkSchemaVersion()) {
+      return null;
+    }
+
+    return cache.getIfPresent(key);
+  }
+
+  public void put(final Key key, final Entry entry)
+  {
+    if (cache != null && key.schemaVersion == checkSchemaVersion()) {
+      cache.put(key, entry);
+    }
+  }
+
+  public long size()
+  {
+    return cache != null ? cache.size() : 0;
+  }
+
+  public CacheStats getStats()
+  {
+    return cache != null ? cache.stats() : new CacheStats(0, 0, 0, 0, 0, 0);
+  }
+
+  /**
+   * Returns the current schema version, clearing the cache first if it changed since the last call.
+   */
+  private long checkSchemaVersion()
+  {
+    final long currentVersion = schemaVersionSupplier.getAsLong();
+
+    if (currentVersion != schemaVersion) {
+      synchronized (versionLock) {
+        if (currentVersion != schemaVersion) {
+          if (cache != null) {
+            cache.invalidateAll();
+          }
+          schemaVersion = currentVersion;
+        }
+      }
+    }
+
+    return currentVersion;
+  }
+
+  public static class Key
+  {
+    private final String sql;
+    private final Map<String, Object> context;
+    private final List<TypedValue> parameters;
+    private final String identity;
+    @Nullable
+    private final String authorizerName;
+    private final PlannerConfig plannerConfig;
+    private final long schemaVersion;
+
+    Key(
+        final String sql,
+        final Map<String, Object> context,
+        final List<TypedValue> parameters,
+        final String identity,
+        @Nullable final String authorizerName,
+        final PlannerConfig plannerConfig,
+        final long schemaVersion
+    )
+    {
+      this.sql = sql;
+      this.context = context;
+      this.parameters = parameters;
+      this.identity = identity;
+      this.authorizerName = authorizerName;
+      this.plannerConfig = plannerConfig;
+      this.schemaVersion = schemaVersion;
+    }
+
+    @Override
+    public boolean equals(final Object o)
+    {
+      if (this == o) {
+        return true;
+      }
+      if (o == null || getClass() != o.getClass()) {
+        return false;
+      }
+      final Key key = (Key) o;
+      return sql.equals(key.sql) &&
+             context.equals(key.context) &&
+             parameters.equals(key.parameters) &&
+             Objects.equals(identity, key.identity) &&
+             Objects.equals(authorizerName, key.authorizerName) &&
+             plannerConfig.equals(key.plannerConfig) &&
+             schemaVersion == key.schemaVersion;
+    }
+
+    @Override
+    public int hashCode()
+    {
+      return Objects.hash(sql, context, parameters, identity, authorizerName, plannerConfig, schemaVersion);
+    }
+  }
+
+  /**
+   * A plan that runs a single native query. Can be run with any {@link QueryMaker}, so that the native query is
+   * issued on behalf of the SQL query that is currently being planned.
+   */
+  public static class Entry
+  {
+    private final DruidQuery druidQuery;
+    @Nullable
+    private final int[] fields;
+    private final RelDataType rowType;
+    private final Set<String> datasourceNames;
+
+    /**
+     * @param fields positions of the output fields in the rows of "druidQuery", or null if they are the same
+     */
+    public Entry(
+        final DruidQuery druidQuery,
+        @Nullable final int[] fields,
+        final RelDataType rowType,
+        final Set<String> datasourceNames
+    )
+    {
+      this.druidQuery = druidQuery;
+      this.fields = fields;
+      this.rowType = rowType;
+      this.datasourceNames = ImmutableSet.copyOf(datasourceNames);
+    }
+
+    public PlannerResult toPlannerResult(final QueryMaker queryMaker)
+    {
+      final Supplier<Sequence<Object[]>> resultsSupplier = () -> {
+        if (fields == null) {
+          return queryMaker.runQuery(druidQuery);
+        } else {
+          return Sequences.map(
+              queryMaker.runQuery(druidQuery),
+              input -> {
+                final Object[] retVal = new Object[fields.length];
+                for (int i = 0; i < fields.length; i++) {
+                  retVal[i] = input[fields[i]];
+                }
+                return retVal;
+              }
+          );
+        }
+      };
+
+      return new PlannerResult(resultsSupplier, rowType, datasourceNames);
+    }
+  }
+}
@@ -0,0 +1,62 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.apache.druid.sql.calcite.planner;
+
+import com.google.common.cache.CacheStats;
+import com.google.inject.Inject;
+import org.apache.druid.java.util.emitter.service.ServiceEmitter;
+import org.apache.druid.java.util.emitter.service.ServiceMetricEvent;
+import org.apache.druid.java.util.metrics.AbstractMonitor;
+
+/**
+ * Emits metrics about {@link SqlPlanCache}: hits, misses, hit rate, and evictions since the last emission, and the
+ * current number of cached plans.
+ */
+public class SqlPlanCacheMonitor extends AbstractMonitor
+{
+  private final SqlPlanCache planCache;
+  private volatile CacheStats prevStats = new CacheStats(0, 0, 0, 0, 0, 0);
+
+  @Inject
+  public SqlPlanCacheMonitor(final SqlPlanCache planCache)
+  {
+    this.planCache = planCache;
+  }
+
+  @Override
+  public boolean doMonitor(final ServiceEmitter emitter)
+  {
+    if (planCache.isEnabled()) {
+      final CacheStats currStats = planCache.getStats();
+      final CacheStats deltaStats = currStats.minus(prevStats);
+
+      final ServiceMetricEvent.Builder builder = new ServiceMetricEvent.Builder();
+      emitter.emit(builder.build("sqlQuery/planCache/numEntries", planCache.size()));
+      emitter.emit(builder.build("sqlQuery/planCache/hits", deltaStats.hitCount()));
+      emitter.emit(builder.build("sqlQuery/planCache/misses", deltaStats.missCount()));
+      emitter.emit(builder.build("sqlQuery/planCache/hitRate", deltaStats.hitRate()));
+      emitter.emit(builder.build("sqlQuery/planCache/evictions", deltaStats.evictionCount()));
+
+      prevStats = currStats;
+    }
+    return true;
+  }
+}
@@ -0,0 +1,37 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.apache.druid.sql.calcite.rel;
+
+import org.apache.druid.query.Query;
+
+/**
+ * Rewrites native queries planned by the SQL layer just before {@link QueryMaker} runs them. Since rewriting happens
+ * at execution time, it applies to cached plans as well. Extensions can register implementations using
+ * {@link org.apache.druid.sql.guice.SqlBindings#addNativeQueryRewriter}.
+ */
+public interface NativeQueryRewriter
+{
+  /**
+   * Returns a query that produces the same results as "query", or "query" itself if this rewriter does not apply.
+   * The returned query's toolchest must support {@link org.apache.druid.query.QueryToolChest#resultsAsArrays}.
+   */
+  <T> Query<T> rewrite(Query<T> query);
+}
@@ -36,7 +36,9 @@ import org.apache.druid.java.util.common.Intervals;
 import org.apache.druid.java.util.common.guava.Sequence;
 import org.apache.druid.java.util.common.guava.Sequences;
 import org.apache.druid.math.expr.Evals;
+import org.apache.druid.query.DataSource;
 import org.apache.druid.query.Query;
+import org.apache.druid.query.QueryDataSource;
 import org.apache.druid.query.QueryToolChest;
 import org.apache.druid.query.planning.DataSourceAnalysis;
 import org.apache.druid.query.spec.QuerySegmentSpec;
@@ -48,12 +50,14 @@ import org.apache.druid.server.QueryLifecycleFactory;
 import org.apache.druid.server.security.AuthenticationResult;
 import org.apache.druid.sql.calcite.planner.Calcites;
 import org.apache.druid.sql.calcite.planner.PlannerContext;
+import org.apache.druid.sql.calcite.planner.SqlPlanCache;
 import org.joda.time.DateTime;
 import org.joda.time.Interval;
 
 import java.io.IOException;
 import java.util.Collection;
 import java.util.List;
+import java.util.Set;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
@@ -62,16 +66,19 @@ public class QueryMaker
   private final QueryLifecycleFactory queryLifecycleFactory;
   private final PlannerContext plannerContext;
   private final ObjectMapper jsonMapper;
+  private final Set<NativeQueryRewriter> queryRewriters;
 
   public QueryMaker(
       final QueryLifecycleFactory queryLifecycleFactory,
       final PlannerContext plannerContext,
-      final ObjectMapper jsonMapper
+      final ObjectMapper jsonMapper,
+      final Set<NativeQueryRewriter> queryRewriters
   )
   {
     this.queryLifecycleFactory = queryLifecycleFactory;
     this.plannerContext = plannerContext;
     this.jsonMapper = jsonMapper;
+    this.queryRewriters = queryRewriters;
   }
 
   public PlannerContext getPlannerContext()
@@ -139,7 +146,11 @@ public class QueryMaker
       query = query.withId(queryId);
     }
 
-    query = query.withSqlQueryId(plannerContext.getSqlQueryId());
+    query = withSqlQueryId(query, plannerContext.getSqlQueryId());
+
+    for (NativeQueryRewriter queryRewriter : queryRewriters) {
+      query = queryRewriter.rewrite(query);
+    }
 
     final AuthenticationResult authenticationResult = plannerContext.getAuthenticationResult();
     final QueryLifecycle queryLifecycle = queryLifecycleFactory.factorize();
@@ -158,6 +169,31 @@ public class QueryMaker
     return remapFields(resultArrays, resultArrayFields, newFields, newTypes);
   }
 
+  /**
+   * Sets the SQL query id of "query" and of any subqueries in its datasource. Subqueries already have the right id if
+   * they were planned by this query, but not if their plan came from {@link SqlPlanCache}.
+   */
+  private static <T> Query<T> withSqlQueryId(final Query<T> query, final String sqlQueryId)
+  {
+    return query.withSqlQueryId(sqlQueryId).withDataSource(withSqlQueryId(query.getDataSource(), sqlQueryId));
+  }
+
+  private static DataSource withSqlQueryId(final DataSource dataSource, final String sqlQueryId)
+  {
+    if (dataSource instanceof QueryDataSource) {
+      return new QueryDataSource(withSqlQueryId(((QueryDataSource) dataSource).getQuery(), sqlQueryId));
+    } else if (dataSource.getChildren().isEmpty()) {
+      return dataSource;
+    } else {
+      return dataSource.withChildren(
+          dataSource.getChildren()
+                    .stream()
+                    .map(child -> withSqlQueryId(child, sqlQueryId))
+                    .collect(Collectors.toList())
+      );
+    }
+  }
+
   private Sequence<Object[]> remapFields(
       final Sequence<Object[]> sequence,
       final List<String> originalFields,
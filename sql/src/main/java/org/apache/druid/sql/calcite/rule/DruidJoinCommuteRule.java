@@ -0,0 +1,95 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.druid.sql.calcite.rule;
+
+import org.apache.calcite.plan.RelOptRule;
+import org.apache.calcite.plan.RelOptRuleCall;
+import org.apache.calcite.rel.RelNode;
+import org.apache.calcite.rel.core.Join;
+import org.apache.calcite.rel.core.JoinRelType;
+import org.apache.calcite.rel.rules.JoinCommuteRule;
+import org.apache.druid.sql.calcite.rel.DruidJoinQueryRel;
+import org.apache.druid.sql.calcite.rel.DruidRel;
+
+/**
+ * Swaps the inputs of an inner join when that lets both sides be used directly, instead of running the right-hand
+ * side as a subquery. This happens when a regular table is written on the right and a global datasource (like a
+ * lookup) is written on the left. Native joins need the right-hand side to be directly joinable, so in the original
+ * order the table would be fully materialized on the Broker.
+ *
+ * The swapped join is registered as an alternative and {@link DruidJoinRule} plans it like any other join, so the
+ * choice between the two orders is left to {@link DruidJoinQueryRel#computeSelfCost}. A projection on top of the
+ * swapped join restores the original field order.
+ */
+public class DruidJoinCommuteRule extends RelOptRule
+{
+  private static final DruidJoinCommuteRule INSTANCE = new DruidJoinCommuteRule();
+
+  private DruidJoinCommuteRule()
+  {
+    super(
+        operand(
+            Join.class,
+            operand(DruidRel.class, any()),
+            operand(DruidRel.class, any())
+        )
+    );
+  }
+
+  public static DruidJoinCommuteRule instance()
+  {
+    return INSTANCE;
+  }
+
+  @Override
+  public boolean matches(RelOptRuleCall call)
+  {
+    final Join join = call.rel(0);
+    final DruidRel<?> left = call.rel(1);
+    final DruidRel<?> right = call.rel(2);
+
+    // 1) Inner join, so swapping the inputs doesn't change the results.
+    // 2) Both sides are real queries, not top-level UNION ALL.
+    // 3) Right would be a subquery in the original order, but neither side would be one in the swapped order.
+    return join.getJoinType() == JoinRelType.INNER
+           && left.getPartialDruidQuery() != null
+           && right.getPartialDruidQuery() != null
+           && DruidJoinQueryRel.computeRightRequiresSubquery(right)
+           && !DruidJoinQueryRel.computeRightRequiresSubquery(left)
+           && !DruidJoinQueryRel.computeLeftRequiresSubquery(right);
+  }
+
+  @Override
+  public void onMatch(RelOptRuleCall call)
+  {
+    final Join join = call.rel(0);
+    final RelNode swapped = JoinCommuteRule.swap(join, false, call.builder());
+
+    if (swapped == null) {
+      return;
+    }
+
+    // Only offer the swapped join if DruidJoinRule can plan it.
+    final Join swappedJoin = (Join) swapped.getInput(0);
+    if (DruidJoinRule.canHandleCondition(swappedJoin.getCondition(), swappedJoin.getLeft().getRowType())) {
+      call.transformTo(swapped);
+    }
+  }
+}
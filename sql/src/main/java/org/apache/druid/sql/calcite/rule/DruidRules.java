@@ -92,7 +92,8 @@ public class DruidRules
         DruidUnionRule.instance(),
         DruidUnionDataSourceRule.instance(),
         DruidSortUnionRule.instance(),
-        DruidJoinRule.instance()
+        DruidJoinRule.instance(),
+        DruidJoinCommuteRule.instance()
     );
   }
 
@@ -70,12 +70,16 @@ import org.apache.druid.sql.calcite.view.ViewManager;
 import org.apache.druid.timeline.DataSegment;
 import org.apache.druid.timeline.SegmentId;
 
+import javax.annotation.Nullable;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 import java.util.TreeMap;
@@ -84,6 +88,7 @@ import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.stream.StreamSupport;
@@ -109,6 +114,9 @@ public class DruidSchema extends AbstractSchema
   private final ExecutorService cacheExec;
   private final ConcurrentMap<String, DruidTable> tables;
 
+  // Incremented whenever "tables" changes. See getVersion.
+  private final AtomicLong version = new AtomicLong();
+
   // For awaitInitialization.
   private final CountDownLatch initialized = new CountDownLatch(1);
 
@@ -121,6 +129,11 @@ public class DruidSchema extends AbstractSchema
   private final Map<String, TreeMap<SegmentId, AvailableSegmentMetadata>> segmentMetadataInfo = new HashMap<>();
   private int totalSegments = 0;
 
+  // DataSource -> distinct RowSignature -> segments with that signature. Kept in sync with segmentMetadataInfo, so
+  // tables can be rebuilt by merging each distinct signature once instead of merging every segment's signature.
+  @GuardedBy("lock")
+  private final Map<String, Map<RowSignature, SignatureSegments>> segmentSignatures = new HashMap<>();
+
   // All mutable segments.
   @GuardedBy("lock")
   private final Set<SegmentId> mutableSegments = new TreeSet<>(SEGMENT_ORDER);
@@ -282,6 +295,9 @@ public class DruidSchema extends AbstractSchema
                 for (String dataSource : dataSourcesToRebuild) {
                   final DruidTable druidTable = buildDruidTable(dataSource);
                   final DruidTable oldTable = tables.put(dataSource, druidTable);
+                  if (!druidTable.equals(oldTable)) {
+                    version.incrementAndGet();
+                  }
                   final String description = druidTable.getDataSource().isGlobal() ? "global dataSource" : "dataSource";
                   if (oldTable == null || !oldTable.getRowSignature().equals(druidTable.getRowSignature())) {
                     log.info("%s [%s] has new signature: %s.", description, dataSource, druidTable.getRowSignature());
@@ -343,6 +359,17 @@ public class DruidSchema extends AbstractSchema
     initialized.await();
   }
 
+  /**
+   * Returns a number that increases whenever a table is added, removed, or has its signature or kind of datasource
+   * changed, or a view is created, altered, or dropped. Used by {@link org.apache.druid.sql.calcite.planner.SqlPlanCache}
+   * to discard plans made against older versions of this schema.
+   */
+  public long getVersion()
+  {
+    // Both counters only go up, so their sum increases whenever either one does.
+    return version.get() + viewManager.getVersion();
+  }
+
   @Override
   protected Map<String, Table> getTableMap()
   {
@@ -429,13 +456,18 @@ public class DruidSchema extends AbstractSchema
 
       final Map<SegmentId, AvailableSegmentMetadata> dataSourceSegments =
           segmentMetadataInfo.get(segment.getDataSource());
-      if (dataSourceSegments.remove(segment.getId()) != null) {
+      final AvailableSegmentMetadata removedMetadata = dataSourceSegments.remove(segment.getId());
+      if (removedMetadata != null) {
         totalSegments--;
+        updateSegmentSignatures(segment.getId(), removedMetadata.getRowSignature(), null);
       }
 
       if (dataSourceSegments.isEmpty()) {
         segmentMetadataInfo.remove(segment.getDataSource());
-        tables.remove(segment.getDataSource());
+        segmentSignatures.remove(segment.getDataSource());
+        if (tables.remove(segment.getDataSource()) != null) {
+          version.incrementAndGet();
+        }
         log.info("dataSource[%s] no longer exists, all metadata removed.", segment.getDataSource());
       }
 
@@ -546,7 +578,7 @@ public class DruidSchema extends AbstractSchema
           log.warn("Got analysis for segment[%s] we didn't ask for, ignoring.", analysis.getId());
         } else {
           synchronized (lock) {
-            final RowSignature rowSignature = analysisToRowSignature(analysis);
+            final RowSignature rowSignature = internRowSignature(dataSource, analysisToRowSignature(analysis));
             log.debug("Segment[%s] has signature[%s].", segmentId, rowSignature);
             final Map<SegmentId, AvailableSegmentMetadata> dataSourceSegments = segmentMetadataInfo.get(dataSource);
             if (dataSourceSegments == null) {
@@ -566,7 +598,6 @@ public class DruidSchema extends AbstractSchema
                     .withRowSignature(rowSignature)
                     .withNumRows(analysis.getNumRows())
                     .build();
-                dataSourceSegments.put(segmentId, updatedSegmentMetadata);
                 setAvailableSegmentMetadata(segmentId, updatedSegmentMetadata);
                 retVal.add(segmentId);
               }
@@ -600,30 +631,89 @@ public class DruidSchema extends AbstractSchema
           segmentId.getDataSource(),
           x -> new TreeMap<>(SEGMENT_ORDER)
       );
-      if (dataSourceSegments.put(segmentId, availableSegmentMetadata) == null) {
+      final AvailableSegmentMetadata oldMetadata = dataSourceSegments.put(segmentId, availableSegmentMetadata);
+      if (oldMetadata == null) {
         totalSegments++;
       }
+      updateSegmentSignatures(
+          segmentId,
+          oldMetadata == null ? null : oldMetadata.getRowSignature(),
+          availableSegmentMetadata.getRowSignature()
+      );
     }
   }
 
+  /**
+   * Moves a segment from the group of segments sharing its old signature to the group sharing its new signature.
+   */
+  @GuardedBy("lock")
+  private void updateSegmentSignatures(
+      final SegmentId segmentId,
+      @Nullable final RowSignature oldSignature,
+      @Nullable final RowSignature newSignature
+  )
+  {
+    if (Objects.equals(oldSignature, newSignature)) {
+      return;
+    }
+
+    final Map<RowSignature, SignatureSegments> dataSourceSignatures = segmentSignatures.computeIfAbsent(
+        segmentId.getDataSource(),
+        x -> new HashMap<>()
+    );
+
+    if (oldSignature != null) {
+      final SignatureSegments oldSegments = dataSourceSignatures.get(oldSignature);
+      if (oldSegments != null) {
+        oldSegments.segments.remove(segmentId);
+        if (oldSegments.segments.isEmpty()) {
+          dataSourceSignatures.remove(oldSignature);
+        }
+      }
+    }
+
+    if (newSignature != null) {
+      dataSourceSignatures.computeIfAbsent(newSignature, SignatureSegments::new).segments.add(segmentId);
+    }
+
+    if (dataSourceSignatures.isEmpty()) {
+      segmentSignatures.remove(segmentId.getDataSource());
+    }
+  }
+
+  /**
+   * Returns an existing signature of this dataSource that is equal to the provided one, if there is one. Most segments
+   * of a dataSource share a handful of signatures, so this keeps one copy of each around instead of one per segment.
+   */
+  @GuardedBy("lock")
+  private RowSignature internRowSignature(final String dataSource, final RowSignature rowSignature)
+  {
+    final Map<RowSignature, SignatureSegments> dataSourceSignatures = segmentSignatures.get(dataSource);
+    final SignatureSegments existing = dataSourceSignatures != null ? dataSourceSignatures.get(rowSignature) : null;
+    return existing != null ? existing.rowSignature : rowSignature;
+  }
+
   protected DruidTable buildDruidTable(final String dataSource)
   {
     synchronized (lock) {
-      final Map<SegmentId, AvailableSegmentMetadata> segmentMap = segmentMetadataInfo.get(dataSource);
+      final Map<RowSignature, SignatureSegments> dataSourceSignatures = segmentSignatures.get(dataSource);
       final Map<String, ValueType> columnTypes = new TreeMap<>();
 
-      if (segmentMap != null) {
-        for (AvailableSegmentMetadata availableSegmentMetadata : segmentMap.values()) {
-          final RowSignature rowSignature = availableSegmentMetadata.getRowSignature();
-          if (rowSignature != null) {
-            for (String column : rowSignature.getColumnNames()) {
-              // Newer column types should override older ones.
-              final ValueType columnType =
-                  rowSignature.getColumnType(column)
-                              .orElseThrow(() -> new ISE("Encountered null type for column[%s]", column));
-
-              columnTypes.putIfAbsent(column, columnType);
-            }
+      if (dataSourceSignatures != null) {
+        // Merge each distinct signature in the order of the newest segment that has it. A column's type comes from the
+        // first signature that has the column, which is the same type that the newest segment with that column has.
+        final List<SignatureSegments> signatures = new ArrayList<>(dataSourceSignatures.values());
+        signatures.sort(Comparator.comparing(signatureSegments -> signatureSegments.segments.first(), SEGMENT_ORDER));
+
+        for (SignatureSegments signatureSegments : signatures) {
+          final RowSignature rowSignature = signatureSegments.rowSignature;
+          for (String column : rowSignature.getColumnNames()) {
+            // Newer column types should override older ones.
+            final ValueType columnType =
+                rowSignature.getColumnType(column)
+                            .orElseThrow(() -> new ISE("Encountered null type for column[%s]", column));
+
+            columnTypes.putIfAbsent(column, columnType);
           }
         }
       }
@@ -720,4 +810,27 @@ public class DruidSchema extends AbstractSchema
   {
     return totalSegments;
   }
+
+  @VisibleForTesting
+  int getDistinctSignatureCount(final String dataSource)
+  {
+    synchronized (lock) {
+      final Map<RowSignature, SignatureSegments> dataSourceSignatures = segmentSignatures.get(dataSource);
+      return dataSourceSignatures != null ? dataSourceSignatures.size() : 0;
+    }
+  }
+
+  /**
+   * A distinct signature of some dataSource, along with the segments that have it.
+   */
+  private static class SignatureSegments
+  {
+    private final RowSignature rowSignature;
+    private final TreeSet<SegmentId> segments = new TreeSet<>(SEGMENT_ORDER);
+
+    SignatureSegments(final RowSignature rowSignature)
+    {
+      this.rowSignature = rowSignature;
+    }
+  }
 }
@@ -51,6 +51,14 @@ public class LookupSchema extends AbstractSchema
     this.lookupProvider = lookupProvider;
   }
 
+  /**
+   * Returns a number that increases whenever lookups, which are the tables in this schema, are added or removed.
+   */
+  public long getVersion()
+  {
+    return lookupProvider.getVersion();
+  }
+
   @Override
   protected Map<String, Table> getTableMap()
   {
@@ -29,6 +29,7 @@ import org.apache.druid.sql.calcite.planner.PlannerFactory;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * View manager that stores all views in-process. Not meant for serious usage, since views are not saved nor
@@ -40,6 +41,9 @@ public class InProcessViewManager implements ViewManager
   private final Escalator escalator;
   private final DruidViewMacroFactory druidViewMacroFactory;
 
+  // Incremented after every change to "views". See getVersion.
+  private final AtomicLong version = new AtomicLong();
+
   @Inject
   @VisibleForTesting
   public InProcessViewManager(
@@ -60,6 +64,7 @@ public class InProcessViewManager implements ViewManager
     if (oldValue != null) {
       throw new ISE("View[%s] already exists", viewName);
     }
+    version.incrementAndGet();
   }
 
   @Override
@@ -70,6 +75,7 @@ public class InProcessViewManager implements ViewManager
     if (oldValue != null) {
       throw new ISE("View[%s] does not exist", viewName);
     }
+    version.incrementAndGet();
   }
 
   @Override
@@ -79,6 +85,7 @@ public class InProcessViewManager implements ViewManager
     if (oldValue == null) {
       throw new ISE("View[%s] does not exist", viewName);
     }
+    version.incrementAndGet();
   }
 
   @Override
@@ -86,4 +93,10 @@ public class InProcessViewManager implements ViewManager
   {
     return views;
   }
+
+  @Override
+  public long getVersion()
+  {
+    return version.get();
+  }
 }
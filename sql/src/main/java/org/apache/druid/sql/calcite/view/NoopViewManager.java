@@ -52,4 +52,10 @@ public class NoopViewManager implements ViewManager
   {
     return ImmutableMap.of();
   }
+
+  @Override
+  public long getVersion()
+  {
+    return 0;
+  }
 }
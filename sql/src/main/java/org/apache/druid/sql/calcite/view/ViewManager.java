@@ -36,4 +36,9 @@ public interface ViewManager
   void dropView(String viewName);
 
   Map<String, DruidViewMacro> getViews();
+
+  /**
+   * Returns a number that increases whenever a view is created, altered, or dropped.
+   */
+  long getVersion();
 }
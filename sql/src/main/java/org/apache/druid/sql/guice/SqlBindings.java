@@ -24,6 +24,7 @@ import com.google.inject.Scopes;
 import com.google.inject.multibindings.Multibinder;
 import org.apache.druid.sql.calcite.aggregation.SqlAggregator;
 import org.apache.druid.sql.calcite.expression.SqlOperatorConversion;
+import org.apache.druid.sql.calcite.rel.NativeQueryRewriter;
 import org.apache.druid.sql.calcite.schema.NamedSchema;
 
 /**
@@ -58,4 +59,15 @@ public class SqlBindings
     binder.bind(clazz).in(Scopes.SINGLETON);
     Multibinder.newSetBinder(binder, NamedSchema.class).addBinding().to(clazz);
   }
+
+  /**
+   * Registers a {@link NativeQueryRewriter} to be applied to native queries planned by the SQL layer.
+   */
+  public static void addNativeQueryRewriter(
+      final Binder binder,
+      final Class<? extends NativeQueryRewriter> clazz
+  )
+  {
+    Multibinder.newSetBinder(binder, NativeQueryRewriter.class).addBinding().to(clazz);
+  }
 }
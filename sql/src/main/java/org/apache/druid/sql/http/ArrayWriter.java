@@ -21,6 +21,8 @@ package org.apache.druid.sql.http;
 
 import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import org.apache.druid.java.util.common.jackson.JacksonUtils;
 
 import javax.annotation.Nullable;
 import java.io.IOException;
@@ -29,11 +31,13 @@ import java.util.List;
 
 public class ArrayWriter implements ResultFormat.Writer
 {
+  private final SerializerProvider serializers;
   private final JsonGenerator jsonGenerator;
   private final OutputStream outputStream;
 
   public ArrayWriter(final OutputStream outputStream, final ObjectMapper jsonMapper) throws IOException
   {
+    this.serializers = jsonMapper.getSerializerProviderInstance();
     this.jsonGenerator = jsonMapper.getFactory().createGenerator(outputStream);
     this.outputStream = outputStream;
   }
@@ -75,7 +79,7 @@ public class ArrayWriter implements ResultFormat.Writer
   @Override
   public void writeRowField(final String name, @Nullable final Object value) throws IOException
   {
-    jsonGenerator.writeObject(value);
+    JacksonUtils.writeObjectUsingSerializerProvider(jsonGenerator, serializers, value);
   }
 
   @Override
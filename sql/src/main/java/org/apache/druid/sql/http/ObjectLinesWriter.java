@@ -22,6 +22,8 @@ package org.apache.druid.sql.http;
 import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.core.io.SerializedString;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import org.apache.druid.java.util.common.jackson.JacksonUtils;
 
 import javax.annotation.Nullable;
 import java.io.IOException;
@@ -31,11 +33,13 @@ import java.util.List;
 public class ObjectLinesWriter implements ResultFormat.Writer
 {
   private final OutputStream outputStream;
+  private final SerializerProvider serializers;
   private final JsonGenerator jsonGenerator;
 
   public ObjectLinesWriter(final OutputStream outputStream, final ObjectMapper jsonMapper) throws IOException
   {
     this.outputStream = outputStream;
+    this.serializers = jsonMapper.getSerializerProviderInstance();
     this.jsonGenerator = jsonMapper.writer().getFactory().createGenerator(outputStream);
     jsonGenerator.setRootValueSeparator(new SerializedString("\n"));
   }
@@ -78,7 +82,7 @@ public class ObjectLinesWriter implements ResultFormat.Writer
   public void writeRowField(final String name, @Nullable final Object value) throws IOException
   {
     jsonGenerator.writeFieldName(name);
-    jsonGenerator.writeObject(value);
+    JacksonUtils.writeObjectUsingSerializerProvider(jsonGenerator, serializers, value);
   }
 
   @Override
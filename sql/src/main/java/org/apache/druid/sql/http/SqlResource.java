@@ -41,6 +41,7 @@ import org.apache.druid.sql.SqlLifecycleFactory;
 import org.apache.druid.sql.calcite.planner.Calcites;
 import org.apache.druid.sql.calcite.planner.PlannerContext;
 import org.joda.time.DateTimeZone;
+import org.joda.time.format.DateTimeFormatter;
 import org.joda.time.format.ISODateTimeFormat;
 
 import javax.servlet.http.HttpServletRequest;
@@ -95,6 +96,10 @@ public class SqlResource
       final PlannerContext plannerContext = lifecycle.planAndAuthorize(req);
       final DateTimeZone timeZone = plannerContext.getTimeZone();
 
+      // Formatting millis with a zoned formatter, rather than formatting DateTimes, avoids creating a DateTime for
+      // each time-typed value.
+      final DateTimeFormatter timeFormatter = ISODateTimeFormat.dateTime().withZone(timeZone);
+
       // Remember which columns are time-typed, so we can emit ISO8601 instead of millis values.
       // Also store list of all column names, for X-Druid-Sql-Columns header.
       final List<RelDataTypeField> fieldList = lifecycle.rowType().getFieldList();
@@ -134,13 +139,9 @@ public class SqlResource
                         final Object value;
 
                         if (timeColumns[i]) {
-                          value = ISODateTimeFormat.dateTime().print(
-                              Calcites.calciteTimestampToJoda((long) row[i], timeZone)
-                          );
+                          value = timeFormatter.print(Calcites.calciteTimestampToJodaMillis((long) row[i], timeZone));
                         } else if (dateColumns[i]) {
-                          value = ISODateTimeFormat.dateTime().print(
-                              Calcites.calciteDateToJoda((int) row[i], timeZone)
-                          );
+                          value = timeFormatter.print(Calcites.calciteDateToJodaMillis((int) row[i], timeZone));
                         } else {
                           value = row[i];
                         }
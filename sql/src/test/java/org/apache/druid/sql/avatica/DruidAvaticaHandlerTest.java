@@ -30,6 +30,7 @@ import com.google.common.util.concurrent.MoreExecutors;
 import com.google.inject.Binder;
 import com.google.inject.Injector;
 import com.google.inject.Module;
+import com.google.inject.multibindings.Multibinder;
 import com.google.inject.name.Names;
 import org.apache.calcite.avatica.AvaticaClientRuntimeException;
 import org.apache.calcite.avatica.Meta;
@@ -61,6 +62,7 @@ import org.apache.druid.sql.calcite.planner.Calcites;
 import org.apache.druid.sql.calcite.planner.DruidOperatorTable;
 import org.apache.druid.sql.calcite.planner.PlannerConfig;
 import org.apache.druid.sql.calcite.planner.PlannerFactory;
+import org.apache.druid.sql.calcite.rel.NativeQueryRewriter;
 import org.apache.druid.sql.calcite.schema.DruidSchemaName;
 import org.apache.druid.sql.calcite.util.CalciteTestBase;
 import org.apache.druid.sql.calcite.util.CalciteTests;
@@ -194,6 +196,7 @@ public class DruidAvaticaHandlerTest extends CalciteTestBase
                       .toInstance(CalciteTests.DRUID_SCHEMA_NAME);
                 binder.bind(AvaticaServerConfig.class).toInstance(AVATICA_CONFIG);
                 binder.bind(ServiceEmitter.class).to(NoopServiceEmitter.class);
+                Multibinder.newSetBinder(binder, NativeQueryRewriter.class);
               }
             }
         )
@@ -20,6 +20,7 @@
 package org.apache.druid.sql.avatica;
 
 import com.google.common.base.Function;
+import com.google.common.collect.Iterables;
 import com.google.common.collect.Lists;
 import org.apache.calcite.avatica.ColumnMetaData;
 import org.apache.calcite.avatica.Meta;
@@ -27,6 +28,9 @@ import org.apache.calcite.schema.SchemaPlus;
 import org.apache.druid.common.config.NullHandling;
 import org.apache.druid.java.util.common.DateTimes;
 import org.apache.druid.java.util.common.io.Closer;
+import org.apache.druid.java.util.emitter.core.Event;
+import org.apache.druid.java.util.emitter.service.ServiceMetricEvent;
+import org.apache.druid.java.util.metrics.StubServiceEmitter;
 import org.apache.druid.math.expr.ExprMacroTable;
 import org.apache.druid.query.QueryRunnerFactoryConglomerate;
 import org.apache.druid.server.QueryStackTests;
@@ -50,8 +54,10 @@ import org.junit.Test;
 import org.junit.rules.TemporaryFolder;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class DruidStatementTest extends CalciteTestBase
 {
@@ -228,4 +234,102 @@ public class DruidStatementTest extends CalciteTestBase
     );
     Assert.assertTrue(statement.isDone());
   }
+
+  @Test
+  public void testSelectSplitOverThreeFramesWithPrefetch()
+  {
+    final String sql = "SELECT __time, cnt, dim1, dim2, m1 FROM druid.foo";
+    final AvaticaMonitor monitor = new AvaticaMonitor();
+    final DruidStatement statement = new DruidStatement(
+        "",
+        0,
+        null,
+        sqlLifecycleFactory.factorize(),
+        () -> {},
+        true,
+        monitor
+    ).prepare(sql, -1, AllowAllAuthenticator.ALLOW_ALL_RESULT);
+
+    final List<Object> rows = new ArrayList<>();
+
+    // First frame is read by the client; each frame after that comes from a prefetch.
+    Meta.Frame frame = statement.execute(Collections.emptyList()).nextFrame(DruidStatement.START_OFFSET, 2);
+    Assert.assertFalse(frame.done);
+    Assert.assertEquals(0, frame.offset);
+    Iterables.addAll(rows, frame.rows);
+
+    frame = statement.nextFrame(2, 2);
+    Assert.assertFalse(frame.done);
+    Assert.assertEquals(2, frame.offset);
+    Iterables.addAll(rows, frame.rows);
+
+    frame = statement.nextFrame(4, 2);
+    Assert.assertTrue(frame.done);
+    Assert.assertEquals(4, frame.offset);
+    Iterables.addAll(rows, frame.rows);
+    Assert.assertTrue(statement.isDone());
+
+    Assert.assertEquals(
+        Meta.Frame.create(
+            0,
+            true,
+            Lists.newArrayList(
+                new Object[]{DateTimes.of("2000-01-01").getMillis(), 1L, "", "a", 1.0f},
+                new Object[]{
+                    DateTimes.of("2000-01-02").getMillis(),
+                    1L,
+                    "10.1",
+                    NullHandling.defaultStringValue(),
+                    2.0f
+                },
+                new Object[]{DateTimes.of("2000-01-03").getMillis(), 1L, "2", "", 3.0f},
+                new Object[]{DateTimes.of("2001-01-01").getMillis(), 1L, "1", "a", 4.0f},
+                new Object[]{DateTimes.of("2001-01-02").getMillis(), 1L, "def", "abc", 5.0f},
+                new Object[]{DateTimes.of("2001-01-03").getMillis(), 1L, "abc", NullHandling.defaultStringValue(), 6.0f}
+            )
+        ),
+        Meta.Frame.create(0, true, rows)
+    );
+
+    // Each of the last two frames was either a prefetch hit or a miss, depending on timing.
+    final StubServiceEmitter emitter = new StubServiceEmitter("service", "host");
+    monitor.doMonitor(emitter);
+    long prefetchedFrames = 0;
+    for (Event event : emitter.getEvents()) {
+      final ServiceMetricEvent metricEvent = (ServiceMetricEvent) event;
+      if ("avatica/jdbc/frame/prefetchHits".equals(metricEvent.getMetric())
+          || "avatica/jdbc/frame/prefetchMisses".equals(metricEvent.getMetric())) {
+        prefetchedFrames += metricEvent.getValue().longValue();
+      }
+    }
+    Assert.assertEquals(2, prefetchedFrames);
+  }
+
+  @Test
+  public void testCloseWithPrefetchInProgress()
+  {
+    final String sql = "SELECT __time, cnt, dim1, dim2, m1 FROM druid.foo";
+    final AtomicInteger closes = new AtomicInteger();
+    final DruidStatement statement = new DruidStatement(
+        "",
+        0,
+        null,
+        sqlLifecycleFactory.factorize(),
+        closes::incrementAndGet,
+        true,
+        new AvaticaMonitor()
+    ).prepare(sql, -1, AllowAllAuthenticator.ALLOW_ALL_RESULT);
+
+    // Returning the first frame starts a prefetch of the second. Closing must not wait for it.
+    final Meta.Frame frame = statement.execute(Collections.emptyList()).nextFrame(DruidStatement.START_OFFSET, 2);
+    Assert.assertFalse(frame.done);
+
+    statement.close();
+    Assert.assertTrue(statement.isDone());
+    Assert.assertEquals(1, closes.get());
+
+    // Closing again is a no-op.
+    statement.close();
+    Assert.assertEquals(1, closes.get());
+  }
 }
@@ -341,9 +341,6 @@ public class CalciteQueryTest extends BaseCalciteQueryTest
   @Test
   public void testJoinOuterGroupByAndSubqueryNoLimit() throws Exception
   {
-    // Cannot vectorize JOIN operator.
-    cannotVectorize();
-
     testQuery(
         "SELECT dim2, AVG(m2) FROM (SELECT * FROM foo AS t1 INNER JOIN foo AS t2 ON t1.m1 = t2.m1) AS t3 GROUP BY dim2",
         ImmutableList.of(
@@ -7676,9 +7673,6 @@ public class CalciteQueryTest extends BaseCalciteQueryTest
   @Parameters(source = QueryContextForJoinProvider.class)
   public void testTopNFilterJoin(Map<String, Object> queryContext) throws Exception
   {
-    // Cannot vectorize JOIN operator.
-    cannotVectorize();
-
     // Filters on top N values of some dimension by using an inner join.
     testQuery(
         "SELECT t1.dim1, SUM(t1.cnt)\n"
@@ -10269,19 +10263,12 @@ public class CalciteQueryTest extends BaseCalciteQueryTest
                         .setDataSource(
                             join(
                                 join(
+                                    new TableDataSource(CalciteTests.DATASOURCE1),
                                     new LookupDataSource("lookyloo"),
-                                    new QueryDataSource(
-                                        newScanQueryBuilder()
-                                            .dataSource(CalciteTests.DATASOURCE1)
-                                            .intervals(querySegmentSpec(Filtration.eternity()))
-                                            .columns("dim1", "m1")
-                                            .context(QUERY_CONTEXT_DEFAULT)
-                                            .build()
-                                    ),
                                     "j0.",
                                     equalsCondition(
-                                        DruidExpression.fromColumn("k"),
-                                        DruidExpression.fromColumn("j0.dim1")
+                                        DruidExpression.fromColumn("dim1"),
+                                        DruidExpression.fromColumn("j0.k")
                                     ),
                                     JoinType.INNER
                                 ),
@@ -10295,7 +10282,7 @@ public class CalciteQueryTest extends BaseCalciteQueryTest
                                 ),
                                 "_j0.",
                                 equalsCondition(
-                                    DruidExpression.fromColumn("k"),
+                                    DruidExpression.fromColumn("j0.k"),
                                     DruidExpression.fromColumn("_j0.dim1")
                                 ),
                                 JoinType.INNER
@@ -10305,13 +10292,13 @@ public class CalciteQueryTest extends BaseCalciteQueryTest
                         .setGranularity(Granularities.ALL)
                         .setDimensions(
                             dimensions(
-                                new DefaultDimensionSpec("k", "d0"),
-                                new DefaultDimensionSpec("v", "d1")
+                                new DefaultDimensionSpec("j0.k", "d0"),
+                                new DefaultDimensionSpec("j0.v", "d1")
                             )
                         )
                         .setAggregatorSpecs(
                             aggregators(
-                                new DoubleSumAggregatorFactory("a0", "j0.m1"),
+                                new DoubleSumAggregatorFactory("a0", "m1"),
                                 new DoubleSumAggregatorFactory("a1", "_j0.m1")
                             )
                         )
@@ -10349,19 +10336,12 @@ public class CalciteQueryTest extends BaseCalciteQueryTest
                         .setDataSource(
                             join(
                                 join(
+                                    new TableDataSource(CalciteTests.DATASOURCE1),
                                     new LookupDataSource("lookyloo"),
-                                    new QueryDataSource(
-                                        newScanQueryBuilder()
-                                            .dataSource(CalciteTests.DATASOURCE1)
-                                            .intervals(querySegmentSpec(Filtration.eternity()))
-                                            .columns("dim1", "m1")
-                                            .context(QUERY_CONTEXT_DEFAULT)
-                                            .build()
-                                    ),
                                     "j0.",
                                     equalsCondition(
-                                        DruidExpression.fromColumn("k"),
-                                        DruidExpression.fromColumn("j0.dim1")
+                                        DruidExpression.fromColumn("dim1"),
+                                        DruidExpression.fromColumn("j0.k")
                                     ),
                                     JoinType.INNER
                                 ),
@@ -10375,7 +10355,7 @@ public class CalciteQueryTest extends BaseCalciteQueryTest
                                 ),
                                 "_j0.",
                                 equalsCondition(
-                                    DruidExpression.fromColumn("j0.dim1"),
+                                    DruidExpression.fromColumn("dim1"),
                                     DruidExpression.fromColumn("_j0.dim1")
                                 ),
                                 JoinType.INNER
@@ -10385,13 +10365,13 @@ public class CalciteQueryTest extends BaseCalciteQueryTest
                         .setGranularity(Granularities.ALL)
                         .setDimensions(
                             dimensions(
-                                new DefaultDimensionSpec("k", "d0"),
-                                new DefaultDimensionSpec("v", "d1")
+                                new DefaultDimensionSpec("j0.k", "d0"),
+                                new DefaultDimensionSpec("j0.v", "d1")
                             )
                         )
                         .setAggregatorSpecs(
                             aggregators(
-                                new DoubleSumAggregatorFactory("a0", "j0.m1"),
+                                new DoubleSumAggregatorFactory("a0", "m1"),
                                 new DoubleSumAggregatorFactory("a1", "_j0.m1")
                             )
                         )
@@ -12615,9 +12595,6 @@ public class CalciteQueryTest extends BaseCalciteQueryTest
   @Parameters(source = QueryContextForJoinProvider.class)
   public void testUsingSubqueryAsPartOfAndFilter(Map<String, Object> queryContext) throws Exception
   {
-    // Cannot vectorize JOIN operator.
-    cannotVectorize();
-
     testQuery(
         "SELECT dim1, dim2, COUNT(*) FROM druid.foo\n"
         + "WHERE dim2 IN (SELECT dim1 FROM druid.foo WHERE dim1 <> '')\n"
@@ -13168,9 +13145,6 @@ public class CalciteQueryTest extends BaseCalciteQueryTest
   @Parameters(source = QueryContextForJoinProvider.class)
   public void testInAggregationSubquery(Map<String, Object> queryContext) throws Exception
   {
-    // Cannot vectorize JOIN operator.
-    cannotVectorize();
-
     testQuery(
         "SELECT DISTINCT __time FROM druid.foo WHERE __time IN (SELECT MAX(__time) FROM druid.foo)",
         queryContext,
@@ -21,6 +21,7 @@ package org.apache.druid.sql.calcite.planner;
 
 import com.google.common.collect.ImmutableSortedSet;
 import org.apache.druid.sql.calcite.util.CalciteTestBase;
+import org.joda.time.DateTimeZone;
 import org.junit.Assert;
 import org.junit.Test;
 
@@ -52,4 +53,29 @@ public class CalcitesTest extends CalciteTestBase
     Assert.assertEquals("x", Calcites.findUnusedPrefixForDigits("x", ImmutableSortedSet.of("foo", "xa", "_x")));
     Assert.assertEquals("__x", Calcites.findUnusedPrefixForDigits("x", ImmutableSortedSet.of("foo", "x1a", "_x90")));
   }
+
+  @Test
+  public void testCalciteTimeToJodaMillis()
+  {
+    for (DateTimeZone timeZone : new DateTimeZone[]{
+        DateTimeZone.UTC,
+        DateTimeZone.forID("America/Los_Angeles"),
+        DateTimeZone.forID("Asia/Kolkata")
+    }) {
+      // 2000-01-01, plus a time that falls within a DST transition in America/Los_Angeles.
+      for (long timestamp : new long[]{946684800000L, 1520766000000L, -86400000L}) {
+        Assert.assertEquals(
+            Calcites.calciteTimestampToJoda(timestamp, timeZone).getMillis(),
+            Calcites.calciteTimestampToJodaMillis(timestamp, timeZone)
+        );
+      }
+
+      for (int date : new int[]{0, 10957, 17601, -1}) {
+        Assert.assertEquals(
+            Calcites.calciteDateToJoda(date, timeZone).getMillis(),
+            Calcites.calciteDateToJodaMillis(date, timeZone)
+        );
+      }
+    }
+  }
 }
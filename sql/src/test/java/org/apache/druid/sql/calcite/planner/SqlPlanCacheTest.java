@@ -0,0 +1,278 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.apache.druid.sql.calcite.planner;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import org.apache.calcite.avatica.SqlType;
+import org.apache.calcite.schema.SchemaPlus;
+import org.apache.druid.java.util.common.io.Closer;
+import org.apache.druid.query.QueryRunnerFactoryConglomerate;
+import org.apache.druid.server.QueryStackTests;
+import org.apache.druid.server.security.AuthTestUtils;
+import org.apache.druid.sql.SqlLifecycleFactory;
+import org.apache.druid.sql.calcite.util.CalciteTestBase;
+import org.apache.druid.sql.calcite.util.CalciteTests;
+import org.apache.druid.sql.calcite.util.SpecificSegmentsQuerySegmentWalker;
+import org.apache.druid.sql.calcite.view.InProcessViewManager;
+import org.apache.druid.sql.calcite.view.ViewManager;
+import org.apache.druid.sql.http.SqlParameter;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class SqlPlanCacheTest extends CalciteTestBase
+{
+  @Rule
+  public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  private static QueryRunnerFactoryConglomerate conglomerate;
+  private static Closer resourceCloser;
+
+  @BeforeClass
+  public static void setUpClass()
+  {
+    resourceCloser = Closer.create();
+    conglomerate = QueryStackTests.createQueryRunnerFactoryConglomerate(resourceCloser);
+  }
+
+  @AfterClass
+  public static void tearDownClass() throws IOException
+  {
+    resourceCloser.close();
+  }
+
+  private final AtomicLong schemaVersion = new AtomicLong();
+  private SpecificSegmentsQuerySegmentWalker walker;
+  private SqlPlanCache planCache;
+  private SqlLifecycleFactory sqlLifecycleFactory;
+
+  @Before
+  public void setUp() throws Exception
+  {
+    walker = CalciteTests.createMockWalker(conglomerate, temporaryFolder.newFolder());
+    final PlannerConfig plannerConfig = new PlannerConfig();
+    final SchemaPlus rootSchema =
+        CalciteTests.createMockRootSchema(conglomerate, walker, plannerConfig, AuthTestUtils.TEST_AUTHORIZER_MAPPER);
+    planCache = new SqlPlanCache(10, schemaVersion::get);
+    final PlannerFactory plannerFactory = new PlannerFactory(
+        rootSchema,
+        CalciteTests.createMockQueryLifecycleFactory(walker, conglomerate),
+        CalciteTests.createOperatorTable(),
+        CalciteTests.createExprMacroTable(),
+        plannerConfig,
+        AuthTestUtils.TEST_AUTHORIZER_MAPPER,
+        CalciteTests.getJsonMapper(),
+        CalciteTests.DRUID_SCHEMA_NAME,
+        planCache
+    );
+    sqlLifecycleFactory = CalciteTests.createSqlLifecycleFactory(plannerFactory);
+  }
+
+  @After
+  public void tearDown() throws Exception
+  {
+    walker.close();
+    walker = null;
+  }
+
+  @Test
+  public void testSameQueryUsesCachedPlan() throws Exception
+  {
+    final List<Object[]> expected = run("SELECT dim1, COUNT(*) FROM druid.foo GROUP BY dim1 ORDER BY dim1 LIMIT 3");
+    Assert.assertEquals(0, planCache.getStats().hitCount());
+    Assert.assertEquals(1, planCache.size());
+
+    // Whitespace and keyword case are normalized.
+    final List<Object[]> actual = run("select dim1, count(*)\n  from druid.foo group by dim1 order by dim1 limit 3");
+    Assert.assertEquals(1, planCache.getStats().hitCount());
+    Assert.assertEquals(1, planCache.size());
+    assertResultsEquals(expected, actual);
+  }
+
+  @Test
+  public void testReorderedFields() throws Exception
+  {
+    // Output fields are in a different order than in the native query.
+    final String sql = "SELECT COUNT(*), dim1 FROM druid.foo GROUP BY dim1";
+    final List<Object[]> expected = run(sql);
+    final List<Object[]> actual = run(sql);
+    Assert.assertEquals(1, planCache.getStats().hitCount());
+    assertResultsEquals(expected, actual);
+  }
+
+  @Test
+  public void testDifferentLiteralsAndParameters() throws Exception
+  {
+    run("SELECT COUNT(*) FROM druid.foo WHERE dim1 = 'abc'");
+    Assert.assertEquals(1L, run("SELECT COUNT(*) FROM druid.foo WHERE dim1 = 'def'").get(0)[0]);
+    Assert.assertEquals(0, planCache.getStats().hitCount());
+    Assert.assertEquals(2, planCache.size());
+
+    final String sql = "SELECT COUNT(*) FROM druid.foo WHERE dim1 = ?";
+    run(sql, ImmutableList.of(new SqlParameter(SqlType.VARCHAR, "abc")));
+    run(sql, ImmutableList.of(new SqlParameter(SqlType.VARCHAR, "abc")));
+    Assert.assertEquals(1, planCache.getStats().hitCount());
+
+    Assert.assertEquals(
+        1L,
+        run(sql, ImmutableList.of(new SqlParameter(SqlType.VARCHAR, "def"))).get(0)[0]
+    );
+    Assert.assertEquals(1, planCache.getStats().hitCount());
+  }
+
+  @Test
+  public void testDifferentContext() throws Exception
+  {
+    final String sql = "SELECT COUNT(DISTINCT dim2) FROM druid.foo";
+    run(sql, ImmutableMap.of("useApproximateCountDistinct", false), Collections.emptyList());
+    run(sql, ImmutableMap.of("useApproximateCountDistinct", true), Collections.emptyList());
+    Assert.assertEquals(0, planCache.getStats().hitCount());
+
+    // sqlQueryId is not part of the key.
+    run(sql, ImmutableMap.of("useApproximateCountDistinct", true, "sqlQueryId", "xyz"), Collections.emptyList());
+    Assert.assertEquals(1, planCache.getStats().hitCount());
+  }
+
+  @Test
+  public void testCurrentTimeNotCached() throws Exception
+  {
+    run("SELECT COUNT(*) FROM druid.foo WHERE __time < CURRENT_TIMESTAMP");
+    Assert.assertEquals(0, planCache.size());
+
+    // Unless the current time is set in the context.
+    final Map<String, Object> context = ImmutableMap.of(PlannerContext.CTX_SQL_CURRENT_TIMESTAMP, "2000-01-02");
+    run("SELECT COUNT(*) FROM druid.foo WHERE __time < CURRENT_TIMESTAMP", context, Collections.emptyList());
+    Assert.assertEquals(1, planCache.size());
+  }
+
+  @Test
+  public void testNotCached() throws Exception
+  {
+    run("EXPLAIN PLAN FOR SELECT COUNT(*) FROM druid.foo");
+    run("SELECT COUNT(*) FROM druid.foo UNION ALL SELECT COUNT(*) FROM druid.foo");
+    run("SELECT COUNT(*) FROM INFORMATION_SCHEMA.COLUMNS");
+    Assert.assertEquals(0, planCache.size());
+  }
+
+  @Test
+  public void testSchemaChangeClearsCache() throws Exception
+  {
+    final String sql = "SELECT COUNT(*) FROM druid.foo";
+    run(sql);
+    Assert.assertEquals(1, planCache.size());
+
+    schemaVersion.incrementAndGet();
+    run(sql);
+    Assert.assertEquals(0, planCache.getStats().hitCount());
+    Assert.assertEquals(1, planCache.size());
+
+    run(sql);
+    Assert.assertEquals(1, planCache.getStats().hitCount());
+  }
+
+  @Test
+  public void testViewRedefinitionClearsCache() throws Exception
+  {
+    final PlannerConfig plannerConfig = new PlannerConfig();
+    final ViewManager viewManager =
+        new InProcessViewManager(CalciteTests.TEST_AUTHENTICATOR_ESCALATOR, CalciteTests.DRUID_VIEW_MACRO_FACTORY);
+    final SchemaPlus rootSchema = CalciteTests.createMockRootSchema(
+        conglomerate,
+        walker,
+        plannerConfig,
+        viewManager,
+        AuthTestUtils.TEST_AUTHORIZER_MAPPER
+    );
+    planCache = new SqlPlanCache(
+        10,
+        SqlPlanCache.makeSchemaVersionSupplier(rootSchema, CalciteTests.DRUID_SCHEMA_NAME)
+    );
+    final PlannerFactory plannerFactory = new PlannerFactory(
+        rootSchema,
+        CalciteTests.createMockQueryLifecycleFactory(walker, conglomerate),
+        CalciteTests.createOperatorTable(),
+        CalciteTests.createExprMacroTable(),
+        plannerConfig,
+        AuthTestUtils.TEST_AUTHORIZER_MAPPER,
+        CalciteTests.getJsonMapper(),
+        CalciteTests.DRUID_SCHEMA_NAME,
+        planCache
+    );
+    sqlLifecycleFactory = CalciteTests.createSqlLifecycleFactory(plannerFactory);
+
+    final String sql = "SELECT COUNT(*) FROM druid.aview";
+    viewManager.createView(plannerFactory, "aview", "SELECT dim1 FROM druid.foo WHERE dim2 = 'a'");
+    Assert.assertEquals(2L, run(sql).get(0)[0]);
+
+    // Expanding the view plans its own SQL through the same cache, so only compare hit counts.
+    final long hitsBeforeRerun = planCache.getStats().hitCount();
+    Assert.assertEquals(2L, run(sql).get(0)[0]);
+    Assert.assertTrue(planCache.getStats().hitCount() > hitsBeforeRerun);
+
+    // Redefining the view must not reuse the plan made against its old definition.
+    viewManager.dropView("aview");
+    viewManager.createView(plannerFactory, "aview", "SELECT dim1 FROM druid.foo");
+    final long missesBeforeRedefinedRun = planCache.getStats().missCount();
+    Assert.assertEquals(6L, run(sql).get(0)[0]);
+    Assert.assertTrue(planCache.getStats().missCount() > missesBeforeRedefinedRun);
+  }
+
+  private List<Object[]> run(final String sql) throws Exception
+  {
+    return run(sql, Collections.emptyMap(), Collections.emptyList());
+  }
+
+  private List<Object[]> run(final String sql, final List<SqlParameter> parameters) throws Exception
+  {
+    return run(sql, Collections.emptyMap(), parameters);
+  }
+
+  private List<Object[]> run(
+      final String sql,
+      final Map<String, Object> context,
+      final List<SqlParameter> parameters
+  ) throws Exception
+  {
+    return sqlLifecycleFactory.factorize()
+                              .runSimple(sql, context, parameters, CalciteTests.REGULAR_USER_AUTH_RESULT)
+                              .toList();
+  }
+
+  private static void assertResultsEquals(final List<Object[]> expected, final List<Object[]> actual)
+  {
+    Assert.assertEquals(expected.size(), actual.size());
+    for (int i = 0; i < expected.size(); i++) {
+      Assert.assertArrayEquals(expected.get(i), actual.get(i));
+    }
+  }
+}
@@ -43,6 +43,7 @@ import org.apache.druid.query.aggregation.LongSumAggregatorFactory;
 import org.apache.druid.query.aggregation.hyperloglog.HyperUniquesAggregatorFactory;
 import org.apache.druid.segment.IndexBuilder;
 import org.apache.druid.segment.QueryableIndex;
+import org.apache.druid.segment.column.ValueType;
 import org.apache.druid.segment.incremental.IncrementalIndexSchema;
 import org.apache.druid.segment.join.JoinConditionAnalysis;
 import org.apache.druid.segment.join.Joinable;
@@ -336,6 +337,49 @@ public class DruidSchemaTest extends CalciteTestBase
     Assert.assertEquals(SqlTypeName.BIGINT, fields.get(2).getType().getSqlTypeName());
   }
 
+  @Test
+  public void testBuildDruidTableMergesDistinctSignatures()
+  {
+    final Map<SegmentId, AvailableSegmentMetadata> segmentsMetadata = schema.getSegmentMetadataSnapshot();
+    final AvailableSegmentMetadata newestFooMetadata =
+        segmentsMetadata.values()
+                        .stream()
+                        .filter(metadata -> metadata.getSegment().getDataSource().equals("foo"))
+                        .filter(metadata -> metadata.getSegment().getInterval().getStart().getYear() == 2001)
+                        .findFirst()
+                        .orElse(null);
+    Assert.assertNotNull(newestFooMetadata);
+    Assert.assertEquals(2, schema.getDistinctSignatureCount("foo"));
+
+    // Another segment with the same signature as the newest one shares its signature.
+    final DataSegment anotherSegment = DataSegment.builder(newestFooMetadata.getSegment())
+                                                  .interval(Intervals.of("2001/P1Y"))
+                                                  .version("2")
+                                                  .build();
+    schema.setAvailableSegmentMetadata(
+        anotherSegment.getId(),
+        AvailableSegmentMetadata.builder(
+            anotherSegment,
+            0L,
+            ImmutableSet.of(),
+            newestFooMetadata.getRowSignature(),
+            newestFooMetadata.getNumRows()
+        ).build()
+    );
+    Assert.assertEquals(2, schema.getDistinctSignatureCount("foo"));
+    Assert.assertEquals(ValueType.LONG, schema.buildDruidTable("foo").getRowSignature().getColumnType("m1").get());
+
+    // The signature stays around as long as some segment has it.
+    schema.removeSegment(newestFooMetadata.getSegment());
+    Assert.assertEquals(2, schema.getDistinctSignatureCount("foo"));
+    Assert.assertEquals(ValueType.LONG, schema.buildDruidTable("foo").getRowSignature().getColumnType("m1").get());
+
+    // Once it's gone, the type from the older segment takes over.
+    schema.removeSegment(anotherSegment);
+    Assert.assertEquals(1, schema.getDistinctSignatureCount("foo"));
+    Assert.assertEquals(ValueType.DOUBLE, schema.buildDruidTable("foo").getRowSignature().getColumnType("m1").get());
+  }
+
   /**
    * This tests that {@link AvailableSegmentMetadata#getNumRows()} is correct in case
    * of multiple replicas i.e. when {@link DruidSchema#addSegment(DruidServerMetadata, DataSegment)}